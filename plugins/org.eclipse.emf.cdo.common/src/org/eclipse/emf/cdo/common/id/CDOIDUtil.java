@@ -23,11 +23,13 @@ import org.eclipse.emf.cdo.common.revision.CDOIDAndBranch;
 import org.eclipse.emf.cdo.common.revision.CDOIDAndVersion;
 import org.eclipse.emf.cdo.internal.common.bundle.OM;
 import org.eclipse.emf.cdo.internal.common.id.CDOIDExternalImpl;
+import org.eclipse.emf.cdo.internal.common.id.CDOIDMap;
 import org.eclipse.emf.cdo.internal.common.id.CDOIDObjectLongImpl;
 import org.eclipse.emf.cdo.internal.common.id.CDOIDObjectLongWithClassifierImpl;
 import org.eclipse.emf.cdo.internal.common.id.CDOIDObjectStringImpl;
 import org.eclipse.emf.cdo.internal.common.id.CDOIDObjectStringWithClassifierImpl;
 import org.eclipse.emf.cdo.internal.common.id.CDOIDObjectUUIDImpl;
+import org.eclipse.emf.cdo.internal.common.id.CDOIDSet;
 import org.eclipse.emf.cdo.internal.common.id.CDOIDTempObjectExternalImpl;
 import org.eclipse.emf.cdo.internal.common.id.CDOIDTempObjectImpl;
 import org.eclipse.emf.cdo.internal.common.messages.Messages;
@@ -43,8 +45,9 @@ import org.eclipse.net4j.util.om.trace.ContextTracer;
 
 import java.io.IOException;
 import java.text.MessageFormat;
-import java.util.HashMap;
+import java.util.Collection;
 import java.util.Map;
+import java.util.Set;
 
 /**
  * Various static methods that may help with CDO {@link CDOID IDs}.
@@ -61,11 +64,23 @@ public final class CDOIDUtil
   }
 
   /**
+   * Creates a map that stores long IDs in an open-addressing table without an entry object per mapping. Long IDs are
+   * interned, so they are hashed on their long values and compared by identity; all other keys are stored in a nested
+   * hash map. Like {@link java.util.HashMap HashMap} the map is not thread-safe, but its lookups don't modify it.
+   *
    * @since 4.2
    */
   public static <V> Map<CDOID, V> createMap()
   {
-    return new HashMap<CDOID, V>();
+    return new CDOIDMap<V>();
+  }
+
+  /**
+   * @since 4.6
+   */
+  public static <V> Map<CDOID, V> createMap(int expectedSize)
+  {
+    return new CDOIDMap<V>(expectedSize);
   }
 
   /**
@@ -73,7 +88,35 @@ public final class CDOIDUtil
    */
   public static <V> Map<CDOID, V> createMap(Map<? extends CDOID, ? extends V> map)
   {
-    return new HashMap<CDOID, V>(map);
+    return new CDOIDMap<V>(map);
+  }
+
+  /**
+   * Creates a set that stores long IDs in an open-addressing table without an entry object per element. Long IDs are
+   * interned, so they are hashed on their long values and compared by identity; all other IDs are stored in a nested
+   * hash map. Like {@link java.util.HashSet HashSet} the set is not thread-safe, but its lookups don't modify it.
+   *
+   * @since 4.6
+   */
+  public static Set<CDOID> createSet()
+  {
+    return new CDOIDSet();
+  }
+
+  /**
+   * @since 4.6
+   */
+  public static Set<CDOID> createSet(int expectedSize)
+  {
+    return new CDOIDSet(expectedSize);
+  }
+
+  /**
+   * @since 4.6
+   */
+  public static Set<CDOID> createSet(Collection<? extends CDOID> ids)
+  {
+    return new CDOIDSet(ids);
   }
 
   /**
@@ -71,6 +71,12 @@ public interface CDOProtocol extends CDOProtocolConstants
 
     private CDOLockChangeInfo lockChangeInfo;
 
+    private int shareCount;
+
+    private boolean shared;
+
+    private byte[] encoding;
+
     public CommitNotificationInfo()
     {
     }
@@ -231,5 +237,68 @@ public interface CDOProtocol extends CDOProtocolConstants
     {
       this.lockChangeInfo = lockChangeInfo;
     }
+
+    /**
+     * Announces that this info is going to be sent to one more session.
+     * Each call must be balanced by a call to {@link #release()} after the info has been sent to that session.
+     *
+     * @since 4.6
+     */
+    public synchronized void retain()
+    {
+      if (++shareCount > 1)
+      {
+        shared = true;
+      }
+    }
+
+    /**
+     * Announces that this info has been sent to one of the sessions that {@link #retain() retained} it.
+     * The {@link #getEncoding() encoding} is discarded when the info has been sent to all of them.
+     *
+     * @since 4.6
+     */
+    public synchronized void release()
+    {
+      if (--shareCount <= 0)
+      {
+        shareCount = 0;
+        encoding = null;
+      }
+    }
+
+    /**
+     * Returns <code>true</code> if this info has been {@link #retain() retained} for more than one session,
+     * <code>false</code> otherwise.
+     *
+     * @since 4.6
+     */
+    public synchronized boolean isShared()
+    {
+      return shared;
+    }
+
+    /**
+     * Returns the data that this info has been {@link #write(CDODataOutput) written} to for the first of the sessions
+     * that share it, or <code>null</code> if it hasn't been written, yet.
+     * The same data can be sent to the other sessions without writing this info again.
+     *
+     * @since 4.6
+     */
+    public synchronized byte[] getEncoding()
+    {
+      return encoding;
+    }
+
+    /**
+     * @since 4.6
+     */
+    public synchronized void setEncoding(byte[] encoding)
+    {
+      if (shareCount > 0)
+      {
+        this.encoding = encoding;
+      }
+    }
   }
 }
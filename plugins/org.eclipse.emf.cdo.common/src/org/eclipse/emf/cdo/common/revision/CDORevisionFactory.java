@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2008, 2009, 2011, 2012, 2015 Eike Stepper (Berlin, Germany) and others.
+ * Copyright (c) 2008, 2009, 2011, 2012, 2015, 2016 Eike Stepper (Berlin, Germany) and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -31,6 +31,21 @@ public interface CDORevisionFactory
     }
   };
 
+  /**
+   * Creates revisions that store the values of single-valued <code>int</code>, <code>long</code>, <code>short</code>,
+   * <code>char</code>, <code>float</code> and <code>double</code> attributes unboxed in a <code>long</code> array, which
+   * considerably reduces the heap footprint of revisions of number-heavy models.
+   *
+   * @since 4.6
+   */
+  public static final CDORevisionFactory PRIMITIVE = new CDORevisionFactory()
+  {
+    public CDORevision createRevision(EClass eClass)
+    {
+      return new org.eclipse.emf.cdo.internal.common.revision.CDOPrimitiveRevisionImpl(eClass);
+    }
+  };
+
   /**
    * @since 3.0
    */
@@ -30,7 +30,9 @@ import org.eclipse.emf.cdo.internal.common.messages.Messages;
 import org.eclipse.emf.cdo.internal.common.revision.CDOFeatureMapEntryImpl;
 import org.eclipse.emf.cdo.internal.common.revision.CDORevisableImpl;
 import org.eclipse.emf.cdo.internal.common.revision.CDORevisionCacheAuditing;
+import org.eclipse.emf.cdo.internal.common.revision.CDORevisionCacheBounded;
 import org.eclipse.emf.cdo.internal.common.revision.CDORevisionCacheBranching;
+import org.eclipse.emf.cdo.internal.common.revision.CDORevisionCacheConcurrent;
 import org.eclipse.emf.cdo.internal.common.revision.CDORevisionCacheNonAuditing;
 import org.eclipse.emf.cdo.internal.common.revision.CDORevisionImpl;
 import org.eclipse.emf.cdo.internal.common.revision.CDORevisionKeyImpl;
@@ -80,6 +82,29 @@ public final class CDORevisionUtil
    */
   public static CDORevisionCache createRevisionCache(boolean supportingAudits, boolean supportingBranches)
   {
+    if (supportingAudits
+        && (CDORevisionCacheBounded.DEFAULT_MAXIMUM_SIZE > 0 || CDORevisionCacheBounded.DEFAULT_MAXIMUM_BYTES > 0))
+    {
+      return new CDORevisionCacheBounded(supportingBranches);
+    }
+
+    return createRevisionCache(supportingAudits, supportingBranches, CDORevisionCacheConcurrent.DEFAULT);
+  }
+
+  /**
+   * Creates and returns a new memory sensitive revision cache. If <code>concurrent</code> is <code>true</code> and audits
+   * are supported the returned cache serves lookups without locking.
+   *
+   * @since 4.6
+   */
+  public static CDORevisionCache createRevisionCache(boolean supportingAudits, boolean supportingBranches,
+      boolean concurrent)
+  {
+    if (concurrent && supportingAudits)
+    {
+      return new CDORevisionCacheConcurrent(supportingBranches);
+    }
+
     if (supportingBranches)
     {
       return new CDORevisionCacheBranching();
@@ -93,6 +118,30 @@ public final class CDORevisionUtil
     return new CDORevisionCacheNonAuditing();
   }
 
+  /**
+   * Creates and returns a new revision cache for auditing repositories that strongly holds either at most
+   * <code>maximumSize</code> revisions or revisions of at most <code>maximumBytes</code> estimated bytes, whichever
+   * bound is positive. Revisions are evicted with a frequency-based admission policy (W-TinyLFU), so that a burst of
+   * one-time lookups doesn't flush the frequently used revisions.
+   *
+   * @since 4.6
+   */
+  public static CDORevisionCache createBoundedRevisionCache(boolean supportingBranches, int maximumSize,
+      long maximumBytes)
+  {
+    CDORevisionCacheBounded cache = new CDORevisionCacheBounded(supportingBranches);
+    if (maximumBytes > 0)
+    {
+      cache.setMaximumBytes(maximumBytes);
+    }
+    else
+    {
+      cache.setMaximumSize(maximumSize);
+    }
+
+    return cache;
+  }
+
   /**
    * @since 4.0
    */
@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2010-2012, 2015 Eike Stepper (Berlin, Germany) and others.
+ * Copyright (c) 2010-2012, 2015, 2016 Eike Stepper (Berlin, Germany) and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -14,6 +14,7 @@ package org.eclipse.emf.cdo.common.util;
 import org.eclipse.emf.cdo.common.model.CDOPackageRegistry;
 import org.eclipse.emf.cdo.common.protocol.CDODataInput;
 import org.eclipse.emf.cdo.common.protocol.CDODataOutput;
+import org.eclipse.emf.cdo.common.revision.CDORevision;
 
 import org.eclipse.emf.ecore.EClass;
 import org.eclipse.emf.ecore.EStructuralFeature;
@@ -24,21 +25,47 @@ import java.util.List;
 
 /**
  * Represents a subset of the {@link EStructuralFeature features} of a {@link EClass class}.
+ * <p>
+ * When the server loads a revision of the rule's class it also loads the revisions that are referenced through these
+ * features, and the revisions that are referenced from those through the rules of their classes. A rule with a
+ * {@link #getDepth() depth} is applied to that many levels of revisions of its class, a rule without a depth is applied
+ * only once on each path.
  *
  * @author Simon McDuff
  * @since 3.0
  */
 public final class CDOFetchRule
 {
+  /**
+   * The {@link #getDepth() depth} of a rule that is applied only once on each path, i.e., that loads the revisions that
+   * are referenced from a revision of its class, but not the revisions that are referenced from those through the same
+   * rule. It is <b>not</b> an unlimited depth, unlike {@link CDORevision#DEPTH_INFINITE} for prefetching, which has the
+   * same value.
+   *
+   * @since 4.6
+   */
+  public static final int DEPTH_ONCE_PER_PATH = CDORevision.DEPTH_INFINITE;
+
   private EClass eClass;
 
   private List<EStructuralFeature> features = new ArrayList<EStructuralFeature>(0);
 
+  private int depth = DEPTH_ONCE_PER_PATH;
+
   public CDOFetchRule(EClass eClass)
   {
     this.eClass = eClass;
   }
 
+  /**
+   * @since 4.6
+   */
+  public CDOFetchRule(EClass eClass, int depth)
+  {
+    this.eClass = eClass;
+    this.depth = depth;
+  }
+
   public CDOFetchRule(CDODataInput in, CDOPackageRegistry packageManager) throws IOException
   {
     eClass = (EClass)in.readCDOClassifierRefAndResolve();
@@ -49,6 +76,8 @@ public final class CDOFetchRule
       EStructuralFeature feature = eClass.getEStructuralFeature(featureID);
       features.add(feature);
     }
+
+    depth = in.readXInt();
   }
 
   public void write(CDODataOutput out) throws IOException
@@ -59,6 +88,8 @@ public final class CDOFetchRule
     {
       out.writeXInt(feature.getFeatureID());
     }
+
+    out.writeXInt(depth);
   }
 
   public EClass getEClass()
@@ -66,6 +97,25 @@ public final class CDOFetchRule
     return eClass;
   }
 
+  /**
+   * Returns the number of reference levels that are followed from a revision of this rule's class, or
+   * {@link #DEPTH_ONCE_PER_PATH} if this rule is applied only once on each path, as by default.
+   *
+   * @since 4.6
+   */
+  public int getDepth()
+  {
+    return depth;
+  }
+
+  /**
+   * @since 4.6
+   */
+  public void setDepth(int depth)
+  {
+    this.depth = depth;
+  }
+
   public List<EStructuralFeature> getFeatures()
   {
     return features;
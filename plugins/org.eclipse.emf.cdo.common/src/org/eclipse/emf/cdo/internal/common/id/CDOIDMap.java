@@ -0,0 +1,702 @@
+/*
+ * Copyright (c) 2016 Eike Stepper (Berlin, Germany) and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    Eike Stepper - initial API and implementation
+ */
+package org.eclipse.emf.cdo.internal.common.id;
+
+import org.eclipse.emf.cdo.common.id.CDOID;
+
+import org.eclipse.net4j.util.ObjectUtil;
+
+import java.io.Serializable;
+import java.util.AbstractCollection;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.ConcurrentModificationException;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * A {@link Map} with {@link CDOID} keys that stores the keys of type {@link CDOIDObjectLongImpl} in an open-addressing
+ * table, without an entry object per mapping. The table is hashed on the raw <code>long</code> values of the keys and,
+ * because long IDs are interned, compares them by identity, so that neither {@link Object#hashCode()} nor
+ * {@link Object#equals(Object)} is called. Keys and values are interleaved in one array, so that a lookup usually touches
+ * a single cache line. All other keys, including <code>null</code>, are stored in a {@link HashMap} that is created on
+ * demand.
+ * <p>
+ * The table uses linear probing. Removed slots are marked rather than cleared, so that removals never move other
+ * mappings and iterators stay stable; the marked slots are reclaimed on the next rehash. Like {@link HashMap} this map is
+ * not thread-safe and its iterators are fail-fast. Lookups never modify the map, so concurrent lookups are safe as long
+ * as no thread modifies the map at the same time.
+ *
+ * @author Eike Stepper
+ * @since 4.6
+ */
+public final class CDOIDMap<V> extends AbstractMap<CDOID, V> implements Serializable
+{
+  private static final long serialVersionUID = 1L;
+
+  private static final int MIN_CAPACITY = 16;
+
+  /**
+   * Marks the key of a slot from which a mapping has been removed.
+   */
+  private static final Object REMOVED = new Removed();
+
+  /**
+   * Holds the key of slot <code>i</code> at index <code>2 * i</code> and its value at index <code>2 * i + 1</code>.
+   */
+  private Object[] table;
+
+  private int size;
+
+  /**
+   * The number of slots that are not free, i.e., the {@link #size} plus the number of {@link #REMOVED} slots.
+   */
+  private int used;
+
+  private int threshold;
+
+  private Map<CDOID, V> others;
+
+  private transient int modCount;
+
+  private transient Set<Map.Entry<CDOID, V>> entrySet;
+
+  private transient Set<CDOID> keySet;
+
+  private transient Collection<V> valueCollection;
+
+  public CDOIDMap()
+  {
+    this(MIN_CAPACITY);
+  }
+
+  /**
+   * Creates a map that can hold the given number of long keys without rehashing.
+   */
+  public CDOIDMap(int expectedSize)
+  {
+    allocate(getCapacity(expectedSize));
+  }
+
+  public CDOIDMap(Map<? extends CDOID, ? extends V> map)
+  {
+    this(map.size());
+    putAll(map);
+  }
+
+  @Override
+  public int size()
+  {
+    return others == null ? size : size + others.size();
+  }
+
+  @Override
+  public boolean isEmpty()
+  {
+    return size() == 0;
+  }
+
+  @Override
+  public boolean containsKey(Object key)
+  {
+    if (key instanceof CDOIDObjectLongImpl)
+    {
+      return indexOf((CDOIDObjectLongImpl)key) >= 0;
+    }
+
+    return others != null && others.containsKey(key);
+  }
+
+  @Override
+  public boolean containsValue(Object value)
+  {
+    for (int i = 0; i < table.length; i += 2)
+    {
+      if (isKey(table[i]) && ObjectUtil.equals(table[i + 1], value))
+      {
+        return true;
+      }
+    }
+
+    return others != null && others.containsValue(value);
+  }
+
+  @Override
+  @SuppressWarnings("unchecked")
+  public V get(Object key)
+  {
+    if (key instanceof CDOIDObjectLongImpl)
+    {
+      int index = indexOf((CDOIDObjectLongImpl)key);
+      return index >= 0 ? (V)table[index + 1] : null;
+    }
+
+    return others == null ? null : others.get(key);
+  }
+
+  @Override
+  @SuppressWarnings("unchecked")
+  public V put(CDOID key, V value)
+  {
+    if (!(key instanceof CDOIDObjectLongImpl))
+    {
+      if (others == null)
+      {
+        others = new HashMap<CDOID, V>();
+      }
+
+      return others.put(key, value);
+    }
+
+    Object[] table = this.table;
+    int mask = table.length - 1;
+    int index = hash(((CDOIDObjectLongImpl)key).getLongValue()) & mask;
+    int free = -1;
+
+    for (;;)
+    {
+      Object k = table[index];
+      if (k == key)
+      {
+        V oldValue = (V)table[index + 1];
+        table[index + 1] = value;
+        return oldValue;
+      }
+
+      if (k == null)
+      {
+        break;
+      }
+
+      if (k == REMOVED && free == -1)
+      {
+        free = index;
+      }
+
+      index = index + 2 & mask;
+    }
+
+    if (free == -1)
+    {
+      free = index;
+      ++used;
+    }
+
+    table[free] = key;
+    table[free + 1] = value;
+    ++size;
+    ++modCount;
+
+    if (used > threshold)
+    {
+      rehash(getCapacity(size));
+    }
+
+    return null;
+  }
+
+  @Override
+  @SuppressWarnings("unchecked")
+  public V remove(Object key)
+  {
+    if (key instanceof CDOIDObjectLongImpl)
+    {
+      int index = indexOf((CDOIDObjectLongImpl)key);
+      if (index < 0)
+      {
+        return null;
+      }
+
+      V oldValue = (V)table[index + 1];
+      removeAt(index);
+      return oldValue;
+    }
+
+    return others == null ? null : others.remove(key);
+  }
+
+  @Override
+  public void clear()
+  {
+    if (used != 0)
+    {
+      Arrays.fill(table, null);
+      size = 0;
+      used = 0;
+    }
+
+    others = null;
+    ++modCount;
+  }
+
+  @Override
+  public Set<Map.Entry<CDOID, V>> entrySet()
+  {
+    if (entrySet == null)
+    {
+      entrySet = new EntrySet();
+    }
+
+    return entrySet;
+  }
+
+  @Override
+  public Set<CDOID> keySet()
+  {
+    if (keySet == null)
+    {
+      keySet = new KeySet();
+    }
+
+    return keySet;
+  }
+
+  @Override
+  public Collection<V> values()
+  {
+    if (valueCollection == null)
+    {
+      valueCollection = new Values();
+    }
+
+    return valueCollection;
+  }
+
+  private void removeAt(int index)
+  {
+    table[index] = REMOVED;
+    table[index + 1] = null;
+    --size;
+    ++modCount;
+  }
+
+  /**
+   * Returns the index of the key in the {@link #table}, or <code>-1</code> if the key is not contained.
+   */
+  private int indexOf(CDOIDObjectLongImpl key)
+  {
+    Object[] table = this.table;
+    int mask = table.length - 1;
+    int index = hash(key.getLongValue()) & mask;
+
+    for (;;)
+    {
+      Object k = table[index];
+      if (k == key)
+      {
+        return index;
+      }
+
+      if (k == null)
+      {
+        return -1;
+      }
+
+      index = index + 2 & mask;
+    }
+  }
+
+  private void allocate(int capacity)
+  {
+    table = new Object[2 * capacity];
+    threshold = capacity / 4 * 3;
+    used = 0;
+  }
+
+  private void rehash(int capacity)
+  {
+    Object[] oldTable = table;
+    allocate(capacity);
+
+    Object[] table = this.table;
+    int mask = table.length - 1;
+
+    for (int i = 0; i < oldTable.length; i += 2)
+    {
+      Object key = oldTable[i];
+      if (isKey(key))
+      {
+        int index = hash(((CDOIDObjectLongImpl)key).getLongValue()) & mask;
+        while (table[index] != null)
+        {
+          index = index + 2 & mask;
+        }
+
+        table[index] = key;
+        table[index + 1] = oldTable[i + 1];
+      }
+    }
+
+    used = size;
+  }
+
+  /**
+   * Returns the smallest power of two that holds the given number of keys at a load factor of at most one half, so that
+   * the table can grow by half before it must be rehashed.
+   */
+  private static int getCapacity(int size)
+  {
+    int capacity = MIN_CAPACITY;
+    while (capacity < size * 2)
+    {
+      capacity <<= 1;
+    }
+
+    return capacity;
+  }
+
+  /**
+   * Returns the even index of a slot in the {@link #table}. Consecutive values, as long IDs are usually allocated, stay
+   * together in groups of eight slots that share cache lines, while the groups are spread over the table.
+   */
+  private static int hash(long value)
+  {
+    long h = (value >>> 3) * 0x9E3779B97F4A7C15L;
+    return (int)(h ^ h >>> 32) << 4 | ((int)value & 7) << 1;
+  }
+
+  private static boolean isKey(Object key)
+  {
+    return key != null && key != REMOVED;
+  }
+
+  /**
+   * @author Eike Stepper
+   */
+  private static final class Removed implements Serializable
+  {
+    private static final long serialVersionUID = 1L;
+
+    private Object readResolve()
+    {
+      return REMOVED;
+    }
+  }
+
+  /**
+   * Iterates over the long keys in table order and then over the other keys.
+   *
+   * @author Eike Stepper
+   */
+  private abstract class TableIterator<T> implements Iterator<T>
+  {
+    private int expectedModCount = modCount;
+
+    private int next = -2;
+
+    private int current = -1;
+
+    private Iterator<Map.Entry<CDOID, V>> othersIterator;
+
+    private boolean inOthers;
+
+    public TableIterator()
+    {
+      advance();
+    }
+
+    public boolean hasNext()
+    {
+      if (next < table.length)
+      {
+        return true;
+      }
+
+      if (othersIterator == null && others != null)
+      {
+        othersIterator = others.entrySet().iterator();
+      }
+
+      return othersIterator != null && othersIterator.hasNext();
+    }
+
+    public T next()
+    {
+      checkModCount();
+
+      if (next < table.length)
+      {
+        current = next;
+        advance();
+        return get(current);
+      }
+
+      if (hasNext())
+      {
+        inOthers = true;
+        return get(othersIterator.next());
+      }
+
+      throw new NoSuchElementException();
+    }
+
+    public void remove()
+    {
+      checkModCount();
+
+      if (inOthers)
+      {
+        othersIterator.remove();
+        inOthers = false;
+        return;
+      }
+
+      if (current == -1)
+      {
+        throw new IllegalStateException();
+      }
+
+      removeAt(current);
+      current = -1;
+      expectedModCount = modCount;
+    }
+
+    protected abstract T get(int index);
+
+    protected abstract T get(Map.Entry<CDOID, V> entry);
+
+    private void advance()
+    {
+      do
+      {
+        next += 2;
+      } while (next < table.length && !isKey(table[next]));
+    }
+
+    private void checkModCount()
+    {
+      if (modCount != expectedModCount)
+      {
+        throw new ConcurrentModificationException();
+      }
+    }
+  }
+
+  /**
+   * An entry of a long key. The entry remembers its slot, but looks the key up again if a rehash has moved it, so that
+   * it stays valid as long as the key is mapped.
+   *
+   * @author Eike Stepper
+   */
+  private final class TableEntry implements Map.Entry<CDOID, V>
+  {
+    private final CDOIDObjectLongImpl key;
+
+    private int index;
+
+    public TableEntry(int index)
+    {
+      key = (CDOIDObjectLongImpl)table[index];
+      this.index = index;
+    }
+
+    public CDOID getKey()
+    {
+      return key;
+    }
+
+    @SuppressWarnings("unchecked")
+    public V getValue()
+    {
+      int index = getIndex();
+      return index >= 0 ? (V)table[index + 1] : null;
+    }
+
+    @SuppressWarnings("unchecked")
+    public V setValue(V value)
+    {
+      int index = getIndex();
+      if (index < 0)
+      {
+        throw new IllegalStateException("Mapping has been removed: " + key); //$NON-NLS-1$
+      }
+
+      V oldValue = (V)table[index + 1];
+      table[index + 1] = value;
+      return oldValue;
+    }
+
+    private int getIndex()
+    {
+      if (index < 0 || index >= table.length || table[index] != key)
+      {
+        index = indexOf(key);
+      }
+
+      return index;
+    }
+
+    @Override
+    public boolean equals(Object obj)
+    {
+      if (obj instanceof Map.Entry<?, ?>)
+      {
+        Map.Entry<?, ?> that = (Map.Entry<?, ?>)obj;
+        return ObjectUtil.equals(getKey(), that.getKey()) && ObjectUtil.equals(getValue(), that.getValue());
+      }
+
+      return false;
+    }
+
+    @Override
+    public int hashCode()
+    {
+      return getKey().hashCode() ^ ObjectUtil.hashCode(getValue());
+    }
+
+    @Override
+    public String toString()
+    {
+      return getKey() + "=" + getValue(); //$NON-NLS-1$
+    }
+  }
+
+  /**
+   * @author Eike Stepper
+   */
+  private final class EntrySet extends AbstractSet<Map.Entry<CDOID, V>>
+  {
+    @Override
+    public int size()
+    {
+      return CDOIDMap.this.size();
+    }
+
+    @Override
+    public void clear()
+    {
+      CDOIDMap.this.clear();
+    }
+
+    @Override
+    public Iterator<Map.Entry<CDOID, V>> iterator()
+    {
+      return new TableIterator<Map.Entry<CDOID, V>>()
+      {
+        @Override
+        protected Map.Entry<CDOID, V> get(int index)
+        {
+          return new TableEntry(index);
+        }
+
+        @Override
+        protected Map.Entry<CDOID, V> get(Map.Entry<CDOID, V> entry)
+        {
+          return entry;
+        }
+      };
+    }
+  }
+
+  /**
+   * @author Eike Stepper
+   */
+  private final class KeySet extends AbstractSet<CDOID>
+  {
+    @Override
+    public int size()
+    {
+      return CDOIDMap.this.size();
+    }
+
+    @Override
+    public boolean contains(Object o)
+    {
+      return containsKey(o);
+    }
+
+    @Override
+    public boolean remove(Object o)
+    {
+      if (containsKey(o))
+      {
+        CDOIDMap.this.remove(o);
+        return true;
+      }
+
+      return false;
+    }
+
+    @Override
+    public void clear()
+    {
+      CDOIDMap.this.clear();
+    }
+
+    @Override
+    public Iterator<CDOID> iterator()
+    {
+      return new TableIterator<CDOID>()
+      {
+        @Override
+        protected CDOID get(int index)
+        {
+          return (CDOID)table[index];
+        }
+
+        @Override
+        protected CDOID get(Map.Entry<CDOID, V> entry)
+        {
+          return entry.getKey();
+        }
+      };
+    }
+  }
+
+  /**
+   * @author Eike Stepper
+   */
+  private final class Values extends AbstractCollection<V>
+  {
+    @Override
+    public int size()
+    {
+      return CDOIDMap.this.size();
+    }
+
+    @Override
+    public boolean contains(Object o)
+    {
+      return containsValue(o);
+    }
+
+    @Override
+    public void clear()
+    {
+      CDOIDMap.this.clear();
+    }
+
+    @Override
+    public Iterator<V> iterator()
+    {
+      return new TableIterator<V>()
+      {
+        @Override
+        @SuppressWarnings("unchecked")
+        protected V get(int index)
+        {
+          return (V)table[index + 1];
+        }
+
+        @Override
+        protected V get(Map.Entry<CDOID, V> entry)
+        {
+          return entry.getValue();
+        }
+      };
+    }
+  }
+}
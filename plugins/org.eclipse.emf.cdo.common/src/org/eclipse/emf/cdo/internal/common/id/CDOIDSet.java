@@ -0,0 +1,89 @@
+/*
+ * Copyright (c) 2016 Eike Stepper (Berlin, Germany) and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    Eike Stepper - initial API and implementation
+ */
+package org.eclipse.emf.cdo.internal.common.id;
+
+import org.eclipse.emf.cdo.common.id.CDOID;
+
+import java.io.Serializable;
+import java.util.AbstractSet;
+import java.util.Collection;
+import java.util.Iterator;
+
+/**
+ * A {@link java.util.Set Set} of {@link CDOID IDs} that is backed by a {@link CDOIDMap}.
+ *
+ * @author Eike Stepper
+ * @since 4.6
+ */
+public final class CDOIDSet extends AbstractSet<CDOID> implements Serializable
+{
+  private static final long serialVersionUID = 1L;
+
+  private final CDOIDMap<Boolean> map;
+
+  public CDOIDSet()
+  {
+    map = new CDOIDMap<Boolean>();
+  }
+
+  public CDOIDSet(int expectedSize)
+  {
+    map = new CDOIDMap<Boolean>(expectedSize);
+  }
+
+  public CDOIDSet(Collection<? extends CDOID> ids)
+  {
+    map = new CDOIDMap<Boolean>(ids.size());
+    addAll(ids);
+  }
+
+  @Override
+  public int size()
+  {
+    return map.size();
+  }
+
+  @Override
+  public boolean isEmpty()
+  {
+    return map.isEmpty();
+  }
+
+  @Override
+  public boolean contains(Object o)
+  {
+    return map.containsKey(o);
+  }
+
+  @Override
+  public boolean add(CDOID id)
+  {
+    return map.put(id, Boolean.TRUE) == null;
+  }
+
+  @Override
+  public boolean remove(Object o)
+  {
+    return map.remove(o) != null;
+  }
+
+  @Override
+  public void clear()
+  {
+    map.clear();
+  }
+
+  @Override
+  public Iterator<CDOID> iterator()
+  {
+    return map.keySet().iterator();
+  }
+}
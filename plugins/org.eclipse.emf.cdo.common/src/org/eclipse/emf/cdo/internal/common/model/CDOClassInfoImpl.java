@@ -15,6 +15,7 @@ package org.eclipse.emf.cdo.internal.common.model;
 import org.eclipse.emf.cdo.common.id.CDOID;
 import org.eclipse.emf.cdo.common.model.CDOClassInfo;
 import org.eclipse.emf.cdo.common.model.CDOModelUtil;
+import org.eclipse.emf.cdo.common.model.CDOType;
 import org.eclipse.emf.cdo.common.model.EMFUtil;
 import org.eclipse.emf.cdo.internal.common.bundle.OM;
 import org.eclipse.emf.cdo.spi.common.model.InternalCDOClassInfo;
@@ -25,7 +26,10 @@ import org.eclipse.emf.common.notify.Adapter;
 import org.eclipse.emf.common.notify.Notification;
 import org.eclipse.emf.common.notify.Notifier;
 import org.eclipse.emf.common.util.EList;
+import org.eclipse.emf.ecore.EAttribute;
 import org.eclipse.emf.ecore.EClass;
+import org.eclipse.emf.ecore.EClassifier;
+import org.eclipse.emf.ecore.EDataType;
 import org.eclipse.emf.ecore.EReference;
 import org.eclipse.emf.ecore.EStructuralFeature;
 import org.eclipse.emf.ecore.impl.EClassImpl;
@@ -63,6 +67,12 @@ public final class CDOClassInfoImpl implements InternalCDOClassInfo, Adapter.Int
 
   private int[] persistentFeatureIndices;
 
+  private int[] primitiveFeatureSlots;
+
+  private CDOType[] primitiveFeatureTypes;
+
+  private int[] objectFeatureSlots;
+
   private int settingsFeatureCount;
 
   private int[] settingsFeatureIndices;
@@ -212,6 +222,26 @@ public final class CDOClassInfoImpl implements InternalCDOClassInfo, Adapter.Int
     return getTransientFeatureIndex(featureID);
   }
 
+  public int getPrimitiveFeatureCount()
+  {
+    return primitiveFeatureTypes.length;
+  }
+
+  public int getPrimitiveFeatureSlot(int featureIndex)
+  {
+    return primitiveFeatureSlots[featureIndex];
+  }
+
+  public CDOType getPrimitiveFeatureType(int slot)
+  {
+    return primitiveFeatureTypes[slot];
+  }
+
+  public int getObjectFeatureSlot(int featureIndex)
+  {
+    return objectFeatureSlots[featureIndex];
+  }
+
   public PersistenceFilter getPersistenceFilter(EStructuralFeature feature)
   {
     if (persistenceFilters == NO_FILTERS)
@@ -340,6 +370,62 @@ public final class CDOClassInfoImpl implements InternalCDOClassInfo, Adapter.Int
         persistenceFilters[featureID] = persistenceFilter;
       }
     }
+
+    initPrimitiveFeatureSlots();
+  }
+
+  private void initPrimitiveFeatureSlots()
+  {
+    int length = allPersistentFeatures.length;
+    primitiveFeatureSlots = new int[length];
+    objectFeatureSlots = new int[length];
+
+    List<CDOType> primitiveTypes = new ArrayList<CDOType>();
+    int objectSlots = 0;
+
+    for (int i = 0; i < length; i++)
+    {
+      CDOType type = getPrimitiveType(allPersistentFeatures[i]);
+      if (type != null)
+      {
+        primitiveFeatureSlots[i] = primitiveTypes.size();
+        objectFeatureSlots[i] = NO_SLOT;
+        primitiveTypes.add(type);
+      }
+      else
+      {
+        primitiveFeatureSlots[i] = NO_SLOT;
+        objectFeatureSlots[i] = objectSlots++;
+      }
+    }
+
+    primitiveFeatureTypes = primitiveTypes.toArray(new CDOType[primitiveTypes.size()]);
+  }
+
+  /**
+   * Boolean and byte values are not considered primitive here because their boxed instances are always cached.
+   */
+  private static CDOType getPrimitiveType(EStructuralFeature feature)
+  {
+    if (feature.isMany() || !(feature instanceof EAttribute))
+    {
+      return null;
+    }
+
+    EClassifier eType = feature.getEType();
+    if (!(eType instanceof EDataType) || !CDOModelUtil.isCorePackage(eType.getEPackage()))
+    {
+      return null;
+    }
+
+    CDOType type = CDOModelUtil.getCoreType(eType);
+    if (type == CDOType.INT || type == CDOType.LONG || type == CDOType.SHORT || type == CDOType.CHAR
+        || type == CDOType.FLOAT || type == CDOType.DOUBLE)
+    {
+      return type;
+    }
+
+    return null;
   }
 
   private boolean isContainment(EStructuralFeature[] containments, EStructuralFeature feature)
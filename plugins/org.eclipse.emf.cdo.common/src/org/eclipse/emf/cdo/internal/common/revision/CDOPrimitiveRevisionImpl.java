@@ -0,0 +1,253 @@
+/*
+ * Copyright (c) 2016 Eike Stepper (Berlin, Germany) and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    Eike Stepper - initial API and implementation
+ */
+package org.eclipse.emf.cdo.internal.common.revision;
+
+import org.eclipse.emf.cdo.common.model.CDOModelUtil;
+import org.eclipse.emf.cdo.common.model.CDOType;
+import org.eclipse.emf.cdo.common.revision.CDORevisionData;
+import org.eclipse.emf.cdo.spi.common.model.InternalCDOClassInfo;
+import org.eclipse.emf.cdo.spi.common.revision.BaseCDORevision;
+import org.eclipse.emf.cdo.spi.common.revision.InternalCDOList;
+import org.eclipse.emf.cdo.spi.common.revision.InternalCDORevision;
+
+import org.eclipse.emf.ecore.EClass;
+import org.eclipse.emf.ecore.EClassifier;
+import org.eclipse.emf.ecore.EStructuralFeature;
+
+/**
+ * A revision that stores the values of its {@link InternalCDOClassInfo#getPrimitiveFeatureSlot(int) primitive features}
+ * unboxed in a <code>long</code> array and the values of all other features in an object array.
+ *
+ * @author Eike Stepper
+ */
+public class CDOPrimitiveRevisionImpl extends BaseCDORevision
+{
+  private Object[] values;
+
+  /**
+   * The raw bits of the primitive values, followed by a bit set of the slots that are set and a bit set of the slots
+   * that are set to {@link CDORevisionData#NIL}.
+   */
+  private long[] primitiveValues;
+
+  public CDOPrimitiveRevisionImpl(EClass eClass)
+  {
+    super(eClass);
+  }
+
+  protected CDOPrimitiveRevisionImpl(CDOPrimitiveRevisionImpl source)
+  {
+    super(source);
+    boolean bypassPermissionChecks = bypassPermissionChecks(true);
+
+    try
+    {
+      EStructuralFeature[] features = clearValues();
+      if (source.primitiveValues != null)
+      {
+        System.arraycopy(source.primitiveValues, 0, primitiveValues, 0, primitiveValues.length);
+      }
+
+      InternalCDOClassInfo classInfo = getClassInfo();
+      int length = features.length;
+      for (int i = 0; i < length; i++)
+      {
+        int slot = classInfo.getObjectFeatureSlot(i);
+        if (slot == InternalCDOClassInfo.NO_SLOT)
+        {
+          continue;
+        }
+
+        EStructuralFeature feature = features[i];
+        if (feature.isMany())
+        {
+          InternalCDOList sourceList = (InternalCDOList)source.values[slot];
+          if (sourceList != null)
+          {
+            EClassifier classifier = feature.getEType();
+            setValue(i, sourceList.clone(classifier));
+          }
+        }
+        else
+        {
+          CDOType type = CDOModelUtil.getType(feature);
+          setValue(i, type.copyValue(source.values[slot]));
+        }
+      }
+    }
+    finally
+    {
+      bypassPermissionChecks(bypassPermissionChecks);
+    }
+  }
+
+  public InternalCDORevision copy()
+  {
+    return new CDOPrimitiveRevisionImpl(this);
+  }
+
+  @Override
+  protected void initValues(EStructuralFeature[] allPersistentFeatures)
+  {
+    int primitiveFeatureCount = getClassInfo().getPrimitiveFeatureCount();
+    values = new Object[allPersistentFeatures.length - primitiveFeatureCount];
+
+    if (primitiveFeatureCount != 0)
+    {
+      primitiveValues = new long[primitiveFeatureCount + 2 * getBitSetLength(primitiveFeatureCount)];
+    }
+    else
+    {
+      primitiveValues = null;
+    }
+  }
+
+  @Override
+  protected Object doGetValue(int featureIndex)
+  {
+    InternalCDOClassInfo classInfo = getClassInfo();
+    int slot = classInfo.getPrimitiveFeatureSlot(featureIndex);
+    if (slot == InternalCDOClassInfo.NO_SLOT)
+    {
+      if (values != null) // Can be null if READ permission is missing
+      {
+        return values[classInfo.getObjectFeatureSlot(featureIndex)];
+      }
+
+      return null;
+    }
+
+    if (primitiveValues == null)
+    {
+      return null;
+    }
+
+    int primitiveFeatureCount = classInfo.getPrimitiveFeatureCount();
+    int word = slot >>> 6;
+    long bit = 1L << slot;
+
+    int setBits = primitiveFeatureCount + word;
+    if ((primitiveValues[setBits] & bit) == 0)
+    {
+      return null;
+    }
+
+    int nilBits = setBits + getBitSetLength(primitiveFeatureCount);
+    if ((primitiveValues[nilBits] & bit) != 0)
+    {
+      return CDORevisionData.NIL;
+    }
+
+    return box(classInfo.getPrimitiveFeatureType(slot), primitiveValues[slot]);
+  }
+
+  @Override
+  protected void doSetValue(int featureIndex, Object value)
+  {
+    InternalCDOClassInfo classInfo = getClassInfo();
+    int slot = classInfo.getPrimitiveFeatureSlot(featureIndex);
+    if (slot == InternalCDOClassInfo.NO_SLOT)
+    {
+      if (values != null) // Can be null if READ permission is missing
+      {
+        values[classInfo.getObjectFeatureSlot(featureIndex)] = value;
+      }
+
+      return;
+    }
+
+    if (primitiveValues == null)
+    {
+      return;
+    }
+
+    int primitiveFeatureCount = classInfo.getPrimitiveFeatureCount();
+    int word = slot >>> 6;
+    long bit = 1L << slot;
+
+    int setBits = primitiveFeatureCount + word;
+    int nilBits = setBits + getBitSetLength(primitiveFeatureCount);
+
+    if (value == null)
+    {
+      primitiveValues[slot] = 0L;
+      primitiveValues[setBits] &= ~bit;
+      primitiveValues[nilBits] &= ~bit;
+    }
+    else if (value == CDORevisionData.NIL)
+    {
+      primitiveValues[slot] = 0L;
+      primitiveValues[setBits] |= bit;
+      primitiveValues[nilBits] |= bit;
+    }
+    else
+    {
+      primitiveValues[slot] = unbox(classInfo.getPrimitiveFeatureType(slot), value);
+      primitiveValues[setBits] |= bit;
+      primitiveValues[nilBits] &= ~bit;
+    }
+  }
+
+  private static int getBitSetLength(int primitiveFeatureCount)
+  {
+    return (primitiveFeatureCount + 63) >>> 6;
+  }
+
+  private static Object box(CDOType type, long bits)
+  {
+    if (type == CDOType.INT)
+    {
+      return Integer.valueOf((int)bits);
+    }
+
+    if (type == CDOType.LONG)
+    {
+      return Long.valueOf(bits);
+    }
+
+    if (type == CDOType.DOUBLE)
+    {
+      return Double.valueOf(Double.longBitsToDouble(bits));
+    }
+
+    if (type == CDOType.FLOAT)
+    {
+      return Float.valueOf(Float.intBitsToFloat((int)bits));
+    }
+
+    if (type == CDOType.SHORT)
+    {
+      return Short.valueOf((short)bits);
+    }
+
+    return Character.valueOf((char)bits);
+  }
+
+  private static long unbox(CDOType type, Object value)
+  {
+    if (type == CDOType.DOUBLE)
+    {
+      return Double.doubleToRawLongBits(((Number)value).doubleValue());
+    }
+
+    if (type == CDOType.FLOAT)
+    {
+      return Float.floatToRawIntBits(((Number)value).floatValue());
+    }
+
+    if (type == CDOType.CHAR)
+    {
+      return ((Character)value).charValue();
+    }
+
+    return ((Number)value).longValue();
+  }
+}
@@ -0,0 +1,848 @@
+/*
+ * Copyright (c) 2016 Eike Stepper (Berlin, Germany) and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    Eike Stepper - initial API and implementation
+ */
+package org.eclipse.emf.cdo.internal.common.revision;
+
+import org.eclipse.emf.cdo.common.branch.CDOBranch;
+import org.eclipse.emf.cdo.common.id.CDOID;
+import org.eclipse.emf.cdo.common.revision.CDOList;
+import org.eclipse.emf.cdo.common.revision.CDORevision;
+import org.eclipse.emf.cdo.common.revision.CDORevisionKey;
+import org.eclipse.emf.cdo.internal.common.bundle.OM;
+import org.eclipse.emf.cdo.spi.common.revision.BaseCDORevision;
+import org.eclipse.emf.cdo.spi.common.revision.InternalCDORevision;
+import org.eclipse.emf.cdo.spi.common.revision.InternalCDORevisionCache;
+
+import org.eclipse.net4j.util.cache.ICache;
+import org.eclipse.net4j.util.cache.ICacheMonitor;
+import org.eclipse.net4j.util.cache.ICacheProbe;
+import org.eclipse.net4j.util.cache.ICacheProbe2;
+import org.eclipse.net4j.util.event.IListener;
+import org.eclipse.net4j.util.om.OMPlatform;
+import org.eclipse.net4j.util.om.trace.ContextTracer;
+
+import org.eclipse.emf.ecore.EStructuralFeature;
+
+import java.lang.ref.Reference;
+import java.lang.ref.WeakReference;
+import java.text.MessageFormat;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A {@link CDORevisionCacheConcurrent concurrent} revision cache that holds its revisions strongly and is bounded
+ * either by the {@link #setMaximumSize(int) number} of revisions or by their {@link #setMaximumBytes(long) estimated
+ * size in bytes}.
+ * <p>
+ * Eviction follows the W-TinyLFU policy: new revisions enter a small LRU window; revisions that fall out of the window
+ * are only admitted to the segmented LRU main space (probation and protected segments) if they have been used more
+ * frequently than the revision that would be evicted in their place. Frequencies are approximated by a count-min
+ * sketch that is periodically halved. To keep lookups lock-free they only mark a revision as referenced; the LRU order
+ * is adjusted lazily, when the policy looks for a victim.
+ * <p>
+ * If a {@link #setCacheMonitor(ICacheMonitor) cache monitor} is set, the cache reports sizes, evictions and (if the
+ * monitor's probe is an {@link ICacheProbe2}) hits, misses and removals to it. Only revisions that the policy drops to
+ * stay within the maximum size, or that the monitor asks to {@link #evictElements(int) evict}, count as evictions.
+ *
+ * @author Eike Stepper
+ */
+public class CDORevisionCacheBounded extends CDORevisionCacheConcurrent implements ICache
+{
+  /**
+   * The default {@link #setMaximumSize(int) maximum number of revisions}; zero if no bounded cache should be created
+   * by {@link org.eclipse.emf.cdo.common.revision.CDORevisionUtil#createRevisionCache(boolean, boolean)
+   * CDORevisionUtil.createRevisionCache()}.
+   */
+  public static final int DEFAULT_MAXIMUM_SIZE = Integer
+      .parseInt(OMPlatform.INSTANCE.getProperty("org.eclipse.emf.cdo.common.revision.CACHE_MAXIMUM_SIZE", "0"));
+
+  /**
+   * The default {@link #setMaximumBytes(long) maximum number of bytes}; zero if no bounded cache should be created by
+   * {@link org.eclipse.emf.cdo.common.revision.CDORevisionUtil#createRevisionCache(boolean, boolean)
+   * CDORevisionUtil.createRevisionCache()}.
+   */
+  public static final long DEFAULT_MAXIMUM_BYTES = Long
+      .parseLong(OMPlatform.INSTANCE.getProperty("org.eclipse.emf.cdo.common.revision.CACHE_MAXIMUM_BYTES", "0"));
+
+  private static final ContextTracer TRACER = new ContextTracer(OM.DEBUG_REVISION, CDORevisionCacheBounded.class);
+
+  private static final int WINDOW_PERCENT = 1;
+
+  private static final int PROTECTED_PERCENT = 80;
+
+  private static final int AVERAGE_REVISION_BYTES = 256;
+
+  private static final int REVISION_OVERHEAD_BYTES = 64;
+
+  private static final int REFERENCE_BYTES = 8;
+
+  private static final int OBJECT_OVERHEAD_BYTES = 16;
+
+  private final Object policyLock = new Object();
+
+  private final NodeQueue window = new NodeQueue();
+
+  private final NodeQueue probation = new NodeQueue();
+
+  private final NodeQueue protectedSegment = new NodeQueue();
+
+  /**
+   * Victims that have been removed from the policy but not yet from the revision chains. Guarded by
+   * {@link #policyLock}.
+   */
+  private final List<Node> pendingEvictions = new ArrayList<Node>();
+
+  private long windowWeight;
+
+  private long mainWeight;
+
+  private long protectedWeight;
+
+  private long maximumWeight;
+
+  private long maximumWindowWeight;
+
+  private long maximumProtectedWeight;
+
+  private FrequencySketch sketch;
+
+  private int maximumSize;
+
+  private long maximumBytes;
+
+  private ICacheMonitor cacheMonitor;
+
+  private volatile ICacheProbe cacheProbe;
+
+  public CDORevisionCacheBounded(boolean supportingBranches)
+  {
+    super(supportingBranches);
+
+    if (DEFAULT_MAXIMUM_BYTES > 0)
+    {
+      maximumBytes = DEFAULT_MAXIMUM_BYTES;
+    }
+    else
+    {
+      maximumSize = DEFAULT_MAXIMUM_SIZE;
+    }
+  }
+
+  @Override
+  public InternalCDORevisionCache instantiate(CDORevision revision)
+  {
+    CDORevisionCacheBounded cache = new CDORevisionCacheBounded(isSupportingBranches());
+    cache.maximumSize = maximumSize;
+    cache.maximumBytes = maximumBytes;
+    cache.cacheMonitor = cacheMonitor;
+    return cache;
+  }
+
+  /**
+   * Returns the maximum number of revisions in this cache, or zero if this cache is bounded by
+   * {@link #getMaximumBytes() bytes}.
+   */
+  public int getMaximumSize()
+  {
+    return maximumSize;
+  }
+
+  public void setMaximumSize(int maximumSize)
+  {
+    checkInactive();
+    this.maximumSize = maximumSize;
+    maximumBytes = 0;
+  }
+
+  /**
+   * Returns the maximum estimated size in bytes of all revisions in this cache, or zero if this cache is bounded by
+   * {@link #getMaximumSize() count}.
+   */
+  public long getMaximumBytes()
+  {
+    return maximumBytes;
+  }
+
+  public void setMaximumBytes(long maximumBytes)
+  {
+    checkInactive();
+    this.maximumBytes = maximumBytes;
+    maximumSize = 0;
+  }
+
+  public ICacheMonitor getCacheMonitor()
+  {
+    return cacheMonitor;
+  }
+
+  public void setCacheMonitor(ICacheMonitor cacheMonitor)
+  {
+    checkInactive();
+    this.cacheMonitor = cacheMonitor;
+  }
+
+  public void evictElements(int elementCount)
+  {
+    synchronized (policyLock)
+    {
+      for (int i = 0; i < elementCount; i++)
+      {
+        Node victim = selectVictim();
+        if (victim == null)
+        {
+          break;
+        }
+
+        evictNode(victim);
+      }
+    }
+
+    drainEvictions();
+  }
+
+  @Override
+  public void clear()
+  {
+    super.clear();
+
+    synchronized (policyLock)
+    {
+      unlinkAll(window);
+      unlinkAll(probation);
+      unlinkAll(protectedSegment);
+      pendingEvictions.clear();
+    }
+  }
+
+  @Override
+  protected void doBeforeActivate() throws Exception
+  {
+    super.doBeforeActivate();
+    checkState(maximumSize > 0 || maximumBytes > 0, "maximumSize or maximumBytes must be positive"); //$NON-NLS-1$
+  }
+
+  @Override
+  protected void doActivate() throws Exception
+  {
+    super.doActivate();
+
+    int expectedSize;
+    if (maximumBytes > 0)
+    {
+      maximumWeight = maximumBytes;
+      expectedSize = (int)Math.min(Integer.MAX_VALUE, maximumBytes / AVERAGE_REVISION_BYTES);
+    }
+    else
+    {
+      maximumWeight = maximumSize;
+      expectedSize = maximumSize;
+    }
+
+    maximumWindowWeight = Math.max(1, maximumWeight * WINDOW_PERCENT / 100);
+    maximumProtectedWeight = (maximumWeight - maximumWindowWeight) * PROTECTED_PERCENT / 100;
+    sketch = new FrequencySketch(expectedSize);
+
+    if (cacheMonitor != null)
+    {
+      cacheProbe = cacheMonitor.registerCache(this);
+    }
+  }
+
+  @Override
+  protected void doDeactivate() throws Exception
+  {
+    if (cacheMonitor != null)
+    {
+      cacheMonitor.deregisterCache(this);
+      cacheProbe = null;
+    }
+
+    super.doDeactivate();
+  }
+
+  @Override
+  protected void doAddRevision(CDORevision revision)
+  {
+    super.doAddRevision(revision);
+    drainEvictions();
+  }
+
+  @Override
+  protected Reference<InternalCDORevision> createReference(CDORevision revision)
+  {
+    return new Node((InternalCDORevision)revision);
+  }
+
+  @Override
+  protected InternalCDORevision resolve(Reference<InternalCDORevision> reference)
+  {
+    ICacheProbe probe = cacheProbe;
+    if (reference == null)
+    {
+      if (probe instanceof ICacheProbe2)
+      {
+        ((ICacheProbe2)probe).elementMissed();
+      }
+
+      return null;
+    }
+
+    Node node = (Node)reference;
+    node.referenced = true;
+    sketch.increment(node.hash);
+
+    if (probe instanceof ICacheProbe2)
+    {
+      ((ICacheProbe2)probe).elementHit();
+    }
+
+    return node.get();
+  }
+
+  @Override
+  protected void referenceAdded(Reference<InternalCDORevision> reference)
+  {
+    Node node = (Node)reference;
+    node.weight = maximumBytes > 0 ? estimateSize(node.get()) : 1;
+
+    synchronized (policyLock)
+    {
+      sketch.increment(node.hash);
+
+      node.queue = Node.WINDOW;
+      window.addLast(node);
+      windowWeight += node.weight;
+
+      ICacheProbe probe = cacheProbe;
+      if (probe != null)
+      {
+        probe.elementCached(node.weight);
+      }
+
+      evictOverflow();
+    }
+  }
+
+  @Override
+  protected void referenceRemoved(Reference<InternalCDORevision> reference)
+  {
+    Node node = (Node)reference;
+
+    synchronized (policyLock)
+    {
+      if (node.queue != Node.NONE)
+      {
+        unlink(node);
+        reportRemoval(cacheProbe, node);
+      }
+    }
+  }
+
+  /**
+   * Returns a rough estimation of the heap size of the given revision, including its strings and lists, but not the
+   * shared meta data.
+   */
+  protected int estimateSize(InternalCDORevision revision)
+  {
+    EStructuralFeature[] features = revision.getClassInfo().getAllPersistentFeatures();
+    int size = REVISION_OVERHEAD_BYTES + REFERENCE_BYTES * features.length;
+
+    BaseCDORevision baseRevision = revision instanceof BaseCDORevision ? (BaseCDORevision)revision : null;
+    boolean bypassPermissionChecks = baseRevision != null && baseRevision.bypassPermissionChecks(true);
+
+    try
+    {
+      for (int i = 0; i < features.length; i++)
+      {
+        Object value = revision.getValue(features[i]);
+        if (value instanceof String)
+        {
+          size += OBJECT_OVERHEAD_BYTES + 24 + 2 * ((String)value).length();
+        }
+        else if (value instanceof CDOList)
+        {
+          size += OBJECT_OVERHEAD_BYTES + 16 + REFERENCE_BYTES * ((CDOList)value).size();
+        }
+        else if (value != null)
+        {
+          size += OBJECT_OVERHEAD_BYTES;
+        }
+      }
+    }
+    finally
+    {
+      if (baseRevision != null)
+      {
+        baseRevision.bypassPermissionChecks(bypassPermissionChecks);
+      }
+    }
+
+    return size;
+  }
+
+  /**
+   * Must be called while holding the {@link #policyLock}.
+   */
+  private void evictOverflow()
+  {
+    int secondChances = window.size();
+    while (windowWeight > maximumWindowWeight)
+    {
+      Node candidate = window.getFirst();
+      if (candidate.referenced && secondChances-- > 0)
+      {
+        candidate.referenced = false;
+        window.moveToLast(candidate);
+        continue;
+      }
+
+      window.remove(candidate);
+      windowWeight -= candidate.weight;
+      candidate.queue = Node.NONE;
+
+      admit(candidate);
+    }
+  }
+
+  /**
+   * Moves a candidate from the window to the probation segment of the main space and evicts revisions until the maximum
+   * weight is no longer exceeded. The candidate is only admitted if it's been used more frequently than the victims that
+   * would be evicted in its place.
+   * <p>
+   * Must be called while holding the {@link #policyLock}.
+   */
+  private void admit(Node candidate)
+  {
+    while (windowWeight + mainWeight + candidate.weight > maximumWeight)
+    {
+      Node victim = selectVictim();
+      if (victim == null || sketch.frequency(candidate.hash) <= sketch.frequency(victim.hash))
+      {
+        evictNode(candidate);
+        return;
+      }
+
+      evictNode(victim);
+    }
+
+    candidate.queue = Node.PROBATION;
+    probation.addLast(candidate);
+    mainWeight += candidate.weight;
+  }
+
+  /**
+   * Returns the least recently used revision of the probation segment that hasn't been referenced since it was added
+   * or last looked at. Referenced revisions are promoted to the protected segment on the way.
+   * <p>
+   * Must be called while holding the {@link #policyLock}.
+   */
+  private Node selectVictim()
+  {
+    int secondChances = probation.size();
+    for (;;)
+    {
+      Node node = probation.getFirst();
+      if (node == null)
+      {
+        break;
+      }
+
+      if (!node.referenced || secondChances-- <= 0)
+      {
+        return node;
+      }
+
+      node.referenced = false;
+      probation.remove(node);
+      mainWeight -= node.weight;
+
+      node.queue = Node.PROTECTED;
+      protectedSegment.addLast(node);
+      mainWeight += node.weight;
+      protectedWeight += node.weight;
+
+      while (protectedWeight > maximumProtectedWeight)
+      {
+        Node demoted = protectedSegment.getFirst();
+        protectedSegment.remove(demoted);
+        protectedWeight -= demoted.weight;
+
+        demoted.referenced = false;
+        demoted.queue = Node.PROBATION;
+        probation.addLast(demoted);
+      }
+    }
+
+    Node node = protectedSegment.getFirst();
+    if (node != null)
+    {
+      return node;
+    }
+
+    return window.getFirst();
+  }
+
+  /**
+   * Must be called while holding the {@link #policyLock}.
+   */
+  private void evictNode(Node node)
+  {
+    unlink(node);
+    pendingEvictions.add(node);
+
+    ICacheProbe probe = cacheProbe;
+    if (probe != null)
+    {
+      probe.elementEvicted(node.weight);
+    }
+  }
+
+  /**
+   * Must be called while holding the {@link #policyLock}.
+   */
+  private void unlink(Node node)
+  {
+    switch (node.queue)
+    {
+    case Node.WINDOW:
+      window.remove(node);
+      windowWeight -= node.weight;
+      break;
+
+    case Node.PROBATION:
+      probation.remove(node);
+      mainWeight -= node.weight;
+      break;
+
+    case Node.PROTECTED:
+      protectedSegment.remove(node);
+      mainWeight -= node.weight;
+      protectedWeight -= node.weight;
+      break;
+    }
+
+    node.queue = Node.NONE;
+  }
+
+  /**
+   * Must be called while holding the {@link #policyLock}.
+   */
+  private void unlinkAll(NodeQueue queue)
+  {
+    ICacheProbe probe = cacheProbe;
+    for (Node node = queue.getFirst(); node != null; node = queue.getFirst())
+    {
+      unlink(node);
+      reportRemoval(probe, node);
+    }
+  }
+
+  /**
+   * Reports the removal of a revision that has not been evicted by the policy, e.g., because it has been revised or the
+   * cache has been cleared. Only an {@link ICacheProbe2} can tell removals from evictions, other probes are told about
+   * an eviction because that's the only way to release the size of the revision.
+   */
+  private static void reportRemoval(ICacheProbe probe, Node node)
+  {
+    if (probe instanceof ICacheProbe2)
+    {
+      ((ICacheProbe2)probe).elementRemoved(node.weight);
+    }
+    else if (probe != null)
+    {
+      probe.elementEvicted(node.weight);
+    }
+  }
+
+  /**
+   * Removes the victims of the policy from the revision chains. Must not be called while holding the lock of a chain or
+   * the {@link #policyLock}.
+   */
+  private void drainEvictions()
+  {
+    Node[] victims;
+    synchronized (policyLock)
+    {
+      if (pendingEvictions.isEmpty())
+      {
+        return;
+      }
+
+      victims = pendingEvictions.toArray(new Node[pendingEvictions.size()]);
+      pendingEvictions.clear();
+    }
+
+    IListener[] listeners = getListeners();
+    for (int i = 0; i < victims.length; i++)
+    {
+      Node victim = victims[i];
+      CDOBranch branch = victim.getBranch();
+      doRemoveRevision(victim.getID(), branch.getVersion(victim.getVersion()));
+
+      if (listeners != null)
+      {
+        fireEvent(new EvictionEventImpl(this, victim.get()), listeners);
+      }
+
+      if (TRACER.isEnabled())
+      {
+        TRACER.format("Evicted {0} from {1}", victim, this); //$NON-NLS-1$
+      }
+    }
+  }
+
+  /**
+   * A strong reference to a revision plus the bookkeeping of the eviction policy. The revision is kept in a field, so
+   * that the garbage collector never clears the reference.
+   *
+   * @author Eike Stepper
+   */
+  private static final class Node extends WeakReference<InternalCDORevision> implements CDORevisionKey
+  {
+    public static final int NONE = 0;
+
+    public static final int WINDOW = 1;
+
+    public static final int PROBATION = 2;
+
+    public static final int PROTECTED = 3;
+
+    private final InternalCDORevision revision;
+
+    private final int hash;
+
+    /**
+     * Set by lock-free lookups, cleared by the policy.
+     */
+    private volatile boolean referenced;
+
+    /**
+     * The following fields are guarded by the policy lock.
+     */
+    private int weight;
+
+    private int queue;
+
+    private Node previous;
+
+    private Node next;
+
+    public Node(InternalCDORevision revision)
+    {
+      super(revision);
+      this.revision = revision;
+
+      int h = revision.getID().hashCode();
+      h = 31 * h + revision.getBranch().getID();
+      h = 31 * h + revision.getVersion();
+      hash = h ^ h >>> 16;
+    }
+
+    @Override
+    public InternalCDORevision get()
+    {
+      return revision;
+    }
+
+    public CDOID getID()
+    {
+      return revision.getID();
+    }
+
+    public CDOBranch getBranch()
+    {
+      return revision.getBranch();
+    }
+
+    public int getVersion()
+    {
+      return revision.getVersion();
+    }
+
+    @Override
+    public String toString()
+    {
+      return MessageFormat.format("{0}:{1}v{2}", getID(), getBranch().getID(), getVersion());
+    }
+  }
+
+  /**
+   * An intrusive, doubly linked LRU queue of {@link Node nodes}.
+   *
+   * @author Eike Stepper
+   */
+  private static final class NodeQueue
+  {
+    private Node first;
+
+    private Node last;
+
+    private int size;
+
+    public NodeQueue()
+    {
+    }
+
+    public int size()
+    {
+      return size;
+    }
+
+    public Node getFirst()
+    {
+      return first;
+    }
+
+    public void addLast(Node node)
+    {
+      node.previous = last;
+      node.next = null;
+
+      if (last == null)
+      {
+        first = node;
+      }
+      else
+      {
+        last.next = node;
+      }
+
+      last = node;
+      ++size;
+    }
+
+    public void remove(Node node)
+    {
+      if (node.previous == null)
+      {
+        first = node.next;
+      }
+      else
+      {
+        node.previous.next = node.next;
+      }
+
+      if (node.next == null)
+      {
+        last = node.previous;
+      }
+      else
+      {
+        node.next.previous = node.previous;
+      }
+
+      node.previous = null;
+      node.next = null;
+      --size;
+    }
+
+    public void moveToLast(Node node)
+    {
+      if (node != last)
+      {
+        remove(node);
+        addLast(node);
+      }
+    }
+  }
+
+  /**
+   * A count-min sketch with four rows of 4-bit counters (stored in bytes). All counters are halved after ten times the
+   * expected number of elements have been counted, so that old popularity fades.
+   * <p>
+   * Increments from lock-free lookups can race with each other; lost updates only make the estimation slightly less
+   * accurate.
+   *
+   * @author Eike Stepper
+   */
+  private static final class FrequencySketch
+  {
+    private static final int DEPTH = 4;
+
+    private static final int MAX_COUNT = 15;
+
+    private static final int MAX_SIZE = 1 << 22;
+
+    private static final int[] SEEDS = { 0x97cb3127, 0x9e3779b9, 0x7feb352d, 0x846ca68b };
+
+    private final byte[] counters;
+
+    private final int width;
+
+    private final int sampleSize;
+
+    private int additions;
+
+    public FrequencySketch(int expectedSize)
+    {
+      int size = 16;
+      while (size < expectedSize && size < MAX_SIZE)
+      {
+        size <<= 1;
+      }
+
+      // Four counters per row and element keep the noise low enough to tell frequent elements from one-time ones
+      width = 4 * size;
+      counters = new byte[DEPTH * width];
+      sampleSize = 10 * size;
+    }
+
+    public int frequency(int hash)
+    {
+      int frequency = MAX_COUNT;
+      for (int i = 0; i < DEPTH; i++)
+      {
+        frequency = Math.min(frequency, counters[indexOf(hash, i)]);
+      }
+
+      return frequency;
+    }
+
+    public void increment(int hash)
+    {
+      boolean added = false;
+      for (int i = 0; i < DEPTH; i++)
+      {
+        int index = indexOf(hash, i);
+        if (counters[index] < MAX_COUNT)
+        {
+          ++counters[index];
+          added = true;
+        }
+      }
+
+      if (added && ++additions >= sampleSize)
+      {
+        reset();
+      }
+    }
+
+    private void reset()
+    {
+      for (int i = 0; i < counters.length; i++)
+      {
+        counters[i] >>= 1;
+      }
+
+      additions /= 2;
+    }
+
+    private int indexOf(int hash, int row)
+    {
+      int h = hash * SEEDS[row];
+      h ^= h >>> 16;
+      h *= 0x85ebca6b;
+      h ^= h >>> 13;
+      h *= 0xc2b2ae35;
+      h ^= h >>> 16;
+      return row * width + (h & width - 1);
+    }
+  }
+}
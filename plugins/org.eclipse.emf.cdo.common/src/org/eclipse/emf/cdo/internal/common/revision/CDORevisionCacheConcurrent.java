@@ -0,0 +1,731 @@
+/*
+ * Copyright (c) 2016 Eike Stepper (Berlin, Germany) and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    Eike Stepper - initial API and implementation
+ */
+package org.eclipse.emf.cdo.internal.common.revision;
+
+import org.eclipse.emf.cdo.common.branch.CDOBranch;
+import org.eclipse.emf.cdo.common.branch.CDOBranchPoint;
+import org.eclipse.emf.cdo.common.branch.CDOBranchVersion;
+import org.eclipse.emf.cdo.common.id.CDOID;
+import org.eclipse.emf.cdo.common.revision.CDORevision;
+import org.eclipse.emf.cdo.common.revision.CDORevisionKey;
+import org.eclipse.emf.cdo.internal.common.bundle.OM;
+import org.eclipse.emf.cdo.spi.common.revision.InternalCDORevision;
+import org.eclipse.emf.cdo.spi.common.revision.InternalCDORevisionCache;
+
+import org.eclipse.net4j.util.CheckUtil;
+import org.eclipse.net4j.util.om.OMPlatform;
+import org.eclipse.net4j.util.om.trace.ContextTracer;
+
+import org.eclipse.emf.ecore.EClass;
+
+import java.lang.ref.Reference;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * An auditing (and optionally branching) revision cache with lock-free reads.
+ * <p>
+ * The revisions of an object in a branch are kept in a {@link RevisionChain chain}, an array that is sorted by
+ * descending version and that is replaced (copy-on-write) under the lock of the chain whenever a revision is added or
+ * removed. Readers never lock, neither the chain nor the {@link ConcurrentHashMap map} of all chains.
+ *
+ * @author Eike Stepper
+ */
+public class CDORevisionCacheConcurrent extends AbstractCDORevisionCache
+{
+  /**
+   * Whether {@link org.eclipse.emf.cdo.common.revision.CDORevisionUtil#createRevisionCache(boolean, boolean)
+   * CDORevisionUtil.createRevisionCache()} creates instances of this class for auditing and branching repositories.
+   */
+  public static final boolean DEFAULT = OMPlatform.INSTANCE.isProperty("org.eclipse.emf.cdo.common.revision.CONCURRENT_CACHE");
+
+  private static final ContextTracer TRACER = new ContextTracer(OM.DEBUG_REVISION, CDORevisionCacheConcurrent.class);
+
+  private final ConcurrentMap<Object, RevisionChain> revisionChains = new ConcurrentHashMap<Object, RevisionChain>();
+
+  /**
+   * Only used if {@link #supportingBranches}.
+   */
+  private final ConcurrentMap<CDOID, TypeAndRefCounter> typeMap = new ConcurrentHashMap<CDOID, TypeAndRefCounter>();
+
+  private final boolean supportingBranches;
+
+  public CDORevisionCacheConcurrent(boolean supportingBranches)
+  {
+    this.supportingBranches = supportingBranches;
+  }
+
+  public InternalCDORevisionCache instantiate(CDORevision revision)
+  {
+    return new CDORevisionCacheConcurrent(supportingBranches);
+  }
+
+  public final boolean isSupportingBranches()
+  {
+    return supportingBranches;
+  }
+
+  public EClass getObjectType(CDOID id)
+  {
+    if (supportingBranches)
+    {
+      TypeAndRefCounter typeCounter = typeMap.get(id);
+      if (typeCounter != null)
+      {
+        return typeCounter.getType();
+      }
+
+      return null;
+    }
+
+    RevisionChain revisionChain = revisionChains.get(id);
+    if (revisionChain != null)
+    {
+      return revisionChain.getType();
+    }
+
+    return null;
+  }
+
+  public InternalCDORevision getRevision(CDOID id, CDOBranchPoint branchPoint)
+  {
+    CDOBranch branch = branchPoint.getBranch();
+    checkBranch(branch);
+
+    RevisionChain revisionChain = revisionChains.get(createKey(id, branch));
+    if (revisionChain != null)
+    {
+      return resolve(revisionChain.getReference(branchPoint.getTimeStamp()));
+    }
+
+    return resolve(null);
+  }
+
+  public InternalCDORevision getRevisionByVersion(CDOID id, CDOBranchVersion branchVersion)
+  {
+    CDOBranch branch = branchVersion.getBranch();
+    checkBranch(branch);
+
+    RevisionChain revisionChain = revisionChains.get(createKey(id, branch));
+    if (revisionChain != null)
+    {
+      return resolve(revisionChain.getReferenceByVersion(branchVersion.getVersion()));
+    }
+
+    return resolve(null);
+  }
+
+  public List<CDORevision> getCurrentRevisions()
+  {
+    List<CDORevision> currentRevisions = new ArrayList<CDORevision>();
+    for (RevisionChain revisionChain : revisionChains.values())
+    {
+      Reference<InternalCDORevision> reference = revisionChain.getReference(CDORevision.UNSPECIFIED_DATE);
+      InternalCDORevision revision = reference == null ? null : reference.get();
+      if (revision != null)
+      {
+        currentRevisions.add(revision);
+      }
+    }
+
+    return currentRevisions;
+  }
+
+  public Map<CDOBranch, List<CDORevision>> getAllRevisions()
+  {
+    Map<CDOBranch, List<CDORevision>> result = new HashMap<CDOBranch, List<CDORevision>>();
+    for (RevisionChain revisionChain : revisionChains.values())
+    {
+      revisionChain.getAllRevisions(result);
+    }
+
+    return result;
+  }
+
+  public void getAllRevisions(List<InternalCDORevision> result)
+  {
+    for (RevisionChain revisionChain : revisionChains.values())
+    {
+      revisionChain.getAllRevisions(result);
+    }
+  }
+
+  public List<CDORevision> getRevisions(CDOBranchPoint branchPoint)
+  {
+    CDOBranch branch = branchPoint.getBranch();
+    checkBranch(branch);
+
+    List<CDORevision> result = new ArrayList<CDORevision>();
+    for (Map.Entry<Object, RevisionChain> entry : revisionChains.entrySet())
+    {
+      if (isKeyInBranch(entry.getKey(), branch))
+      {
+        Reference<InternalCDORevision> reference = entry.getValue().getReference(branchPoint.getTimeStamp());
+        InternalCDORevision revision = reference == null ? null : reference.get();
+        if (revision != null)
+        {
+          result.add(revision);
+        }
+      }
+    }
+
+    return result;
+  }
+
+  @Override
+  protected void doAddRevision(CDORevision revision)
+  {
+    CheckUtil.checkArg(revision, "revision");
+
+    CDOBranch branch = revision.getBranch();
+    checkBranch(branch);
+
+    CDOID id = revision.getID();
+    Object key = createKey(id, branch);
+    Reference<InternalCDORevision> reference = createReference(revision);
+
+    for (;;)
+    {
+      RevisionChain revisionChain = revisionChains.get(key);
+      if (revisionChain == null)
+      {
+        RevisionChain newChain = new RevisionChain(revision.getEClass());
+        revisionChain = revisionChains.putIfAbsent(key, newChain);
+        if (revisionChain == null)
+        {
+          revisionChain = newChain;
+          typeRefIncrease(id, revisionChain.getType());
+        }
+      }
+
+      synchronized (revisionChain)
+      {
+        if (revisionChain.isRetired())
+        {
+          // The chain has been removed from the map concurrently; retry with a fresh one
+          continue;
+        }
+
+        if (revisionChain.addReference(reference))
+        {
+          referenceAdded(reference);
+        }
+
+        return;
+      }
+    }
+  }
+
+  @Override
+  protected InternalCDORevision doRemoveRevision(CDOID id, CDOBranchVersion branchVersion)
+  {
+    CDOBranch branch = branchVersion.getBranch();
+    checkBranch(branch);
+
+    Object key = createKey(id, branch);
+    RevisionChain revisionChain = revisionChains.get(key);
+    if (revisionChain == null)
+    {
+      return null;
+    }
+
+    synchronized (revisionChain)
+    {
+      if (revisionChain.isRetired() || revisionChain.isEmpty())
+      {
+        // An empty chain has just been created and is about to receive its first revision
+        return null;
+      }
+
+      Reference<InternalCDORevision> reference = revisionChain.removeReference(branchVersion.getVersion());
+      if (reference != null)
+      {
+        referenceRemoved(reference);
+      }
+
+      if (revisionChain.isEmpty())
+      {
+        revisionChain.retire();
+        revisionChains.remove(key, revisionChain);
+        typeRefDecrease(id);
+
+        if (TRACER.isEnabled())
+        {
+          TRACER.format("Removed cache chain of {0}", key); //$NON-NLS-1$
+        }
+      }
+
+      return reference == null ? null : reference.get();
+    }
+  }
+
+  public void clear()
+  {
+    for (RevisionChain revisionChain : revisionChains.values())
+    {
+      synchronized (revisionChain)
+      {
+        revisionChain.retire();
+      }
+    }
+
+    revisionChains.clear();
+    typeMap.clear();
+  }
+
+  /**
+   * Returns the revision of a reference that has been looked up by {@link #getRevision(CDOID, CDOBranchPoint)
+   * getRevision()} or {@link #getRevisionByVersion(CDOID, CDOBranchVersion) getRevisionByVersion()}, or
+   * <code>null</code> if the lookup failed. Can be overridden to record hits and misses. Must not block.
+   */
+  protected InternalCDORevision resolve(Reference<InternalCDORevision> reference)
+  {
+    return reference == null ? null : reference.get();
+  }
+
+  /**
+   * Called while holding the lock of the {@link RevisionChain chain} that the reference has been added to.
+   */
+  protected void referenceAdded(Reference<InternalCDORevision> reference)
+  {
+    // Do nothing
+  }
+
+  /**
+   * Called while holding the lock of the {@link RevisionChain chain} that the reference has been removed from.
+   */
+  protected void referenceRemoved(Reference<InternalCDORevision> reference)
+  {
+    // Do nothing
+  }
+
+  protected Object createKey(CDOID id, CDOBranch branch)
+  {
+    if (supportingBranches)
+    {
+      return new BranchKey(id, branch.getID());
+    }
+
+    return id;
+  }
+
+  protected boolean isKeyInBranch(Object key, CDOBranch branch)
+  {
+    if (supportingBranches)
+    {
+      return ((BranchKey)key).getBranchID() == branch.getID();
+    }
+
+    return true;
+  }
+
+  private void typeRefIncrease(CDOID id, EClass type)
+  {
+    if (supportingBranches)
+    {
+      synchronized (typeMap)
+      {
+        TypeAndRefCounter typeCounter = typeMap.get(id);
+        if (typeCounter == null)
+        {
+          typeCounter = new TypeAndRefCounter(type);
+          typeMap.put(id, typeCounter);
+        }
+
+        typeCounter.increase();
+      }
+    }
+  }
+
+  private void typeRefDecrease(CDOID id)
+  {
+    if (supportingBranches)
+    {
+      synchronized (typeMap)
+      {
+        TypeAndRefCounter typeCounter = typeMap.get(id);
+        if (typeCounter != null && typeCounter.decreaseAndGet() == 0)
+        {
+          typeMap.remove(id);
+        }
+      }
+    }
+  }
+
+  @SuppressWarnings("unchecked")
+  private static Reference<InternalCDORevision>[] createReferences(int length)
+  {
+    return (Reference<InternalCDORevision>[])new Reference<?>[length];
+  }
+
+  private static int getVersion(Reference<InternalCDORevision> reference)
+  {
+    return ((CDORevisionKey)reference).getVersion();
+  }
+
+  /**
+   * A compact, immutable key of an object in a branch, with a precomputed hash code.
+   *
+   * @author Eike Stepper
+   */
+  private static final class BranchKey
+  {
+    private final CDOID id;
+
+    private final int branchID;
+
+    private final int hashCode;
+
+    public BranchKey(CDOID id, int branchID)
+    {
+      this.id = id;
+      this.branchID = branchID;
+      hashCode = 31 * id.hashCode() + branchID;
+    }
+
+    public int getBranchID()
+    {
+      return branchID;
+    }
+
+    @Override
+    public int hashCode()
+    {
+      return hashCode;
+    }
+
+    @Override
+    public boolean equals(Object obj)
+    {
+      if (obj == this)
+      {
+        return true;
+      }
+
+      if (obj instanceof BranchKey)
+      {
+        BranchKey that = (BranchKey)obj;
+        return branchID == that.branchID && id.equals(that.id);
+      }
+
+      return false;
+    }
+
+    @Override
+    public String toString()
+    {
+      return id + ":" + branchID;
+    }
+  }
+
+  /**
+   * The revisions of an object in a branch, sorted by descending version. The array is never modified after it has been
+   * published, so that readers can access it without locking. Writers must synchronize on the chain.
+   *
+   * @author Eike Stepper
+   */
+  protected static final class RevisionChain
+  {
+    private static final Reference<InternalCDORevision>[] NO_REFERENCES = createReferences(0);
+
+    private final EClass type;
+
+    private volatile Reference<InternalCDORevision>[] references = NO_REFERENCES;
+
+    private boolean retired;
+
+    public RevisionChain(EClass type)
+    {
+      this.type = type;
+    }
+
+    public EClass getType()
+    {
+      return type;
+    }
+
+    public boolean isEmpty()
+    {
+      return references.length == 0;
+    }
+
+    public boolean isRetired()
+    {
+      return retired;
+    }
+
+    public void retire()
+    {
+      retired = true;
+    }
+
+    public Reference<InternalCDORevision> getReference(long timeStamp)
+    {
+      Reference<InternalCDORevision>[] references = this.references;
+      if (timeStamp == CDORevision.UNSPECIFIED_DATE)
+      {
+        if (references.length != 0)
+        {
+          Reference<InternalCDORevision> reference = references[0];
+          InternalCDORevision revision = reference.get();
+          if (revision != null && !revision.isHistorical())
+          {
+            return reference;
+          }
+        }
+
+        return null;
+      }
+
+      for (int i = 0; i < references.length; i++)
+      {
+        Reference<InternalCDORevision> reference = references[i];
+        InternalCDORevision revision = reference.get();
+        if (revision != null)
+        {
+          long created = revision.getTimeStamp();
+          if (created <= timeStamp)
+          {
+            long revised = revision.getRevised();
+            if (timeStamp <= revised || revised == CDORevision.UNSPECIFIED_DATE)
+            {
+              return reference;
+            }
+
+            break;
+          }
+        }
+      }
+
+      return null;
+    }
+
+    public Reference<InternalCDORevision> getReferenceByVersion(int version)
+    {
+      Reference<InternalCDORevision>[] references = this.references;
+      int index = indexOf(references, version);
+      if (index >= 0)
+      {
+        return references[index];
+      }
+
+      return null;
+    }
+
+    /**
+     * Must be called while holding the lock of this chain.
+     */
+    public boolean addReference(Reference<InternalCDORevision> reference)
+    {
+      Reference<InternalCDORevision>[] references = purge(this.references);
+      int index = indexOf(references, getVersion(reference));
+      if (index >= 0)
+      {
+        this.references = references;
+        return false;
+      }
+
+      index = -(index + 1);
+      Reference<InternalCDORevision>[] newReferences = createReferences(references.length + 1);
+      System.arraycopy(references, 0, newReferences, 0, index);
+      newReferences[index] = reference;
+      System.arraycopy(references, index, newReferences, index + 1, references.length - index);
+
+      this.references = newReferences;
+      return true;
+    }
+
+    /**
+     * Must be called while holding the lock of this chain.
+     */
+    public Reference<InternalCDORevision> removeReference(int version)
+    {
+      Reference<InternalCDORevision>[] references = purge(this.references);
+      int index = indexOf(references, version);
+      if (index < 0)
+      {
+        this.references = references;
+        return null;
+      }
+
+      Reference<InternalCDORevision> reference = references[index];
+      Reference<InternalCDORevision>[] newReferences = createReferences(references.length - 1);
+      System.arraycopy(references, 0, newReferences, 0, index);
+      System.arraycopy(references, index + 1, newReferences, index, newReferences.length - index);
+
+      this.references = newReferences;
+
+      if (TRACER.isEnabled())
+      {
+        TRACER.format("Removed version {0} from cache chain of {1}", version, ((CDORevisionKey)reference).getID()); //$NON-NLS-1$
+      }
+
+      return reference;
+    }
+
+    public void getAllRevisions(Map<CDOBranch, List<CDORevision>> result)
+    {
+      for (Reference<InternalCDORevision> reference : references)
+      {
+        InternalCDORevision revision = reference.get();
+        if (revision != null)
+        {
+          CDOBranch branch = revision.getBranch();
+          List<CDORevision> resultList = result.get(branch);
+          if (resultList == null)
+          {
+            resultList = new ArrayList<CDORevision>(1);
+            result.put(branch, resultList);
+          }
+
+          resultList.add(revision);
+        }
+      }
+    }
+
+    public void getAllRevisions(List<InternalCDORevision> result)
+    {
+      for (Reference<InternalCDORevision> reference : references)
+      {
+        InternalCDORevision revision = reference.get();
+        if (revision != null)
+        {
+          result.add(revision);
+        }
+      }
+    }
+
+    @Override
+    public String toString()
+    {
+      StringBuilder builder = new StringBuilder("{");
+      for (Reference<InternalCDORevision> reference : references)
+      {
+        if (builder.length() > 1)
+        {
+          builder.append(", ");
+        }
+
+        builder.append(reference.get());
+      }
+
+      builder.append("}");
+      return builder.toString();
+    }
+
+    /**
+     * Returns the index of the given version or <code>-(insertionPoint + 1)</code>, like
+     * {@link java.util.Arrays#binarySearch(int[], int) Arrays.binarySearch()}, but for a descending order.
+     */
+    private static int indexOf(Reference<InternalCDORevision>[] references, int version)
+    {
+      int low = 0;
+      int high = references.length - 1;
+
+      while (low <= high)
+      {
+        int mid = low + high >>> 1;
+        int midVersion = getVersion(references[mid]);
+
+        if (midVersion > version)
+        {
+          low = mid + 1;
+        }
+        else if (midVersion < version)
+        {
+          high = mid - 1;
+        }
+        else
+        {
+          return mid;
+        }
+      }
+
+      return -(low + 1);
+    }
+
+    /**
+     * Returns an array without the references that have been cleared by the garbage collector. They're still being
+     * enqueued and {@link AbstractCDORevisionCache#cleanReference(Reference) cleaned}, which is a no-op then.
+     */
+    private static Reference<InternalCDORevision>[] purge(Reference<InternalCDORevision>[] references)
+    {
+      Reference<InternalCDORevision>[] result = null;
+      int length = 0;
+
+      for (int i = 0; i < references.length; i++)
+      {
+        Reference<InternalCDORevision> reference = references[i];
+        if (reference.get() == null)
+        {
+          if (result == null)
+          {
+            result = createReferences(references.length - 1);
+            System.arraycopy(references, 0, result, 0, i);
+            length = i;
+          }
+        }
+        else if (result != null)
+        {
+          result[length++] = reference;
+        }
+      }
+
+      if (result == null)
+      {
+        return references;
+      }
+
+      if (length < result.length)
+      {
+        Reference<InternalCDORevision>[] trimmed = createReferences(length);
+        System.arraycopy(result, 0, trimmed, 0, length);
+        result = trimmed;
+      }
+
+      return result;
+    }
+  }
+
+  /**
+   * @author Eike Stepper
+   */
+  private static final class TypeAndRefCounter
+  {
+    private final EClass type;
+
+    private int refCounter;
+
+    public TypeAndRefCounter(EClass type)
+    {
+      this.type = type;
+    }
+
+    public EClass getType()
+    {
+      return type;
+    }
+
+    public void increase()
+    {
+      ++refCounter;
+    }
+
+    public int decreaseAndGet()
+    {
+      return --refCounter;
+    }
+  }
+}
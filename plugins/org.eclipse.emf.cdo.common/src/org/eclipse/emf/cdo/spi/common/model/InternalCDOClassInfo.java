@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2012, 2013 Eike Stepper (Berlin, Germany) and others.
+ * Copyright (c) 2012, 2013, 2016 Eike Stepper (Berlin, Germany) and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -12,6 +12,7 @@ package org.eclipse.emf.cdo.spi.common.model;
 
 import org.eclipse.emf.cdo.common.id.CDOID;
 import org.eclipse.emf.cdo.common.model.CDOClassInfo;
+import org.eclipse.emf.cdo.common.model.CDOType;
 import org.eclipse.emf.cdo.common.model.EMFUtil;
 import org.eclipse.emf.cdo.internal.common.revision.CDORevisionImpl;
 import org.eclipse.emf.cdo.spi.common.revision.InternalCDORevision;
@@ -89,6 +90,40 @@ public interface InternalCDOClassInfo extends CDOClassInfo
    */
   public int getTransientFeatureIndex(EStructuralFeature feature);
 
+  /**
+   * Returns the number of {@link #getPrimitiveFeatureSlot(int) primitive features}.
+   *
+   * @since 4.6
+   */
+  public int getPrimitiveFeatureCount();
+
+  /**
+   * Returns the slot of the persistent feature with the specified {@link #getPersistentFeatureIndex(int) index} in the
+   * <code>long</code> array of a revision with a primitive value layout, or {@link #NO_SLOT} if the feature is not a
+   * single-valued attribute with a primitive <code>int</code>, <code>long</code>, <code>short</code>, <code>char</code>,
+   * <code>float</code> or <code>double</code> type.
+   *
+   * @see #getObjectFeatureSlot(int)
+   * @since 4.6
+   */
+  public int getPrimitiveFeatureSlot(int featureIndex);
+
+  /**
+   * Returns the {@link CDOType type} of the primitive feature with the specified slot.
+   *
+   * @see #getPrimitiveFeatureSlot(int)
+   * @since 4.6
+   */
+  public CDOType getPrimitiveFeatureType(int slot);
+
+  /**
+   * Returns the slot of the persistent feature with the specified {@link #getPersistentFeatureIndex(int) index} in the
+   * object array of a revision with a primitive value layout, or {@link #NO_SLOT} if the feature is a {@link #getPrimitiveFeatureSlot(int) primitive feature}.
+   *
+   * @since 4.6
+   */
+  public int getObjectFeatureSlot(int featureIndex);
+
   /**
    * Obtains a rule that filters/transforms the persist values of the given
    * {@code feature}.
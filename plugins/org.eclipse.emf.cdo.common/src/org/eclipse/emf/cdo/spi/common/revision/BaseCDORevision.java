@@ -105,7 +105,10 @@ public abstract class BaseCDORevision extends AbstractCDORevision
 
   private int version;
 
-  private long revised;
+  /**
+   * Volatile because stores like the MEMStore revise revisions that are concurrently read without synchronization.
+   */
+  private volatile long revised;
 
   private CDOID resourceID;
 
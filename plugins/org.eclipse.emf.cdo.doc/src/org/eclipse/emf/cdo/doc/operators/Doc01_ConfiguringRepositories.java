@@ -169,6 +169,21 @@ public class Doc01_ConfiguringRepositories
     {
     }
 
+    /**
+     * Property hybridTimeStamps
+     * <p>
+     * Specifies whether the repository will issue commit timestamps from a hybrid logical clock or not.
+     * <p>
+     * By default a commit waits until the physical clock has advanced past the timestamp of the previous commit,
+     * which limits the repository to one commit per millisecond. With a hybrid logical clock the repository issues the successor
+     * of the previous timestamp instead, so that timestamps can temporarily run slightly ahead of the physical clock under high commit rates.
+     * <p>
+     * Valid values: <code>false</code> (default) or <code>true</code>.
+     */
+    public class Property_hybridTimeStamps
+    {
+    }
+
     /**
      * Property_allowInterruptRunningQueries
      * <p>
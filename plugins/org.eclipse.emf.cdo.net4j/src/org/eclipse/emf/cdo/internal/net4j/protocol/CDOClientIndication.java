@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2009-2013 Eike Stepper (Berlin, Germany) and others.
+ * Copyright (c) 2009-2013, 2016 Eike Stepper (Berlin, Germany) and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -88,7 +88,7 @@ public abstract class CDOClientIndication extends Indication
       @Override
       protected StringIO getPackageURICompressor()
       {
-        return getProtocol().getPackageURICompressor();
+        return CDOClientIndication.this.getPackageURICompressor();
       }
 
       @Override
@@ -123,5 +123,10 @@ public abstract class CDOClientIndication extends Indication
     });
   }
 
+  protected StringIO getPackageURICompressor()
+  {
+    return getProtocol().getPackageURICompressor();
+  }
+
   protected abstract void indicating(CDODataInput in) throws IOException;
 }
@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2009-2013 Eike Stepper (Berlin, Germany) and others.
+ * Copyright (c) 2009-2013, 2016 Eike Stepper (Berlin, Germany) and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -16,6 +16,9 @@ import org.eclipse.emf.cdo.common.protocol.CDOProtocol;
 import org.eclipse.emf.cdo.common.protocol.CDOProtocol.CommitNotificationInfo;
 import org.eclipse.emf.cdo.common.protocol.CDOProtocolConstants;
 
+import org.eclipse.net4j.util.io.StringIO;
+import org.eclipse.net4j.util.io.StringTable;
+
 import org.eclipse.emf.spi.cdo.InternalCDOSession;
 
 import java.io.IOException;
@@ -25,11 +28,19 @@ import java.io.IOException;
  */
 public class CommitNotificationIndication extends CDOClientIndication
 {
+  private final StringIO packageURICompressor = new StringTable();
+
   public CommitNotificationIndication(CDOClientProtocol protocol)
   {
     super(protocol, CDOProtocolConstants.SIGNAL_COMMIT_NOTIFICATION);
   }
 
+  @Override
+  protected StringIO getPackageURICompressor()
+  {
+    return packageURICompressor;
+  }
+
   @Override
   protected void indicating(CDODataInput in) throws IOException
   {
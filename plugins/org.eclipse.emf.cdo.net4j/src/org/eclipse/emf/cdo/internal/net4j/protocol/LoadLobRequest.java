@@ -15,10 +15,13 @@ import org.eclipse.emf.cdo.common.protocol.CDODataInput;
 import org.eclipse.emf.cdo.common.protocol.CDODataOutput;
 import org.eclipse.emf.cdo.common.protocol.CDOProtocolConstants;
 
+import org.eclipse.net4j.buffer.BufferInputStream;
 import org.eclipse.net4j.util.io.ExtendedDataInputStream;
 import org.eclipse.net4j.util.io.IOUtil;
 
 import java.io.Closeable;
+import java.io.EOFException;
+import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStreamReader;
 import java.io.OutputStream;
@@ -51,7 +54,17 @@ public class LoadLobRequest extends CDOClientRequest<Boolean>
   {
     try
     {
-      if (out instanceof OutputStream)
+      BufferInputStream bufferInputStream = getBufferInputStream();
+      if (out instanceof FileOutputStream && getCurrentInputStream() == bufferInputStream)
+      {
+        // No stream wrapper is involved, write the received buffers directly into the file
+        long size = info.getSize();
+        if (bufferInputStream.transferTo(((FileOutputStream)out).getChannel(), size) < size)
+        {
+          throw new EOFException();
+        }
+      }
+      else if (out instanceof OutputStream)
       {
         IOUtil.copyBinary(in, (OutputStream)out, info.getSize());
       }
@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2013 Eike Stepper (Berlin, Germany) and others.
+ * Copyright (c) 2013, 2016 Eike Stepper (Berlin, Germany) and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -10,7 +10,9 @@
  */
 package org.eclipse.emf.cdo.internal.security;
 
+import org.eclipse.emf.cdo.common.revision.CDORevision;
 import org.eclipse.emf.cdo.common.revision.CDORevisionProvider;
+import org.eclipse.emf.cdo.common.revision.CDORevisionUtil;
 import org.eclipse.emf.cdo.view.CDOView;
 
 import java.util.HashMap;
@@ -27,6 +29,8 @@ public final class PermissionUtil
 
   private static final ThreadLocal<Map<CDORevisionProvider, CDOView>> VIEWS = new ThreadLocal<Map<CDORevisionProvider, CDOView>>();
 
+  private static final ThreadLocal<ResourcePath> RESOURCE_PATH = new ThreadLocal<ResourcePath>();
+
   private PermissionUtil()
   {
   }
@@ -80,6 +84,30 @@ public final class PermissionUtil
     return view;
   }
 
+  /**
+   * Returns the path of the resource node that contains the given revision.
+   * <p>
+   * Between {@link #initViewCreation(ViewCreator)} and {@link #doneViewCreation()} the path of the last revision is
+   * remembered, so that the resource filters of all permissions that are applied to a revision resolve its path only once.
+   */
+  public static String getResourcePath(CDORevision revision, CDORevisionProvider revisionProvider)
+  {
+    if (VIEW_CREATOR.get() == null)
+    {
+      return CDORevisionUtil.getResourceNodePath(revision, revisionProvider);
+    }
+
+    ResourcePath resourcePath = RESOURCE_PATH.get();
+    if (resourcePath == null || resourcePath.revision != revision || resourcePath.revisionProvider != revisionProvider)
+    {
+      String path = CDORevisionUtil.getResourceNodePath(revision, revisionProvider);
+      resourcePath = new ResourcePath(revision, revisionProvider, path);
+      RESOURCE_PATH.set(resourcePath);
+    }
+
+    return resourcePath.path;
+  }
+
   public static void initViewCreation(ViewCreator viewCreator)
   {
     VIEW_CREATOR.set(viewCreator);
@@ -89,5 +117,25 @@ public final class PermissionUtil
   {
     VIEW_CREATOR.remove();
     VIEWS.remove();
+    RESOURCE_PATH.remove();
+  }
+
+  /**
+   * @author Eike Stepper
+   */
+  private static final class ResourcePath
+  {
+    private final CDORevision revision;
+
+    private final CDORevisionProvider revisionProvider;
+
+    private final String path;
+
+    public ResourcePath(CDORevision revision, CDORevisionProvider revisionProvider, String path)
+    {
+      this.revision = revision;
+      this.revisionProvider = revisionProvider;
+      this.path = path;
+    }
   }
 }
@@ -16,9 +16,14 @@ import org.eclipse.emf.cdo.common.revision.CDORevisionProvider;
 import org.eclipse.emf.cdo.security.ClassFilter;
 import org.eclipse.emf.cdo.security.SecurityPackage;
 import org.eclipse.emf.cdo.security.impl.PermissionImpl.CommitImpactContext;
+import org.eclipse.emf.cdo.spi.common.revision.InternalCDORevision;
 
 import org.eclipse.emf.ecore.EClass;
 
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
 /**
  * <!-- begin-user-doc -->
  * An implementation of the model object '<em><b>Class Filter</b></em>'.
@@ -36,6 +41,13 @@ import org.eclipse.emf.ecore.EClass;
  */
 public class ClassFilterImpl extends PermissionFilterImpl implements ClassFilter
 {
+  /**
+   * The results of this filter per actual class. Cleared when this filter is modified.
+   */
+  private transient Map<EClass, Boolean> results;
+
+  private transient int lastVersion;
+
   /**
    * <!-- begin-user-doc -->
    * <!-- end-user-doc -->
@@ -101,14 +113,44 @@ public class ClassFilterImpl extends PermissionFilterImpl implements ClassFilter
   protected boolean filter(CDORevision revision, CDORevisionProvider revisionProvider, CDOBranchPoint securityContext, int level) throws Exception
   {
     EClass actualClass = revision.getEClass();
-    EClass applicableClass = getApplicableClass();
 
-    if (isSubTypes())
+    Map<EClass, Boolean> results = getResults();
+    Boolean result = results.get(actualClass);
+    if (result == null)
+    {
+      EClass applicableClass = getApplicableClass();
+      if (isSubTypes())
+      {
+        result = applicableClass.isSuperTypeOf(actualClass);
+      }
+      else
+      {
+        result = applicableClass == actualClass;
+      }
+
+      results.put(actualClass, result);
+    }
+
+    return result;
+  }
+
+  private Map<EClass, Boolean> getResults()
+  {
+    InternalCDORevision revision = cdoRevision();
+    if (revision == null)
+    {
+      // Don't cache the results of a transient filter
+      return new HashMap<EClass, Boolean>();
+    }
+
+    int currentVersion = revision.getVersion();
+    if (currentVersion > lastVersion || results == null)
     {
-      return applicableClass.isSuperTypeOf(actualClass);
+      results = new ConcurrentHashMap<EClass, Boolean>();
+      lastVersion = currentVersion;
     }
 
-    return applicableClass == actualClass;
+    return results;
   }
 
   public boolean isImpacted(CommitImpactContext context)
@@ -15,11 +15,11 @@ import org.eclipse.emf.cdo.common.id.CDOID;
 import org.eclipse.emf.cdo.common.id.CDOIDUtil;
 import org.eclipse.emf.cdo.common.revision.CDORevision;
 import org.eclipse.emf.cdo.common.revision.CDORevisionProvider;
-import org.eclipse.emf.cdo.common.revision.CDORevisionUtil;
 import org.eclipse.emf.cdo.common.revision.delta.CDOContainerFeatureDelta;
 import org.eclipse.emf.cdo.common.revision.delta.CDOFeatureDelta;
 import org.eclipse.emf.cdo.eresource.CDOResourceNode;
 import org.eclipse.emf.cdo.eresource.EresourcePackage;
+import org.eclipse.emf.cdo.internal.security.PermissionUtil;
 import org.eclipse.emf.cdo.security.PatternStyle;
 import org.eclipse.emf.cdo.security.ResourceFilter;
 import org.eclipse.emf.cdo.security.SecurityPackage;
@@ -33,6 +33,9 @@ import org.eclipse.net4j.util.WrappedException;
 import org.eclipse.emf.common.util.BasicEList;
 import org.eclipse.emf.ecore.EClass;
 
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Set;
 import java.util.regex.Pattern;
 import java.util.regex.PatternSyntaxException;
 
@@ -334,7 +337,7 @@ public class ResourceFilterImpl extends PermissionFilterImpl implements Resource
       return false;
     }
 
-    String revisionPath = CDORevisionUtil.getResourceNodePath(revision, revisionProvider);
+    String revisionPath = PermissionUtil.getResourcePath(revision, revisionProvider);
 
     BasicEList<Matcher> list = getMatchers();
     Object[] matchers = list.data();
@@ -465,6 +468,7 @@ public class ResourceFilterImpl extends PermissionFilterImpl implements Resource
 
     BasicEList<Matcher> list = new BasicEList<Matcher>(1);
     getMatchers(list, path, patternStyle, includeParents);
+    compileExactMatchers(list);
 
     if (userTokenPos == USER_TOKEN_NONE)
     {
@@ -493,6 +497,35 @@ public class ResourceFilterImpl extends PermissionFilterImpl implements Resource
     }
   }
 
+  /**
+   * Replaces the exact matchers of the given list, typically the ones of the parent paths, with a single
+   * {@link ExactSetMatcher} that needs only one hash lookup.
+   */
+  private static void compileExactMatchers(BasicEList<Matcher> matchers)
+  {
+    Set<String> paths = new HashSet<String>();
+    for (Matcher matcher : matchers)
+    {
+      if (matcher instanceof ExactMatcher)
+      {
+        paths.add(((ExactMatcher)matcher).path);
+      }
+    }
+
+    if (paths.size() > 1)
+    {
+      for (Iterator<Matcher> it = matchers.iterator(); it.hasNext();)
+      {
+        if (it.next() instanceof ExactMatcher)
+        {
+          it.remove();
+        }
+      }
+
+      matchers.add(0, new ExactSetMatcher(paths));
+    }
+  }
+
   private Matcher createMatcher(String path, PatternStyle patternStyle)
   {
     switch (patternStyle)
@@ -594,6 +627,37 @@ public class ResourceFilterImpl extends PermissionFilterImpl implements Resource
     }
   }
 
+  /**
+   * Matches the path of a {@link CDOResourceNode resource node} against a set of path strings.
+   *
+   * @author Eike Stepper
+   */
+  private static final class ExactSetMatcher implements Matcher
+  {
+    private final Set<String> paths;
+
+    public ExactSetMatcher(Set<String> paths)
+    {
+      this.paths = paths;
+    }
+
+    public boolean matches(String revisionPath)
+    {
+      return paths.contains(revisionPath);
+    }
+
+    public PatternStyle getParentPatternStyle()
+    {
+      return PatternStyle.EXACT;
+    }
+
+    @Override
+    public String toString()
+    {
+      return getClass().getSimpleName() + paths;
+    }
+  }
+
   /**
    * @author Eike Stepper
    */
@@ -148,5 +148,37 @@ public interface IDBStore extends IStore, IDBConnectionProvider, CanHandleClient
      * @since 4.4
      */
     public static final String JDBC_FETCH_SIZE = "jdbcFetchSize"; //$NON-NLS-1$
+
+    /**
+     * Enables a persistent reverse-reference index that answers xref queries on the head of a branch, e.g., for
+     * referential integrity checks, with one indexed lookup. Default is <code>false</code>.
+     *
+     * @since 4.5
+     */
+    public static final String XREF_INDEX = "xrefIndex"; //$NON-NLS-1$
+
+    /**
+     * The number of inserts per table that are sent to the database in one JDBC batch when revisions are written.
+     * A value of 1 or less disables batching. Default is 100.
+     *
+     * @since 4.5
+     */
+    public static final String WRITE_BATCH_SIZE = "writeBatchSize"; //$NON-NLS-1$
+
+    /**
+     * The time in microseconds that a committing transaction waits for concurrent transactions to join its group, so
+     * that the whole group can be made durable with a single log flush. A value of 0 disables group commit. Default is 0.
+     *
+     * @since 4.5
+     */
+    public static final String GROUP_COMMIT_WINDOW = "groupCommitWindow"; //$NON-NLS-1$
+
+    /**
+     * The number of transactions after which a group is committed without waiting for the rest of the
+     * {@link #GROUP_COMMIT_WINDOW group commit window}. Default is 32.
+     *
+     * @since 4.5
+     */
+    public static final String GROUP_COMMIT_MAX_SIZE = "groupCommitMaxSize"; //$NON-NLS-1$
   }
 }
@@ -0,0 +1,34 @@
+/*
+ * Copyright (c) 2016 Eike Stepper (Berlin, Germany) and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    Eike Stepper - initial API and implementation
+ */
+package org.eclipse.emf.cdo.server.db.mapping;
+
+import org.eclipse.emf.cdo.common.branch.CDOBranchPoint;
+import org.eclipse.emf.cdo.common.id.CDOID;
+import org.eclipse.emf.cdo.common.revision.CDORevisionHandler;
+import org.eclipse.emf.cdo.server.db.IDBStoreAccessor;
+
+import java.util.List;
+
+/**
+ * An extension interface for {@link IClassMapping class mappings} that can read the revisions of several objects
+ * with a single SQL statement.
+ *
+ * @author Eike Stepper
+ * @since 4.5
+ */
+public interface IClassMappingBatchSupport extends IClassMapping
+{
+  /**
+   * Reads the revisions of the given objects, which must all be of the {@link #getEClass() mapped class},
+   * and passes each revision that exists in the given branch point to the given revision handler.
+   */
+  public void readRevisions(IDBStoreAccessor accessor, List<CDOID> ids, CDOBranchPoint branchPoint, int listChunk, CDORevisionHandler revisionHandler);
+}
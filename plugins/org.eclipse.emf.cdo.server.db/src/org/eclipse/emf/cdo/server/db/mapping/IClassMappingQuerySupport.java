@@ -0,0 +1,56 @@
+/*
+ * Copyright (c) 2016 Eike Stepper (Berlin, Germany) and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    Eike Stepper - initial API and implementation
+ */
+package org.eclipse.emf.cdo.server.db.mapping;
+
+import org.eclipse.emf.cdo.common.branch.CDOBranchPoint;
+
+import org.eclipse.net4j.db.ddl.IDBField;
+import org.eclipse.net4j.db.ddl.IDBTable;
+
+import org.eclipse.emf.ecore.EStructuralFeature;
+
+/**
+ * An extension interface for {@link IClassMapping class mappings} that store the revisions of their
+ * {@link #getEClass() mapped class} in a single table with one column per single-valued feature, so that queries can be
+ * translated into SQL statements against that table.
+ *
+ * @author Eike Stepper
+ * @since 4.5
+ */
+public interface IClassMappingQuerySupport extends IClassMapping
+{
+  /**
+   * Returns the table that holds the attributes of the revisions of the mapped class.
+   */
+  public IDBTable getTable();
+
+  /**
+   * Returns the field of the {@link #getTable() table} that holds the object IDs.
+   */
+  public IDBField getIDField();
+
+  /**
+   * Returns the mapping of the given single-valued feature, or <code>null</code> if the feature is not mapped to a
+   * field of the {@link #getTable() table}.
+   */
+  public ITypeMapping getValueMapping(EStructuralFeature feature);
+
+  /**
+   * Appends an SQL condition to the given builder that selects the rows of the {@link #getTable() table} that hold the
+   * revisions which are visible at the given branch point.
+   *
+   * @param alias
+   *          the alias of the table in the SQL statement, or <code>null</code> if the table is not aliased.
+   * @return <code>true</code> if the condition has been appended, <code>false</code> if the visible revisions can not
+   *         be selected with a condition on the rows of the table alone, for example for sub branches.
+   */
+  public boolean appendVisibilityCondition(StringBuilder builder, String alias, CDOBranchPoint branchPoint);
+}
@@ -427,6 +427,14 @@ public interface IMappingStrategy
      */
     public static final String OBJECT_TYPE_CACHE_SIZE = "objectTypeCacheSize"; //$NON-NLS-1$
 
+    /**
+     * Name of the boolean property that configures whether the object type in-memory cache is filled with the types of
+     * the most recently created objects when the repository is started. Default is <code>false</code>.
+     *
+     * @since 4.5
+     */
+    public static final String OBJECT_TYPE_CACHE_WARM_UP = "objectTypeCacheWarmUp"; //$NON-NLS-1$
+
     /**
      * Name of a String property that specifies the name of a {@link ColumnTypeModifier column type modifier}.
      */
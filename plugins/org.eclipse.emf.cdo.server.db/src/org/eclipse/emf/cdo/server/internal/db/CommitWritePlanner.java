@@ -0,0 +1,246 @@
+/*
+ * Copyright (c) 2016 Eike Stepper (Berlin, Germany) and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    Eike Stepper - initial API and implementation
+ */
+package org.eclipse.emf.cdo.server.internal.db;
+
+import org.eclipse.emf.cdo.server.db.IDBStoreAccessor;
+import org.eclipse.emf.cdo.server.db.mapping.IClassMapping;
+import org.eclipse.emf.cdo.server.db.mapping.IMappingStrategy;
+import org.eclipse.emf.cdo.server.internal.db.bundle.OM;
+import org.eclipse.emf.cdo.spi.common.revision.InternalCDORevision;
+
+import org.eclipse.net4j.db.BatchedStatement;
+import org.eclipse.net4j.db.DBException;
+import org.eclipse.net4j.db.DBUtil;
+import org.eclipse.net4j.db.IDBPreparedStatement;
+import org.eclipse.net4j.db.IDBPreparedStatement.ReuseProbability;
+import org.eclipse.net4j.spi.db.DBAdapter;
+
+import org.eclipse.emf.ecore.EClass;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Plans the writes of one phase of a commit, so that the inserts of all revisions of a commit are sent to the database in
+ * JDBC batches, one per table, rather than one statement at a time.
+ * <p>
+ * While a planner is {@link DBStoreAccessor#getWritePlanner() active} the class and list mappings obtain their insert
+ * statements through {@link #prepareInsert(IDBStoreAccessor, String)}. Pending inserts are not visible to queries,
+ * so mappings that need to read what has been written in the same phase must call {@link #flush(IDBStoreAccessor)}
+ * first. Updates and deletes are never batched because their order matters.
+ *
+ * @author Eike Stepper
+ * @since 4.5
+ */
+public class CommitWritePlanner
+{
+  private final DBStoreAccessor accessor;
+
+  private final int batchSize;
+
+  private final Map<String, BatchedStatement> statements = new LinkedHashMap<String, BatchedStatement>();
+
+  private final List<IDBPreparedStatement> delegates = new ArrayList<IDBPreparedStatement>();
+
+  public CommitWritePlanner(DBStoreAccessor accessor, int batchSize)
+  {
+    this.accessor = accessor;
+    this.batchSize = batchSize;
+  }
+
+  public int getBatchSize()
+  {
+    return batchSize;
+  }
+
+  /**
+   * Groups the given revisions by their {@link IClassMapping class mappings}, so that the revisions of one class are
+   * written one after the other. The order of the revisions of one class is preserved.
+   */
+  public Map<IClassMapping, List<InternalCDORevision>> plan(InternalCDORevision[] revisions)
+  {
+    IMappingStrategy mappingStrategy = accessor.getStore().getMappingStrategy();
+    Map<EClass, List<InternalCDORevision>> byClass = new HashMap<EClass, List<InternalCDORevision>>();
+    Map<IClassMapping, List<InternalCDORevision>> plan = new LinkedHashMap<IClassMapping, List<InternalCDORevision>>();
+
+    for (InternalCDORevision revision : revisions)
+    {
+      EClass eClass = revision.getEClass();
+      List<InternalCDORevision> list = byClass.get(eClass);
+      if (list == null)
+      {
+        IClassMapping mapping = mappingStrategy.getClassMapping(eClass);
+        list = plan.get(mapping);
+        if (list == null)
+        {
+          list = new ArrayList<InternalCDORevision>();
+          plan.put(mapping, list);
+        }
+
+        byClass.put(eClass, list);
+      }
+
+      list.add(revision);
+    }
+
+    return plan;
+  }
+
+  /**
+   * Returns the batched statement for the given insert SQL, creating it if needed.
+   */
+  public PreparedStatement getStatement(String sql)
+  {
+    BatchedStatement stmt = statements.get(sql);
+    if (stmt == null)
+    {
+      IDBPreparedStatement delegate = accessor.getDBConnection().prepareStatement(sql, ReuseProbability.HIGH);
+      delegates.add(delegate);
+
+      DBAdapter dbAdapter = (DBAdapter)accessor.getStore().getDBAdapter();
+      stmt = dbAdapter.createBatchedStatement(delegate, batchSize);
+      statements.put(sql, stmt);
+    }
+
+    return stmt;
+  }
+
+  /**
+   * Sends all pending inserts to the database.
+   */
+  public void flush()
+  {
+    try
+    {
+      for (BatchedStatement stmt : statements.values())
+      {
+        stmt.flush();
+      }
+    }
+    catch (SQLException ex)
+    {
+      throw new DBException(ex);
+    }
+  }
+
+  /**
+   * Sends all pending inserts to the database and releases all statements.
+   */
+  public void close()
+  {
+    flush();
+
+    for (IDBPreparedStatement delegate : delegates)
+    {
+      DBUtil.close(delegate);
+    }
+
+    statements.clear();
+    delegates.clear();
+  }
+
+  /**
+   * Releases all statements without sending their pending inserts to the database.
+   */
+  public void discard()
+  {
+    for (IDBPreparedStatement delegate : delegates)
+    {
+      try
+      {
+        delegate.clearBatch();
+      }
+      catch (SQLException ex)
+      {
+        OM.LOG.warn(ex);
+      }
+
+      DBUtil.close(delegate);
+    }
+
+    statements.clear();
+    delegates.clear();
+  }
+
+  /**
+   * Returns a statement for the given insert SQL. If a planner is active for the given accessor the statement is batched,
+   * otherwise it's a regular prepared statement of the accessor's connection.
+   */
+  public static PreparedStatement prepareInsert(IDBStoreAccessor accessor, String sql)
+  {
+    CommitWritePlanner planner = getPlanner(accessor);
+    if (planner != null)
+    {
+      return planner.getStatement(sql);
+    }
+
+    return accessor.getDBConnection().prepareStatement(sql, ReuseProbability.HIGH);
+  }
+
+  /**
+   * Executes or batches an insert that was prepared with {@link #prepareInsert(IDBStoreAccessor, String)}.
+   */
+  public static void executeInsert(PreparedStatement stmt) throws SQLException
+  {
+    if (stmt instanceof BatchedStatement)
+    {
+      stmt.executeUpdate();
+    }
+    else
+    {
+      DBUtil.update(stmt, true);
+    }
+  }
+
+  /**
+   * Releases a statement that was prepared with {@link #prepareInsert(IDBStoreAccessor, String)}.
+   * Batched statements stay open until the planner is closed.
+   */
+  public static void close(PreparedStatement stmt)
+  {
+    if (!(stmt instanceof BatchedStatement))
+    {
+      DBUtil.close(stmt);
+    }
+  }
+
+  /**
+   * Sends the pending inserts of the planner that is active for the given accessor, if any, to the database.
+   */
+  public static void flush(IDBStoreAccessor accessor)
+  {
+    CommitWritePlanner planner = getPlanner(accessor);
+    if (planner != null)
+    {
+      planner.flush();
+    }
+  }
+
+  public static boolean isActive(IDBStoreAccessor accessor)
+  {
+    return getPlanner(accessor) != null;
+  }
+
+  private static CommitWritePlanner getPlanner(IDBStoreAccessor accessor)
+  {
+    if (accessor instanceof DBStoreAccessor)
+    {
+      return ((DBStoreAccessor)accessor).getWritePlanner();
+    }
+
+    return null;
+  }
+}
@@ -53,6 +53,7 @@ import org.eclipse.net4j.db.IDBSchemaTransaction;
 import org.eclipse.net4j.db.ddl.IDBField;
 import org.eclipse.net4j.db.ddl.IDBSchema;
 import org.eclipse.net4j.db.ddl.IDBTable;
+import org.eclipse.net4j.spi.db.DBAdapter;
 import org.eclipse.net4j.util.ReflectUtil.ExcludeFromDump;
 import org.eclipse.net4j.util.lifecycle.LifecycleUtil;
 import org.eclipse.net4j.util.om.monitor.ProgressDistributor;
@@ -117,6 +118,14 @@ public class DBStore extends Store implements IDBStore, IMappingConstants, CDOAl
 
   private int jdbcFetchSize = 100000;
 
+  private int writeBatchSize = 100;
+
+  private long groupCommitWindow;
+
+  private int groupCommitMaxSize = 32;
+
+  private volatile GroupCommitter groupCommitter;
+
   private IIDHandler idHandler;
 
   private IMetaDataManager metaDataManager = new MetaDataManager(this);
@@ -125,6 +134,10 @@ public class DBStore extends Store implements IDBStore, IMappingConstants, CDOAl
 
   private CommitInfoTable commitInfoTable;
 
+  private XRefIndexTable xrefIndexTable;
+
+  private boolean xrefIndex;
+
   private UnitMappingTable unitMappingTable;
 
   private IMappingStrategy mappingStrategy;
@@ -204,6 +217,11 @@ public class DBStore extends Store implements IDBStore, IMappingConstants, CDOAl
     return jdbcFetchSize;
   }
 
+  public int getWriteBatchSize()
+  {
+    return writeBatchSize;
+  }
+
   public int getIDColumnLength()
   {
     return idColumnLength;
@@ -259,6 +277,28 @@ public class DBStore extends Store implements IDBStore, IMappingConstants, CDOAl
     return commitInfoTable;
   }
 
+  public XRefIndexTable getXRefIndexTable()
+  {
+    return xrefIndexTable;
+  }
+
+  /**
+   * Returns the group committer of this store, or <code>null</code> if group commit is disabled.
+   */
+  public GroupCommitter getGroupCommitter()
+  {
+    return groupCommitter;
+  }
+
+  /**
+   * Replaces the group committer of this store, e.g., with an instrumented one. Must not be called while transactions
+   * are being committed.
+   */
+  public void setGroupCommitter(GroupCommitter groupCommitter)
+  {
+    this.groupCommitter = groupCommitter;
+  }
+
   public UnitMappingTable getUnitMappingTable()
   {
     return unitMappingTable;
@@ -627,6 +667,30 @@ public class DBStore extends Store implements IDBStore, IMappingConstants, CDOAl
       {
         jdbcFetchSize = Integer.parseInt(prop);
       }
+
+      prop = properties.get(IDBStore.Props.WRITE_BATCH_SIZE);
+      if (prop != null)
+      {
+        writeBatchSize = Integer.parseInt(prop);
+      }
+
+      prop = properties.get(IDBStore.Props.GROUP_COMMIT_WINDOW);
+      if (prop != null)
+      {
+        groupCommitWindow = Long.parseLong(prop);
+      }
+
+      prop = properties.get(IDBStore.Props.GROUP_COMMIT_MAX_SIZE);
+      if (prop != null)
+      {
+        groupCommitMaxSize = Integer.parseInt(prop);
+      }
+
+      prop = properties.get(IDBStore.Props.XREF_INDEX);
+      if (prop != null)
+      {
+        xrefIndex = Boolean.parseBoolean(prop);
+      }
     }
 
     Connection connection = getConnection();
@@ -700,12 +764,29 @@ public class DBStore extends Store implements IDBStore, IMappingConstants, CDOAl
       reStart();
     }
 
+    if (xrefIndex)
+    {
+      xrefIndexTable = new XRefIndexTable(this);
+      xrefIndexTable.activate();
+    }
+    else
+    {
+      // Changes from now on are not indexed, so the index must be rebuilt when it's enabled again.
+      removePersistentProperties(Collections.singleton(XRefIndexTable.PROP_VALID));
+    }
+
+    if (groupCommitWindow > 0)
+    {
+      groupCommitter = new GroupCommitter((DBAdapter)dbAdapter, groupCommitWindow, groupCommitMaxSize);
+    }
+
     putPersistentProperty(PROP_SCHEMA_VERSION, Integer.toString(SCHEMA_VERSION));
   }
 
   @Override
   protected void doDeactivate() throws Exception
   {
+    LifecycleUtil.deactivate(xrefIndexTable);
     LifecycleUtil.deactivate(unitMappingTable);
     LifecycleUtil.deactivate(commitInfoTable);
     LifecycleUtil.deactivate(mappingStrategy);
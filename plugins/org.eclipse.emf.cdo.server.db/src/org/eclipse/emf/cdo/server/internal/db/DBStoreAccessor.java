@@ -21,6 +21,7 @@ import org.eclipse.emf.cdo.common.branch.CDOBranchPoint;
 import org.eclipse.emf.cdo.common.branch.CDOBranchVersion;
 import org.eclipse.emf.cdo.common.commit.CDOCommitInfoHandler;
 import org.eclipse.emf.cdo.common.id.CDOID;
+import org.eclipse.emf.cdo.common.id.CDOIDUtil;
 import org.eclipse.emf.cdo.common.lob.CDOLobHandler;
 import org.eclipse.emf.cdo.common.lock.IDurableLockingManager.LockArea.Handler;
 import org.eclipse.emf.cdo.common.model.CDOClassifierRef;
@@ -30,12 +31,14 @@ import org.eclipse.emf.cdo.common.protocol.CDODataOutput;
 import org.eclipse.emf.cdo.common.revision.CDORevision;
 import org.eclipse.emf.cdo.common.revision.CDORevisionCacheAdder;
 import org.eclipse.emf.cdo.common.revision.CDORevisionHandler;
+import org.eclipse.emf.cdo.common.revision.delta.CDOFeatureDelta;
 import org.eclipse.emf.cdo.common.util.CDOQueryInfo;
 import org.eclipse.emf.cdo.eresource.EresourcePackage;
 import org.eclipse.emf.cdo.server.IQueryHandler;
 import org.eclipse.emf.cdo.server.IRepository;
 import org.eclipse.emf.cdo.server.ISession;
 import org.eclipse.emf.cdo.server.IStoreAccessor;
+import org.eclipse.emf.cdo.server.IStoreAccessor.BatchRead;
 import org.eclipse.emf.cdo.server.IStoreAccessor.DurableLocking2;
 import org.eclipse.emf.cdo.server.ITransaction;
 import org.eclipse.emf.cdo.server.IView;
@@ -46,11 +49,13 @@ import org.eclipse.emf.cdo.server.db.IIDHandler;
 import org.eclipse.emf.cdo.server.db.IMetaDataManager;
 import org.eclipse.emf.cdo.server.db.mapping.IClassMapping;
 import org.eclipse.emf.cdo.server.db.mapping.IClassMappingAuditSupport;
+import org.eclipse.emf.cdo.server.db.mapping.IClassMappingBatchSupport;
 import org.eclipse.emf.cdo.server.db.mapping.IClassMappingDeltaSupport;
 import org.eclipse.emf.cdo.server.db.mapping.IMappingStrategy;
 import org.eclipse.emf.cdo.server.db.mapping.IMappingStrategy2;
 import org.eclipse.emf.cdo.server.internal.db.bundle.OM;
 import org.eclipse.emf.cdo.server.internal.db.mapping.horizontal.AbstractHorizontalClassMapping;
+import org.eclipse.emf.cdo.server.internal.db.mapping.horizontal.AbstractHorizontalMappingStrategy;
 import org.eclipse.emf.cdo.server.internal.db.mapping.horizontal.UnitMappingTable;
 import org.eclipse.emf.cdo.spi.common.branch.InternalCDOBranch;
 import org.eclipse.emf.cdo.spi.common.branch.InternalCDOBranchManager;
@@ -90,6 +95,7 @@ import org.eclipse.net4j.util.om.trace.ContextTracer;
 
 import org.eclipse.emf.ecore.EClass;
 import org.eclipse.emf.ecore.EPackage;
+import org.eclipse.emf.ecore.EReference;
 import org.eclipse.emf.ecore.EStructuralFeature;
 
 import java.io.IOException;
@@ -105,6 +111,7 @@ import java.sql.SQLException;
 import java.sql.Statement;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
@@ -114,7 +121,7 @@ import java.util.Set;
 /**
  * @author Eike Stepper
  */
-public class DBStoreAccessor extends StoreAccessor implements IDBStoreAccessor, BranchLoader3, DurableLocking2
+public class DBStoreAccessor extends StoreAccessor implements IDBStoreAccessor, BranchLoader3, DurableLocking2, BatchRead
 {
   private static final ContextTracer TRACER = new ContextTracer(OM.DEBUG, DBStoreAccessor.class);
 
@@ -126,6 +133,8 @@ public class DBStoreAccessor extends StoreAccessor implements IDBStoreAccessor,
 
   private InternalObjectAttacher objectAttacher;
 
+  private CommitWritePlanner writePlanner;
+
   public DBStoreAccessor(DBStore store, ISession session) throws DBException
   {
     super(store, session);
@@ -152,6 +161,14 @@ public class DBStoreAccessor extends StoreAccessor implements IDBStoreAccessor,
     return connection;
   }
 
+  /**
+   * Returns the planner that batches the inserts of the current commit phase, or <code>null</code> if there is none.
+   */
+  public CommitWritePlanner getWritePlanner()
+  {
+    return writePlanner;
+  }
+
   @Deprecated
   public org.eclipse.emf.cdo.server.db.IPreparedStatementCache getStatementCache()
   {
@@ -212,6 +229,27 @@ public class DBStoreAccessor extends StoreAccessor implements IDBStoreAccessor,
   }
 
   public EClass getObjectType(CDOID id)
+  {
+    EClass result = getKnownObjectType(id);
+    if (result != null)
+    {
+      return result;
+    }
+
+    CDOClassifierRef type = readObjectType(id);
+    if (type != null)
+    {
+      CDOPackageRegistry packageRegistry = getStore().getRepository().getPackageRegistry();
+      return (EClass)type.resolve(packageRegistry);
+    }
+
+    return null;
+  }
+
+  /**
+   * Returns the type of the given object if it is known without a database query, <code>null</code> otherwise.
+   */
+  private EClass getKnownObjectType(CDOID id)
   {
     IRepository repository = getStore().getRepository();
     if (id.equals(repository.getRootResourceID()))
@@ -235,14 +273,63 @@ public class DBStoreAccessor extends StoreAccessor implements IDBStoreAccessor,
       }
     }
 
-    CDOClassifierRef type = readObjectType(id);
-    if (type != null)
+    return null;
+  }
+
+  /**
+   * Returns the types of the given objects. The types that are not known without a database query are read with one
+   * batch query per {@link AbstractHorizontalMappingStrategy#readObjectTypes(IDBStoreAccessor, Collection) batch}, if
+   * the mapping strategy supports that. Unknown objects are not contained in the result.
+   */
+  private Map<CDOID, EClass> getObjectTypes(Collection<CDOID> ids)
+  {
+    Map<CDOID, EClass> result = CDOIDUtil.createMap(ids.size());
+    List<CDOID> missingIDs = new ArrayList<CDOID>();
+
+    for (CDOID id : ids)
     {
-      CDOPackageRegistry packageRegistry = repository.getPackageRegistry();
-      return (EClass)type.resolve(packageRegistry);
+      EClass eClass = getKnownObjectType(id);
+      if (eClass != null)
+      {
+        result.put(id, eClass);
+      }
+      else
+      {
+        missingIDs.add(id);
+      }
     }
 
-    return null;
+    if (!missingIDs.isEmpty())
+    {
+      IMappingStrategy mappingStrategy = getStore().getMappingStrategy();
+      if (mappingStrategy instanceof AbstractHorizontalMappingStrategy)
+      {
+        if (TRACER.isEnabled())
+        {
+          TRACER.format("Selecting {0} object types", missingIDs.size()); //$NON-NLS-1$
+        }
+
+        CDOPackageRegistry packageRegistry = getStore().getRepository().getPackageRegistry();
+        Map<CDOID, CDOClassifierRef> types = ((AbstractHorizontalMappingStrategy)mappingStrategy).readObjectTypes(this, missingIDs);
+        for (Map.Entry<CDOID, CDOClassifierRef> entry : types.entrySet())
+        {
+          result.put(entry.getKey(), (EClass)entry.getValue().resolve(packageRegistry));
+        }
+      }
+      else
+      {
+        for (CDOID id : missingIDs)
+        {
+          EClass eClass = getObjectType(id);
+          if (eClass != null)
+          {
+            result.put(id, eClass);
+          }
+        }
+      }
+    }
+
+    return result;
   }
 
   public InternalCDORevision readRevision(CDOID id, CDOBranchPoint branchPoint, int listChunk, CDORevisionCacheAdder cache)
@@ -277,6 +364,71 @@ public class DBStoreAccessor extends StoreAccessor implements IDBStoreAccessor,
     return null;
   }
 
+  public Map<CDOID, InternalCDORevision> readRevisions(Collection<CDOID> ids, CDOBranchPoint branchPoint, int listChunk, CDORevisionCacheAdder cache)
+  {
+    if (TRACER.isEnabled())
+    {
+      TRACER.format("Selecting {0} revisions from {1}", ids.size(), branchPoint); //$NON-NLS-1$
+    }
+
+    final Map<CDOID, InternalCDORevision> result = CDOIDUtil.createMap();
+    Map<EClass, List<CDOID>> idsByType = new HashMap<EClass, List<CDOID>>();
+
+    for (Map.Entry<CDOID, EClass> entry : getObjectTypes(ids).entrySet())
+    {
+      EClass eClass = entry.getValue();
+      List<CDOID> list = idsByType.get(eClass);
+      if (list == null)
+      {
+        list = new ArrayList<CDOID>();
+        idsByType.put(eClass, list);
+      }
+
+      list.add(entry.getKey());
+    }
+
+    IMappingStrategy mappingStrategy = getStore().getMappingStrategy();
+    for (Map.Entry<EClass, List<CDOID>> entry : idsByType.entrySet())
+    {
+      final EClass eClass = entry.getKey();
+      List<CDOID> list = entry.getValue();
+
+      IClassMapping mapping = mappingStrategy.getClassMapping(eClass);
+      if (list.size() > 1 && mapping instanceof IClassMappingBatchSupport)
+      {
+        ((IClassMappingBatchSupport)mapping).readRevisions(this, list, branchPoint, listChunk, new CDORevisionHandler()
+        {
+          public boolean handleRevision(CDORevision revision)
+          {
+            InternalCDORevision internalRevision = (InternalCDORevision)revision;
+            int version = internalRevision.getVersion();
+            if (version < CDOBranchVersion.UNSPECIFIED_VERSION)
+            {
+              internalRevision = new DetachedCDORevision(eClass, internalRevision.getID(), internalRevision.getBranch(), -version,
+                  internalRevision.getTimeStamp(), internalRevision.getRevised());
+            }
+
+            result.put(internalRevision.getID(), internalRevision);
+            return true;
+          }
+        });
+      }
+      else
+      {
+        for (CDOID id : list)
+        {
+          InternalCDORevision revision = readRevision(id, branchPoint, listChunk, cache);
+          if (revision != null)
+          {
+            result.put(id, revision);
+          }
+        }
+      }
+    }
+
+    return result;
+  }
+
   public InternalCDORevision readRevisionByVersion(CDOID id, CDOBranchVersion branchVersion, int listChunk, CDORevisionCacheAdder cache)
   {
     DBStore store = getStore();
@@ -343,6 +495,12 @@ public class DBStoreAccessor extends StoreAccessor implements IDBStoreAccessor,
 
   public void queryXRefs(QueryXRefsContext context)
   {
+    XRefIndexTable xrefIndexTable = getStore().getXRefIndexTable();
+    if (xrefIndexTable != null && xrefIndexTable.queryXRefs(this, context))
+    {
+      return;
+    }
+
     IMappingStrategy mappingStrategy = getStore().getMappingStrategy();
     mappingStrategy.queryXRefs(this, context);
   }
@@ -543,6 +701,12 @@ public class DBStoreAccessor extends StoreAccessor implements IDBStoreAccessor,
       {
         writeRevisionDelta(delta, created, monitor.fork());
       }
+
+      XRefIndexTable xrefIndexTable = getStore().getXRefIndexTable();
+      if (xrefIndexTable != null && xrefIndexTable.isValid())
+      {
+        writeXRefs(xrefIndexTable, revisionDeltas);
+      }
     }
     finally
     {
@@ -550,6 +714,30 @@ public class DBStoreAccessor extends StoreAccessor implements IDBStoreAccessor,
     }
   }
 
+  private void writeXRefs(XRefIndexTable xrefIndexTable, InternalCDORevisionDelta[] revisionDeltas)
+  {
+    // The dirty revisions of the commit context are aligned with its deltas.
+    InternalCDORevision[] dirtyObjects = StoreThreadLocal.getCommitContext().getDirtyObjects();
+    for (int i = 0; i < revisionDeltas.length; i++)
+    {
+      InternalCDORevisionDelta delta = revisionDeltas[i];
+      InternalCDORevision revision = dirtyObjects[i];
+      if (!revision.getID().equals(delta.getID()))
+      {
+        throw new IllegalStateException("Dirty objects and deltas are not aligned: " + revision + ", " + delta); //$NON-NLS-1$ //$NON-NLS-2$
+      }
+
+      for (CDOFeatureDelta featureDelta : delta.getFeatureDeltas())
+      {
+        if (featureDelta.getFeature() instanceof EReference)
+        {
+          xrefIndexTable.writeReferences(this, revision);
+          break;
+        }
+      }
+    }
+  }
+
   protected void writeRevisionDelta(InternalCDORevisionDelta delta, long created, OMMonitor monitor)
   {
     CDOID id = delta.getID();
@@ -572,13 +760,33 @@ public class DBStoreAccessor extends StoreAccessor implements IDBStoreAccessor,
 
   protected void writeRevisions(InternalCommitContext context, boolean attachNewObjects, InternalCDORevision[] revisions, CDOBranch branch, OMMonitor monitor)
   {
+    CommitWritePlanner planner = createWritePlanner();
+    boolean success = false;
+
     try
     {
       monitor.begin(revisions.length);
-      for (InternalCDORevision revision : revisions)
+      if (planner != null)
       {
-        writeRevision(revision, attachNewObjects, true, monitor.fork());
+        for (List<InternalCDORevision> group : planner.plan(revisions).values())
+        {
+          for (InternalCDORevision revision : group)
+          {
+            writeRevision(revision, attachNewObjects, true, monitor.fork());
+          }
+        }
+
+        planner.close();
       }
+      else
+      {
+        for (InternalCDORevision revision : revisions)
+        {
+          writeRevision(revision, attachNewObjects, true, monitor.fork());
+        }
+      }
+
+      success = true;
 
       if (attachNewObjects)
       {
@@ -592,10 +800,34 @@ public class DBStoreAccessor extends StoreAccessor implements IDBStoreAccessor,
     }
     finally
     {
+      releaseWritePlanner(planner, success);
       monitor.done();
     }
   }
 
+  protected CommitWritePlanner createWritePlanner()
+  {
+    int batchSize = getStore().getWriteBatchSize();
+    if (batchSize > 1)
+    {
+      writePlanner = new CommitWritePlanner(this, batchSize);
+    }
+
+    return writePlanner;
+  }
+
+  protected void releaseWritePlanner(CommitWritePlanner planner, boolean success)
+  {
+    if (planner != null)
+    {
+      writePlanner = null;
+      if (!success)
+      {
+        planner.discard();
+      }
+    }
+  }
+
   @Override
   protected void writeRevisions(InternalCDORevision[] revisions, CDOBranch branch, OMMonitor monitor)
   {
@@ -613,6 +845,12 @@ public class DBStoreAccessor extends StoreAccessor implements IDBStoreAccessor,
 
     IClassMapping mapping = getStore().getMappingStrategy().getClassMapping(eClass);
     mapping.writeRevision(this, revision, mapType, revise, monitor);
+
+    XRefIndexTable xrefIndexTable = getStore().getXRefIndexTable();
+    if (xrefIndexTable != null)
+    {
+      xrefIndexTable.writeReferences(this, revision);
+    }
   }
 
   @Override
@@ -644,6 +882,9 @@ public class DBStoreAccessor extends StoreAccessor implements IDBStoreAccessor,
   protected void detachObjects(CDOID[] detachedObjects, CDOBranch branch, long timeStamp, OMMonitor monitor)
   {
     IMappingStrategy mappingStrategy = getStore().getMappingStrategy();
+    XRefIndexTable xrefIndexTable = getStore().getXRefIndexTable();
+    CommitWritePlanner planner = createWritePlanner();
+    boolean success = false;
     monitor.begin(detachedObjects.length);
 
     try
@@ -668,10 +909,23 @@ public class DBStoreAccessor extends StoreAccessor implements IDBStoreAccessor,
         EClass eClass = getObjectType(id);
         IClassMapping mapping = mappingStrategy.getClassMapping(eClass);
         mapping.detachObject(this, id, version, branch, timeStamp, monitor.fork());
+
+        if (xrefIndexTable != null)
+        {
+          xrefIndexTable.deleteReferences(this, id, branch);
+        }
+      }
+
+      if (planner != null)
+      {
+        planner.close();
       }
+
+      success = true;
     }
     finally
     {
+      releaseWritePlanner(planner, success);
       monitor.done();
     }
   }
@@ -744,7 +998,16 @@ public class DBStoreAccessor extends StoreAccessor implements IDBStoreAccessor,
       try
       {
         async = monitor.forkAsync();
-        getConnection().commit();
+
+        GroupCommitter groupCommitter = getStore().getGroupCommitter();
+        if (groupCommitter != null)
+        {
+          groupCommitter.commit(connection);
+        }
+        else
+        {
+          connection.commit();
+        }
 
         if (maxID != CDOID.NULL)
         {
@@ -1167,6 +1430,13 @@ public class DBStoreAccessor extends StoreAccessor implements IDBStoreAccessor,
       idHandler.setLastObjectID(in.readCDOID()); // See bug 325097
     }
 
+    XRefIndexTable xrefIndexTable = store.getXRefIndexTable();
+    if (xrefIndexTable != null)
+    {
+      // Imported revisions are not indexed
+      xrefIndexTable.invalidate();
+    }
+
     IMappingStrategy mappingStrategy = store.getMappingStrategy();
     int size = mappingStrategy.getClassMappings().size();
     int commitWork = 5;
@@ -1352,6 +1622,13 @@ public class DBStoreAccessor extends StoreAccessor implements IDBStoreAccessor,
     {
       AbstractHorizontalClassMapping m = (AbstractHorizontalClassMapping)mapping;
       m.rawDelete(this, id, version, branch, monitor);
+
+      XRefIndexTable xrefIndexTable = getStore().getXRefIndexTable();
+      if (xrefIndexTable != null)
+      {
+        // The references of the remaining revisions of the object are unknown here
+        xrefIndexTable.invalidate();
+      }
     }
     else
     {
@@ -0,0 +1,356 @@
+/*
+ * Copyright (c) 2016 Eike Stepper (Berlin, Germany) and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    Eike Stepper - initial API and implementation
+ */
+package org.eclipse.emf.cdo.server.internal.db;
+
+import org.eclipse.emf.cdo.server.internal.db.bundle.OM;
+
+import org.eclipse.net4j.spi.db.DBAdapter;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * Amortizes the durable database commits of concurrent transactions.
+ * <p>
+ * The first transaction that {@link #commit(Connection) commits} becomes the leader of a group. It waits for the group
+ * window or until the group is full, then commits the connections of all transactions of the group one after the other,
+ * in the order in which they arrived. If the {@link DBAdapter#isDeferredDurabilitySupported() DB adapter supports it},
+ * all but the last commit of a group {@link DBAdapter#deferDurability(Connection) defer their durability}, so that the
+ * log of the whole group is flushed to disk only once. Every transaction keeps its own connection, so a failing commit
+ * only fails its own transaction. No transaction returns from {@link #commit(Connection)} before its commit is durable.
+ *
+ * @author Eike Stepper
+ * @since 4.5
+ */
+public class GroupCommitter
+{
+  private final DBAdapter dbAdapter;
+
+  private final long window;
+
+  private final int maxGroupSize;
+
+  private final Object lock = new Object();
+
+  private List<Request> pending = new ArrayList<Request>();
+
+  private boolean leading;
+
+  private long groupCount;
+
+  private long commitCount;
+
+  private int largestGroupSize;
+
+  private long totalLatency;
+
+  private long maxLatency;
+
+  /**
+   * @param window the time in microseconds that the leader of a group waits for other transactions to join.
+   * @param maxGroupSize the number of transactions after which the leader stops waiting.
+   */
+  public GroupCommitter(DBAdapter dbAdapter, long window, int maxGroupSize)
+  {
+    this.dbAdapter = dbAdapter;
+    this.window = window * 1000L;
+    this.maxGroupSize = maxGroupSize;
+  }
+
+  /**
+   * Returns the group window in microseconds.
+   */
+  public long getWindow()
+  {
+    return window / 1000L;
+  }
+
+  public int getMaxGroupSize()
+  {
+    return maxGroupSize;
+  }
+
+  public void commit(Connection connection) throws SQLException
+  {
+    Request request = new Request(connection);
+    List<Request> group = null;
+
+    synchronized (lock)
+    {
+      pending.add(request);
+
+      if (leading)
+      {
+        if (pending.size() >= maxGroupSize)
+        {
+          lock.notifyAll();
+        }
+      }
+      else
+      {
+        leading = true;
+        group = awaitGroup();
+      }
+    }
+
+    if (group != null)
+    {
+      try
+      {
+        commitGroup(group);
+      }
+      finally
+      {
+        for (Request member : group)
+        {
+          member.done.countDown();
+        }
+      }
+    }
+
+    request.await();
+  }
+
+  /**
+   * Must be called while synchronized on the lock. Releases the leadership when the group is complete, so that the next
+   * group can gather while this group is being committed.
+   */
+  private List<Request> awaitGroup()
+  {
+    long deadline = System.nanoTime() + window;
+
+    try
+    {
+      while (pending.size() < maxGroupSize)
+      {
+        long remaining = deadline - System.nanoTime();
+        if (remaining <= 0)
+        {
+          break;
+        }
+
+        lock.wait(remaining / 1000000L, (int)(remaining % 1000000L));
+      }
+    }
+    catch (InterruptedException ex)
+    {
+      // Commit what has been gathered so far
+      Thread.currentThread().interrupt();
+    }
+
+    List<Request> group = pending;
+    pending = new ArrayList<Request>();
+    leading = false;
+    return group;
+  }
+
+  private void commitGroup(List<Request> group)
+  {
+    int size = group.size();
+    int last = size - 1;
+    boolean deferred = size > 1 && dbAdapter.isDeferredDurabilitySupported();
+
+    for (int i = 0; i < size; i++)
+    {
+      Request request = group.get(i);
+
+      try
+      {
+        if (deferred && i < last)
+        {
+          dbAdapter.deferDurability(request.connection);
+        }
+
+        commitConnection(request.connection);
+      }
+      catch (SQLException ex)
+      {
+        request.exception = ex;
+      }
+      catch (RuntimeException ex)
+      {
+        request.exception = ex;
+      }
+    }
+
+    if (deferred)
+    {
+      Request durable = group.get(last);
+      if (durable.exception != null)
+      {
+        try
+        {
+          // The commits before the failed one are not yet known to be durable
+          dbAdapter.flushDeferredCommits(durable.connection);
+        }
+        catch (SQLException ex)
+        {
+          // The deferred commits will be flushed by the database itself shortly
+          OM.LOG.error(ex);
+        }
+      }
+    }
+
+    long now = System.nanoTime();
+    synchronized (lock)
+    {
+      ++groupCount;
+      commitCount += size;
+      largestGroupSize = Math.max(largestGroupSize, size);
+
+      for (Request request : group)
+      {
+        long latency = now - request.start;
+        totalLatency += latency;
+        maxLatency = Math.max(maxLatency, latency);
+      }
+    }
+  }
+
+  /**
+   * Commits the connection of a single member of a group. A failure only fails the transaction of that member.
+   */
+  protected void commitConnection(Connection connection) throws SQLException
+  {
+    connection.commit();
+  }
+
+  public long getGroupCount()
+  {
+    synchronized (lock)
+    {
+      return groupCount;
+    }
+  }
+
+  public long getCommitCount()
+  {
+    synchronized (lock)
+    {
+      return commitCount;
+    }
+  }
+
+  public int getLargestGroupSize()
+  {
+    synchronized (lock)
+    {
+      return largestGroupSize;
+    }
+  }
+
+  public double getAverageGroupSize()
+  {
+    synchronized (lock)
+    {
+      return groupCount == 0 ? 0d : (double)commitCount / groupCount;
+    }
+  }
+
+  /**
+   * Returns the average time in microseconds between the call to {@link #commit(Connection)} and the durable commit.
+   */
+  public long getAverageLatency()
+  {
+    synchronized (lock)
+    {
+      return commitCount == 0 ? 0L : totalLatency / commitCount / 1000L;
+    }
+  }
+
+  /**
+   * Returns the largest time in microseconds between the call to {@link #commit(Connection)} and the durable commit.
+   */
+  public long getMaxLatency()
+  {
+    synchronized (lock)
+    {
+      return maxLatency / 1000L;
+    }
+  }
+
+  public void resetStatistics()
+  {
+    synchronized (lock)
+    {
+      groupCount = 0;
+      commitCount = 0;
+      largestGroupSize = 0;
+      totalLatency = 0;
+      maxLatency = 0;
+    }
+  }
+
+  @Override
+  public String toString()
+  {
+    synchronized (lock)
+    {
+      return "GroupCommitter[groups=" + groupCount + ", commits=" + commitCount + ", largest=" + largestGroupSize + "]"; //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
+    }
+  }
+
+  /**
+   * @author Eike Stepper
+   */
+  private static final class Request
+  {
+    private final Connection connection;
+
+    private final long start = System.nanoTime();
+
+    private final CountDownLatch done = new CountDownLatch(1);
+
+    private Exception exception;
+
+    public Request(Connection connection)
+    {
+      this.connection = connection;
+    }
+
+    public void await() throws SQLException
+    {
+      boolean interrupted = false;
+
+      for (;;)
+      {
+        try
+        {
+          done.await();
+          break;
+        }
+        catch (InterruptedException ex)
+        {
+          // The outcome of the commit must be known before returning
+          interrupted = true;
+        }
+      }
+
+      if (interrupted)
+      {
+        Thread.currentThread().interrupt();
+      }
+
+      if (exception instanceof SQLException)
+      {
+        throw (SQLException)exception;
+      }
+
+      if (exception != null)
+      {
+        throw (RuntimeException)exception;
+      }
+    }
+  }
+}
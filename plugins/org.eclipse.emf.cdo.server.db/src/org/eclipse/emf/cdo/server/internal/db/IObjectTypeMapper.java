@@ -24,6 +24,8 @@ import org.eclipse.emf.ecore.EClass;
 
 import java.io.IOException;
 import java.sql.Connection;
+import java.util.Collection;
+import java.util.Map;
 
 /**
  * @author Eike Stepper
@@ -33,6 +35,13 @@ public interface IObjectTypeMapper
 {
   public CDOClassifierRef getObjectType(IDBStoreAccessor accessor, CDOID id);
 
+  /**
+   * Returns the types of the given objects. Unknown objects are not contained in the result.
+   *
+   * @since 4.5
+   */
+  public Map<CDOID, CDOClassifierRef> getObjectTypes(IDBStoreAccessor accessor, Collection<CDOID> ids);
+
   public boolean putObjectType(IDBStoreAccessor accessor, long timeStamp, CDOID id, EClass type);
 
   public boolean removeObjectType(IDBStoreAccessor accessor, CDOID id);
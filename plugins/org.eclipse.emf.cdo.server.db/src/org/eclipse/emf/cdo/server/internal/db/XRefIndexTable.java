@@ -0,0 +1,523 @@
+/*
+ * Copyright (c) 2016 Eike Stepper (Berlin, Germany) and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    Eike Stepper - initial API and implementation
+ */
+package org.eclipse.emf.cdo.server.internal.db;
+
+import org.eclipse.emf.cdo.common.branch.CDOBranch;
+import org.eclipse.emf.cdo.common.branch.CDOBranchPoint;
+import org.eclipse.emf.cdo.common.id.CDOID;
+import org.eclipse.emf.cdo.common.model.CDOModelUtil;
+import org.eclipse.emf.cdo.common.revision.CDOList;
+import org.eclipse.emf.cdo.common.revision.CDORevision;
+import org.eclipse.emf.cdo.common.revision.CDORevisionHandler;
+import org.eclipse.emf.cdo.server.IStoreAccessor.QueryXRefsContext;
+import org.eclipse.emf.cdo.server.StoreThreadLocal;
+import org.eclipse.emf.cdo.server.db.IDBStoreAccessor;
+import org.eclipse.emf.cdo.server.db.IIDHandler;
+import org.eclipse.emf.cdo.server.db.IMetaDataManager;
+import org.eclipse.emf.cdo.server.internal.db.bundle.OM;
+import org.eclipse.emf.cdo.spi.common.revision.DetachedCDORevision;
+import org.eclipse.emf.cdo.spi.common.revision.InternalCDORevision;
+import org.eclipse.emf.cdo.spi.server.InternalRepository;
+
+import org.eclipse.net4j.db.DBException;
+import org.eclipse.net4j.db.DBType;
+import org.eclipse.net4j.db.DBUtil;
+import org.eclipse.net4j.db.IDBConnection;
+import org.eclipse.net4j.db.IDBDatabase;
+import org.eclipse.net4j.db.IDBDatabase.RunnableWithSchema;
+import org.eclipse.net4j.db.IDBPreparedStatement;
+import org.eclipse.net4j.db.IDBPreparedStatement.ReuseProbability;
+import org.eclipse.net4j.db.ddl.IDBIndex;
+import org.eclipse.net4j.db.ddl.IDBSchema;
+import org.eclipse.net4j.db.ddl.IDBTable;
+import org.eclipse.net4j.util.lifecycle.ILifecycle;
+import org.eclipse.net4j.util.lifecycle.Lifecycle;
+import org.eclipse.net4j.util.lifecycle.LifecycleEventAdapter;
+import org.eclipse.net4j.util.om.trace.ContextTracer;
+
+import org.eclipse.emf.ecore.EClass;
+import org.eclipse.emf.ecore.EReference;
+import org.eclipse.emf.ecore.EStructuralFeature;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A persistent reverse-reference index that maps the targets of all persistent references of the head revisions to
+ * their sources.
+ * <p>
+ * The index is maintained in the same JDBC transactions as the revisions themselves and answers
+ * {@link #queryXRefs(IDBStoreAccessor, QueryXRefsContext) xref queries} on the head of a branch with one indexed
+ * lookup, instead of one query per candidate class and list table. Historical xref queries are not covered by the
+ * index. If the index can not be trusted, e.g., after it was disabled for a while or after a raw import, it is
+ * rebuilt from the existing revisions when the repository is activated the next time.
+ *
+ * @author Eike Stepper
+ * @since 4.5
+ */
+public class XRefIndexTable extends Lifecycle
+{
+  public static final String PROP_VALID = "org.eclipse.emf.cdo.server.db.xrefIndexValid"; //$NON-NLS-1$
+
+  private static final ContextTracer TRACER = new ContextTracer(OM.DEBUG, XRefIndexTable.class);
+
+  private static final String XREFS = "cdo_xrefs"; //$NON-NLS-1$
+
+  private static final String TARGET = "cdo_target"; //$NON-NLS-1$
+
+  private static final String BRANCH = "cdo_branch"; //$NON-NLS-1$
+
+  private static final String SOURCE = "cdo_source"; //$NON-NLS-1$
+
+  private static final String SOURCE_CLASS = "cdo_class"; //$NON-NLS-1$
+
+  private static final String SOURCE_FEATURE = "cdo_feature"; //$NON-NLS-1$
+
+  private static final String SOURCE_INDEX = "cdo_idx"; //$NON-NLS-1$
+
+  private static final int QUERY_CHUNK = 100;
+
+  private DBStore store;
+
+  private IDBTable table;
+
+  private String sqlInsert;
+
+  private String sqlDelete;
+
+  private String sqlSelect;
+
+  private volatile boolean valid;
+
+  public XRefIndexTable(DBStore store)
+  {
+    this.store = store;
+  }
+
+  /**
+   * Returns <code>true</code> if this index reflects the current head revisions of all branches,
+   * <code>false</code> otherwise.
+   */
+  public boolean isValid()
+  {
+    return valid;
+  }
+
+  /**
+   * Marks this index as invalid so that it's neither used nor maintained anymore, until it is rebuilt on the next start
+   * of the repository.
+   */
+  public void invalidate()
+  {
+    if (valid)
+    {
+      valid = false;
+      store.removePersistentProperties(Collections.singleton(PROP_VALID));
+    }
+  }
+
+  /**
+   * Replaces the indexed references of the source object of the given revision by the references of that revision.
+   * Historical and detached revisions are ignored.
+   */
+  public void writeReferences(IDBStoreAccessor accessor, InternalCDORevision revision)
+  {
+    if (!valid || revision instanceof DetachedCDORevision || revision.getRevised() != CDOBranchPoint.UNSPECIFIED_DATE)
+    {
+      return;
+    }
+
+    CDOID id = revision.getID();
+    CDOBranch branch = revision.getBranch();
+    deleteReferences(accessor, id, branch);
+    insertReferences(accessor, revision);
+  }
+
+  /**
+   * Removes all indexed references of the given source object in the given branch.
+   */
+  public void deleteReferences(IDBStoreAccessor accessor, CDOID id, CDOBranch branch)
+  {
+    if (!valid)
+    {
+      return;
+    }
+
+    IIDHandler idHandler = store.getIDHandler();
+    IDBPreparedStatement stmt = accessor.getDBConnection().prepareStatement(sqlDelete, ReuseProbability.HIGH);
+
+    try
+    {
+      idHandler.setCDOID(stmt, 1, id);
+      stmt.setInt(2, branch.getID());
+      DBUtil.update(stmt, false);
+    }
+    catch (SQLException ex)
+    {
+      throw new DBException(ex);
+    }
+    finally
+    {
+      DBUtil.close(stmt);
+    }
+  }
+
+  /**
+   * Answers the given xref query from this index.
+   *
+   * @return <code>true</code> if the query has been answered, <code>false</code> if the index is not applicable to the
+   *         query and the caller must fall back to querying the mapped tables.
+   */
+  public boolean queryXRefs(IDBStoreAccessor accessor, QueryXRefsContext context)
+  {
+    if (!valid || context.getTimeStamp() != CDOBranchPoint.UNSPECIFIED_DATE)
+    {
+      return false;
+    }
+
+    List<CDOID> targetIDs = new ArrayList<CDOID>();
+    for (CDOID targetID : context.getTargetObjects().keySet())
+    {
+      // NOTE: currently no support for external references!
+      if (!targetID.isExternal())
+      {
+        targetIDs.add(targetID);
+      }
+    }
+
+    if (targetIDs.isEmpty())
+    {
+      return true;
+    }
+
+    Map<EClass, List<EReference>> sourceCandidates = context.getSourceCandidates();
+    IMetaDataManager metaDataManager = store.getMetaDataManager();
+    IIDHandler idHandler = store.getIDHandler();
+    int branchID = context.getBranch().getID();
+
+    IDBPreparedStatement stmt = accessor.getDBConnection().prepareStatement(sqlSelect, ReuseProbability.HIGH);
+    ResultSet resultSet = null;
+
+    try
+    {
+      int size = targetIDs.size();
+      for (int start = 0; start < size; start += QUERY_CHUNK)
+      {
+        stmt.setInt(1, branchID);
+
+        // Pad the last chunk by repeating its last ID, so that the same statement can be reused.
+        for (int i = 0; i < QUERY_CHUNK; i++)
+        {
+          CDOID targetID = targetIDs.get(Math.min(start + i, size - 1));
+          idHandler.setCDOID(stmt, 2 + i, targetID);
+        }
+
+        resultSet = stmt.executeQuery();
+        while (resultSet.next())
+        {
+          CDOID targetID = idHandler.getCDOID(resultSet, 1);
+          CDOID sourceID = idHandler.getCDOID(resultSet, 2);
+          CDOID classID = idHandler.getCDOID(resultSet, 3);
+          int featureID = resultSet.getInt(4);
+          int sourceIndex = resultSet.getInt(5);
+
+          EClass eClass = (EClass)metaDataManager.getMetaInstance(classID);
+          List<EReference> references = sourceCandidates.get(eClass);
+          if (references == null)
+          {
+            continue;
+          }
+
+          EStructuralFeature feature = eClass.getEStructuralFeature(featureID);
+          if (!references.contains(feature))
+          {
+            continue;
+          }
+
+          if (TRACER.isEnabled())
+          {
+            TRACER.format("  add XRef to context: src={0}, tgt={1}, idx={2}", sourceID, targetID, sourceIndex); //$NON-NLS-1$
+          }
+
+          if (!context.addXRef(targetID, sourceID, (EReference)feature, sourceIndex))
+          {
+            // Max results reached or user canceled
+            return true;
+          }
+        }
+
+        DBUtil.close(resultSet);
+        resultSet = null;
+      }
+
+      return true;
+    }
+    catch (SQLException ex)
+    {
+      throw new DBException(ex);
+    }
+    finally
+    {
+      DBUtil.close(resultSet);
+      DBUtil.close(stmt);
+    }
+  }
+
+  /**
+   * Deletes the complete index and recreates it from the head revisions of all branches.
+   */
+  public void rebuild(final IDBStoreAccessor accessor)
+  {
+    OM.LOG.info("Rebuilding xref index of repository " + store.getRepository().getName() + "..."); //$NON-NLS-1$ //$NON-NLS-2$
+    valid = false;
+
+    IDBConnection connection = accessor.getDBConnection();
+    DBUtil.update(connection, "DELETE FROM " + XREFS); //$NON-NLS-1$
+
+    store.getMappingStrategy().handleRevisions(accessor, null, null, CDOBranchPoint.UNSPECIFIED_DATE, false, new CDORevisionHandler()
+    {
+      public boolean handleRevision(CDORevision revision)
+      {
+        if (!(revision instanceof DetachedCDORevision))
+        {
+          insertReferences(accessor, (InternalCDORevision)revision);
+        }
+
+        return true;
+      }
+    });
+
+    try
+    {
+      connection.commit();
+    }
+    catch (SQLException ex)
+    {
+      throw new DBException(ex);
+    }
+
+    valid = true;
+    store.putPersistentProperty(PROP_VALID, Boolean.TRUE.toString());
+  }
+
+  @Override
+  protected void doActivate() throws Exception
+  {
+    super.doActivate();
+
+    IDBDatabase database = store.getDatabase();
+    table = database.getSchema().getTable(XREFS);
+    if (table == null)
+    {
+      database.updateSchema(new RunnableWithSchema()
+      {
+        public void run(IDBSchema schema)
+        {
+          IIDHandler idHandler = store.getIDHandler();
+          DBType idType = idHandler.getDBType();
+          int idLength = store.getIDColumnLength();
+
+          table = schema.addTable(XREFS);
+          table.addField(TARGET, idType, idLength, true);
+          table.addField(BRANCH, DBType.INTEGER, true);
+          table.addField(SOURCE, idType, idLength, true);
+          table.addField(SOURCE_CLASS, idType, idLength, true);
+          table.addField(SOURCE_FEATURE, DBType.INTEGER, true);
+          table.addField(SOURCE_INDEX, DBType.INTEGER, true);
+          table.addIndex(IDBIndex.Type.NON_UNIQUE, TARGET, BRANCH);
+          table.addIndex(IDBIndex.Type.NON_UNIQUE, SOURCE, BRANCH);
+        }
+      });
+    }
+
+    sqlInsert = "INSERT INTO " + XREFS + "(" + TARGET + ", " + BRANCH + ", " + SOURCE + ", " + SOURCE_CLASS + ", " + SOURCE_FEATURE + ", " //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$ //$NON-NLS-5$ //$NON-NLS-6$
+        + SOURCE_INDEX + ") VALUES (?, ?, ?, ?, ?, ?)"; //$NON-NLS-1$
+
+    sqlDelete = "DELETE FROM " + XREFS + " WHERE " + SOURCE + "=? AND " + BRANCH + "=?"; //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
+
+    StringBuilder builder = new StringBuilder();
+    builder.append("SELECT "); //$NON-NLS-1$
+    builder.append(TARGET);
+    builder.append(", "); //$NON-NLS-1$
+    builder.append(SOURCE);
+    builder.append(", "); //$NON-NLS-1$
+    builder.append(SOURCE_CLASS);
+    builder.append(", "); //$NON-NLS-1$
+    builder.append(SOURCE_FEATURE);
+    builder.append(", "); //$NON-NLS-1$
+    builder.append(SOURCE_INDEX);
+    builder.append(" FROM "); //$NON-NLS-1$
+    builder.append(XREFS);
+    builder.append(" WHERE "); //$NON-NLS-1$
+    builder.append(BRANCH);
+    builder.append("=? AND "); //$NON-NLS-1$
+    builder.append(TARGET);
+    builder.append(" IN (?"); //$NON-NLS-1$
+
+    for (int i = 1; i < QUERY_CHUNK; i++)
+    {
+      builder.append(", ?"); //$NON-NLS-1$
+    }
+
+    builder.append(")"); //$NON-NLS-1$
+    sqlSelect = builder.toString();
+
+    if (store.isFirstStart())
+    {
+      valid = true;
+      store.putPersistentProperty(PROP_VALID, Boolean.TRUE.toString());
+    }
+    else
+    {
+      Map<String, String> map = store.getPersistentProperties(Collections.singleton(PROP_VALID));
+      valid = Boolean.TRUE.toString().equals(map.get(PROP_VALID));
+    }
+
+    if (!valid)
+    {
+      // Revisions can only be loaded after the repository has been fully activated.
+      store.getRepository().addListener(new LifecycleEventAdapter()
+      {
+        @Override
+        protected void onActivated(ILifecycle lifecycle)
+        {
+          lifecycle.removeListener(this);
+          rebuild();
+        }
+      });
+    }
+  }
+
+  @Override
+  protected void doDeactivate() throws Exception
+  {
+    valid = false;
+    sqlSelect = null;
+    sqlDelete = null;
+    sqlInsert = null;
+    table = null;
+    super.doDeactivate();
+  }
+
+  private void rebuild()
+  {
+    if (!isActive())
+    {
+      return;
+    }
+
+    InternalRepository repository = store.getRepository();
+    IDBStoreAccessor writer = store.getWriter(null);
+    StoreThreadLocal.setAccessor(writer);
+
+    try
+    {
+      rebuild(writer);
+    }
+    catch (RuntimeException ex)
+    {
+      OM.LOG.error("Rebuilding xref index of repository " + repository.getName() + " failed", ex); //$NON-NLS-1$ //$NON-NLS-2$
+    }
+    finally
+    {
+      StoreThreadLocal.release();
+    }
+  }
+
+  private void insertReferences(IDBStoreAccessor accessor, InternalCDORevision revision)
+  {
+    EClass eClass = revision.getEClass();
+    EReference[] references = CDOModelUtil.getClassInfo(eClass).getAllPersistentReferences();
+    if (references.length == 0)
+    {
+      return;
+    }
+
+    IIDHandler idHandler = store.getIDHandler();
+    CDOID classID = store.getMetaDataManager().getMetaID(eClass, revision.getTimeStamp());
+    CDOID sourceID = revision.getID();
+    int branchID = revision.getBranch().getID();
+
+    IDBPreparedStatement stmt = accessor.getDBConnection().prepareStatement(sqlInsert, ReuseProbability.HIGH);
+    int counter = 0;
+
+    try
+    {
+      for (EReference reference : references)
+      {
+        int featureID = eClass.getFeatureID(reference);
+        if (reference.isMany())
+        {
+          CDOList list = revision.getList(reference);
+          if (list != null)
+          {
+            int size = list.size();
+            for (int i = 0; i < size; i++)
+            {
+              if (addReference(stmt, idHandler, list.get(i), branchID, sourceID, classID, featureID, i))
+              {
+                ++counter;
+              }
+            }
+          }
+        }
+        else
+        {
+          if (addReference(stmt, idHandler, revision.getValue(reference), branchID, sourceID, classID, featureID, 0))
+          {
+            ++counter;
+          }
+        }
+      }
+
+      if (counter != 0)
+      {
+        DBUtil.executeBatch(stmt, counter);
+      }
+    }
+    catch (SQLException ex)
+    {
+      throw new DBException(ex);
+    }
+    finally
+    {
+      DBUtil.close(stmt);
+    }
+  }
+
+  private static boolean addReference(IDBPreparedStatement stmt, IIDHandler idHandler, Object value, int branchID, CDOID sourceID, CDOID classID,
+      int featureID, int index) throws SQLException
+  {
+    if (!(value instanceof CDOID))
+    {
+      return false;
+    }
+
+    CDOID targetID = (CDOID)value;
+    if (targetID.isNull() || targetID.isExternal())
+    {
+      return false;
+    }
+
+    idHandler.setCDOID(stmt, 1, targetID);
+    stmt.setInt(2, branchID);
+    idHandler.setCDOID(stmt, 3, sourceID);
+    idHandler.setCDOID(stmt, 4, classID);
+    stmt.setInt(5, featureID);
+    stmt.setInt(6, index);
+    stmt.addBatch();
+    return true;
+  }
+}
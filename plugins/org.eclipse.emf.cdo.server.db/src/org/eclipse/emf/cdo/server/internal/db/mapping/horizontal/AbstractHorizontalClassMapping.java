@@ -30,11 +30,14 @@ import org.eclipse.emf.cdo.server.IStoreAccessor.QueryXRefsContext;
 import org.eclipse.emf.cdo.server.db.IDBStoreAccessor;
 import org.eclipse.emf.cdo.server.db.IIDHandler;
 import org.eclipse.emf.cdo.server.db.mapping.IClassMapping;
+import org.eclipse.emf.cdo.server.db.mapping.IClassMappingQuerySupport;
 import org.eclipse.emf.cdo.server.db.mapping.IListMapping;
 import org.eclipse.emf.cdo.server.db.mapping.IListMapping3;
 import org.eclipse.emf.cdo.server.db.mapping.IMappingStrategy;
 import org.eclipse.emf.cdo.server.db.mapping.ITypeMapping;
+import org.eclipse.emf.cdo.server.internal.db.CommitWritePlanner;
 import org.eclipse.emf.cdo.server.internal.db.DBIndexAnnotation;
+import org.eclipse.emf.cdo.server.internal.db.DBStore;
 import org.eclipse.emf.cdo.server.internal.db.bundle.OM;
 import org.eclipse.emf.cdo.server.internal.db.mapping.AbstractMappingStrategy;
 import org.eclipse.emf.cdo.spi.common.commit.CDOChangeSetSegment;
@@ -82,10 +85,15 @@ import java.util.Set;
  * @author Eike Stepper
  * @since 2.0
  */
-public abstract class AbstractHorizontalClassMapping implements IClassMapping, IMappingConstants, IDeactivateable
+public abstract class AbstractHorizontalClassMapping implements IClassMapping, IClassMappingQuerySupport, IMappingConstants, IDeactivateable
 {
   private static final ContextTracer TRACER = new ContextTracer(OM.DEBUG, AbstractHorizontalClassMapping.class);
 
+  /**
+   * The maximum number of IDs that are passed into a single <code>IN</code> clause of a batched revision read.
+   */
+  private static final int BATCH_SIZE = 128;
+
   private EClass eClass;
 
   private IDBTable table;
@@ -104,6 +112,8 @@ public abstract class AbstractHorizontalClassMapping implements IClassMapping, I
 
   private String sqlSelectForChangeSet;
 
+  private String sqlSelectBatchPrefix;
+
   public AbstractHorizontalClassMapping(AbstractHorizontalMappingStrategy mappingStrategy, EClass eClass)
   {
     this.mappingStrategy = mappingStrategy;
@@ -343,6 +353,29 @@ public abstract class AbstractHorizontalClassMapping implements IClassMapping, I
     builder.append(table);
     builder.append(" WHERE "); //$NON-NLS-1$
     sqlSelectForChangeSet = builder.toString();
+
+    // ----------- Select the attributes of several revisions (for readRevisionBatches) ---
+    builder = new StringBuilder("SELECT "); //$NON-NLS-1$
+    builder.append(ATTRIBUTES_ID);
+    builder.append(", "); //$NON-NLS-1$
+    builder.append(ATTRIBUTES_VERSION);
+    builder.append(", "); //$NON-NLS-1$
+    builder.append(ATTRIBUTES_CREATED);
+    builder.append(", "); //$NON-NLS-1$
+    builder.append(ATTRIBUTES_REVISED);
+    builder.append(", "); //$NON-NLS-1$
+    builder.append(ATTRIBUTES_RESOURCE);
+    builder.append(", "); //$NON-NLS-1$
+    builder.append(ATTRIBUTES_CONTAINER);
+    builder.append(", "); //$NON-NLS-1$
+    builder.append(ATTRIBUTES_FEATURE);
+    appendTypeMappingNames(builder, valueMappings);
+    appendFieldNames(builder, unsettableFields);
+    appendFieldNames(builder, listSizeFields);
+    builder.append(" FROM "); //$NON-NLS-1$
+    builder.append(table);
+    builder.append(" WHERE "); //$NON-NLS-1$
+    sqlSelectBatchPrefix = builder.toString();
   }
 
   protected IDBField addContainerField(IDBTable table, DBType idType, int idLength)
@@ -476,6 +509,109 @@ public abstract class AbstractHorizontalClassMapping implements IClassMapping, I
     }
   }
 
+  /**
+   * Reads the revisions with the given IDs with one <code>IN</code> query per {@link #BATCH_SIZE} IDs and passes them to the given handler.
+   * <p>
+   * The given SQL criteria, if not <code>null</code>, are prepended to the <code>IN</code> clause and the given timestamps are bound to their parameters.
+   * The number of <code>IN</code> parameters is rounded up to the next power of two, so that only a few different statements
+   * are ever prepared.
+   */
+  protected final void readRevisionBatches(IDBStoreAccessor accessor, List<CDOID> ids, CDOBranchPoint branchPoint, int listChunk,
+      CDORevisionHandler revisionHandler, String sqlCriteria, long... timeStamps)
+  {
+    DBStore store = (DBStore)getMappingStrategy().getStore();
+    IIDHandler idHandler = store.getIDHandler();
+    CDOBranchPoint head = branchPoint.getBranch().getHead();
+
+    int size = ids.size();
+    for (int start = 0; start < size; start += BATCH_SIZE)
+    {
+      List<CDOID> batch = ids.subList(start, Math.min(start + BATCH_SIZE, size));
+      int batchSize = batch.size();
+
+      int parameters = 1;
+      while (parameters < batchSize)
+      {
+        parameters <<= 1;
+      }
+
+      StringBuilder builder = new StringBuilder(sqlSelectBatchPrefix);
+      if (sqlCriteria != null)
+      {
+        builder.append(sqlCriteria);
+        builder.append(" AND "); //$NON-NLS-1$
+      }
+
+      builder.append(ATTRIBUTES_ID);
+      builder.append(" IN (?"); //$NON-NLS-1$
+      for (int i = 1; i < parameters; i++)
+      {
+        builder.append(", ?"); //$NON-NLS-1$
+      }
+
+      builder.append(")"); //$NON-NLS-1$
+
+      List<InternalCDORevision> revisions = new ArrayList<InternalCDORevision>(batchSize);
+      IDBPreparedStatement stmt = accessor.getDBConnection().prepareStatement(builder.toString(), ReuseProbability.MEDIUM);
+      ResultSet resultSet = null;
+
+      try
+      {
+        int column = 0;
+        for (long timeStamp : timeStamps)
+        {
+          stmt.setLong(++column, timeStamp);
+        }
+
+        for (int i = 0; i < parameters; i++)
+        {
+          // Pad the IN clause with the last ID, duplicates don't change the result.
+          idHandler.setCDOID(stmt, ++column, batch.get(Math.min(i, batchSize - 1)));
+        }
+
+        if (TRACER.isEnabled())
+        {
+          TRACER.format("Executing Query: {0}", stmt.toString()); //$NON-NLS-1$
+        }
+
+        resultSet = stmt.executeQuery();
+
+        for (;;)
+        {
+          InternalCDORevision revision = store.createRevision(eClass, null);
+          revision.setBranchPoint(head);
+
+          if (!readValuesFromResultSet(resultSet, idHandler, revision, true))
+          {
+            break;
+          }
+
+          revisions.add(revision);
+        }
+      }
+      catch (SQLException ex)
+      {
+        throw new DBException(ex);
+      }
+      finally
+      {
+        DBUtil.close(resultSet);
+        DBUtil.close(stmt);
+      }
+
+      // Read multival tables only after the attribute result set is closed
+      readLists(accessor, revisions, listChunk);
+
+      for (InternalCDORevision revision : revisions)
+      {
+        if (!revisionHandler.handleRevision(revision))
+        {
+          return;
+        }
+      }
+    }
+  }
+
   protected final void readLists(IDBStoreAccessor accessor, InternalCDORevision revision, int listChunk)
   {
     for (IListMapping listMapping : listMappings)
@@ -484,6 +620,42 @@ public abstract class AbstractHorizontalClassMapping implements IClassMapping, I
     }
   }
 
+  /**
+   * Reads the lists of several revisions. Complete lists are read with one query per batch, if the list mapping supports
+   * that, chunked lists and feature maps are read per revision.
+   */
+  private void readLists(IDBStoreAccessor accessor, List<InternalCDORevision> revisions, int listChunk)
+  {
+    if (listMappings.isEmpty())
+    {
+      return;
+    }
+
+    List<InternalCDORevision> existing = new ArrayList<InternalCDORevision>(revisions.size());
+    for (InternalCDORevision revision : revisions)
+    {
+      if (revision.getVersion() >= CDOBranchVersion.FIRST_VERSION)
+      {
+        existing.add(revision);
+      }
+    }
+
+    for (IListMapping listMapping : listMappings)
+    {
+      if (listChunk == CDORevision.UNCHUNKED && listMapping instanceof AbstractListTableMapping)
+      {
+        ((AbstractListTableMapping)listMapping).readValues(accessor, existing);
+      }
+      else
+      {
+        for (InternalCDORevision revision : existing)
+        {
+          listMapping.readValues(accessor, revision, listChunk);
+        }
+      }
+    }
+  }
+
   protected final IMappingStrategy getMappingStrategy()
   {
     return mappingStrategy;
@@ -540,11 +712,61 @@ public abstract class AbstractHorizontalClassMapping implements IClassMapping, I
     throw new IllegalArgumentException("List mapping for feature " + feature + " does not exist"); //$NON-NLS-1$ //$NON-NLS-2$
   }
 
-  protected final IDBTable getTable()
+  public final IDBTable getTable()
   {
     return table;
   }
 
+  public final IDBField getIDField()
+  {
+    return table.getField(ATTRIBUTES_ID);
+  }
+
+  public boolean appendVisibilityCondition(StringBuilder builder, String alias, CDOBranchPoint branchPoint)
+  {
+    if (!branchPoint.getBranch().isMainBranch())
+    {
+      return false;
+    }
+
+    long timeStamp = branchPoint.getTimeStamp();
+    if (timeStamp != CDOBranchPoint.UNSPECIFIED_DATE && !mappingStrategy.hasAuditSupport())
+    {
+      return false;
+    }
+
+    String prefix = alias == null ? "" : alias + "."; //$NON-NLS-1$ //$NON-NLS-2$
+    if (timeStamp == CDOBranchPoint.UNSPECIFIED_DATE)
+    {
+      builder.append(prefix);
+      builder.append(ATTRIBUTES_REVISED);
+      builder.append("=0"); //$NON-NLS-1$
+    }
+    else
+    {
+      builder.append(prefix);
+      builder.append(ATTRIBUTES_CREATED);
+      builder.append("<="); //$NON-NLS-1$
+      builder.append(timeStamp);
+      builder.append(" AND ("); //$NON-NLS-1$
+      builder.append(prefix);
+      builder.append(ATTRIBUTES_REVISED);
+      builder.append("=0 OR "); //$NON-NLS-1$
+      builder.append(prefix);
+      builder.append(ATTRIBUTES_REVISED);
+      builder.append(">="); //$NON-NLS-1$
+      builder.append(timeStamp);
+      builder.append(")"); //$NON-NLS-1$
+    }
+
+    // Exclude the rows of detached objects
+    builder.append(" AND "); //$NON-NLS-1$
+    builder.append(prefix);
+    builder.append(ATTRIBUTES_VERSION);
+    builder.append(">0"); //$NON-NLS-1$
+    return true;
+  }
+
   public List<IDBTable> getDBTables()
   {
     List<IDBTable> tables = new ArrayList<IDBTable>();
@@ -566,6 +788,9 @@ public abstract class AbstractHorizontalClassMapping implements IClassMapping, I
 
   protected void checkDuplicateResources(IDBStoreAccessor accessor, CDORevision revision) throws IllegalStateException
   {
+    // Resource nodes that are still pending in a write batch must be visible to the query below
+    CommitWritePlanner.flush(accessor);
+
     CDOID folderID = (CDOID)revision.data().getContainerID();
     String name = (String)revision.data().get(EresourcePackage.eINSTANCE.getCDOResourceNode_Name(), 0);
 
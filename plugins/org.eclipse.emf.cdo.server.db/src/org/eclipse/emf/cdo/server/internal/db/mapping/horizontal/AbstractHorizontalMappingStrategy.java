@@ -52,6 +52,7 @@ import java.sql.SQLException;
 import java.sql.Statement;
 import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 
 /**
  * * This abstract base class refines {@link AbstractMappingStrategy} by implementing aspects common to horizontal
@@ -82,6 +83,17 @@ public abstract class AbstractHorizontalMappingStrategy extends AbstractMappingS
     return objectTypeMapper.getObjectType(accessor, id);
   }
 
+  /**
+   * Returns the types of the given objects, read with as few queries as possible. Unknown objects are not contained
+   * in the result.
+   *
+   * @since 4.5
+   */
+  public Map<CDOID, CDOClassifierRef> readObjectTypes(IDBStoreAccessor accessor, Collection<CDOID> ids)
+  {
+    return objectTypeMapper.getObjectTypes(accessor, ids);
+  }
+
   public boolean putObjectType(IDBStoreAccessor accessor, long timeStamp, CDOID id, EClass type)
   {
     return objectTypeMapper.putObjectType(accessor, timeStamp, id, type);
@@ -398,6 +410,13 @@ public abstract class AbstractHorizontalMappingStrategy extends AbstractMappingS
     ObjectTypeCache cache = new ObjectTypeCache(cacheSize);
     cache.setMappingStrategy(this);
     cache.setDelegate(table);
+
+    Object warmUp = getProperties().get(Props.OBJECT_TYPE_CACHE_WARM_UP);
+    if (warmUp != null)
+    {
+      cache.setWarmUp(Boolean.parseBoolean((String)warmUp));
+    }
+
     return cache;
   }
 
@@ -14,6 +14,7 @@
 package org.eclipse.emf.cdo.server.internal.db.mapping.horizontal;
 
 import org.eclipse.emf.cdo.common.id.CDOID;
+import org.eclipse.emf.cdo.common.id.CDOIDUtil;
 import org.eclipse.emf.cdo.common.model.CDOFeatureType;
 import org.eclipse.emf.cdo.common.revision.CDOList;
 import org.eclipse.emf.cdo.common.revision.CDORevision;
@@ -25,6 +26,7 @@ import org.eclipse.emf.cdo.server.db.IDBStoreChunkReader;
 import org.eclipse.emf.cdo.server.db.IIDHandler;
 import org.eclipse.emf.cdo.server.db.mapping.IMappingStrategy;
 import org.eclipse.emf.cdo.server.db.mapping.ITypeMapping;
+import org.eclipse.emf.cdo.server.internal.db.CommitWritePlanner;
 import org.eclipse.emf.cdo.server.internal.db.bundle.OM;
 import org.eclipse.emf.cdo.server.internal.db.mapping.AbstractMappingStrategy;
 import org.eclipse.emf.cdo.spi.common.revision.InternalCDORevision;
@@ -53,6 +55,7 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 /**
@@ -65,6 +68,8 @@ public abstract class AbstractListTableMapping extends AbstractBasicListTableMap
 {
   private static final ContextTracer TRACER = new ContextTracer(OM.DEBUG, AbstractListTableMapping.class);
 
+  private static final int BATCH_SIZE = 128;
+
   /**
    * The table of this mapping.
    */
@@ -82,6 +87,8 @@ public abstract class AbstractListTableMapping extends AbstractBasicListTableMap
 
   private String sqlOrderByIndex;
 
+  private String sqlSelectBatchPrefix;
+
   private String sqlInsertEntry;
 
   public AbstractListTableMapping(IMappingStrategy mappingStrategy, EClass eClass, EStructuralFeature feature)
@@ -169,6 +176,19 @@ public abstract class AbstractListTableMapping extends AbstractBasicListTableMap
 
     sqlOrderByIndex = " ORDER BY " + LIST_IDX; //$NON-NLS-1$
 
+    // ---------------- SELECT to read the lists of several revisions ----
+    builder = new StringBuilder();
+    builder.append("SELECT "); //$NON-NLS-1$
+    builder.append(LIST_REVISION_ID);
+    builder.append(", "); //$NON-NLS-1$
+    builder.append(LIST_IDX);
+    builder.append(", "); //$NON-NLS-1$
+    builder.append(LIST_VALUE);
+    builder.append(" FROM "); //$NON-NLS-1$
+    builder.append(tableName);
+    builder.append(" WHERE "); //$NON-NLS-1$
+    sqlSelectBatchPrefix = builder.toString();
+
     // ----------------- INSERT - reference entry -----------------
     builder = new StringBuilder("INSERT INTO "); //$NON-NLS-1$
     builder.append(tableName);
@@ -216,6 +236,20 @@ public abstract class AbstractListTableMapping extends AbstractBasicListTableMap
 
   protected abstract void setKeyFields(PreparedStatement stmt, CDORevision revision) throws SQLException;
 
+  /**
+   * Sets the {@link #getKeyFields() key fields} of the given revision after the given column and returns the last column
+   * that has been set. This implementation only sets the {@link #LIST_REVISION_ID revision ID}, subclasses that
+   * {@link #addKeyFields(List) add key fields} must override it.
+   *
+   * @since 4.5
+   */
+  protected int setKeyFields(PreparedStatement stmt, int column, CDORevision revision) throws SQLException
+  {
+    IIDHandler idHandler = getMappingStrategy().getStore().getIDHandler();
+    idHandler.setCDOID(stmt, ++column, revision.getID());
+    return column;
+  }
+
   public Collection<IDBTable> getDBTables()
   {
     return Collections.singleton(table);
@@ -306,6 +340,113 @@ public abstract class AbstractListTableMapping extends AbstractBasicListTableMap
     }
   }
 
+  /**
+   * Reads the complete lists of several revisions with one query per batch. The revisions must have distinct IDs.
+   *
+   * @since 4.5
+   */
+  public void readValues(IDBStoreAccessor accessor, List<InternalCDORevision> revisions)
+  {
+    List<InternalCDORevision> nonEmpty = new ArrayList<InternalCDORevision>(revisions.size());
+    for (InternalCDORevision revision : revisions)
+    {
+      if (revision.getList(getFeature()).size() != 0)
+      {
+        nonEmpty.add(revision);
+      }
+    }
+
+    IIDHandler idHandler = getMappingStrategy().getStore().getIDHandler();
+    FieldInfo[] fields = getKeyFields();
+
+    int size = nonEmpty.size();
+    for (int start = 0; start < size; start += BATCH_SIZE)
+    {
+      List<InternalCDORevision> batch = nonEmpty.subList(start, Math.min(start + BATCH_SIZE, size));
+      int batchSize = batch.size();
+
+      int parameters = 1;
+      while (parameters < batchSize)
+      {
+        parameters <<= 1;
+      }
+
+      Map<CDOID, InternalCDORevision> revisionsByID = CDOIDUtil.createMap(batchSize);
+      for (InternalCDORevision revision : batch)
+      {
+        revisionsByID.put(revision.getID(), revision);
+      }
+
+      StringBuilder builder = new StringBuilder(sqlSelectBatchPrefix);
+      for (int i = 0; i < parameters; i++)
+      {
+        if (i != 0)
+        {
+          builder.append(" OR "); //$NON-NLS-1$
+        }
+
+        builder.append("("); //$NON-NLS-1$
+        for (int j = 0; j < fields.length; j++)
+        {
+          if (j != 0)
+          {
+            builder.append(" AND "); //$NON-NLS-1$
+          }
+
+          builder.append(fields[j].getName());
+          builder.append("=?"); //$NON-NLS-1$
+        }
+
+        builder.append(")"); //$NON-NLS-1$
+      }
+
+      if (TRACER.isEnabled())
+      {
+        TRACER.format("Reading list values for feature {0}.{1} of {2} revisions", getContainingClass().getName(), //$NON-NLS-1$
+            getFeature().getName(), batchSize);
+      }
+
+      IDBPreparedStatement stmt = accessor.getDBConnection().prepareStatement(builder.toString(), ReuseProbability.MEDIUM);
+      ResultSet resultSet = null;
+
+      try
+      {
+        int column = 0;
+        for (int i = 0; i < parameters; i++)
+        {
+          // Pad the condition with the last revision, duplicates don't change the result.
+          column = setKeyFields(stmt, column, batch.get(Math.min(i, batchSize - 1)));
+        }
+
+        if (stmt.getMaxRows() != 0)
+        {
+          stmt.setMaxRows(0); // No limit.
+        }
+
+        resultSet = stmt.executeQuery();
+        while (resultSet.next())
+        {
+          CDOID id = idHandler.getCDOID(resultSet, LIST_REVISION_ID);
+          InternalCDORevision revision = revisionsByID.get(id);
+          if (revision != null)
+          {
+            int index = resultSet.getInt(LIST_IDX);
+            revision.getList(getFeature()).set(index, typeMapping.readValue(resultSet));
+          }
+        }
+      }
+      catch (SQLException ex)
+      {
+        throw new DBException(ex);
+      }
+      finally
+      {
+        DBUtil.close(resultSet);
+        DBUtil.close(stmt);
+      }
+    }
+  }
+
   public final void readChunks(IDBStoreChunkReader chunkReader, List<Chunk> chunks, String where)
   {
     if (TRACER.isEnabled())
@@ -408,7 +549,7 @@ public abstract class AbstractListTableMapping extends AbstractBasicListTableMap
           revision.getID(), revision.getVersion(), value);
     }
 
-    IDBPreparedStatement stmt = accessor.getDBConnection().prepareStatement(sqlInsertEntry, ReuseProbability.HIGH);
+    PreparedStatement stmt = CommitWritePlanner.prepareInsert(accessor, sqlInsertEntry);
 
     try
     {
@@ -416,7 +557,7 @@ public abstract class AbstractListTableMapping extends AbstractBasicListTableMap
       int column = getKeyFields().length + 1;
       stmt.setInt(column++, idx);
       typeMapping.setValue(stmt, column++, value);
-      DBUtil.update(stmt, true);
+      CommitWritePlanner.executeInsert(stmt);
     }
     catch (SQLException e)
     {
@@ -424,7 +565,7 @@ public abstract class AbstractListTableMapping extends AbstractBasicListTableMap
     }
     finally
     {
-      DBUtil.close(stmt);
+      CommitWritePlanner.close(stmt);
     }
   }
 
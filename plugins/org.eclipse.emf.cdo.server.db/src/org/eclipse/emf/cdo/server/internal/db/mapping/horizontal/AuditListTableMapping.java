@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2009-2013 Eike Stepper (Berlin, Germany) and others.
+ * Copyright (c) 2009-2013, 2016 Eike Stepper (Berlin, Germany) and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -78,6 +78,15 @@ public class AuditListTableMapping extends AbstractListTableMapping
     stmt.setInt(2, revision.getVersion());
   }
 
+  @Override
+  protected int setKeyFields(PreparedStatement stmt, int column, CDORevision revision) throws SQLException
+  {
+    IIDHandler idHandler = getMappingStrategy().getStore().getIDHandler();
+    idHandler.setCDOID(stmt, ++column, revision.getID());
+    stmt.setInt(++column, revision.getVersion());
+    return column;
+  }
+
   public void objectDetached(IDBStoreAccessor accessor, CDOID id, long revised)
   {
     // The audit list mapping does not care about revised references -> NOOP
@@ -11,6 +11,7 @@
 package org.eclipse.emf.cdo.server.internal.db.mapping.horizontal;
 
 import org.eclipse.emf.cdo.common.id.CDOID;
+import org.eclipse.emf.cdo.common.id.CDOIDUtil;
 import org.eclipse.emf.cdo.common.model.CDOClassifierRef;
 import org.eclipse.emf.cdo.common.protocol.CDODataInput;
 import org.eclipse.emf.cdo.common.protocol.CDODataOutput;
@@ -25,6 +26,10 @@ import org.eclipse.emf.ecore.EClass;
 
 import java.io.IOException;
 import java.sql.Connection;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
 
 /**
  * @author Eike Stepper
@@ -60,6 +65,36 @@ public abstract class DelegatingObjectTypeMapper extends AbstractObjectTypeMappe
     return delegate.getObjectType(accessor, id);
   }
 
+  /**
+   * @since 4.5
+   */
+  public Map<CDOID, CDOClassifierRef> getObjectTypes(IDBStoreAccessor accessor, Collection<CDOID> ids)
+  {
+    Map<CDOID, CDOClassifierRef> result = CDOIDUtil.createMap(ids.size());
+    List<CDOID> missingIDs = new ArrayList<CDOID>();
+
+    for (CDOID id : ids)
+    {
+      CDOID type = doGetObjectType(accessor, id);
+      if (type != null)
+      {
+        EClass eClass = (EClass)getMetaDataManager().getMetaInstance(type);
+        result.put(id, new CDOClassifierRef(eClass));
+      }
+      else
+      {
+        missingIDs.add(id);
+      }
+    }
+
+    if (!missingIDs.isEmpty())
+    {
+      result.putAll(delegate.getObjectTypes(accessor, missingIDs));
+    }
+
+    return result;
+  }
+
   public boolean putObjectType(IDBStoreAccessor accessor, long timeStamp, CDOID id, EClass type)
   {
     CDOID classID = getMetaDataManager().getMetaID(type, timeStamp);
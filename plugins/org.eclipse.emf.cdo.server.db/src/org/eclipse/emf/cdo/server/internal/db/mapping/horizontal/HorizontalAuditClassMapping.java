@@ -36,12 +36,14 @@ import org.eclipse.emf.cdo.server.StoreThreadLocal;
 import org.eclipse.emf.cdo.server.db.IDBStoreAccessor;
 import org.eclipse.emf.cdo.server.db.IIDHandler;
 import org.eclipse.emf.cdo.server.db.mapping.IClassMappingAuditSupport;
+import org.eclipse.emf.cdo.server.db.mapping.IClassMappingBatchSupport;
 import org.eclipse.emf.cdo.server.db.mapping.IClassMappingDeltaSupport;
 import org.eclipse.emf.cdo.server.db.mapping.IClassMappingUnitSupport;
 import org.eclipse.emf.cdo.server.db.mapping.IListMapping;
 import org.eclipse.emf.cdo.server.db.mapping.IListMappingDeltaSupport;
 import org.eclipse.emf.cdo.server.db.mapping.IListMappingUnitSupport;
 import org.eclipse.emf.cdo.server.db.mapping.ITypeMapping;
+import org.eclipse.emf.cdo.server.internal.db.CommitWritePlanner;
 import org.eclipse.emf.cdo.server.internal.db.DBStore;
 import org.eclipse.emf.cdo.server.internal.db.bundle.OM;
 import org.eclipse.emf.cdo.spi.common.revision.InternalCDORevision;
@@ -67,6 +69,7 @@ import org.eclipse.net4j.util.om.trace.ContextTracer;
 import org.eclipse.emf.ecore.EClass;
 import org.eclipse.emf.ecore.EStructuralFeature;
 
+import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
@@ -82,7 +85,7 @@ import java.util.concurrent.TimeUnit;
  * @since 2.0
  */
 public class HorizontalAuditClassMapping extends AbstractHorizontalClassMapping
-    implements IClassMappingAuditSupport, IClassMappingDeltaSupport, IClassMappingUnitSupport
+    implements IClassMappingAuditSupport, IClassMappingDeltaSupport, IClassMappingUnitSupport, IClassMappingBatchSupport
 {
   private static final ContextTracer TRACER = new ContextTracer(OM.DEBUG, HorizontalAuditClassMapping.class);
 
@@ -100,6 +103,10 @@ public class HorizontalAuditClassMapping extends AbstractHorizontalClassMapping
 
   private String sqlSelectAllObjectIDs;
 
+  private String sqlBatchCriteriaCurrent;
+
+  private String sqlBatchCriteriaByTime;
+
   private String sqlReviseAttributes;
 
   private String sqlRawDeleteAttributes;
@@ -133,6 +140,22 @@ public class HorizontalAuditClassMapping extends AbstractHorizontalClassMapping
     builder.append(")=?"); //$NON-NLS-1$
     sqlSelectAttributesByVersion = builder.toString();
 
+    // ----------- Select Revisions (batched) -----------------
+    builder = new StringBuilder();
+    builder.append(ATTRIBUTES_REVISED);
+    builder.append("=0"); //$NON-NLS-1$
+    sqlBatchCriteriaCurrent = builder.toString();
+
+    builder = new StringBuilder();
+    builder.append("("); //$NON-NLS-1$
+    builder.append(ATTRIBUTES_CREATED);
+    builder.append("<=? AND ("); //$NON-NLS-1$
+    builder.append(ATTRIBUTES_REVISED);
+    builder.append("=0 OR "); //$NON-NLS-1$
+    builder.append(ATTRIBUTES_REVISED);
+    builder.append(">=?))"); //$NON-NLS-1$
+    sqlBatchCriteriaByTime = builder.toString();
+
     InternalRepository repository = (InternalRepository)getMappingStrategy().getStore().getRepository();
     if (repository.isSupportingUnits())
     {
@@ -329,6 +352,19 @@ public class HorizontalAuditClassMapping extends AbstractHorizontalClassMapping
     }
   }
 
+  public void readRevisions(IDBStoreAccessor accessor, List<CDOID> ids, CDOBranchPoint branchPoint, int listChunk, CDORevisionHandler revisionHandler)
+  {
+    long timeStamp = branchPoint.getTimeStamp();
+    if (timeStamp != CDOBranchPoint.UNSPECIFIED_DATE)
+    {
+      readRevisionBatches(accessor, ids, branchPoint, listChunk, revisionHandler, sqlBatchCriteriaByTime, timeStamp, timeStamp);
+    }
+    else
+    {
+      readRevisionBatches(accessor, ids, branchPoint, listChunk, revisionHandler, sqlBatchCriteriaCurrent);
+    }
+  }
+
   public boolean readRevisionByVersion(IDBStoreAccessor accessor, InternalCDORevision revision, int listChunk)
   {
     IIDHandler idHandler = getMappingStrategy().getStore().getIDHandler();
@@ -457,7 +493,7 @@ public class HorizontalAuditClassMapping extends AbstractHorizontalClassMapping
   protected final void writeValues(IDBStoreAccessor accessor, InternalCDORevision revision)
   {
     IIDHandler idHandler = getMappingStrategy().getStore().getIDHandler();
-    IDBPreparedStatement stmt = accessor.getDBConnection().prepareStatement(sqlInsertAttributes, ReuseProbability.HIGH);
+    PreparedStatement stmt = CommitWritePlanner.prepareInsert(accessor, sqlInsertAttributes);
 
     try
     {
@@ -506,7 +542,7 @@ public class HorizontalAuditClassMapping extends AbstractHorizontalClassMapping
         }
       }
 
-      DBUtil.update(stmt, true);
+      CommitWritePlanner.executeInsert(stmt);
     }
     catch (SQLException e)
     {
@@ -514,7 +550,7 @@ public class HorizontalAuditClassMapping extends AbstractHorizontalClassMapping
     }
     finally
     {
-      DBUtil.close(stmt);
+      CommitWritePlanner.close(stmt);
     }
   }
 
@@ -522,7 +558,7 @@ public class HorizontalAuditClassMapping extends AbstractHorizontalClassMapping
   protected void detachAttributes(IDBStoreAccessor accessor, CDOID id, int version, CDOBranch branch, long timeStamp, OMMonitor mon)
   {
     IIDHandler idHandler = getMappingStrategy().getStore().getIDHandler();
-    IDBPreparedStatement stmt = accessor.getDBConnection().prepareStatement(sqlInsertAttributes, ReuseProbability.HIGH);
+    PreparedStatement stmt = CommitWritePlanner.prepareInsert(accessor, sqlInsertAttributes);
 
     try
     {
@@ -560,7 +596,7 @@ public class HorizontalAuditClassMapping extends AbstractHorizontalClassMapping
         }
       }
 
-      DBUtil.update(stmt, true);
+      CommitWritePlanner.executeInsert(stmt);
     }
     catch (SQLException e)
     {
@@ -568,7 +604,7 @@ public class HorizontalAuditClassMapping extends AbstractHorizontalClassMapping
     }
     finally
     {
-      DBUtil.close(stmt);
+      CommitWritePlanner.close(stmt);
     }
   }
 
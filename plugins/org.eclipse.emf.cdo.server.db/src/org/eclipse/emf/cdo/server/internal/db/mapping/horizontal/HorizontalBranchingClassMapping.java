@@ -42,6 +42,7 @@ import org.eclipse.emf.cdo.server.db.mapping.IClassMappingDeltaSupport;
 import org.eclipse.emf.cdo.server.db.mapping.IListMapping;
 import org.eclipse.emf.cdo.server.db.mapping.IListMappingDeltaSupport;
 import org.eclipse.emf.cdo.server.db.mapping.ITypeMapping;
+import org.eclipse.emf.cdo.server.internal.db.CommitWritePlanner;
 import org.eclipse.emf.cdo.server.internal.db.bundle.OM;
 import org.eclipse.emf.cdo.spi.common.branch.InternalCDOBranch;
 import org.eclipse.emf.cdo.spi.common.commit.CDOChangeSetSegment;
@@ -65,6 +66,7 @@ import org.eclipse.net4j.util.om.trace.ContextTracer;
 import org.eclipse.emf.ecore.EClass;
 import org.eclipse.emf.ecore.EStructuralFeature;
 
+import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.HashSet;
@@ -525,7 +527,7 @@ public class HorizontalBranchingClassMapping extends AbstractHorizontalClassMapp
   protected final void writeValues(IDBStoreAccessor accessor, InternalCDORevision revision)
   {
     IIDHandler idHandler = getMappingStrategy().getStore().getIDHandler();
-    IDBPreparedStatement stmt = accessor.getDBConnection().prepareStatement(sqlInsertAttributes, ReuseProbability.HIGH);
+    PreparedStatement stmt = CommitWritePlanner.prepareInsert(accessor, sqlInsertAttributes);
 
     try
     {
@@ -574,7 +576,7 @@ public class HorizontalBranchingClassMapping extends AbstractHorizontalClassMapp
         }
       }
 
-      DBUtil.update(stmt, true);
+      CommitWritePlanner.executeInsert(stmt);
     }
     catch (SQLException e)
     {
@@ -582,7 +584,7 @@ public class HorizontalBranchingClassMapping extends AbstractHorizontalClassMapp
     }
     finally
     {
-      DBUtil.close(stmt);
+      CommitWritePlanner.close(stmt);
     }
   }
 
@@ -590,7 +592,7 @@ public class HorizontalBranchingClassMapping extends AbstractHorizontalClassMapp
   protected void detachAttributes(IDBStoreAccessor accessor, CDOID id, int version, CDOBranch branch, long timeStamp, OMMonitor mon)
   {
     IIDHandler idHandler = getMappingStrategy().getStore().getIDHandler();
-    IDBPreparedStatement stmt = accessor.getDBConnection().prepareStatement(sqlInsertAttributes, ReuseProbability.HIGH);
+    PreparedStatement stmt = CommitWritePlanner.prepareInsert(accessor, sqlInsertAttributes);
 
     try
     {
@@ -629,7 +631,7 @@ public class HorizontalBranchingClassMapping extends AbstractHorizontalClassMapp
         }
       }
 
-      DBUtil.update(stmt, true);
+      CommitWritePlanner.executeInsert(stmt);
     }
     catch (SQLException e)
     {
@@ -637,7 +639,7 @@ public class HorizontalBranchingClassMapping extends AbstractHorizontalClassMapp
     }
     finally
     {
-      DBUtil.close(stmt);
+      CommitWritePlanner.close(stmt);
     }
   }
 
@@ -786,6 +788,28 @@ public class HorizontalBranchingClassMapping extends AbstractHorizontalClassMapp
     }
   }
 
+  @Override
+  public boolean appendVisibilityCondition(StringBuilder builder, String alias, CDOBranchPoint branchPoint)
+  {
+    // The revisions of sub branches can be inherited from their base branches, so only the main branch is supported
+    if (!super.appendVisibilityCondition(builder, alias, branchPoint))
+    {
+      return false;
+    }
+
+    builder.append(" AND "); //$NON-NLS-1$
+    if (alias != null)
+    {
+      builder.append(alias);
+      builder.append("."); //$NON-NLS-1$
+    }
+
+    builder.append(ATTRIBUTES_BRANCH);
+    builder.append("="); //$NON-NLS-1$
+    builder.append(CDOBranch.MAIN_BRANCH_ID);
+    return true;
+  }
+
   @Override
   public void handleRevisions(IDBStoreAccessor accessor, CDOBranch branch, long timeStamp, boolean exactTime, CDORevisionHandler handler)
   {
@@ -19,6 +19,7 @@ import org.eclipse.emf.cdo.common.branch.CDOBranchVersion;
 import org.eclipse.emf.cdo.common.id.CDOID;
 import org.eclipse.emf.cdo.common.revision.CDOList;
 import org.eclipse.emf.cdo.common.revision.CDORevision;
+import org.eclipse.emf.cdo.common.revision.CDORevisionHandler;
 import org.eclipse.emf.cdo.common.revision.delta.CDOAddFeatureDelta;
 import org.eclipse.emf.cdo.common.revision.delta.CDOClearFeatureDelta;
 import org.eclipse.emf.cdo.common.revision.delta.CDOContainerFeatureDelta;
@@ -33,9 +34,11 @@ import org.eclipse.emf.cdo.eresource.EresourcePackage;
 import org.eclipse.emf.cdo.server.IStoreAccessor.QueryXRefsContext;
 import org.eclipse.emf.cdo.server.db.IDBStoreAccessor;
 import org.eclipse.emf.cdo.server.db.IIDHandler;
+import org.eclipse.emf.cdo.server.db.mapping.IClassMappingBatchSupport;
 import org.eclipse.emf.cdo.server.db.mapping.IClassMappingDeltaSupport;
 import org.eclipse.emf.cdo.server.db.mapping.IListMappingDeltaSupport;
 import org.eclipse.emf.cdo.server.db.mapping.ITypeMapping;
+import org.eclipse.emf.cdo.server.internal.db.CommitWritePlanner;
 import org.eclipse.emf.cdo.server.internal.db.DBStore;
 import org.eclipse.emf.cdo.server.internal.db.bundle.OM;
 import org.eclipse.emf.cdo.server.internal.db.mapping.horizontal.AbstractBasicListTableMapping.AbstractListDeltaWriter.NewListSizeResult;
@@ -56,6 +59,7 @@ import org.eclipse.net4j.util.om.trace.ContextTracer;
 import org.eclipse.emf.ecore.EClass;
 import org.eclipse.emf.ecore.EStructuralFeature;
 
+import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.ArrayList;
@@ -66,7 +70,7 @@ import java.util.Map;
  * @author Eike Stepper
  * @since 2.0
  */
-public class HorizontalNonAuditClassMapping extends AbstractHorizontalClassMapping implements IClassMappingDeltaSupport
+public class HorizontalNonAuditClassMapping extends AbstractHorizontalClassMapping implements IClassMappingDeltaSupport, IClassMappingBatchSupport
 {
   private static final ContextTracer TRACER = new ContextTracer(OM.DEBUG, HorizontalNonAuditClassMapping.class);
 
@@ -212,7 +216,7 @@ public class HorizontalNonAuditClassMapping extends AbstractHorizontalClassMappi
   protected void writeValues(IDBStoreAccessor accessor, InternalCDORevision revision)
   {
     IIDHandler idHandler = getMappingStrategy().getStore().getIDHandler();
-    IDBPreparedStatement stmt = accessor.getDBConnection().prepareStatement(sqlInsertAttributes, ReuseProbability.HIGH);
+    PreparedStatement stmt = CommitWritePlanner.prepareInsert(accessor, sqlInsertAttributes);
 
     try
     {
@@ -260,7 +264,7 @@ public class HorizontalNonAuditClassMapping extends AbstractHorizontalClassMappi
         }
       }
 
-      DBUtil.update(stmt, true);
+      CommitWritePlanner.executeInsert(stmt);
     }
     catch (SQLException e)
     {
@@ -268,7 +272,7 @@ public class HorizontalNonAuditClassMapping extends AbstractHorizontalClassMappi
     }
     finally
     {
-      DBUtil.close(stmt);
+      CommitWritePlanner.close(stmt);
     }
   }
 
@@ -422,6 +426,35 @@ public class HorizontalNonAuditClassMapping extends AbstractHorizontalClassMappi
     }
   }
 
+  public void readRevisions(IDBStoreAccessor accessor, List<CDOID> ids, CDOBranchPoint branchPoint, int listChunk, CDORevisionHandler revisionHandler)
+  {
+    if (branchPoint.getTimeStamp() != CDOBranchPoint.UNSPECIFIED_DATE)
+    {
+      throw new UnsupportedOperationException("Mapping strategy does not support audits"); //$NON-NLS-1$
+    }
+
+    if (!hasLists)
+    {
+      readRevisionBatches(accessor, ids, branchPoint, listChunk, revisionHandler, null);
+      return;
+    }
+
+    // Reading the list rows is not atomic and needs the version check of readRevision().
+    DBStore store = (DBStore)getMappingStrategy().getStore();
+    EClass eClass = getEClass();
+
+    for (CDOID id : ids)
+    {
+      InternalCDORevision revision = store.createRevision(eClass, id);
+      revision.setBranchPoint(branchPoint);
+
+      if (readRevision(accessor, revision, listChunk) && !revisionHandler.handleRevision(revision))
+      {
+        return;
+      }
+    }
+  }
+
   private int readVersion(IDBPreparedStatement stmt)
   {
     ResultSet resultSet = null;
@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2009-2013 Eike Stepper (Berlin, Germany) and others.
+ * Copyright (c) 2009-2013, 2016 Eike Stepper (Berlin, Germany) and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -11,15 +11,35 @@
 package org.eclipse.emf.cdo.server.internal.db.mapping.horizontal;
 
 import org.eclipse.emf.cdo.common.id.CDOID;
+import org.eclipse.emf.cdo.common.id.CDOIDUtil;
+import org.eclipse.emf.cdo.common.model.CDOClassifierRef;
 import org.eclipse.emf.cdo.server.db.IDBStoreAccessor;
 import org.eclipse.emf.cdo.server.db.IIDHandler;
+import org.eclipse.emf.cdo.server.internal.db.IObjectTypeMapper;
+import org.eclipse.emf.cdo.server.internal.db.LongIDHandler;
+
+import org.eclipse.emf.ecore.EClass;
 
 import java.sql.Connection;
-import java.util.Collections;
-import java.util.LinkedHashMap;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
+ * An in-memory cache of object types in front of an {@link ObjectTypeTable}.
+ * <p>
+ * The cache is split into segments that are selected by the hash of an ID. Each segment is an open-addressing table
+ * with a fixed capacity that is evicted with the CLOCK algorithm: a hit only sets the reference bit of its entry, so
+ * lookups don't take a lock and don't mutate shared structures; only puts, removals and evictions lock their segment.
+ * The IDs of a {@link LongIDHandler} are stored as primitive long values.
+ * <p>
+ * Types that are read from the delegate on a cache miss are added to the cache. If {@link #isWarmUp() warm-up} is
+ * enabled the cache is filled with the most recently created objects when it is activated.
+ *
  * @author Eike Stepper
  * @since 4.0
  */
@@ -27,31 +47,234 @@ public class ObjectTypeCache extends DelegatingObjectTypeMapper
 {
   public static final int DEFAULT_CACHE_CAPACITY = 100000;
 
-  private Map<CDOID, CDOID> memoryCache;
+  private static final int MIN_SEGMENT_CAPACITY = 64;
+
+  private static final int MAX_SEGMENTS = 256;
+
+  private final ConcurrentMap<CDOID, CDOClassifierRef> classifierRefs = new ConcurrentHashMap<CDOID, CDOClassifierRef>();
 
   private int cacheSize;
 
+  private boolean warmUp;
+
+  private Segment[] segments;
+
+  private int segmentMask;
+
+  private boolean longIDs;
+
   public ObjectTypeCache(int cacheSize)
   {
     this.cacheSize = cacheSize;
   }
 
+  /**
+   * @since 4.5
+   */
+  public int getCacheSize()
+  {
+    return cacheSize;
+  }
+
+  /**
+   * @since 4.5
+   */
+  public boolean isWarmUp()
+  {
+    return warmUp;
+  }
+
+  /**
+   * @since 4.5
+   */
+  public void setWarmUp(boolean warmUp)
+  {
+    checkInactive();
+    this.warmUp = warmUp;
+  }
+
+  /**
+   * Returns the number of object types that are currently cached.
+   *
+   * @since 4.5
+   */
+  public int getSize()
+  {
+    int size = 0;
+    Segment[] segments = this.segments;
+    if (segments != null)
+    {
+      for (int i = 0; i < segments.length; i++)
+      {
+        size += segments[i].size;
+      }
+    }
+
+    return size;
+  }
+
+  /**
+   * @since 4.5
+   */
+  public long getHitCount()
+  {
+    long count = 0;
+    Segment[] segments = this.segments;
+    if (segments != null)
+    {
+      for (int i = 0; i < segments.length; i++)
+      {
+        count += segments[i].hits.get();
+      }
+    }
+
+    return count;
+  }
+
+  /**
+   * @since 4.5
+   */
+  public long getMissCount()
+  {
+    long count = 0;
+    Segment[] segments = this.segments;
+    if (segments != null)
+    {
+      for (int i = 0; i < segments.length; i++)
+      {
+        count += segments[i].misses.get();
+      }
+    }
+
+    return count;
+  }
+
+  /**
+   * @since 4.5
+   */
+  public void resetStatistics()
+  {
+    Segment[] segments = this.segments;
+    if (segments != null)
+    {
+      for (int i = 0; i < segments.length; i++)
+      {
+        segments[i].hits.set(0L);
+        segments[i].misses.set(0L);
+      }
+    }
+  }
+
+  /**
+   * Adds the given object type to this cache unless the cache is full. Unlike the types that are put during commits or
+   * read on cache misses a preloaded type never evicts another one.
+   *
+   * @return <code>true</code> if the type has been added, <code>false</code> otherwise.
+   * @since 4.5
+   */
+  public boolean preload(CDOID id, CDOID type)
+  {
+    long key = getKey(id);
+    CDOID otherID = key == 0L ? id : null;
+    int hash = hash(key, otherID);
+    return getSegment(hash).put(key, otherID, hash, type, false);
+  }
+
+  @Override
+  public CDOClassifierRef getObjectType(IDBStoreAccessor accessor, CDOID id)
+  {
+    CDOID type = doGetObjectType(accessor, id);
+    if (type == null)
+    {
+      IObjectTypeMapper delegate = getDelegate();
+      if (!(delegate instanceof ObjectTypeTable))
+      {
+        return delegate.getObjectType(accessor, id);
+      }
+
+      type = ((ObjectTypeTable)delegate).getObjectTypeID(accessor, id);
+      if (type == null)
+      {
+        return null;
+      }
+
+      doPutObjectType(accessor, id, type);
+    }
+
+    return getClassifierRef(type);
+  }
+
+  /**
+   * Returns the cached types and reads the missing ones from the delegate with one batch query.
+   *
+   * @since 4.5
+   */
+  @Override
+  public Map<CDOID, CDOClassifierRef> getObjectTypes(IDBStoreAccessor accessor, Collection<CDOID> ids)
+  {
+    IObjectTypeMapper delegate = getDelegate();
+    if (!(delegate instanceof ObjectTypeTable))
+    {
+      return super.getObjectTypes(accessor, ids);
+    }
+
+    Map<CDOID, CDOClassifierRef> result = CDOIDUtil.createMap(ids.size());
+    List<CDOID> missingIDs = new ArrayList<CDOID>();
+
+    for (CDOID id : ids)
+    {
+      CDOID type = doGetObjectType(accessor, id);
+      if (type != null)
+      {
+        result.put(id, getClassifierRef(type));
+      }
+      else
+      {
+        missingIDs.add(id);
+      }
+    }
+
+    if (!missingIDs.isEmpty())
+    {
+      Map<CDOID, CDOID> types = ((ObjectTypeTable)delegate).getObjectTypeIDs(accessor, missingIDs);
+      for (Map.Entry<CDOID, CDOID> entry : types.entrySet())
+      {
+        CDOID id = entry.getKey();
+        CDOID type = entry.getValue();
+
+        doPutObjectType(accessor, id, type);
+        result.put(id, getClassifierRef(type));
+      }
+    }
+
+    return result;
+  }
+
   @Override
   protected CDOID doGetObjectType(IDBStoreAccessor accessor, CDOID id)
   {
-    return memoryCache.get(id);
+    long key = getKey(id);
+    CDOID otherID = key == 0L ? id : null;
+    int hash = hash(key, otherID);
+    return getSegment(hash).get(key, otherID, hash);
   }
 
   @Override
   protected boolean doPutObjectType(IDBStoreAccessor accessor, CDOID id, CDOID type)
   {
-    return memoryCache.put(id, type) == null;
+    long key = getKey(id);
+    CDOID otherID = key == 0L ? id : null;
+    int hash = hash(key, otherID);
+    return getSegment(hash).put(key, otherID, hash, type, true);
   }
 
   @Override
   protected boolean doRemoveObjectType(IDBStoreAccessor accessor, CDOID id)
   {
-    return memoryCache.remove(id) != null;
+    long key = getKey(id);
+    CDOID otherID = key == 0L ? id : null;
+    int hash = hash(key, otherID);
+    return getSegment(hash).remove(key, otherID, hash);
   }
 
   @Override
@@ -64,35 +287,280 @@ public class ObjectTypeCache extends DelegatingObjectTypeMapper
   protected void doActivate() throws Exception
   {
     super.doActivate();
-    memoryCache = Collections.synchronizedMap(new MemoryCache(cacheSize));
+
+    int segmentCount = 1;
+    int maxSegmentCount = Math.min(MAX_SEGMENTS, 4 * Runtime.getRuntime().availableProcessors());
+    while (segmentCount < maxSegmentCount && cacheSize / (segmentCount << 1) >= MIN_SEGMENT_CAPACITY)
+    {
+      segmentCount <<= 1;
+    }
+
+    Segment[] segments = new Segment[segmentCount];
+    for (int i = 0; i < segmentCount; i++)
+    {
+      int capacity = cacheSize / segmentCount + (i < cacheSize % segmentCount ? 1 : 0);
+      segments[i] = new Segment(capacity);
+    }
+
+    segmentMask = segmentCount - 1;
+    this.segments = segments;
+    longIDs = getMappingStrategy().getStore().getIDHandler() instanceof LongIDHandler;
+
+    IObjectTypeMapper delegate = getDelegate();
+    if (warmUp && delegate instanceof ObjectTypeTable)
+    {
+      ((ObjectTypeTable)delegate).warmUp(this);
+    }
   }
 
   @Override
   protected void doDeactivate() throws Exception
   {
-    memoryCache = null;
+    segments = null;
+    classifierRefs.clear();
     super.doDeactivate();
   }
 
+  private CDOClassifierRef getClassifierRef(CDOID type)
+  {
+    CDOClassifierRef classifierRef = classifierRefs.get(type);
+    if (classifierRef == null)
+    {
+      EClass eClass = (EClass)getMetaDataManager().getMetaInstance(type);
+      classifierRef = new CDOClassifierRef(eClass);
+      classifierRefs.put(type, classifierRef);
+    }
+
+    return classifierRef;
+  }
+
+  private Segment getSegment(int hash)
+  {
+    // The upper bits select the segment, the lower bits the slot within the segment
+    return segments[hash >>> 24 & segmentMask];
+  }
+
+  /**
+   * Returns the long value of the given ID if the store uses a {@link LongIDHandler}, or 0 otherwise. Long IDs are never
+   * 0 because {@link CDOID#NULL} is not stored.
+   */
+  private long getKey(CDOID id)
+  {
+    if (longIDs && id != null && id.getType() == CDOID.Type.OBJECT)
+    {
+      return CDOIDUtil.getLong(id);
+    }
+
+    return 0L;
+  }
+
+  private static int hash(long key, CDOID otherID)
+  {
+    if (otherID != null)
+    {
+      return otherID.hashCode() * 0x9E3779B9;
+    }
+
+    long h = key * 0x9E3779B97F4A7C15L;
+    return (int)(h ^ h >>> 32);
+  }
+
+  /**
+   * An immutable cache entry, so that entries can be read without synchronization.
+   *
+   * @author Eike Stepper
+   */
+  private static final class Entry
+  {
+    private final long key;
+
+    private final CDOID otherID;
+
+    private final int hash;
+
+    private final CDOID type;
+
+    /**
+     * The CLOCK reference bit. Races on this bit are benign; they only affect which entry is evicted.
+     */
+    private boolean referenced;
+
+    public Entry(long key, CDOID otherID, int hash, CDOID type)
+    {
+      this.key = key;
+      this.otherID = otherID;
+      this.hash = hash;
+      this.type = type;
+    }
+
+    public boolean matches(long key, CDOID otherID)
+    {
+      if (otherID == null)
+      {
+        return this.key == key && this.otherID == null;
+      }
+
+      return otherID.equals(this.otherID);
+    }
+  }
+
   /**
-   * @author Stefan Winkler
+   * An open-addressing table with linear probing that serves as the CLOCK ring at the same time. Readers don't lock;
+   * a reader that races with a writer may miss an entry and then reads the type from the delegate.
+   *
+   * @author Eike Stepper
    */
-  private static final class MemoryCache extends LinkedHashMap<CDOID, CDOID>
+  private static final class Segment
   {
-    private static final long serialVersionUID = 1L;
+    private final AtomicLong hits = new AtomicLong();
 
-    private int capacity;
+    private final AtomicLong misses = new AtomicLong();
 
-    public MemoryCache(int capacity)
+    private final Entry[] table;
+
+    private final int mask;
+
+    private final int capacity;
+
+    private volatile int size;
+
+    private int hand;
+
+    public Segment(int capacity)
     {
-      super(capacity, 0.75f, true);
-      this.capacity = capacity;
+      this.capacity = Math.max(capacity, 1);
+
+      int length = 2;
+      while (length < this.capacity << 1)
+      {
+        length <<= 1;
+      }
+
+      table = new Entry[length];
+      mask = length - 1;
     }
 
-    @Override
-    protected boolean removeEldestEntry(java.util.Map.Entry<CDOID, CDOID> eldest)
+    public CDOID get(long key, CDOID otherID, int hash)
     {
-      return size() > capacity;
+      Entry[] table = this.table;
+      for (int i = hash & mask, n = 0; n < table.length; i = i + 1 & mask, n++)
+      {
+        Entry entry = table[i];
+        if (entry == null)
+        {
+          break;
+        }
+
+        if (entry.matches(key, otherID))
+        {
+          entry.referenced = true;
+          hits.incrementAndGet();
+          return entry.type;
+        }
+      }
+
+      misses.incrementAndGet();
+      return null;
+    }
+
+    public synchronized boolean put(long key, CDOID otherID, int hash, CDOID type, boolean evict)
+    {
+      int i = hash & mask;
+      for (Entry entry; (entry = table[i]) != null; i = i + 1 & mask)
+      {
+        if (entry.matches(key, otherID))
+        {
+          if (!type.equals(entry.type))
+          {
+            table[i] = new Entry(key, otherID, hash, type);
+          }
+
+          return false;
+        }
+      }
+
+      if (size == capacity)
+      {
+        if (!evict)
+        {
+          return false;
+        }
+
+        evict();
+
+        // The eviction may have shifted entries into the free slot
+        i = hash & mask;
+        while (table[i] != null)
+        {
+          i = i + 1 & mask;
+        }
+      }
+
+      table[i] = new Entry(key, otherID, hash, type);
+      ++size;
+      return true;
+    }
+
+    public synchronized boolean remove(long key, CDOID otherID, int hash)
+    {
+      for (int i = hash & mask;; i = i + 1 & mask)
+      {
+        Entry entry = table[i];
+        if (entry == null)
+        {
+          return false;
+        }
+
+        if (entry.matches(key, otherID))
+        {
+          delete(i);
+          return true;
+        }
+      }
+    }
+
+    private void evict()
+    {
+      // Referenced entries get a second chance; after one full round all bits are cleared
+      for (int n = 0;; hand = hand + 1 & mask, n++)
+      {
+        Entry entry = table[hand];
+        if (entry != null)
+        {
+          if (!entry.referenced || n > table.length)
+          {
+            // Don't advance the hand, an entry may be shifted into this slot
+            delete(hand);
+            return;
+          }
+
+          entry.referenced = false;
+        }
+      }
+    }
+
+    private void delete(int i)
+    {
+      table[i] = null;
+      --size;
+
+      // Shift back the entries of the same probe sequence, so that no tombstones are needed
+      for (int j = i + 1 & mask;; j = j + 1 & mask)
+      {
+        Entry entry = table[j];
+        if (entry == null)
+        {
+          return;
+        }
+
+        int k = entry.hash & mask;
+        if ((j - k & mask) >= (j - i & mask))
+        {
+          table[i] = entry;
+          table[j] = null;
+          i = j;
+        }
+      }
     }
   }
 }
@@ -14,6 +14,7 @@
 package org.eclipse.emf.cdo.server.internal.db.mapping.horizontal;
 
 import org.eclipse.emf.cdo.common.id.CDOID;
+import org.eclipse.emf.cdo.common.id.CDOIDUtil;
 import org.eclipse.emf.cdo.common.model.CDOClassifierRef;
 import org.eclipse.emf.cdo.common.protocol.CDODataInput;
 import org.eclipse.emf.cdo.common.protocol.CDODataOutput;
@@ -21,6 +22,7 @@ import org.eclipse.emf.cdo.server.db.IDBStore;
 import org.eclipse.emf.cdo.server.db.IDBStoreAccessor;
 import org.eclipse.emf.cdo.server.db.IIDHandler;
 import org.eclipse.emf.cdo.server.internal.db.CDODBSchema;
+import org.eclipse.emf.cdo.server.internal.db.CommitWritePlanner;
 import org.eclipse.emf.cdo.spi.server.InternalRepository;
 
 import org.eclipse.net4j.db.DBException;
@@ -39,9 +41,14 @@ import org.eclipse.emf.ecore.EClass;
 
 import java.io.IOException;
 import java.sql.Connection;
+import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
 
 /**
  * @author Eike Stepper
@@ -49,6 +56,11 @@ import java.sql.Statement;
  */
 public class ObjectTypeTable extends AbstractObjectTypeMapper implements IMappingConstants
 {
+  /**
+   * The maximum number of IDs that are passed into a single <code>IN</code> clause of {@link #getObjectTypeIDs(IDBStoreAccessor, Collection)}.
+   */
+  private static final int BATCH_SIZE = 128;
+
   private IDBTable table;
 
   private String sqlDelete;
@@ -57,11 +69,30 @@ public class ObjectTypeTable extends AbstractObjectTypeMapper implements IMappin
 
   private String sqlSelect;
 
+  private String sqlSelectBatchPrefix;
+
   public ObjectTypeTable()
   {
   }
 
   public final CDOClassifierRef getObjectType(IDBStoreAccessor accessor, CDOID id)
+  {
+    CDOID classID = getObjectTypeID(accessor, id);
+    if (classID == null)
+    {
+      return null;
+    }
+
+    EClass eClass = (EClass)getMetaDataManager().getMetaInstance(classID);
+    return new CDOClassifierRef(eClass);
+  }
+
+  /**
+   * Returns the meta ID of the class of the object with the given ID, or <code>null</code> if the object is unknown.
+   *
+   * @since 4.5
+   */
+  public final CDOID getObjectTypeID(IDBStoreAccessor accessor, CDOID id)
   {
     IIDHandler idHandler = getMappingStrategy().getStore().getIDHandler();
     IDBPreparedStatement stmt = accessor.getDBConnection().prepareStatement(sqlSelect, ReuseProbability.MAX);
@@ -87,9 +118,7 @@ public class ObjectTypeTable extends AbstractObjectTypeMapper implements IMappin
         return null;
       }
 
-      CDOID classID = idHandler.getCDOID(resultSet, 1);
-      EClass eClass = (EClass)getMetaDataManager().getMetaInstance(classID);
-      return new CDOClassifierRef(eClass);
+      return idHandler.getCDOID(resultSet, 1);
     }
     catch (SQLException ex)
     {
@@ -101,10 +130,119 @@ public class ObjectTypeTable extends AbstractObjectTypeMapper implements IMappin
     }
   }
 
+  /**
+   * @since 4.5
+   */
+  public final Map<CDOID, CDOClassifierRef> getObjectTypes(IDBStoreAccessor accessor, Collection<CDOID> ids)
+  {
+    Map<CDOID, CDOID> classIDs = getObjectTypeIDs(accessor, ids);
+    Map<CDOID, CDOClassifierRef> result = CDOIDUtil.createMap(classIDs.size());
+
+    for (Map.Entry<CDOID, CDOID> entry : classIDs.entrySet())
+    {
+      EClass eClass = (EClass)getMetaDataManager().getMetaInstance(entry.getValue());
+      result.put(entry.getKey(), new CDOClassifierRef(eClass));
+    }
+
+    return result;
+  }
+
+  /**
+   * Returns the meta IDs of the classes of the given objects with one <code>IN</code> query per 128 IDs.
+   * Unknown objects are not contained in the result.
+   *
+   * @since 4.5
+   */
+  public final Map<CDOID, CDOID> getObjectTypeIDs(IDBStoreAccessor accessor, Collection<CDOID> ids)
+  {
+    IIDHandler idHandler = getMappingStrategy().getStore().getIDHandler();
+    Map<CDOID, CDOID> result = CDOIDUtil.createMap(ids.size());
+
+    List<CDOID> list = new ArrayList<CDOID>(ids);
+    int size = list.size();
+
+    for (int start = 0; start < size; start += BATCH_SIZE)
+    {
+      List<CDOID> batch = list.subList(start, Math.min(start + BATCH_SIZE, size));
+      int batchSize = batch.size();
+
+      // Round up to the next power of two, so that only a few different statements are ever prepared
+      int parameters = 1;
+      while (parameters < batchSize)
+      {
+        parameters <<= 1;
+      }
+
+      StringBuilder builder = new StringBuilder(sqlSelectBatchPrefix);
+      builder.append("?"); //$NON-NLS-1$
+      for (int i = 1; i < parameters; i++)
+      {
+        builder.append(", ?"); //$NON-NLS-1$
+      }
+
+      builder.append(")"); //$NON-NLS-1$
+
+      IDBPreparedStatement stmt = accessor.getDBConnection().prepareStatement(builder.toString(), ReuseProbability.MEDIUM);
+      ResultSet resultSet = null;
+
+      try
+      {
+        for (int i = 0; i < parameters; i++)
+        {
+          // Pad the IN clause with the last ID, duplicates don't change the result.
+          idHandler.setCDOID(stmt, i + 1, batch.get(Math.min(i, batchSize - 1)));
+        }
+
+        if (DBUtil.isTracerEnabled())
+        {
+          DBUtil.trace(stmt.toString());
+        }
+
+        resultSet = stmt.executeQuery();
+        while (resultSet.next())
+        {
+          CDOID id = idHandler.getCDOID(resultSet, 1);
+          CDOID classID = idHandler.getCDOID(resultSet, 2);
+          result.put(id, classID);
+        }
+      }
+      catch (SQLException ex)
+      {
+        throw new DBException(ex);
+      }
+      finally
+      {
+        DBUtil.close(resultSet);
+        DBUtil.close(stmt);
+      }
+    }
+
+    return result;
+  }
+
   public final boolean putObjectType(IDBStoreAccessor accessor, long timeStamp, CDOID id, EClass type)
   {
     IDBStore store = getMappingStrategy().getStore();
     IIDHandler idHandler = store.getIDHandler();
+    if (!getMappingStrategy().hasBranchingSupport() && CommitWritePlanner.isActive(accessor))
+    {
+      // Without branching no duplicate keys can occur, so the insert can be batched
+      PreparedStatement stmt = CommitWritePlanner.prepareInsert(accessor, sqlInsert);
+
+      try
+      {
+        idHandler.setCDOID(stmt, 1, id);
+        idHandler.setCDOID(stmt, 2, getMetaDataManager().getMetaID(type, timeStamp));
+        stmt.setLong(3, timeStamp);
+        CommitWritePlanner.executeInsert(stmt);
+        return true;
+      }
+      catch (SQLException ex)
+      {
+        throw new DBException(ex);
+      }
+    }
+
     IDBPreparedStatement stmt = accessor.getDBConnection().prepareStatement(sqlInsert, ReuseProbability.MAX);
 
     try
@@ -197,6 +335,61 @@ public class ObjectTypeTable extends AbstractObjectTypeMapper implements IMappin
     }
   }
 
+  /**
+   * Fills the given cache with the types of the most recently created objects until the cache is full.
+   *
+   * @return the number of types that have been added to the cache.
+   * @since 4.5
+   */
+  public int warmUp(ObjectTypeCache cache)
+  {
+    IDBStore store = getMappingStrategy().getStore();
+    IIDHandler idHandler = store.getIDHandler();
+    int cacheSize = cache.getCacheSize();
+    int count = 0;
+
+    Connection connection = null;
+    Statement stmt = null;
+    ResultSet resultSet = null;
+
+    try
+    {
+      connection = store.getDatabase().getConnection();
+      stmt = connection.createStatement();
+      stmt.setMaxRows(cacheSize);
+      stmt.setFetchSize(Math.min(cacheSize, 10000));
+
+      String sql = "SELECT " + ATTRIBUTES_ID + "," + ATTRIBUTES_CLASS + " FROM " + table + " ORDER BY " + ATTRIBUTES_CREATED + " DESC";
+      if (DBUtil.isTracerEnabled())
+      {
+        DBUtil.trace(sql);
+      }
+
+      resultSet = stmt.executeQuery(sql);
+      while (resultSet.next())
+      {
+        CDOID id = idHandler.getCDOID(resultSet, 1);
+        CDOID classID = idHandler.getCDOID(resultSet, 2);
+        if (cache.preload(id, classID) && ++count == cacheSize)
+        {
+          break;
+        }
+      }
+
+      return count;
+    }
+    catch (SQLException ex)
+    {
+      throw new DBException(ex);
+    }
+    finally
+    {
+      DBUtil.close(resultSet);
+      DBUtil.close(stmt);
+      DBUtil.close(connection);
+    }
+  }
+
   public void rawExport(Connection connection, CDODataOutput out, long fromCommitTime, long toCommitTime) throws IOException
   {
     String where = " WHERE " + ATTRIBUTES_CREATED + " BETWEEN " + fromCommitTime + " AND " + toCommitTime;
@@ -241,6 +434,7 @@ public class ObjectTypeTable extends AbstractObjectTypeMapper implements IMappin
     }
 
     sqlSelect = "SELECT " + ATTRIBUTES_CLASS + " FROM " + table + " WHERE " + ATTRIBUTES_ID + "=?";
+    sqlSelectBatchPrefix = "SELECT " + ATTRIBUTES_ID + "," + ATTRIBUTES_CLASS + " FROM " + table + " WHERE " + ATTRIBUTES_ID + " IN (";
     sqlInsert = "INSERT INTO " + table + "(" + ATTRIBUTES_ID + "," + ATTRIBUTES_CLASS + "," + ATTRIBUTES_CREATED + ") VALUES (?, ?, ?)";
     sqlDelete = "DELETE FROM " + table + " WHERE " + ATTRIBUTES_ID + "=?";
   }
@@ -251,6 +445,7 @@ public class ObjectTypeTable extends AbstractObjectTypeMapper implements IMappin
     sqlDelete = null;
     sqlInsert = null;
     sqlSelect = null;
+    sqlSelectBatchPrefix = null;
     table = null;
     super.doDeactivate();
   }
@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2012 Eike Stepper (Berlin, Germany) and others.
+ * Copyright (c) 2012, 2016 Eike Stepper (Berlin, Germany) and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -13,9 +13,13 @@ package org.eclipse.emf.cdo.server.internal.lissome;
 import org.eclipse.emf.cdo.common.revision.CDORevision;
 
 import org.eclipse.net4j.util.io.IORuntimeException;
+import org.eclipse.net4j.util.io.IOUtil;
+import org.eclipse.net4j.util.io.MappedFile;
+import org.eclipse.net4j.util.om.OMPlatform;
 
 import java.io.File;
 import java.io.FileNotFoundException;
+import java.io.IOException;
 
 /**
  * @author Eike Stepper
@@ -28,8 +32,12 @@ public class LissomeFile extends File
 
   private static final long serialVersionUID = 1L;
 
+  private static final boolean MAPPED_READS = OMPlatform.INSTANCE.isProperty("org.eclipse.emf.cdo.server.lissome.MAPPED_READS", true);
+
   protected final LissomeStore store;
 
+  private transient MappedFile mappedFile;
+
   public LissomeFile(LissomeStore store, String path) throws FileNotFoundException
   {
     super(store.getFolder(), path);
@@ -51,6 +59,36 @@ public class LissomeFile extends File
     return openHandle(WRITE_MODE);
   }
 
+  /**
+   * Returns the memory-mapped view of this file that all {@link #openReader() readers} share, or <code>null</code> if
+   * mapped reads are disabled.
+   */
+  public synchronized MappedFile getMappedFile()
+  {
+    if (mappedFile == null && MAPPED_READS)
+    {
+      try
+      {
+        mappedFile = new MappedFile(this);
+      }
+      catch (IOException ex)
+      {
+        throw new IORuntimeException(ex);
+      }
+    }
+
+    return mappedFile;
+  }
+
+  public synchronized void close()
+  {
+    if (mappedFile != null)
+    {
+      IOUtil.close(mappedFile);
+      mappedFile = null;
+    }
+  }
+
   protected LissomeFileHandle openHandle(String mode)
   {
     try
@@ -59,6 +59,7 @@ import org.eclipse.net4j.util.io.ExtendedDataOutput;
 import org.eclipse.net4j.util.io.ExtendedIOUtil;
 import org.eclipse.net4j.util.io.ExtendedIOUtil.ClassResolver;
 import org.eclipse.net4j.util.io.IORuntimeException;
+import org.eclipse.net4j.util.io.MappedFile;
 import org.eclipse.net4j.util.om.OMPlatform;
 
 import org.eclipse.emf.ecore.EClass;
@@ -82,10 +83,24 @@ public class LissomeFileHandle extends DataInputOutputFile implements CDODataInp
 
   private CDODataOutput out;
 
+  /**
+   * Reads from the shared mapping of the file if this is a read-only handle and mapped reads are enabled.
+   */
+  private MappedFile.Reader reader;
+
   public LissomeFileHandle(LissomeFile file, String mode) throws FileNotFoundException
   {
     super(file, mode);
     this.file = file;
+
+    if (LissomeFile.READ_MODE.equals(mode))
+    {
+      MappedFile mappedFile = file.getMappedFile();
+      if (mappedFile != null)
+      {
+        reader = mappedFile.openReader();
+      }
+    }
   }
 
   public LissomeFile getFile()
@@ -143,6 +158,243 @@ public class LissomeFileHandle extends DataInputOutputFile implements CDODataInp
     return out().getPermissionProvider();
   }
 
+  @Override
+  public void seek(long filePointer) throws IOException
+  {
+    if (reader != null)
+    {
+      reader.seek(filePointer);
+    }
+    else
+    {
+      super.seek(filePointer);
+    }
+  }
+
+  @Override
+  public long getFilePointer() throws IOException
+  {
+    if (reader != null)
+    {
+      return reader.getFilePointer();
+    }
+
+    return super.getFilePointer();
+  }
+
+  @Override
+  public long length() throws IOException
+  {
+    if (reader != null)
+    {
+      return reader.length();
+    }
+
+    return super.length();
+  }
+
+  @Override
+  public int skipBytes(int n) throws IOException
+  {
+    if (reader != null)
+    {
+      return reader.skipBytes(n);
+    }
+
+    return super.skipBytes(n);
+  }
+
+  @Override
+  public int read() throws IOException
+  {
+    if (reader != null)
+    {
+      return reader.read();
+    }
+
+    return super.read();
+  }
+
+  @Override
+  public int read(byte[] array, int offset, int length) throws IOException
+  {
+    if (reader != null)
+    {
+      return reader.read(array, offset, length);
+    }
+
+    return super.read(array, offset, length);
+  }
+
+  @Override
+  public int read(byte[] array) throws IOException
+  {
+    if (reader != null)
+    {
+      return reader.read(array);
+    }
+
+    return super.read(array);
+  }
+
+  @Override
+  public void readFully(byte[] array) throws IOException
+  {
+    if (reader != null)
+    {
+      reader.readFully(array);
+    }
+    else
+    {
+      super.readFully(array);
+    }
+  }
+
+  @Override
+  public void readFully(byte[] array, int offset, int length) throws IOException
+  {
+    if (reader != null)
+    {
+      reader.readFully(array, offset, length);
+    }
+    else
+    {
+      super.readFully(array, offset, length);
+    }
+  }
+
+  @Override
+  public boolean readBoolean() throws IOException
+  {
+    if (reader != null)
+    {
+      return reader.readBoolean();
+    }
+
+    return super.readBoolean();
+  }
+
+  @Override
+  public byte readByte() throws IOException
+  {
+    if (reader != null)
+    {
+      return reader.readByte();
+    }
+
+    return super.readByte();
+  }
+
+  @Override
+  public int readUnsignedByte() throws IOException
+  {
+    if (reader != null)
+    {
+      return reader.readUnsignedByte();
+    }
+
+    return super.readUnsignedByte();
+  }
+
+  @Override
+  public short readShort() throws IOException
+  {
+    if (reader != null)
+    {
+      return reader.readShort();
+    }
+
+    return super.readShort();
+  }
+
+  @Override
+  public int readUnsignedShort() throws IOException
+  {
+    if (reader != null)
+    {
+      return reader.readUnsignedShort();
+    }
+
+    return super.readUnsignedShort();
+  }
+
+  @Override
+  public char readChar() throws IOException
+  {
+    if (reader != null)
+    {
+      return reader.readChar();
+    }
+
+    return super.readChar();
+  }
+
+  @Override
+  public int readInt() throws IOException
+  {
+    if (reader != null)
+    {
+      return reader.readInt();
+    }
+
+    return super.readInt();
+  }
+
+  @Override
+  public long readLong() throws IOException
+  {
+    if (reader != null)
+    {
+      return reader.readLong();
+    }
+
+    return super.readLong();
+  }
+
+  @Override
+  public float readFloat() throws IOException
+  {
+    if (reader != null)
+    {
+      return reader.readFloat();
+    }
+
+    return super.readFloat();
+  }
+
+  @Override
+  public double readDouble() throws IOException
+  {
+    if (reader != null)
+    {
+      return reader.readDouble();
+    }
+
+    return super.readDouble();
+  }
+
+  @Override
+  public String readLine() throws IOException
+  {
+    if (reader != null)
+    {
+      return reader.readLine();
+    }
+
+    return super.readLine();
+  }
+
+  @Override
+  public String readUTF() throws IOException
+  {
+    if (reader != null)
+    {
+      return reader.readUTF();
+    }
+
+    return super.readUTF();
+  }
+
   public CDORevision getRevision(long pointer)
   {
     try
@@ -405,6 +405,8 @@ public class LissomeStore extends Store
     }
 
     optimizer.deactivate();
+    journal.close();
+    vob.close();
     super.doDeactivate();
   }
 
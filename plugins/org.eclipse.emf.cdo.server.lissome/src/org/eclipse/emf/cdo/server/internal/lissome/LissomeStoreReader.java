@@ -17,6 +17,7 @@ import org.eclipse.emf.cdo.common.branch.CDOBranchVersion;
 import org.eclipse.emf.cdo.common.commit.CDOCommitInfo;
 import org.eclipse.emf.cdo.common.commit.CDOCommitInfoHandler;
 import org.eclipse.emf.cdo.common.id.CDOID;
+import org.eclipse.emf.cdo.common.id.CDOIDUtil;
 import org.eclipse.emf.cdo.common.lob.CDOLobHandler;
 import org.eclipse.emf.cdo.common.lock.IDurableLockingManager.LockArea.Handler;
 import org.eclipse.emf.cdo.common.revision.CDORevision;
@@ -25,6 +26,7 @@ import org.eclipse.emf.cdo.common.revision.CDORevisionHandler;
 import org.eclipse.emf.cdo.common.util.CDOQueryInfo;
 import org.eclipse.emf.cdo.server.IQueryHandler;
 import org.eclipse.emf.cdo.server.ISession;
+import org.eclipse.emf.cdo.server.IStoreAccessor.BatchRead;
 import org.eclipse.emf.cdo.server.IStoreChunkReader;
 import org.eclipse.emf.cdo.server.ITransaction;
 import org.eclipse.emf.cdo.server.internal.lissome.db.Index;
@@ -59,7 +61,10 @@ import org.eclipse.emf.ecore.EStructuralFeature;
 
 import java.io.IOException;
 import java.io.OutputStream;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
@@ -68,7 +73,7 @@ import java.util.Set;
 /**
  * @author Eike Stepper
  */
-public class LissomeStoreReader extends StoreAccessorBase implements ILissomeStoreAccessor
+public class LissomeStoreReader extends StoreAccessorBase implements ILissomeStoreAccessor, BatchRead
 {
   protected Journal journal;
 
@@ -163,6 +168,59 @@ public class LissomeStoreReader extends StoreAccessorBase implements ILissomeSto
     return readRevision(info);
   }
 
+  public Map<CDOID, InternalCDORevision> readRevisions(Collection<CDOID> ids, CDOBranchPoint branchPoint, int listChunk, CDORevisionCacheAdder cache)
+  {
+    Map<CDOID, InternalCDORevision> result = CDOIDUtil.createMap();
+    List<CDOID> indexedIDs = new ArrayList<CDOID>();
+
+    Optimizer optimizer = getStore().getOptimizer();
+    boolean supportingAudits = getStore().getRepository().isSupportingAudits();
+
+    for (CDOID id : ids)
+    {
+      InternalCDORevision revision = optimizer.readRevision(id, branchPoint);
+      if (revision != null)
+      {
+        if (supportingAudits || !(revision instanceof DetachedCDORevision) && revision.getRevised() == CDOBranchPoint.UNSPECIFIED_DATE)
+        {
+          result.put(id, revision);
+        }
+      }
+      else
+      {
+        indexedIDs.add(id);
+      }
+    }
+
+    if (!indexedIDs.isEmpty())
+    {
+      Map<CDOID, RevisionInfo> infos = indexReader.readRevisions(indexedIDs, branchPoint);
+
+      // Read the revisions in file order to minimize seeking
+      List<Map.Entry<CDOID, RevisionInfo>> entries = new ArrayList<Map.Entry<CDOID, RevisionInfo>>(infos.entrySet());
+      Collections.sort(entries, new Comparator<Map.Entry<CDOID, RevisionInfo>>()
+      {
+        public int compare(Map.Entry<CDOID, RevisionInfo> e1, Map.Entry<CDOID, RevisionInfo> e2)
+        {
+          long p1 = e1.getValue().getPointer();
+          long p2 = e2.getValue().getPointer();
+          return p1 < p2 ? -1 : p1 == p2 ? 0 : 1;
+        }
+      });
+
+      for (Map.Entry<CDOID, RevisionInfo> entry : entries)
+      {
+        InternalCDORevision revision = readRevision(entry.getValue());
+        if (revision != null)
+        {
+          result.put(entry.getKey(), revision);
+        }
+      }
+    }
+
+    return result;
+  }
+
   public InternalCDORevision readRevisionByVersion(CDOID id, CDOBranchVersion branchVersion, int listChunk, CDORevisionCacheAdder cache)
   {
     RevisionInfo info = indexReader.readRevisionByVersion(id, branchVersion);
@@ -16,6 +16,7 @@ import org.eclipse.emf.cdo.common.branch.CDOBranchHandler;
 import org.eclipse.emf.cdo.common.branch.CDOBranchPoint;
 import org.eclipse.emf.cdo.common.branch.CDOBranchVersion;
 import org.eclipse.emf.cdo.common.id.CDOID;
+import org.eclipse.emf.cdo.common.id.CDOIDUtil;
 import org.eclipse.emf.cdo.server.IStoreAccessor;
 import org.eclipse.emf.cdo.server.internal.lissome.LissomeStore;
 import org.eclipse.emf.cdo.server.internal.lissome.bundle.OM;
@@ -38,6 +39,7 @@ import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 
 /**
  * @author Eike Stepper
@@ -46,6 +48,8 @@ public class IndexReader implements IDBConnectionProvider
 {
   private static final ContextTracer TRACER = new ContextTracer(OM.INDEX, IndexReader.class);
 
+  private static final int READ_REVISIONS_BATCH_SIZE = 32;
+
   protected Index index;
 
   protected IDGenerationLocation idGenerationLocation;
@@ -60,6 +64,8 @@ public class IndexReader implements IDBConnectionProvider
 
   protected PreparedStatement[] readRevisionStatements = new PreparedStatement[2];
 
+  protected PreparedStatement[] readRevisionsStatements = new PreparedStatement[2];
+
   protected PreparedStatement readRevisionByVersionStatement;
 
   protected PreparedStatement[] handleRevisionsStatements = new PreparedStatement[32];
@@ -250,6 +256,78 @@ public class IndexReader implements IDBConnectionProvider
     }
   }
 
+  public Map<CDOID, RevisionInfo> readRevisions(List<CDOID> ids, CDOBranchPoint branchPoint)
+  {
+    if (TRACER.isEnabled())
+    {
+      TRACER.format("readRevisions: {0}, {1}", ids, branchPoint); //$NON-NLS-1$
+    }
+
+    Map<CDOID, RevisionInfo> result = CDOIDUtil.createMap();
+
+    try
+    {
+      boolean historical = branchPoint.getTimeStamp() != CDOBranchPoint.UNSPECIFIED_DATE;
+      int stmtIndex = historical ? 0 : 1;
+
+      PreparedStatement stmt = readRevisionsStatements[stmtIndex];
+      if (stmt == null)
+      {
+        String sql = index.objects.sqlReadRevisions(historical, READ_REVISIONS_BATCH_SIZE);
+        stmt = connection.prepareStatement(sql);
+        readRevisionsStatements[stmtIndex] = stmt;
+      }
+
+      int size = ids.size();
+      for (int start = 0; start < size; start += READ_REVISIONS_BATCH_SIZE)
+      {
+        int end = Math.min(start + READ_REVISIONS_BATCH_SIZE, size);
+
+        int column = 0;
+        for (int i = 0; i < READ_REVISIONS_BATCH_SIZE; i++)
+        {
+          // Pad the IN clause with the last ID, duplicates don't change the result.
+          index.setCDOID(stmt, ++column, ids.get(Math.min(start + i, end - 1)));
+        }
+
+        setParameters(stmt, column, branchPoint);
+        readRevisions(stmt, result);
+      }
+
+      return result;
+    }
+    catch (SQLException ex)
+    {
+      throw new DBException(ex);
+    }
+  }
+
+  protected void readRevisions(PreparedStatement stmt, Map<CDOID, RevisionInfo> result) throws SQLException
+  {
+    ResultSet resultSet = null;
+
+    try
+    {
+      index.trace(TRACER, stmt);
+      resultSet = stmt.executeQuery();
+
+      while (resultSet.next())
+      {
+        index.trace(TRACER, resultSet);
+
+        CDOID id = index.getCDOID(resultSet, 1);
+        long pointer = resultSet.getLong(2);
+        long revised = supportingAudits ? resultSet.getLong(3) : CDOBranchPoint.UNSPECIFIED_DATE;
+
+        result.put(id, new RevisionInfo(pointer, revised));
+      }
+    }
+    finally
+    {
+      DBUtil.close(resultSet);
+    }
+  }
+
   public RevisionInfo readRevisionByVersion(CDOID id, CDOBranchVersion branchVersion)
   {
     if (TRACER.isEnabled())
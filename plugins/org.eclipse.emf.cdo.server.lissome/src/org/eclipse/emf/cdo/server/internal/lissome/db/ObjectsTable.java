@@ -161,6 +161,36 @@ public class ObjectsTable extends Table
     return builder.toString();
   }
 
+  protected String sqlReadRevisions(boolean historical, int count)
+  {
+    StringBuilder builder = new StringBuilder();
+    builder.append("SELECT ");
+    builder.append(oid);
+    builder.append(", ");
+    builder.append(pointer);
+
+    if (isSupportingAudits())
+    {
+      builder.append(", ");
+      builder.append(revised);
+    }
+
+    builder.append(" FROM ");
+    builder.append(this);
+    builder.append(" WHERE ");
+    builder.append(oid);
+    builder.append(" IN (?");
+
+    for (int i = 1; i < count; i++)
+    {
+      builder.append(", ?");
+    }
+
+    builder.append(")");
+    addCriterion(builder, true, isSupportingBranches(), historical);
+    return builder.toString();
+  }
+
   protected String sqlReadRevisionByVersion()
   {
     StringBuilder builder = sqlReadRevision();
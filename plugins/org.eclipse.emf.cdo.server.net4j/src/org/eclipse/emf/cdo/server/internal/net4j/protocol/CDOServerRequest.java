@@ -19,6 +19,7 @@ import org.eclipse.emf.cdo.spi.common.revision.CDORevisionUnchunker;
 import org.eclipse.emf.cdo.spi.server.InternalSession;
 
 import org.eclipse.net4j.signal.Request;
+import org.eclipse.net4j.util.io.ExtendedDataOutput;
 import org.eclipse.net4j.util.io.ExtendedDataOutputStream;
 import org.eclipse.net4j.util.io.StringIO;
 
@@ -62,7 +63,12 @@ public abstract class CDOServerRequest extends Request
   @Override
   protected final void requesting(ExtendedDataOutputStream out) throws Exception
   {
-    requesting(new CDODataOutputImpl(out)
+    requesting(createDataOutput(out));
+  }
+
+  protected CDODataOutput createDataOutput(ExtendedDataOutput out)
+  {
+    return new CDODataOutputImpl(out)
     {
       @Override
       public CDOPackageRegistry getPackageRegistry()
@@ -85,7 +91,7 @@ public abstract class CDOServerRequest extends Request
       @Override
       protected StringIO getPackageURICompressor()
       {
-        return getProtocol().getPackageURICompressor();
+        return CDOServerRequest.this.getPackageURICompressor();
       }
 
       @Override
@@ -93,7 +99,12 @@ public abstract class CDOServerRequest extends Request
       {
         return getSession();
       }
-    });
+    };
+  }
+
+  protected StringIO getPackageURICompressor()
+  {
+    return getProtocol().getPackageURICompressor();
   }
 
   protected abstract void requesting(CDODataOutput out) throws IOException;
@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2009-2013 Eike Stepper (Berlin, Germany) and others.
+ * Copyright (c) 2009-2013, 2016 Eike Stepper (Berlin, Germany) and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -16,6 +16,11 @@ import org.eclipse.emf.cdo.common.protocol.CDODataOutput;
 import org.eclipse.emf.cdo.common.protocol.CDOProtocol.CommitNotificationInfo;
 import org.eclipse.emf.cdo.common.protocol.CDOProtocolConstants;
 
+import org.eclipse.net4j.util.io.ExtendedDataOutputStream;
+import org.eclipse.net4j.util.io.StringIO;
+import org.eclipse.net4j.util.io.StringTable;
+
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 
 /**
@@ -25,15 +30,59 @@ public class CommitNotificationRequest extends CDOServerRequest
 {
   private CommitNotificationInfo info;
 
+  /**
+   * The package URIs of a commit notification are not written with the stateful compressor of the protocol, so that
+   * the written data can be {@link CommitNotificationInfo#getEncoding() shared} with other sessions.
+   */
+  private final StringIO packageURICompressor = new StringTable();
+
   public CommitNotificationRequest(CDOServerProtocol serverProtocol, CommitNotificationInfo info)
   {
     super(serverProtocol, CDOProtocolConstants.SIGNAL_COMMIT_NOTIFICATION);
     this.info = info;
   }
 
+  @Override
+  protected StringIO getPackageURICompressor()
+  {
+    return packageURICompressor;
+  }
+
   @Override
   protected void requesting(CDODataOutput out) throws IOException
   {
-    info.write(out);
+    try
+    {
+      if (info.isShared())
+      {
+        out.write(getEncoding());
+      }
+      else
+      {
+        info.write(out);
+      }
+    }
+    finally
+    {
+      info.release();
+    }
+  }
+
+  private byte[] getEncoding() throws IOException
+  {
+    synchronized (info)
+    {
+      byte[] encoding = info.getEncoding();
+      if (encoding == null)
+      {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        info.write(createDataOutput(new ExtendedDataOutputStream(baos)));
+
+        encoding = baos.toByteArray();
+        info.setEncoding(encoding);
+      }
+
+      return encoding;
+    }
   }
 }
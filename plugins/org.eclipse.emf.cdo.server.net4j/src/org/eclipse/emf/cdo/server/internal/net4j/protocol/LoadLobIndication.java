@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2010-2012 Eike Stepper (Berlin, Germany) and others.
+ * Copyright (c) 2010-2012, 2016 Eike Stepper (Berlin, Germany) and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -14,9 +14,11 @@ import org.eclipse.emf.cdo.common.protocol.CDODataInput;
 import org.eclipse.emf.cdo.common.protocol.CDODataOutput;
 import org.eclipse.emf.cdo.common.protocol.CDOProtocolConstants;
 
+import org.eclipse.net4j.buffer.BufferOutputStream;
 import org.eclipse.net4j.util.io.ExtendedDataOutputStream;
 
 import java.io.IOException;
+import java.io.OutputStream;
 
 /**
  * @author Eike Stepper
@@ -39,7 +41,16 @@ public class LoadLobIndication extends CDOServerReadIndication
   @Override
   protected void responding(ExtendedDataOutputStream out) throws Exception
   {
-    getRepository().loadLob(id, out);
+    OutputStream stream = out;
+
+    BufferOutputStream bufferOutputStream = getBufferOutputStream();
+    if (getCurrentOutputStream() == bufferOutputStream)
+    {
+      // No stream wrapper is involved, let the store write directly into the buffers
+      stream = bufferOutputStream;
+    }
+
+    getRepository().loadLob(id, stream);
   }
 
   @Override
@@ -24,6 +24,7 @@ import org.eclipse.emf.cdo.spi.common.revision.InternalCDORevision;
 import org.eclipse.emf.cdo.spi.common.revision.InternalCDORevisionManager;
 import org.eclipse.emf.cdo.spi.common.revision.RevisionInfo;
 import org.eclipse.emf.cdo.spi.common.revision.RevisionInfo.Type;
+import org.eclipse.emf.cdo.spi.common.revision.SyntheticCDORevision;
 
 import org.eclipse.net4j.util.collection.MoveableList;
 import org.eclipse.net4j.util.om.trace.ContextTracer;
@@ -34,9 +35,12 @@ import org.eclipse.emf.ecore.EStructuralFeature;
 
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -114,7 +118,11 @@ public class LoadRevisionsIndication extends CDOServerReadIndication
     if (fetchSize > 0)
     {
       loadRevisionCollectionChunkSize = in.readXInt();
-      if (loadRevisionCollectionChunkSize < 1)
+      if (loadRevisionCollectionChunkSize == CDORevision.UNCHUNKED)
+      {
+        loadRevisionCollectionChunkSize = Integer.MAX_VALUE;
+      }
+      else if (loadRevisionCollectionChunkSize < 1)
       {
         loadRevisionCollectionChunkSize = 1;
       }
@@ -137,7 +145,7 @@ public class LoadRevisionsIndication extends CDOServerReadIndication
   protected void responding(CDODataOutput out) throws IOException
   {
     List<CDORevision> additionalRevisions = new ArrayList<CDORevision>();
-    List<RevisionInfo> additionalRevisionInfos = new ArrayList<RevisionInfo>();
+    Map<CDOID, RevisionInfo> additionalRevisionInfos = CDOIDUtil.createMap();
     Set<CDOID> revisionIDs = new HashSet<CDOID>();
     int size = infos.length;
     if (TRACER.isEnabled())
@@ -150,20 +158,6 @@ public class LoadRevisionsIndication extends CDOServerReadIndication
       revisionIDs.add(info.getID());
     }
 
-    // Need to fetch the rule first.
-    Set<CDOFetchRule> visitedFetchRules = new HashSet<CDOFetchRule>();
-    if (!CDOIDUtil.isNull(contextID) && fetchRules.size() > 0)
-    {
-      if (TRACER.isEnabled())
-      {
-        TRACER.format("Collecting more revisions based on rules"); //$NON-NLS-1$
-      }
-
-      RevisionInfo info = getRevisionInfo(contextID);
-      InternalCDORevision revisionContext = info.getResult();
-      collectRevisions(revisionContext, revisionIDs, additionalRevisionInfos, additionalRevisions, visitedFetchRules);
-    }
-
     InternalCDORevisionManager revisionManager = getRepository().getRevisionManager();
     InternalCDORevision[] revisions = new InternalCDORevision[size];
     for (int i = 0; i < size; i++)
@@ -171,10 +165,24 @@ public class LoadRevisionsIndication extends CDOServerReadIndication
       RevisionInfo info = infos[i];
       info.execute(revisionManager, referenceChunk);
       revisions[i] = info.getResult();
-      if (loadRevisionCollectionChunkSize > 0)
+    }
+
+    if (!fetchRules.isEmpty())
+    {
+      if (TRACER.isEnabled())
+      {
+        TRACER.format("Collecting more revisions based on rules"); //$NON-NLS-1$
+      }
+
+      List<InternalCDORevision> roots = new ArrayList<InternalCDORevision>(size + 1);
+      if (!CDOIDUtil.isNull(contextID))
       {
-        collectRevisions(revisions[i], revisionIDs, additionalRevisionInfos, additionalRevisions, visitedFetchRules);
+        RevisionInfo info = getRevisionInfo(contextID);
+        roots.add(info.getResult());
       }
+
+      roots.addAll(Arrays.asList(revisions));
+      collectRevisions(roots, revisionIDs, additionalRevisionInfos, additionalRevisions);
     }
 
     if (prefetchDepth != 0)
@@ -191,17 +199,23 @@ public class LoadRevisionsIndication extends CDOServerReadIndication
       info.writeResult(out, referenceChunk, branchPoint); // Exposes revision to client side
     }
 
-    int additionalSize = additionalRevisionInfos.size();
+    int additionalSize = additionalRevisions.size();
     if (TRACER.isEnabled())
     {
       TRACER.format("Writing {0} additional revision infos", additionalSize); //$NON-NLS-1$
     }
 
     out.writeXInt(additionalSize);
-    for (int i = 0; i < additionalSize; i++)
+    for (CDORevision additionalRevision : additionalRevisions)
     {
-      InternalCDORevision revision = (InternalCDORevision)additionalRevisions.get(i);
-      RevisionInfo info = additionalRevisionInfos.get(i);
+      // Revisions that were collected without an info, e.g. by the session, need one, too
+      InternalCDORevision revision = (InternalCDORevision)additionalRevision;
+      RevisionInfo info = additionalRevisionInfos.get(revision.getID());
+      if (info == null)
+      {
+        info = new RevisionInfo.Missing(revision.getID(), branchPoint);
+      }
+
       info.setResult(revision);
       out.write(Type.MISSING.ordinal());
       out.writeCDOID(info.getID());
@@ -216,76 +230,102 @@ public class LoadRevisionsIndication extends CDOServerReadIndication
     return info;
   }
 
-  private void collectRevisions(InternalCDORevision revision, Set<CDOID> revisions, List<RevisionInfo> additionalRevisionInfos,
-      List<CDORevision> additionalRevisions, Set<CDOFetchRule> visitedFetchRules)
+  /**
+   * Follows the fetch rules from the given root revisions, level by level, so that all revisions that are referenced
+   * from a level are read with a single call to the revision manager.
+   * <p>
+   * A rule without a depth is applied only once per path, so that rules that reference their own class don't load the
+   * whole reachable graph. A rule with a depth is applied to that many levels of revisions of its class.
+   */
+  private void collectRevisions(List<InternalCDORevision> roots, Set<CDOID> revisionIDs, Map<CDOID, RevisionInfo> additionalRevisionInfos,
+      List<CDORevision> additionalRevisions)
   {
-    if (revision == null)
+    // The path that leads to each revision of the current level
+    Map<InternalCDORevision, FetchPath> level = new LinkedHashMap<InternalCDORevision, FetchPath>();
+    for (InternalCDORevision root : roots)
     {
-      return;
+      if (root != null)
+      {
+        level.put(root, FetchPath.ROOT);
+      }
     }
 
-    getSession().collectContainedRevisions(revision, branchPoint, referenceChunk, revisions, additionalRevisions);
-
-    CDOFetchRule fetchRule = fetchRules.get(revision.getEClass());
-    if (fetchRule == null || visitedFetchRules.contains(fetchRule))
+    while (!level.isEmpty())
     {
-      return;
-    }
-
-    visitedFetchRules.add(fetchRule);
+      List<CDOID> ids = new ArrayList<CDOID>();
+      Map<CDOID, FetchPath> paths = CDOIDUtil.createMap();
 
-    for (EStructuralFeature feature : fetchRule.getFeatures())
-    {
-      if (feature.isMany())
+      for (Map.Entry<InternalCDORevision, FetchPath> entry : level.entrySet())
       {
-        MoveableList<Object> list = revision.getList(feature);
-        int toIndex = Math.min(loadRevisionCollectionChunkSize, list.size()) - 1;
-        for (int i = 0; i <= toIndex; i++)
+        InternalCDORevision revision = entry.getKey();
+
+        List<CDORevision> containedRevisions = new ArrayList<CDORevision>();
+        getSession().collectContainedRevisions(revision, branchPoint, referenceChunk, revisionIDs, containedRevisions);
+        additionalRevisions.addAll(containedRevisions);
+
+        CDOFetchRule fetchRule = fetchRules.get(revision.getEClass());
+        if (fetchRule == null)
         {
-          Object value = list.get(i);
-          if (value instanceof CDOID)
+          continue;
+        }
+
+        FetchPath path = entry.getValue().apply(fetchRule);
+        if (path == null)
+        {
+          continue;
+        }
+
+        for (EStructuralFeature feature : fetchRule.getFeatures())
+        {
+          if (feature.isMany())
           {
-            CDOID id = (CDOID)value;
-            if (!CDOIDUtil.isNull(id) && !revisions.contains(id))
+            MoveableList<Object> list = revision.getList(feature);
+            int toIndex = Math.min(loadRevisionCollectionChunkSize, list.size());
+            for (int i = 0; i < toIndex; i++)
             {
-              RevisionInfo info = getRevisionInfo(id);
-              InternalCDORevision containedRevision = info.getResult();
-              if (containedRevision != null)
-              {
-                additionalRevisionInfos.add(info);
-                revisions.add(containedRevision.getID());
-                additionalRevisions.add(containedRevision);
-                collectRevisions(containedRevision, revisions, additionalRevisionInfos, additionalRevisions, visitedFetchRules);
-              }
+              collectID(list.get(i), path, revisionIDs, ids, paths);
             }
           }
+          else
+          {
+            collectID(revision.getValue(feature), path, revisionIDs, ids, paths);
+          }
         }
       }
-      else
+
+      level = new LinkedHashMap<InternalCDORevision, FetchPath>();
+      if (!ids.isEmpty())
       {
-        Object value = revision.getValue(feature);
-        if (value instanceof CDOID)
+        for (RevisionInfo info : getRevisionInfos(ids))
         {
-          CDOID id = (CDOID)value;
-          if (!id.isNull() && !revisions.contains(id))
+          InternalCDORevision revision = info.getResult();
+          if (revision != null)
           {
-            RevisionInfo info = getRevisionInfo(id);
-            InternalCDORevision containedRevision = info.getResult();
-            if (containedRevision != null)
-            {
-              revisions.add(containedRevision.getID());
-              additionalRevisions.add(containedRevision);
-              collectRevisions(containedRevision, revisions, additionalRevisionInfos, additionalRevisions, visitedFetchRules);
-            }
+            CDOID id = revision.getID();
+            additionalRevisionInfos.put(id, info);
+            additionalRevisions.add(revision);
+            level.put(revision, paths.get(id));
           }
         }
       }
     }
+  }
 
-    visitedFetchRules.remove(fetchRule);
+  private static void collectID(Object value, FetchPath path, Set<CDOID> revisionIDs, List<CDOID> ids, Map<CDOID, FetchPath> paths)
+  {
+    if (value instanceof CDOID)
+    {
+      CDOID id = (CDOID)value;
+      if (!CDOIDUtil.isNull(id) && revisionIDs.add(id))
+      {
+        ids.add(id);
+        paths.put(id, path);
+      }
+    }
   }
 
-  private void prefetchRevisions(int depth, CDORevision[] revisions, List<RevisionInfo> additionalRevisionInfos, List<CDORevision> additionalRevisions)
+  private void prefetchRevisions(int depth, CDORevision[] revisions, Map<CDOID, RevisionInfo> additionalRevisionInfos,
+      List<CDORevision> additionalRevisions)
   {
     Map<CDOID, CDORevision> map = CDOIDUtil.createMap();
     for (CDORevision revision : revisions)
@@ -298,13 +338,45 @@ public class LoadRevisionsIndication extends CDOServerReadIndication
       map.put(revision.getID(), revision);
     }
 
-    for (CDORevision revision : revisions)
+    // Prefetch level by level, so that all missing children of a level are loaded with a single request.
+    List<CDORevision> parents = new ArrayList<CDORevision>(Arrays.asList(revisions));
+    for (int level = depth;; --level)
     {
-      prefetchRevision(depth, (InternalCDORevision)revision, additionalRevisionInfos, additionalRevisions, map);
+      List<CDORevision> children = new ArrayList<CDORevision>();
+      List<CDOID> missingIDs = new ArrayList<CDOID>();
+      Set<CDOID> missingIDSet = new HashSet<CDOID>();
+
+      for (CDORevision parent : parents)
+      {
+        collectChildren((InternalCDORevision)parent, children, missingIDs, missingIDSet, map);
+      }
+
+      if (!missingIDs.isEmpty())
+      {
+        List<RevisionInfo> infos = getRevisionInfos(missingIDs);
+        for (RevisionInfo info : infos)
+        {
+          CDORevision child = info.getResult();
+          if (child != null)
+          {
+            map.put(child.getID(), child);
+            additionalRevisions.add(child);
+            additionalRevisionInfos.put(child.getID(), info);
+            children.add(child);
+          }
+        }
+      }
+
+      if (level <= 0 || children.isEmpty())
+      {
+        break;
+      }
+
+      parents = children;
     }
   }
 
-  private void prefetchRevision(int depth, InternalCDORevision revision, List<RevisionInfo> additionalRevisionInfos, List<CDORevision> additionalRevisions,
+  private void collectChildren(InternalCDORevision revision, List<CDORevision> children, List<CDOID> missingIDs, Set<CDOID> missingIDSet,
       Map<CDOID, CDORevision> map)
   {
     CDOClassInfo classInfo = revision.getClassInfo();
@@ -319,7 +391,7 @@ public class LoadRevisionsIndication extends CDOServerReadIndication
           if (value instanceof CDOID)
           {
             CDOID id = (CDOID)value;
-            prefetchRevisionChild(depth, id, additionalRevisionInfos, additionalRevisions, map);
+            collectChild(id, children, missingIDs, missingIDSet, map);
           }
           else if (value instanceof Collection<?>)
           {
@@ -332,7 +404,7 @@ public class LoadRevisionsIndication extends CDOServerReadIndication
               if (e instanceof CDOID)
               {
                 CDOID id = (CDOID)e;
-                prefetchRevisionChild(depth, id, additionalRevisionInfos, additionalRevisions, map);
+                collectChild(id, children, missingIDs, missingIDSet, map);
               }
             }
           }
@@ -341,8 +413,7 @@ public class LoadRevisionsIndication extends CDOServerReadIndication
     }
   }
 
-  private void prefetchRevisionChild(int depth, CDOID id, List<RevisionInfo> additionalRevisionInfos, List<CDORevision> additionalRevisions,
-      Map<CDOID, CDORevision> map)
+  private void collectChild(CDOID id, List<CDORevision> children, List<CDOID> missingIDs, Set<CDOID> missingIDSet, Map<CDOID, CDORevision> map)
   {
     if (CDOIDUtil.isNull(id))
     {
@@ -350,22 +421,82 @@ public class LoadRevisionsIndication extends CDOServerReadIndication
     }
 
     CDORevision child = map.get(id);
-    if (child == null)
+    if (child != null)
     {
-      RevisionInfo info = getRevisionInfo(id);
-      child = info.getResult();
-      if (child != null)
-      {
-        map.put(id, child);
-        additionalRevisions.add(child);
-        additionalRevisionInfos.add(info);
-      }
+      children.add(child);
+    }
+    else if (missingIDSet.add(id))
+    {
+      missingIDs.add(id);
     }
+  }
 
-    if (child != null && depth > 0)
+  private List<RevisionInfo> getRevisionInfos(List<CDOID> ids)
+  {
+    int size = ids.size();
+    SyntheticCDORevision[] synthetics = new SyntheticCDORevision[size];
+
+    InternalCDORevisionManager revisionManager = getRepository().getRevisionManager();
+    List<CDORevision> revisions = revisionManager.getRevisions(ids, branchPoint, referenceChunk, CDORevision.DEPTH_NONE, true, synthetics);
+
+    List<RevisionInfo> infos = new ArrayList<RevisionInfo>(size);
+    for (int i = 0; i < size; i++)
     {
-      prefetchRevision(depth - 1, (InternalCDORevision)child, additionalRevisionInfos, additionalRevisions, map);
+      RevisionInfo info = new RevisionInfo.Missing(ids.get(i), branchPoint);
+      info.setResult((InternalCDORevision)revisions.get(i));
+      info.setSynthetic(synthetics[i]);
+      infos.add(info);
     }
+
+    return infos;
   }
 
+  /**
+   * The fetch rules that have been applied on the path to a revision, with the number of levels that each of them can
+   * still be applied to.
+   *
+   * @author Eike Stepper
+   */
+  private static final class FetchPath
+  {
+    public static final FetchPath ROOT = new FetchPath(Collections.<CDOFetchRule, Integer> emptyMap());
+
+    private final Map<CDOFetchRule, Integer> remainingDepths;
+
+    private FetchPath(Map<CDOFetchRule, Integer> remainingDepths)
+    {
+      this.remainingDepths = remainingDepths;
+    }
+
+    /**
+     * Returns the path to the revisions that are referenced through the given rule, or <code>null</code> if the rule is
+     * not applied at the end of this path.
+     */
+    public FetchPath apply(CDOFetchRule fetchRule)
+    {
+      Integer remainingDepth = remainingDepths.get(fetchRule);
+      if (remainingDepth == null)
+      {
+        int depth = fetchRule.getDepth();
+        if (depth == CDOFetchRule.DEPTH_ONCE_PER_PATH)
+        {
+          // Rules without a depth are applied once per path
+          remainingDepth = 1;
+        }
+        else
+        {
+          remainingDepth = depth;
+        }
+      }
+
+      if (remainingDepth <= 0)
+      {
+        return null;
+      }
+
+      Map<CDOFetchRule, Integer> map = new HashMap<CDOFetchRule, Integer>(remainingDepths);
+      map.put(fetchRule, remainingDepth - 1);
+      return new FetchPath(map);
+    }
+  }
 }
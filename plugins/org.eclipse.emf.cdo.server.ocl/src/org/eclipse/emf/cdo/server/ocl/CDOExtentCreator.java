@@ -11,6 +11,7 @@
 package org.eclipse.emf.cdo.server.ocl;
 
 import org.eclipse.emf.cdo.common.branch.CDOBranch;
+import org.eclipse.emf.cdo.common.branch.CDOBranchPoint;
 import org.eclipse.emf.cdo.common.commit.CDOChangeKind;
 import org.eclipse.emf.cdo.common.commit.CDOChangeSetData;
 import org.eclipse.emf.cdo.common.id.CDOID;
@@ -21,6 +22,7 @@ import org.eclipse.emf.cdo.common.revision.CDORevisionCacheAdder;
 import org.eclipse.emf.cdo.common.revision.CDORevisionHandler;
 import org.eclipse.emf.cdo.server.IStoreAccessor;
 import org.eclipse.emf.cdo.server.StoreThreadLocal;
+import org.eclipse.emf.cdo.spi.common.revision.InternalCDORevisionManager;
 import org.eclipse.emf.cdo.spi.server.InternalRepository;
 import org.eclipse.emf.cdo.util.ObjectNotFoundException;
 import org.eclipse.emf.cdo.view.CDOView;
@@ -29,6 +31,7 @@ import org.eclipse.emf.ecore.EClass;
 import org.eclipse.emf.ecore.EObject;
 import org.eclipse.emf.spi.cdo.InternalCDOObject;
 
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashSet;
 import java.util.Iterator;
@@ -48,12 +51,16 @@ import java.util.concurrent.atomic.AtomicBoolean;
  */
 public class CDOExtentCreator implements OCLExtentCreator
 {
+  private static final int PREFETCH_BATCH_SIZE = 1000;
+
   private CDOView view;
 
   private CDOChangeSetData changeSetData;
 
   private CDORevisionCacheAdder revisionCacheAdder;
 
+  private CDOExtentIndex extentIndex;
+
   public CDOExtentCreator(CDOView view)
   {
     this.view = view;
@@ -84,6 +91,25 @@ public class CDOExtentCreator implements OCLExtentCreator
     this.revisionCacheAdder = revisionCacheAdder;
   }
 
+  /**
+   * @since 4.3
+   */
+  public CDOExtentIndex getExtentIndex()
+  {
+    return extentIndex;
+  }
+
+  /**
+   * Sets the {@link CDOExtentIndex extent index} that provides the IDs of the persistent instances at the head of a
+   * branch. Extents at other times are created by scanning the store.
+   *
+   * @since 4.3
+   */
+  public void setExtentIndex(CDOExtentIndex extentIndex)
+  {
+    this.extentIndex = extentIndex;
+  }
+
   public Set<EObject> createExtent(EClass eClass, AtomicBoolean canceled)
   {
     IStoreAccessor accessor = StoreThreadLocal.getAccessor();
@@ -111,6 +137,31 @@ public class CDOExtentCreator implements OCLExtentCreator
       }
     }
 
+    List<CDOID> ids = getIndexedExtent(eClass, accessor, branch, timeStamp, canceled);
+    if (ids != null)
+    {
+      prefetchRevisions(ids, accessor, branch, timeStamp, canceled);
+
+      for (CDOID id : ids)
+      {
+        if (canceled.get())
+        {
+          break;
+        }
+
+        if (!isDetached(id))
+        {
+          EObject object = getIndexedEObject(id);
+          if (object != null)
+          {
+            extent.add(object);
+          }
+        }
+      }
+
+      return extent;
+    }
+
     CDORevisionHandler revisionHandler = new CDORevisionHandler.Filtered.Undetached(new CDORevisionHandler()
     {
       public boolean handleRevision(CDORevision revision)
@@ -138,6 +189,94 @@ public class CDOExtentCreator implements OCLExtentCreator
     return extent;
   }
 
+  /**
+   * Creates the {@link #getExtentIndex() indexed} extents of the given classes ahead of their use, so that the
+   * evaluation of a query doesn't have to wait for them.
+   *
+   * @since 4.3
+   */
+  public void prefetchExtents(Collection<EClass> eClasses, AtomicBoolean canceled)
+  {
+    if (extentIndex == null)
+    {
+      return;
+    }
+
+    IStoreAccessor accessor = StoreThreadLocal.getAccessor();
+    CDOBranch branch = view.getBranch();
+    long timeStamp = view.getTimeStamp();
+
+    for (EClass eClass : eClasses)
+    {
+      if (canceled.get() || getIndexedExtent(eClass, accessor, branch, timeStamp, canceled) == null)
+      {
+        break;
+      }
+    }
+  }
+
+  /**
+   * Returns the IDs of the persistent instances of the given class and its sub types from the
+   * {@link #getExtentIndex() extent index}, or <code>null</code> if the extent index can not provide them.
+   *
+   * @since 4.3
+   */
+  protected List<CDOID> getIndexedExtent(EClass eClass, IStoreAccessor accessor, CDOBranch branch, long timeStamp, AtomicBoolean canceled)
+  {
+    if (extentIndex == null)
+    {
+      return null;
+    }
+
+    List<EClass> eClasses = new ArrayList<EClass>();
+    eClasses.add(eClass);
+
+    CDOPackageRegistry packageRegistry = accessor.getStore().getRepository().getPackageRegistry();
+    List<EClass> subTypes = packageRegistry.getSubTypes().get(eClass);
+    if (subTypes != null)
+    {
+      eClasses.addAll(subTypes);
+    }
+
+    return extentIndex.getExtent(eClasses, branch, timeStamp, canceled);
+  }
+
+  /**
+   * Loads the revisions of the given IDs in batches, so that the objects of an extent are not loaded one by one.
+   *
+   * @since 4.3
+   */
+  protected void prefetchRevisions(List<CDOID> ids, IStoreAccessor accessor, CDOBranch branch, long timeStamp, AtomicBoolean canceled)
+  {
+    InternalRepository repository = (InternalRepository)accessor.getStore().getRepository();
+    InternalCDORevisionManager revisionManager = repository.getRevisionManager();
+    CDOBranchPoint branchPoint = branch.getPoint(timeStamp);
+
+    for (int i = 0; i < ids.size() && !canceled.get(); i += PREFETCH_BATCH_SIZE)
+    {
+      List<CDOID> batch = ids.subList(i, Math.min(i + PREFETCH_BATCH_SIZE, ids.size()));
+      revisionManager.getRevisions(batch, branchPoint, CDORevision.UNCHUNKED, CDORevision.DEPTH_NONE, true);
+    }
+  }
+
+  /**
+   * Returns the object with the given ID from the {@link #getExtentIndex() extent index}, or <code>null</code> if that
+   * object has been detached by a commit that the extent index doesn't know about, yet.
+   *
+   * @since 4.3
+   */
+  protected EObject getIndexedEObject(CDOID id)
+  {
+    try
+    {
+      return getEObject(id);
+    }
+    catch (ObjectNotFoundException ex)
+    {
+      return null;
+    }
+  }
+
   /**
    * @since 4.1
    */
@@ -292,6 +431,33 @@ public class CDOExtentCreator implements OCLExtentCreator
 
             private void handlePersistentState()
             {
+              List<CDOID> indexedIDs = getIndexedExtent(eClass, accessor, branch, timeStamp, canceled);
+              if (indexedIDs != null)
+              {
+                if (!indexedIDs.isEmpty())
+                {
+                  empty = false;
+                  emptyKnown.countDown();
+                }
+
+                for (CDOID id : indexedIDs)
+                {
+                  if (canceled.get())
+                  {
+                    break;
+                  }
+
+                  if (!isDetached(id))
+                  {
+                    enqueue(id);
+                  }
+                }
+
+                // Load the revisions ahead of the iterator
+                prefetchRevisions(indexedIDs, accessor, branch, timeStamp, canceled);
+                return;
+              }
+
               CDORevisionHandler revisionHandler = new CDORevisionHandler.Filtered.Undetached(new CDORevisionHandler()
               {
                 public boolean handleRevision(CDORevision revision)
@@ -333,7 +499,7 @@ public class CDOExtentCreator implements OCLExtentCreator
 
           return new Iterator<EObject>()
           {
-            private CDOID next;
+            private EObject next;
 
             public boolean hasNext()
             {
@@ -344,6 +510,7 @@ public class CDOExtentCreator implements OCLExtentCreator
                   return false;
                 }
 
+                CDOID id = null;
                 synchronized (mutex)
                 {
                   if (ids.isEmpty())
@@ -364,9 +531,14 @@ public class CDOExtentCreator implements OCLExtentCreator
                   }
                   else
                   {
-                    next = ids.removeFirst();
+                    id = ids.removeFirst();
                   }
                 }
+
+                if (id != null)
+                {
+                  next = getIndexedEObject(id);
+                }
               }
 
               return true;
@@ -381,7 +553,7 @@ public class CDOExtentCreator implements OCLExtentCreator
 
               try
               {
-                return getEObject(next);
+                return next;
               }
               finally
               {
@@ -0,0 +1,403 @@
+/*
+ * Copyright (c) 2016 Eike Stepper (Berlin, Germany) and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    Eike Stepper - initial API and implementation
+ */
+package org.eclipse.emf.cdo.server.ocl;
+
+import org.eclipse.emf.cdo.common.CDOCommonRepository;
+import org.eclipse.emf.cdo.common.branch.CDOBranch;
+import org.eclipse.emf.cdo.common.branch.CDOBranchPoint;
+import org.eclipse.emf.cdo.common.commit.CDOCommitInfo;
+import org.eclipse.emf.cdo.common.commit.CDOCommitInfoHandler;
+import org.eclipse.emf.cdo.common.id.CDOID;
+import org.eclipse.emf.cdo.common.id.CDOIDUtil;
+import org.eclipse.emf.cdo.common.revision.CDOIDAndVersion;
+import org.eclipse.emf.cdo.common.revision.CDORevision;
+import org.eclipse.emf.cdo.common.revision.CDORevisionHandler;
+import org.eclipse.emf.cdo.common.util.RepositoryTypeChangedEvent;
+import org.eclipse.emf.cdo.server.IRepository;
+import org.eclipse.emf.cdo.spi.server.InternalRepository;
+
+import org.eclipse.net4j.util.WrappedException;
+import org.eclipse.net4j.util.event.IEvent;
+import org.eclipse.net4j.util.event.IListener;
+import org.eclipse.net4j.util.lifecycle.ILifecycle;
+import org.eclipse.net4j.util.lifecycle.LifecycleEventAdapter;
+
+import org.eclipse.emf.ecore.EClass;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Maintains the {@link CDOID IDs} of the instances of {@link EClass classes} per {@link CDOBranch branch} of a
+ * {@link IRepository repository}.
+ * <p>
+ * The extent of a class in a branch is created by a full scan the first time it is requested and kept up to date by the
+ * commits to that branch afterwards. Only the latest state of the branches is indexed, and only while the repository is
+ * a {@link CDOCommonRepository.Type#MASTER master}, because commits that are replicated into other repositories are not
+ * always announced to the commit info handlers.
+ *
+ * @author Eike Stepper
+ * @since 4.3
+ */
+public final class CDOExtentIndex implements CDOCommitInfoHandler
+{
+  private static final Map<IRepository, CDOExtentIndex> INDEXES = new HashMap<IRepository, CDOExtentIndex>();
+
+  private final InternalRepository repository;
+
+  private final Map<CDOBranch, Map<EClass, Extent>> branches = new HashMap<CDOBranch, Map<EClass, Extent>>();
+
+  private final IListener repositoryListener = new LifecycleEventAdapter()
+  {
+    @Override
+    protected void notifyOtherEvent(IEvent event)
+    {
+      if (event instanceof RepositoryTypeChangedEvent)
+      {
+        clear();
+      }
+    }
+
+    @Override
+    protected void onDeactivated(ILifecycle lifecycle)
+    {
+      dispose();
+    }
+  };
+
+  private CDOExtentIndex(InternalRepository repository)
+  {
+    this.repository = repository;
+  }
+
+  public IRepository getRepository()
+  {
+    return repository;
+  }
+
+  /**
+   * Returns the IDs of the instances of the given classes in the given branch, or <code>null</code> if this index can
+   * not provide them at the given time stamp.
+   */
+  public List<CDOID> getExtent(Collection<EClass> eClasses, CDOBranch branch, long timeStamp, AtomicBoolean canceled)
+  {
+    if (timeStamp != CDOBranchPoint.UNSPECIFIED_DATE || repository.getType() != CDOCommonRepository.Type.MASTER)
+    {
+      return null;
+    }
+
+    List<CDOID> result = new ArrayList<CDOID>();
+    for (EClass eClass : eClasses)
+    {
+      if (canceled.get())
+      {
+        break;
+      }
+
+      if (!eClass.isAbstract() && !eClass.isInterface())
+      {
+        Extent extent = getExtent(eClass, branch);
+        extent.addIDs(result, canceled);
+      }
+    }
+
+    return result;
+  }
+
+  public void handleCommitInfo(CDOCommitInfo commitInfo)
+  {
+    CDOBranch branch = commitInfo.getBranch();
+    if (branch == null)
+    {
+      // Failure commit info
+      return;
+    }
+
+    Map<EClass, Extent> extents;
+    synchronized (branches)
+    {
+      extents = branches.get(branch);
+      if (extents == null)
+      {
+        return;
+      }
+    }
+
+    synchronized (extents)
+    {
+      for (CDOIDAndVersion key : commitInfo.getNewObjects())
+      {
+        if (!(key instanceof CDORevision))
+        {
+          // The classes of the new objects are unknown, recreate the extents of this branch when they're needed again
+          synchronized (branches)
+          {
+            branches.remove(branch);
+          }
+
+          return;
+        }
+
+        CDORevision revision = (CDORevision)key;
+        Extent extent = extents.get(revision.getEClass());
+        if (extent != null)
+        {
+          extent.add(revision.getID());
+        }
+      }
+
+      List<CDOIDAndVersion> detachedObjects = commitInfo.getDetachedObjects();
+      if (!detachedObjects.isEmpty())
+      {
+        for (Extent extent : extents.values())
+        {
+          for (CDOIDAndVersion key : detachedObjects)
+          {
+            extent.remove(key.getID());
+          }
+        }
+      }
+    }
+  }
+
+  public void clear()
+  {
+    synchronized (branches)
+    {
+      branches.clear();
+    }
+  }
+
+  @Override
+  public String toString()
+  {
+    return "CDOExtentIndex[" + repository.getName() + "]";
+  }
+
+  private Extent getExtent(EClass eClass, CDOBranch branch)
+  {
+    Map<EClass, Extent> extents;
+    synchronized (branches)
+    {
+      extents = branches.get(branch);
+      if (extents == null)
+      {
+        extents = new HashMap<EClass, Extent>();
+        branches.put(branch, extents);
+      }
+    }
+
+    synchronized (extents)
+    {
+      Extent extent = extents.get(eClass);
+      if (extent == null)
+      {
+        extent = new Extent(eClass, branch);
+        extents.put(eClass, extent);
+      }
+
+      return extent;
+    }
+  }
+
+  private void dispose()
+  {
+    repository.getCommitInfoManager().removeCommitInfoHandler(this);
+    repository.removeListener(repositoryListener);
+    clear();
+
+    synchronized (INDEXES)
+    {
+      INDEXES.remove(repository);
+    }
+  }
+
+  /**
+   * Returns the extent index of the given repository.
+   */
+  public static CDOExtentIndex get(IRepository repository)
+  {
+    synchronized (INDEXES)
+    {
+      CDOExtentIndex index = INDEXES.get(repository);
+      if (index == null)
+      {
+        index = new CDOExtentIndex((InternalRepository)repository);
+        repository.getCommitInfoManager().addCommitInfoHandler(index);
+        repository.addListener(index.repositoryListener);
+        INDEXES.put(repository, index);
+      }
+
+      return index;
+    }
+  }
+
+  /**
+   * The IDs of the instances of a single class in a single branch.
+   *
+   * @author Eike Stepper
+   */
+  private final class Extent
+  {
+    private final EClass eClass;
+
+    private final CDOBranch branch;
+
+    private Set<CDOID> ids;
+
+    private List<Change> changes;
+
+    public Extent(EClass eClass, CDOBranch branch)
+    {
+      this.eClass = eClass;
+      this.branch = branch;
+    }
+
+    public synchronized void add(CDOID id)
+    {
+      if (changes != null)
+      {
+        changes.add(new Change(id, true));
+      }
+      else if (ids != null)
+      {
+        ids.add(id);
+      }
+    }
+
+    public synchronized void remove(CDOID id)
+    {
+      if (changes != null)
+      {
+        changes.add(new Change(id, false));
+      }
+      else if (ids != null)
+      {
+        ids.remove(id);
+      }
+    }
+
+    public void addIDs(List<CDOID> result, AtomicBoolean canceled)
+    {
+      synchronized (this)
+      {
+        while (changes != null)
+        {
+          // Another query is creating this extent
+          try
+          {
+            wait();
+          }
+          catch (InterruptedException ex)
+          {
+            throw WrappedException.wrap(ex);
+          }
+        }
+
+        if (ids != null)
+        {
+          result.addAll(ids);
+          return;
+        }
+
+        // Record the commits that happen while this extent is created
+        changes = new ArrayList<Change>();
+      }
+
+      final Set<CDOID> newIDs = CDOIDUtil.createSet();
+      boolean complete = false;
+
+      try
+      {
+        complete = scan(newIDs, canceled);
+      }
+      finally
+      {
+        synchronized (this)
+        {
+          if (complete)
+          {
+            for (Change change : changes)
+            {
+              if (change.isAdded())
+              {
+                newIDs.add(change.getID());
+              }
+              else
+              {
+                newIDs.remove(change.getID());
+              }
+            }
+
+            ids = newIDs;
+          }
+
+          changes = null;
+          notifyAll();
+        }
+      }
+
+      result.addAll(newIDs);
+    }
+
+    private boolean scan(final Set<CDOID> newIDs, final AtomicBoolean canceled)
+    {
+      repository.handleRevisions(eClass, branch, false, CDOBranchPoint.UNSPECIFIED_DATE, false,
+          new CDORevisionHandler.Filtered.Undetached(new CDORevisionHandler()
+          {
+            public boolean handleRevision(CDORevision revision)
+            {
+              newIDs.add(revision.getID());
+              return !canceled.get();
+            }
+          }));
+
+      return !canceled.get();
+    }
+
+    @Override
+    public String toString()
+    {
+      return "Extent[" + eClass.getName() + ", " + branch.getName() + "]";
+    }
+  }
+
+  /**
+   * @author Eike Stepper
+   */
+  private static final class Change
+  {
+    private final CDOID id;
+
+    private final boolean added;
+
+    public Change(CDOID id, boolean added)
+    {
+      this.id = id;
+      this.added = added;
+    }
+
+    public CDOID getID()
+    {
+      return id;
+    }
+
+    public boolean isAdded()
+    {
+      return added;
+    }
+  }
+}
@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2010-2012 Eike Stepper (Berlin, Germany) and others.
+ * Copyright (c) 2010-2012, 2016 Eike Stepper (Berlin, Germany) and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -43,13 +43,25 @@ public class CDOExtentMap implements Map<EClass, Set<? extends EObject>>
     canceled.set(true);
   }
 
+  /**
+   * Prepares the extents of the given classes before they're requested by the evaluation of a query.
+   *
+   * @since 4.3
+   */
+  public void prefetch(Collection<EClass> classes)
+  {
+    if (extentCreator instanceof CDOExtentCreator)
+    {
+      ((CDOExtentCreator)extentCreator).prefetchExtents(classes, canceled);
+    }
+  }
+
   public Set<? extends EObject> get(Object key)
   {
     if (key instanceof EClass)
     {
       EClass cls = (EClass)key;
 
-      // TODO: Optimize by parsing ahead of time to find all EClasses that we will query
       Set<? extends EObject> result = delegate.get(cls);
       if (result == null)
       {
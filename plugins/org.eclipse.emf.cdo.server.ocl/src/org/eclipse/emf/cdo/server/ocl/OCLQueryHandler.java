@@ -18,11 +18,13 @@ import org.eclipse.emf.cdo.common.model.CDOPackageRegistry;
 import org.eclipse.emf.cdo.common.model.CDOPackageUnit;
 import org.eclipse.emf.cdo.common.revision.CDORevision;
 import org.eclipse.emf.cdo.common.revision.CDORevisionCacheAdder;
+import org.eclipse.emf.cdo.common.revision.CDORevisionManager;
 import org.eclipse.emf.cdo.common.revision.CDORevisionProvider;
 import org.eclipse.emf.cdo.common.util.CDOQueryInfo;
 import org.eclipse.emf.cdo.server.CDOServerUtil;
 import org.eclipse.emf.cdo.server.IQueryContext;
 import org.eclipse.emf.cdo.server.IQueryHandler;
+import org.eclipse.emf.cdo.server.StoreThreadLocal;
 import org.eclipse.emf.cdo.spi.common.commit.CDOChangeSetDataRevisionProvider;
 import org.eclipse.emf.cdo.spi.server.QueryHandlerFactory;
 import org.eclipse.emf.cdo.view.CDOView;
@@ -35,6 +37,7 @@ import org.eclipse.emf.common.util.Diagnostic;
 import org.eclipse.emf.common.util.DiagnosticException;
 import org.eclipse.emf.common.util.EList;
 import org.eclipse.emf.common.util.Enumerator;
+import org.eclipse.emf.common.util.TreeIterator;
 import org.eclipse.emf.ecore.EClass;
 import org.eclipse.emf.ecore.EClassifier;
 import org.eclipse.emf.ecore.EEnumLiteral;
@@ -56,17 +59,22 @@ import org.eclipse.ocl.ecore.IntegerLiteralExp;
 import org.eclipse.ocl.ecore.RealLiteralExp;
 import org.eclipse.ocl.ecore.StringLiteralExp;
 import org.eclipse.ocl.expressions.OCLExpression;
+import org.eclipse.ocl.expressions.OperationCallExp;
+import org.eclipse.ocl.expressions.TypeExp;
 import org.eclipse.ocl.expressions.Variable;
 import org.eclipse.ocl.helper.OCLHelper;
 import org.eclipse.ocl.options.ParsingOptions;
 import org.eclipse.ocl.types.OCLStandardLibrary;
+import org.eclipse.ocl.utilities.PredefinedType;
 import org.eclipse.ocl.util.ProblemAware;
 import org.eclipse.ocl.util.Tuple;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
@@ -93,13 +101,37 @@ public class OCLQueryHandler implements IQueryHandler
    */
   public static final String IMPLICIT_ROOT_CLASS_PARAMETER = "cdoImplicitRootClass";
 
-  private static final Set<String> SERVER_QUERY_PARAMETERS = Collections
-      .unmodifiableSet(new java.util.HashSet<String>(Arrays.asList(LAZY_EXTENTS_PARAMETER, IMPLICIT_ROOT_CLASS_PARAMETER)));
+  /**
+   * Query parameter indicating whether the extents at the head of a branch are taken from the repository's
+   * {@link CDOExtentIndex extent index} rather than from a scan of the store. The default is {@code true}.
+   *
+   * @since 4.3
+   */
+  public static final String EXTENT_INDEX_PARAMETER = "cdoExtentIndex";
+
+  /**
+   * Query parameter indicating whether queries that the store can evaluate, for example with SQL in a DB store, are
+   * {@link OCLSQLTranslator pushed down} to the store rather than evaluated in memory. The default is {@code true}.
+   *
+   * @since 4.3
+   */
+  public static final String PUSH_DOWN_PARAMETER = "cdoPushDown";
+
+  private static final Set<String> SERVER_QUERY_PARAMETERS = Collections.unmodifiableSet(
+      new java.util.HashSet<String>(Arrays.asList(LAZY_EXTENTS_PARAMETER, IMPLICIT_ROOT_CLASS_PARAMETER, EXTENT_INDEX_PARAMETER, PUSH_DOWN_PARAMETER)));
 
   private static final EcoreFactory FACTORY = EcoreFactory.eINSTANCE;
 
+  private static final int PUSH_DOWN_BATCH_SIZE = 1000;
+
+  private static volatile boolean sqlPushDownAvailable = true;
+
   private boolean lazyExtents = true;
 
+  private boolean extentIndex = true;
+
+  private boolean pushDown = true;
+
   private EClass implicitRootClass;
 
   public OCLQueryHandler()
@@ -128,10 +160,16 @@ public class OCLQueryHandler implements IQueryHandler
       ContextParameter contextParameter = getContextParameter(info, view);
       Query<EClassifier, EClass, EObject> query = createQuery(view, info, contextParameter, ocl);
 
-      Object result = evaluate(query, contextParameter.getObject());
-      if (result == ocl.getEnvironment().getOCLStandardLibrary().getInvalid())
+      Object result = pushDown(query, changeSetData, context);
+      if (result == null)
       {
-        throw new Exception("OCL query evaluated to 'invalid'. Run with '-Dorg.eclipse.ocl.debug=true' and visit the log for failure details.");
+        prefetchExtents(query, extentMap);
+
+        result = evaluate(query, contextParameter.getObject());
+        if (result == ocl.getEnvironment().getOCLStandardLibrary().getInvalid())
+        {
+          throw new Exception("OCL query evaluated to 'invalid'. Run with '-Dorg.eclipse.ocl.debug=true' and visit the log for failure details.");
+        }
       }
 
       if (result instanceof Collection<?>)
@@ -188,6 +226,12 @@ public class OCLQueryHandler implements IQueryHandler
     CDOExtentCreator creator = createsLazyExtents() ? new CDOExtentCreator.Lazy(view) : new CDOExtentCreator(view);
     creator.setChangeSetData(changeSetData);
     creator.setRevisionCacheAdder((CDORevisionCacheAdder)context.getView().getRepository().getRevisionManager());
+
+    if (usesExtentIndex())
+    {
+      creator.setExtentIndex(CDOExtentIndex.get(context.getView().getRepository()));
+    }
+
     return new CDOExtentMap(creator);
   }
 
@@ -196,6 +240,75 @@ public class OCLQueryHandler implements IQueryHandler
     return lazyExtents;
   }
 
+  /**
+   * @since 4.3
+   */
+  protected boolean usesExtentIndex()
+  {
+    return extentIndex;
+  }
+
+  /**
+   * @since 4.3
+   */
+  protected boolean pushesDown()
+  {
+    return pushDown;
+  }
+
+  /**
+   * Evaluates the given query in the store if the store supports it, for example with the {@link OCLSQLTranslator SQL
+   * translator} in a DB store.
+   *
+   * @return the result of the query, or <code>null</code> if the query must be evaluated in memory.
+   * @since 4.3
+   */
+  protected Object pushDown(Query<EClassifier, EClass, EObject> query, CDOChangeSetData changeSetData, IQueryContext context)
+  {
+    if (!pushesDown() || !sqlPushDownAvailable || changeSetData != null && !changeSetData.isEmpty())
+    {
+      // The store doesn't know the local changes of a transaction
+      return null;
+    }
+
+    try
+    {
+      return pushDownSQL(query, context);
+    }
+    catch (LinkageError er)
+    {
+      // The DB store is not installed, so the store can't be a DB store
+      sqlPushDownAvailable = false;
+      return null;
+    }
+  }
+
+  /**
+   * Prefetches the extents of the classes whose <code>allInstances()</code> are referenced by the given query.
+   *
+   * @since 4.3
+   */
+  protected void prefetchExtents(Query<EClassifier, EClass, EObject> query, CDOExtentMap extentMap)
+  {
+    Object expression = query.getExpression();
+    if (expression instanceof EObject)
+    {
+      EObject root = (EObject)expression;
+      Set<EClass> classes = new java.util.HashSet<EClass>();
+      collectExtentClass(root, classes);
+
+      for (TreeIterator<EObject> it = root.eAllContents(); it.hasNext();)
+      {
+        collectExtentClass(it.next(), classes);
+      }
+
+      if (!classes.isEmpty())
+      {
+        extentMap.prefetch(classes);
+      }
+    }
+  }
+
   /**
    * @since 4.2
    */
@@ -366,6 +479,8 @@ public class OCLQueryHandler implements IQueryHandler
   {
     lazyExtents = readParameter(queryParameters, LAZY_EXTENTS_PARAMETER, lazyExtents);
     implicitRootClass = readParameter(queryParameters, IMPLICIT_ROOT_CLASS_PARAMETER, EClass.class, implicitRootClass);
+    extentIndex = readParameter(queryParameters, EXTENT_INDEX_PARAMETER, extentIndex);
+    pushDown = readParameter(queryParameters, PUSH_DOWN_PARAMETER, pushDown);
   }
 
   /**
@@ -426,6 +541,65 @@ public class OCLQueryHandler implements IQueryHandler
     return !SERVER_QUERY_PARAMETERS.contains(name);
   }
 
+  private static Object pushDownSQL(Query<EClassifier, EClass, EObject> query, IQueryContext context)
+  {
+    OCLSQLTranslator translator = OCLSQLTranslator.create(StoreThreadLocal.getAccessor(), context, query.getEvaluationEnvironment());
+    if (translator == null)
+    {
+      return null;
+    }
+
+    Object result = translator.evaluate(query.getExpression());
+    if (result instanceof List<?>)
+    {
+      @SuppressWarnings("unchecked")
+      List<CDOID> ids = (List<CDOID>)result;
+      return getRevisions(ids, context);
+    }
+
+    return result;
+  }
+
+  private static List<CDORevision> getRevisions(List<CDOID> ids, IQueryContext context)
+  {
+    CDORevisionManager revisionManager = context.getView().getRepository().getRevisionManager();
+    List<CDORevision> revisions = new ArrayList<CDORevision>(ids.size());
+
+    for (int i = 0; i < ids.size(); i += PUSH_DOWN_BATCH_SIZE)
+    {
+      List<CDOID> batch = ids.subList(i, Math.min(i + PUSH_DOWN_BATCH_SIZE, ids.size()));
+      for (CDORevision revision : revisionManager.getRevisions(batch, context, CDORevision.UNCHUNKED, CDORevision.DEPTH_NONE, true))
+      {
+        if (revision != null)
+        {
+          revisions.add(revision);
+        }
+      }
+    }
+
+    return revisions;
+  }
+
+  private static void collectExtentClass(EObject object, Set<EClass> classes)
+  {
+    if (object instanceof OperationCallExp<?, ?>)
+    {
+      OperationCallExp<?, ?> operationCall = (OperationCallExp<?, ?>)object;
+      if (operationCall.getOperationCode() == PredefinedType.ALL_INSTANCES)
+      {
+        Object source = operationCall.getSource();
+        if (source instanceof TypeExp<?>)
+        {
+          Object type = ((TypeExp<?>)source).getReferredType();
+          if (type instanceof EClass)
+          {
+            classes.add((EClass)type);
+          }
+        }
+      }
+    }
+  }
+
   private Integer getInteger(Object value)
   {
     if (value instanceof Integer)
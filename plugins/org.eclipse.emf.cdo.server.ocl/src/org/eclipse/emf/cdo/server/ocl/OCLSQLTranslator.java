@@ -0,0 +1,976 @@
+/*
+ * Copyright (c) 2016 Eike Stepper (Berlin, Germany) and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    Eike Stepper - initial API and implementation
+ */
+package org.eclipse.emf.cdo.server.ocl;
+
+import org.eclipse.emf.cdo.common.branch.CDOBranchPoint;
+import org.eclipse.emf.cdo.common.id.CDOID;
+import org.eclipse.emf.cdo.common.model.CDOPackageRegistry;
+import org.eclipse.emf.cdo.server.IStoreAccessor;
+import org.eclipse.emf.cdo.server.db.IDBStore;
+import org.eclipse.emf.cdo.server.db.IDBStoreAccessor;
+import org.eclipse.emf.cdo.server.db.IIDHandler;
+import org.eclipse.emf.cdo.server.db.mapping.IClassMapping;
+import org.eclipse.emf.cdo.server.db.mapping.IClassMappingQuerySupport;
+import org.eclipse.emf.cdo.server.db.mapping.IMappingStrategy;
+import org.eclipse.emf.cdo.server.db.mapping.ITypeMapping;
+
+import org.eclipse.net4j.db.DBException;
+import org.eclipse.net4j.db.DBType;
+import org.eclipse.net4j.db.DBUtil;
+import org.eclipse.net4j.db.IDBPreparedStatement;
+import org.eclipse.net4j.db.IDBPreparedStatement.ReuseProbability;
+import org.eclipse.net4j.spi.db.DBAdapter;
+
+import org.eclipse.emf.common.util.Enumerator;
+import org.eclipse.emf.ecore.EAttribute;
+import org.eclipse.emf.ecore.EClass;
+import org.eclipse.emf.ecore.EDataType;
+import org.eclipse.emf.ecore.EEnum;
+import org.eclipse.emf.ecore.EEnumLiteral;
+import org.eclipse.emf.ecore.EReference;
+import org.eclipse.emf.ecore.EStructuralFeature;
+import org.eclipse.emf.ecore.EcorePackage;
+
+import org.eclipse.ocl.EvaluationEnvironment;
+import org.eclipse.ocl.expressions.BooleanLiteralExp;
+import org.eclipse.ocl.expressions.EnumLiteralExp;
+import org.eclipse.ocl.expressions.IntegerLiteralExp;
+import org.eclipse.ocl.expressions.IteratorExp;
+import org.eclipse.ocl.expressions.NullLiteralExp;
+import org.eclipse.ocl.expressions.OCLExpression;
+import org.eclipse.ocl.expressions.OperationCallExp;
+import org.eclipse.ocl.expressions.PropertyCallExp;
+import org.eclipse.ocl.expressions.RealLiteralExp;
+import org.eclipse.ocl.expressions.StringLiteralExp;
+import org.eclipse.ocl.expressions.TypeExp;
+import org.eclipse.ocl.expressions.Variable;
+import org.eclipse.ocl.expressions.VariableExp;
+import org.eclipse.ocl.utilities.PredefinedType;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Evaluates OCL query expressions with SQL statements against the class tables of a {@link IDBStore DB store}.
+ * <p>
+ * The supported expressions are <code>C.allInstances()->select(v | condition)</code>, optionally followed by
+ * <code>->size()</code>, <code>->isEmpty()</code> or <code>->notEmpty()</code>, and
+ * <code>C.allInstances()->exists(v | condition)</code>. A condition is an <code>and</code> or <code>or</code>
+ * combination of comparisons between a single-valued feature of <code>v</code>, optionally reached by navigating
+ * single-valued references, and a literal, an enumeration literal, a query parameter or <code>null</code>. Relational
+ * comparisons are only supported for attributes of primitive numeric types. All other expressions are left to the
+ * in-memory evaluation.
+ * <p>
+ * The results are always equal to the results of the in-memory evaluation. String comparisons are therefore only
+ * translated if the database {@link DBAdapter#isBinaryStringComparison() compares strings} exactly like OCL. And an
+ * expression that navigates references is only evaluated in SQL if none of the navigated references is
+ * <code>null</code>, because OCL evaluates such navigations to <code>invalid</code>.
+ *
+ * @author Eike Stepper
+ * @since 4.3
+ */
+public class OCLSQLTranslator
+{
+  private static final int SELECT = 0;
+
+  private static final int EXISTS = 1;
+
+  private static final int SIZE = 2;
+
+  private static final int IS_EMPTY = 3;
+
+  private static final int NOT_EMPTY = 4;
+
+  private static final Object NO_VALUE = new Object();
+
+  private static final AtomicLong evaluations = new AtomicLong();
+
+  private final IDBStoreAccessor accessor;
+
+  private final IMappingStrategy mappingStrategy;
+
+  private final CDOPackageRegistry packageRegistry;
+
+  private final CDOBranchPoint branchPoint;
+
+  private final EvaluationEnvironment<?, ?, ?, ?, ?> evaluationEnvironment;
+
+  private final List<Statement> nullReferenceChecks = new ArrayList<Statement>();
+
+  private int aliases;
+
+  public OCLSQLTranslator(IDBStoreAccessor accessor, CDOBranchPoint branchPoint, EvaluationEnvironment<?, ?, ?, ?, ?> evaluationEnvironment)
+  {
+    this.accessor = accessor;
+    this.branchPoint = branchPoint;
+    this.evaluationEnvironment = evaluationEnvironment;
+    mappingStrategy = accessor.getStore().getMappingStrategy();
+    packageRegistry = accessor.getStore().getRepository().getPackageRegistry();
+  }
+
+  public IDBStoreAccessor getAccessor()
+  {
+    return accessor;
+  }
+
+  public CDOBranchPoint getBranchPoint()
+  {
+    return branchPoint;
+  }
+
+  /**
+   * Returns the result of the given expression as computed by the database, or <code>null</code> if the expression
+   * can not be translated into SQL. The result of a <code>select</code> is the list of the {@link CDOID IDs} of the
+   * selected objects.
+   */
+  public Object evaluate(OCLExpression<?> expression)
+  {
+    int kind = SELECT;
+    OCLExpression<?> selection = expression;
+
+    if (expression instanceof OperationCallExp<?, ?>)
+    {
+      OperationCallExp<?, ?> operationCall = (OperationCallExp<?, ?>)expression;
+      if (!operationCall.getArgument().isEmpty())
+      {
+        return null;
+      }
+
+      switch (operationCall.getOperationCode())
+      {
+      case PredefinedType.SIZE:
+        kind = SIZE;
+        break;
+
+      case PredefinedType.IS_EMPTY:
+        kind = IS_EMPTY;
+        break;
+
+      case PredefinedType.NOT_EMPTY:
+        kind = NOT_EMPTY;
+        break;
+
+      default:
+        return null;
+      }
+
+      selection = operationCall.getSource();
+    }
+
+    if (!(selection instanceof IteratorExp<?, ?>))
+    {
+      return null;
+    }
+
+    IteratorExp<?, ?> iterator = (IteratorExp<?, ?>)selection;
+    if (iterator.getIterator().size() != 1)
+    {
+      return null;
+    }
+
+    String name = iterator.getName();
+    if (PredefinedType.EXISTS_NAME.equals(name))
+    {
+      if (kind != SELECT)
+      {
+        return null;
+      }
+
+      kind = EXISTS;
+    }
+    else if (!PredefinedType.SELECT_NAME.equals(name))
+    {
+      return null;
+    }
+
+    EClass eClass = getExtentClass(iterator.getSource());
+    if (eClass == null)
+    {
+      return null;
+    }
+
+    List<IClassMappingQuerySupport> classMappings = getClassMappings(eClass);
+    if (classMappings == null)
+    {
+      return null;
+    }
+
+    Variable<?, ?> variable = iterator.getIterator().get(0);
+    nullReferenceChecks.clear();
+    List<Statement> statements = new ArrayList<Statement>();
+
+    for (IClassMappingQuerySupport classMapping : classMappings)
+    {
+      String alias = createAlias();
+
+      Statement statement = new Statement();
+      StringBuilder builder = statement.getBuilder();
+      builder.append("SELECT "); //$NON-NLS-1$
+      if (kind == SIZE)
+      {
+        builder.append("COUNT(*)"); //$NON-NLS-1$
+      }
+      else
+      {
+        appendColumn(builder, alias, classMapping.getIDField().getName());
+      }
+
+      builder.append(" FROM "); //$NON-NLS-1$
+      builder.append(classMapping.getTable().getName());
+      builder.append(" "); //$NON-NLS-1$
+      builder.append(alias);
+      builder.append(" WHERE "); //$NON-NLS-1$
+
+      if (!classMapping.appendVisibilityCondition(builder, alias, branchPoint))
+      {
+        return null;
+      }
+
+      builder.append(" AND ("); //$NON-NLS-1$
+      if (!appendCondition(statement, iterator.getBody(), variable, classMapping, alias))
+      {
+        return null;
+      }
+
+      builder.append(")"); //$NON-NLS-1$
+      statements.add(statement);
+    }
+
+    for (Statement check : nullReferenceChecks)
+    {
+      if (executeCheck(check))
+      {
+        // OCL evaluates the navigation of a null reference to invalid
+        return null;
+      }
+    }
+
+    Object result = execute(statements, kind);
+    evaluations.incrementAndGet();
+    return result;
+  }
+
+  private boolean executeCheck(Statement check)
+  {
+    IDBPreparedStatement stmt = accessor.getDBConnection().prepareStatement(check.getSQL(), ReuseProbability.LOW);
+    ResultSet resultSet = null;
+
+    try
+    {
+      check.setParameters(stmt);
+      stmt.setMaxRows(1);
+
+      resultSet = stmt.executeQuery();
+      return resultSet.next();
+    }
+    catch (SQLException ex)
+    {
+      throw new DBException(ex, check.getSQL());
+    }
+    finally
+    {
+      DBUtil.close(resultSet);
+      DBUtil.close(stmt);
+    }
+  }
+
+  private Object execute(List<Statement> statements, int kind)
+  {
+    IIDHandler idHandler = accessor.getStore().getIDHandler();
+    List<CDOID> ids = new ArrayList<CDOID>();
+    long count = 0;
+
+    for (Statement statement : statements)
+    {
+      IDBPreparedStatement stmt = accessor.getDBConnection().prepareStatement(statement.getSQL(), ReuseProbability.LOW);
+      ResultSet resultSet = null;
+
+      try
+      {
+        statement.setParameters(stmt);
+        if (kind != SELECT && kind != SIZE)
+        {
+          stmt.setMaxRows(1);
+        }
+
+        resultSet = stmt.executeQuery();
+        if (kind == SIZE)
+        {
+          if (resultSet.next())
+          {
+            count += resultSet.getLong(1);
+          }
+        }
+        else if (kind == SELECT)
+        {
+          while (resultSet.next())
+          {
+            ids.add(idHandler.getCDOID(resultSet, 1));
+          }
+        }
+        else if (resultSet.next())
+        {
+          return kind != IS_EMPTY;
+        }
+      }
+      catch (SQLException ex)
+      {
+        throw new DBException(ex, statement.getSQL());
+      }
+      finally
+      {
+        DBUtil.close(resultSet);
+        DBUtil.close(stmt);
+      }
+    }
+
+    switch (kind)
+    {
+    case SELECT:
+      return ids;
+
+    case SIZE:
+      return (int)count;
+
+    default:
+      return kind == IS_EMPTY;
+    }
+  }
+
+  /**
+   * Returns the class mappings of the concrete classes among the given class and its sub types, or <code>null</code>
+   * if one of them can not be queried with SQL.
+   */
+  protected List<IClassMappingQuerySupport> getClassMappings(EClass eClass)
+  {
+    if (eClass == EcorePackage.Literals.EOBJECT)
+    {
+      return null;
+    }
+
+    List<EClass> eClasses = new ArrayList<EClass>();
+    eClasses.add(eClass);
+
+    List<EClass> subTypes = packageRegistry.getSubTypes().get(eClass);
+    if (subTypes != null)
+    {
+      eClasses.addAll(subTypes);
+    }
+
+    Map<EClass, IClassMapping> classMappings = mappingStrategy.getClassMappings();
+    List<IClassMappingQuerySupport> result = new ArrayList<IClassMappingQuerySupport>();
+
+    for (EClass type : eClasses)
+    {
+      if (type.isAbstract() || type.isInterface())
+      {
+        continue;
+      }
+
+      IClassMapping classMapping = classMappings.get(type);
+      if (classMapping == null)
+      {
+        // Not mapped, so there are no instances in the database
+        continue;
+      }
+
+      if (!(classMapping instanceof IClassMappingQuerySupport))
+      {
+        return null;
+      }
+
+      result.add((IClassMappingQuerySupport)classMapping);
+    }
+
+    return result;
+  }
+
+  private boolean appendCondition(Statement statement, OCLExpression<?> condition, Variable<?, ?> variable, IClassMappingQuerySupport classMapping,
+      String alias)
+  {
+    StringBuilder builder = statement.getBuilder();
+
+    if (condition instanceof OperationCallExp<?, ?>)
+    {
+      OperationCallExp<?, ?> operationCall = (OperationCallExp<?, ?>)condition;
+      List<? extends OCLExpression<?>> arguments = operationCall.getArgument();
+      int operation = operationCall.getOperationCode();
+      OCLExpression<?> source = operationCall.getSource();
+
+      switch (operation)
+      {
+      case PredefinedType.AND:
+      case PredefinedType.OR:
+        if (arguments.size() != 1)
+        {
+          return false;
+        }
+
+        // Unknown SQL results are equivalent to false results as long as they are not negated
+        builder.append("("); //$NON-NLS-1$
+        if (!appendCondition(statement, source, variable, classMapping, alias))
+        {
+          return false;
+        }
+
+        builder.append(operation == PredefinedType.AND ? " AND " : " OR "); //$NON-NLS-1$ //$NON-NLS-2$
+        if (!appendCondition(statement, arguments.get(0), variable, classMapping, alias))
+        {
+          return false;
+        }
+
+        builder.append(")"); //$NON-NLS-1$
+        return true;
+
+      case PredefinedType.OCL_IS_UNDEFINED:
+        if (!arguments.isEmpty())
+        {
+          return false;
+        }
+
+        List<EStructuralFeature> path = getPath(source, variable);
+        return path != null && appendComparison(statement, classMapping, alias, path, 0, PredefinedType.EQUAL, null);
+
+      case PredefinedType.EQUAL:
+      case PredefinedType.NOT_EQUAL:
+      case PredefinedType.LESS_THAN:
+      case PredefinedType.LESS_THAN_EQUAL:
+      case PredefinedType.GREATER_THAN:
+      case PredefinedType.GREATER_THAN_EQUAL:
+        if (arguments.size() != 1)
+        {
+          return false;
+        }
+
+        OCLExpression<?> argument = arguments.get(0);
+        List<EStructuralFeature> sourcePath = getPath(source, variable);
+        if (sourcePath != null)
+        {
+          Object value = getValue(argument, variable);
+          return value != NO_VALUE && appendComparison(statement, classMapping, alias, sourcePath, 0, operation, value);
+        }
+
+        List<EStructuralFeature> argumentPath = getPath(argument, variable);
+        if (argumentPath != null)
+        {
+          Object value = getValue(source, variable);
+          return value != NO_VALUE && appendComparison(statement, classMapping, alias, argumentPath, 0, getMirroredOperation(operation), value);
+        }
+
+        return false;
+
+      default:
+        return false;
+      }
+    }
+
+    // A boolean attribute, optionally reached by navigations
+    List<EStructuralFeature> path = getPath(condition, variable);
+    return path != null && appendComparison(statement, classMapping, alias, path, 0, PredefinedType.EQUAL, Boolean.TRUE);
+  }
+
+  private boolean appendComparison(Statement statement, IClassMappingQuerySupport classMapping, String alias, List<EStructuralFeature> path, int index,
+      int operation, Object value)
+  {
+    StringBuilder builder = statement.getBuilder();
+    EStructuralFeature feature = path.get(index);
+
+    ITypeMapping typeMapping = classMapping.getValueMapping(feature);
+    if (typeMapping == null)
+    {
+      return false;
+    }
+
+    String column = typeMapping.getField().getName();
+    if (index < path.size() - 1)
+    {
+      // Navigate to the referenced objects
+      List<IClassMappingQuerySupport> targetMappings = getClassMappings(((EReference)feature).getEReferenceType());
+      if (targetMappings == null)
+      {
+        return false;
+      }
+
+      if (!appendNullReferenceCheck(classMapping, typeMapping))
+      {
+        return false;
+      }
+
+      if (targetMappings.isEmpty())
+      {
+        builder.append("1=0"); //$NON-NLS-1$
+        return true;
+      }
+
+      appendColumn(builder, alias, column);
+      builder.append(" IN ("); //$NON-NLS-1$
+
+      for (int i = 0; i < targetMappings.size(); i++)
+      {
+        IClassMappingQuerySupport targetMapping = targetMappings.get(i);
+        String targetAlias = createAlias();
+
+        if (i != 0)
+        {
+          builder.append(" UNION ALL "); //$NON-NLS-1$
+        }
+
+        builder.append("SELECT "); //$NON-NLS-1$
+        appendColumn(builder, targetAlias, targetMapping.getIDField().getName());
+        builder.append(" FROM "); //$NON-NLS-1$
+        builder.append(targetMapping.getTable().getName());
+        builder.append(" "); //$NON-NLS-1$
+        builder.append(targetAlias);
+        builder.append(" WHERE "); //$NON-NLS-1$
+
+        if (!targetMapping.appendVisibilityCondition(builder, targetAlias, branchPoint))
+        {
+          return false;
+        }
+
+        builder.append(" AND "); //$NON-NLS-1$
+        if (!appendComparison(statement, targetMapping, targetAlias, path, index + 1, operation, value))
+        {
+          return false;
+        }
+      }
+
+      builder.append(")"); //$NON-NLS-1$
+      return true;
+    }
+
+    if (value == null)
+    {
+      if (operation != PredefinedType.EQUAL && operation != PredefinedType.NOT_EQUAL)
+      {
+        return false;
+      }
+
+      boolean equal = operation == PredefinedType.EQUAL;
+      builder.append("("); //$NON-NLS-1$
+      appendColumn(builder, alias, column);
+      builder.append(equal ? " IS NULL" : " IS NOT NULL"); //$NON-NLS-1$ //$NON-NLS-2$
+
+      if (feature instanceof EReference)
+      {
+        // Some ID handlers store null references as a null ID
+        builder.append(equal ? " OR " : " AND "); //$NON-NLS-1$ //$NON-NLS-2$
+        appendColumn(builder, alias, column);
+        builder.append(equal ? "=?" : "<>?"); //$NON-NLS-1$ //$NON-NLS-2$
+        statement.addParameter(typeMapping, CDOID.NULL);
+      }
+
+      builder.append(")"); //$NON-NLS-1$
+      return true;
+    }
+
+    if (!(feature instanceof EAttribute))
+    {
+      return false;
+    }
+
+    EDataType type = ((EAttribute)feature).getEAttributeType();
+    Object parameter = convertValue(type, value);
+    if (parameter == null)
+    {
+      return false;
+    }
+
+    if (parameter instanceof String)
+    {
+      if (typeMapping.getDBType() != DBType.VARCHAR)
+      {
+        // Large strings can not be compared in all databases and fixed length strings are padded
+        return false;
+      }
+
+      DBAdapter dbAdapter = (DBAdapter)accessor.getStore().getDBAdapter();
+      if (!dbAdapter.isBinaryStringComparison())
+      {
+        return false;
+      }
+    }
+
+    switch (operation)
+    {
+    case PredefinedType.EQUAL:
+      appendColumn(builder, alias, column);
+      builder.append("=?"); //$NON-NLS-1$
+      break;
+
+    case PredefinedType.NOT_EQUAL:
+      // OCL considers null values to be different from all other values
+      builder.append("("); //$NON-NLS-1$
+      appendColumn(builder, alias, column);
+      builder.append("<>? OR "); //$NON-NLS-1$
+      appendColumn(builder, alias, column);
+      builder.append(" IS NULL)"); //$NON-NLS-1$
+      break;
+
+    default:
+      // Relational comparisons with null values are invalid in OCL, so only columns without null values are compared
+      Class<?> instanceClass = type.getInstanceClass();
+      if (instanceClass == null || !instanceClass.isPrimitive() || instanceClass == boolean.class || instanceClass == char.class)
+      {
+        return false;
+      }
+
+      appendColumn(builder, alias, column);
+      builder.append(getSQLOperator(operation));
+      builder.append("?"); //$NON-NLS-1$
+      break;
+    }
+
+    statement.addParameter(typeMapping, parameter);
+    return true;
+  }
+
+  /**
+   * Adds a statement that finds the visible objects of the given class mapping with a <code>null</code> value for the
+   * given reference mapping. The statement is conservative, i.e., it also finds objects that don't satisfy the other
+   * parts of the condition.
+   */
+  private boolean appendNullReferenceCheck(IClassMappingQuerySupport classMapping, ITypeMapping typeMapping)
+  {
+    String alias = createAlias();
+    String column = typeMapping.getField().getName();
+
+    Statement check = new Statement();
+    StringBuilder builder = check.getBuilder();
+    builder.append("SELECT "); //$NON-NLS-1$
+    appendColumn(builder, alias, classMapping.getIDField().getName());
+    builder.append(" FROM "); //$NON-NLS-1$
+    builder.append(classMapping.getTable().getName());
+    builder.append(" "); //$NON-NLS-1$
+    builder.append(alias);
+    builder.append(" WHERE "); //$NON-NLS-1$
+
+    if (!classMapping.appendVisibilityCondition(builder, alias, branchPoint))
+    {
+      return false;
+    }
+
+    // Some ID handlers store null references as a null ID
+    builder.append(" AND ("); //$NON-NLS-1$
+    appendColumn(builder, alias, column);
+    builder.append(" IS NULL OR "); //$NON-NLS-1$
+    appendColumn(builder, alias, column);
+    builder.append("=?)"); //$NON-NLS-1$
+    check.addParameter(typeMapping, CDOID.NULL);
+
+    nullReferenceChecks.add(check);
+    return true;
+  }
+
+  private List<EStructuralFeature> getPath(OCLExpression<?> expression, Variable<?, ?> variable)
+  {
+    LinkedList<EStructuralFeature> path = new LinkedList<EStructuralFeature>();
+    while (expression instanceof PropertyCallExp<?, ?>)
+    {
+      PropertyCallExp<?, ?> propertyCall = (PropertyCallExp<?, ?>)expression;
+      if (!propertyCall.getQualifier().isEmpty())
+      {
+        return null;
+      }
+
+      Object property = propertyCall.getReferredProperty();
+      if (!(property instanceof EStructuralFeature))
+      {
+        return null;
+      }
+
+      EStructuralFeature feature = (EStructuralFeature)property;
+      if (feature.isMany() || !path.isEmpty() && !(feature instanceof EReference))
+      {
+        return null;
+      }
+
+      path.addFirst(feature);
+      expression = propertyCall.getSource();
+    }
+
+    if (path.isEmpty() || !(expression instanceof VariableExp<?, ?>) || ((VariableExp<?, ?>)expression).getReferredVariable() != variable)
+    {
+      return null;
+    }
+
+    return path;
+  }
+
+  private Object getValue(OCLExpression<?> expression, Variable<?, ?> variable)
+  {
+    if (expression instanceof StringLiteralExp<?>)
+    {
+      return ((StringLiteralExp<?>)expression).getStringSymbol();
+    }
+
+    if (expression instanceof IntegerLiteralExp<?>)
+    {
+      return ((IntegerLiteralExp<?>)expression).getIntegerSymbol();
+    }
+
+    if (expression instanceof RealLiteralExp<?>)
+    {
+      return ((RealLiteralExp<?>)expression).getRealSymbol();
+    }
+
+    if (expression instanceof BooleanLiteralExp<?>)
+    {
+      return ((BooleanLiteralExp<?>)expression).getBooleanSymbol();
+    }
+
+    if (expression instanceof EnumLiteralExp<?, ?>)
+    {
+      Object literal = ((EnumLiteralExp<?, ?>)expression).getReferredEnumLiteral();
+      return literal instanceof EEnumLiteral ? literal : NO_VALUE;
+    }
+
+    if (expression instanceof NullLiteralExp<?>)
+    {
+      return null;
+    }
+
+    if (expression instanceof VariableExp<?, ?>)
+    {
+      // Query parameters are variables with an initial value
+      Variable<?, ?> referredVariable = ((VariableExp<?, ?>)expression).getReferredVariable();
+      if (referredVariable != variable && referredVariable.getInitExpression() != null)
+      {
+        Object value = evaluationEnvironment.getValueOf(referredVariable.getName());
+        if (value != null)
+        {
+          return value;
+        }
+      }
+    }
+
+    return NO_VALUE;
+  }
+
+  private String createAlias()
+  {
+    return "a" + ++aliases; //$NON-NLS-1$
+  }
+
+  private static EClass getExtentClass(OCLExpression<?> expression)
+  {
+    if (expression instanceof OperationCallExp<?, ?>)
+    {
+      OperationCallExp<?, ?> operationCall = (OperationCallExp<?, ?>)expression;
+      if (operationCall.getOperationCode() == PredefinedType.ALL_INSTANCES && operationCall.getSource() instanceof TypeExp<?>)
+      {
+        Object type = ((TypeExp<?>)operationCall.getSource()).getReferredType();
+        if (type instanceof EClass)
+        {
+          return (EClass)type;
+        }
+      }
+    }
+
+    return null;
+  }
+
+  /**
+   * Returns the given value in the form in which it is stored for an attribute of the given type, or <code>null</code>
+   * if the value can not be compared with such an attribute in SQL.
+   */
+  private static Object convertValue(EDataType type, Object value)
+  {
+    if (type instanceof EEnum)
+    {
+      if (value instanceof EEnumLiteral)
+      {
+        EEnumLiteral literal = (EEnumLiteral)value;
+        return literal.getEEnum() == type ? literal.getValue() : null;
+      }
+
+      if (value instanceof Enumerator)
+      {
+        return ((Enumerator)value).getValue();
+      }
+
+      return null;
+    }
+
+    Class<?> instanceClass = type.getInstanceClass();
+    if (instanceClass == String.class)
+    {
+      return value instanceof String ? value : null;
+    }
+
+    if (instanceClass == boolean.class || instanceClass == Boolean.class)
+    {
+      return value instanceof Boolean ? value : null;
+    }
+
+    if (!(value instanceof Number))
+    {
+      return null;
+    }
+
+    Number number = (Number)value;
+    boolean integral = value instanceof Integer || value instanceof Long || value instanceof Short || value instanceof Byte;
+
+    if (instanceClass == double.class || instanceClass == Double.class)
+    {
+      return number.doubleValue();
+    }
+
+    if (!integral)
+    {
+      // Floats are not compared because the conversion from OCL reals would change the values
+      return null;
+    }
+
+    long longValue = number.longValue();
+    if (instanceClass == long.class || instanceClass == Long.class)
+    {
+      return longValue;
+    }
+
+    if (instanceClass == int.class || instanceClass == Integer.class)
+    {
+      return longValue == (int)longValue ? (Object)(int)longValue : null;
+    }
+
+    if (instanceClass == short.class || instanceClass == Short.class)
+    {
+      return longValue == (short)longValue ? (Object)(short)longValue : null;
+    }
+
+    if (instanceClass == byte.class || instanceClass == Byte.class)
+    {
+      return longValue == (byte)longValue ? (Object)(byte)longValue : null;
+    }
+
+    return null;
+  }
+
+  private static int getMirroredOperation(int operation)
+  {
+    switch (operation)
+    {
+    case PredefinedType.LESS_THAN:
+      return PredefinedType.GREATER_THAN;
+
+    case PredefinedType.LESS_THAN_EQUAL:
+      return PredefinedType.GREATER_THAN_EQUAL;
+
+    case PredefinedType.GREATER_THAN:
+      return PredefinedType.LESS_THAN;
+
+    case PredefinedType.GREATER_THAN_EQUAL:
+      return PredefinedType.LESS_THAN_EQUAL;
+
+    default:
+      return operation;
+    }
+  }
+
+  private static String getSQLOperator(int operation)
+  {
+    switch (operation)
+    {
+    case PredefinedType.LESS_THAN:
+      return "<"; //$NON-NLS-1$
+
+    case PredefinedType.LESS_THAN_EQUAL:
+      return "<="; //$NON-NLS-1$
+
+    case PredefinedType.GREATER_THAN:
+      return ">"; //$NON-NLS-1$
+
+    case PredefinedType.GREATER_THAN_EQUAL:
+      return ">="; //$NON-NLS-1$
+
+    default:
+      throw new IllegalArgumentException("Not a relational operation: " + operation); //$NON-NLS-1$
+    }
+  }
+
+  private static void appendColumn(StringBuilder builder, String alias, String column)
+  {
+    builder.append(alias);
+    builder.append("."); //$NON-NLS-1$
+    builder.append(column);
+  }
+
+  /**
+   * Returns the number of expressions that have been evaluated in SQL by all translators.
+   */
+  public static long getEvaluations()
+  {
+    return evaluations.get();
+  }
+
+  /**
+   * Returns an {@link OCLSQLTranslator SQL translator} for the given store accessor, or <code>null</code> if the store
+   * is not a {@link IDBStore DB store}.
+   */
+  public static OCLSQLTranslator create(IStoreAccessor accessor, CDOBranchPoint branchPoint, EvaluationEnvironment<?, ?, ?, ?, ?> evaluationEnvironment)
+  {
+    if (accessor instanceof IDBStoreAccessor)
+    {
+      return new OCLSQLTranslator((IDBStoreAccessor)accessor, branchPoint, evaluationEnvironment);
+    }
+
+    return null;
+  }
+
+  /**
+   * An SQL statement with its parameters.
+   *
+   * @author Eike Stepper
+   */
+  private static final class Statement
+  {
+    private final StringBuilder builder = new StringBuilder();
+
+    private final List<ITypeMapping> parameterMappings = new ArrayList<ITypeMapping>();
+
+    private final List<Object> parameterValues = new ArrayList<Object>();
+
+    public StringBuilder getBuilder()
+    {
+      return builder;
+    }
+
+    public String getSQL()
+    {
+      return builder.toString();
+    }
+
+    public void addParameter(ITypeMapping typeMapping, Object value)
+    {
+      parameterMappings.add(typeMapping);
+      parameterValues.add(value);
+    }
+
+    public void setParameters(IDBPreparedStatement stmt) throws SQLException
+    {
+      for (int i = 0; i < parameterMappings.size(); i++)
+      {
+        parameterMappings.get(i).setValue(stmt, i + 1, parameterValues.get(i));
+      }
+    }
+
+    @Override
+    public String toString()
+    {
+      return getSQL();
+    }
+  }
+}
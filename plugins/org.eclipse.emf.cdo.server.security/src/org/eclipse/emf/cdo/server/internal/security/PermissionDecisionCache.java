@@ -0,0 +1,298 @@
+/*
+ * Copyright (c) 2016 Eike Stepper (Berlin, Germany) and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    Eike Stepper - initial API and implementation
+ */
+package org.eclipse.emf.cdo.server.internal.security;
+
+import org.eclipse.emf.cdo.common.branch.CDOBranchPoint;
+import org.eclipse.emf.cdo.common.id.CDOID;
+import org.eclipse.emf.cdo.common.revision.CDORevision;
+import org.eclipse.emf.cdo.common.security.CDOPermission;
+import org.eclipse.emf.cdo.security.Access;
+import org.eclipse.emf.cdo.security.ClassFilter;
+import org.eclipse.emf.cdo.security.CombinedFilter;
+import org.eclipse.emf.cdo.security.FilterPermission;
+import org.eclipse.emf.cdo.security.LinkedFilter;
+import org.eclipse.emf.cdo.security.PackageFilter;
+import org.eclipse.emf.cdo.security.Permission;
+import org.eclipse.emf.cdo.security.PermissionFilter;
+import org.eclipse.emf.cdo.security.ResourceFilter;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Caches the {@link CDOPermission permissions} that a set of {@link Permission permissions} grants on
+ * {@link CDORevision revisions}.
+ * <p>
+ * A decision is cached per revision key and security context. Decisions are dropped when one of the permissions of this
+ * cache is {@link #isAffected(Set) impacted} by a commit, for example when a resource filter is impacted by a move that
+ * changes the resource paths of revisions.
+ *
+ * @author Eike Stepper
+ */
+public class PermissionDecisionCache
+{
+  public static final int DEFAULT_CAPACITY = 100000;
+
+  private static final String USER_TOKEN = "${user}"; //$NON-NLS-1$
+
+  private final Set<Permission> permissions;
+
+  private final int capacity;
+
+  private final ConcurrentMap<DecisionKey, CDOPermission> decisions = new ConcurrentHashMap<DecisionKey, CDOPermission>();
+
+  private volatile int generation;
+
+  public PermissionDecisionCache(Permission[] permissions)
+  {
+    this(permissions, DEFAULT_CAPACITY);
+  }
+
+  public PermissionDecisionCache(Permission[] permissions, int capacity)
+  {
+    this.permissions = new HashSet<Permission>(Arrays.asList(permissions));
+    this.capacity = capacity;
+  }
+
+  /**
+   * Returns the generation of this cache. A decision that is computed while the generation changes is not cached.
+   */
+  public int getGeneration()
+  {
+    return generation;
+  }
+
+  public int size()
+  {
+    return decisions.size();
+  }
+
+  /**
+   * Returns the key of the decision about the given revision in the given security context.
+   */
+  public Object createKey(CDORevision revision, CDOBranchPoint securityContext)
+  {
+    return new DecisionKey(revision, securityContext);
+  }
+
+  /**
+   * Returns the cached decision for the given key, or <code>null</code> if no decision is cached.
+   */
+  public CDOPermission get(Object key)
+  {
+    return decisions.get(key);
+  }
+
+  public void put(Object key, CDOPermission permission, int generation)
+  {
+    if (generation != this.generation)
+    {
+      return;
+    }
+
+    if (decisions.size() >= capacity)
+    {
+      decisions.clear();
+    }
+
+    DecisionKey decisionKey = (DecisionKey)key;
+    decisions.put(decisionKey, permission);
+
+    if (generation != this.generation)
+    {
+      // Invalidated while the decision was being added
+      decisions.remove(decisionKey);
+    }
+  }
+
+  /**
+   * Returns <code>true</code> if one of the permissions of this cache is contained in the given set of impacted rules,
+   * <code>false</code> otherwise.
+   */
+  public boolean isAffected(Set<? extends Object> impactedRules)
+  {
+    if (impactedRules != null)
+    {
+      for (Object rule : impactedRules)
+      {
+        if (permissions.contains(rule))
+        {
+          return true;
+        }
+      }
+    }
+
+    return false;
+  }
+
+  public synchronized void invalidate()
+  {
+    ++generation;
+    decisions.clear();
+  }
+
+  @Override
+  public String toString()
+  {
+    return "PermissionDecisionCache[permissions=" + permissions.size() + ", decisions=" + decisions.size() + "]"; //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+  }
+
+  /**
+   * Returns a key that is equal for all users with the given default access and permissions if the decisions about these
+   * permissions do not depend on the user, or that is unique to the given user otherwise.
+   */
+  public static Object createPermissionSetKey(String userID, Access defaultAccess, Permission[] permissions)
+  {
+    List<Object> key = new ArrayList<Object>(permissions.length + 2);
+    key.add(defaultAccess);
+
+    for (int i = 0; i < permissions.length; i++)
+    {
+      Permission permission = permissions[i];
+      if (!isUserIndependent(permission))
+      {
+        key.add(userID);
+        break;
+      }
+    }
+
+    key.addAll(Arrays.asList(permissions));
+    return key;
+  }
+
+  @SuppressWarnings("deprecation")
+  private static boolean isUserIndependent(Permission permission)
+  {
+    if (permission instanceof org.eclipse.emf.cdo.security.ClassPermission || permission instanceof org.eclipse.emf.cdo.security.PackagePermission
+        || permission instanceof org.eclipse.emf.cdo.security.ResourcePermission)
+    {
+      return true;
+    }
+
+    if (permission instanceof FilterPermission)
+    {
+      for (PermissionFilter filter : ((FilterPermission)permission).getFilters())
+      {
+        if (!isUserIndependent(filter, 0))
+        {
+          return false;
+        }
+      }
+
+      return true;
+    }
+
+    return false;
+  }
+
+  private static boolean isUserIndependent(PermissionFilter filter, int level)
+  {
+    if (filter == null || level > 100)
+    {
+      return false;
+    }
+
+    if (filter instanceof ClassFilter || filter instanceof PackageFilter)
+    {
+      return true;
+    }
+
+    if (filter instanceof ResourceFilter)
+    {
+      String path = ((ResourceFilter)filter).getPath();
+      return path == null || path.indexOf(USER_TOKEN) == -1;
+    }
+
+    if (filter instanceof LinkedFilter)
+    {
+      return isUserIndependent(((LinkedFilter)filter).getFilter(), level + 1);
+    }
+
+    if (filter instanceof CombinedFilter)
+    {
+      for (PermissionFilter operand : ((CombinedFilter)filter).getOperands())
+      {
+        if (!isUserIndependent(operand, level + 1))
+        {
+          return false;
+        }
+      }
+
+      return true;
+    }
+
+    // Expression filters and unknown filters may depend on the user
+    return false;
+  }
+
+  /**
+   * @author Eike Stepper
+   */
+  private static final class DecisionKey
+  {
+    private final CDOID id;
+
+    private final int branchID;
+
+    private final int version;
+
+    private final int contextBranchID;
+
+    private final long contextTimeStamp;
+
+    private final int hashCode;
+
+    public DecisionKey(CDORevision revision, CDOBranchPoint securityContext)
+    {
+      id = revision.getID();
+      branchID = revision.getBranch().getID();
+      version = revision.getVersion();
+      contextBranchID = securityContext.getBranch().getID();
+      contextTimeStamp = securityContext.getTimeStamp();
+
+      int result = id.hashCode();
+      result = 31 * result + branchID;
+      result = 31 * result + version;
+      result = 31 * result + contextBranchID;
+      result = 31 * result + (int)(contextTimeStamp ^ contextTimeStamp >>> 32);
+      hashCode = result;
+    }
+
+    @Override
+    public int hashCode()
+    {
+      return hashCode;
+    }
+
+    @Override
+    public boolean equals(Object obj)
+    {
+      if (obj == this)
+      {
+        return true;
+      }
+
+      if (obj instanceof DecisionKey)
+      {
+        DecisionKey that = (DecisionKey)obj;
+        return version == that.version && branchID == that.branchID && contextTimeStamp == that.contextTimeStamp
+            && contextBranchID == that.contextBranchID && id.equals(that.id);
+      }
+
+      return false;
+    }
+  }
+}
@@ -14,6 +14,7 @@
  */
 package org.eclipse.emf.cdo.server.internal.security;
 
+import org.eclipse.emf.cdo.common.CDOCommonRepository;
 import org.eclipse.emf.cdo.common.branch.CDOBranchPoint;
 import org.eclipse.emf.cdo.common.commit.CDOCommitInfo;
 import org.eclipse.emf.cdo.common.id.CDOID;
@@ -108,6 +109,8 @@ public class SecurityManager extends Lifecycle implements InternalSecurityManage
 
   private static final SecurityFactory SF = SecurityFactory.eINSTANCE;
 
+  private static final Object IMPACTED_RULES_KEY = new Object();
+
   private final IListener repositoryListener = new LifecycleEventAdapter()
   {
     @Override
@@ -172,6 +175,8 @@ public class SecurityManager extends Lifecycle implements InternalSecurityManage
 
   private final HashBag<PermissionImpl> permissionBag = new HashBag<PermissionImpl>();
 
+  private final Map<Object, PermissionDecisionCache> decisionCaches = new HashMap<Object, PermissionDecisionCache>();
+
   private final Object commitHandlerLock = new Object();
 
   private CommitHandler[] commitHandlers = {};
@@ -702,39 +707,38 @@ public class SecurityManager extends Lifecycle implements InternalSecurityManage
       defaultAccess = user.getDefaultAccess();
       permissions = userInfo.getPermissions();
 
-      PermissionUtil.setUser(user.getId());
-    }
-
-    try
-    {
-      CDOPermission result = convertPermission(defaultAccess);
-      if (result == CDOPermission.WRITE)
-      {
-        return result;
-      }
-
-      for (int i = 0; i < permissions.length; i++)
+      // Only decisions about loaded revisions are cached, never decisions about revisions that are being committed
+      PermissionDecisionCache decisionCache = userInfo.getDecisionCache();
+      if (decisionCache != null && repository.getType() == CDOCommonRepository.Type.MASTER)
       {
-        Permission permission = permissions[i];
-
-        CDOPermission p = convertPermission(permission.getAccess());
-        if (p.ordinal() <= result.ordinal())
+        Object key = decisionCache.createKey(revision, securityContext);
+        CDOPermission result = decisionCache.get(key);
+        if (result == null)
         {
-          // Avoid expensive calls to Permission.isApplicable() if the permission wouldn't increase
-          continue;
-        }
+          int generation = decisionCache.getGeneration();
+          PermissionUtil.setUser(user.getId());
 
-        if (permission.isApplicable(revision, revisionProvider, securityContext))
-        {
-          result = p;
-          if (result == CDOPermission.WRITE)
+          try
           {
-            return result;
+            result = authorize(revision, revisionProvider, securityContext, defaultAccess, permissions);
           }
+          finally
+          {
+            PermissionUtil.setUser(null);
+          }
+
+          decisionCache.put(key, result, generation);
         }
+
+        return result;
       }
 
-      return result;
+      PermissionUtil.setUser(user.getId());
+    }
+
+    try
+    {
+      return authorize(revision, revisionProvider, securityContext, defaultAccess, permissions);
     }
     finally
     {
@@ -745,6 +749,39 @@ public class SecurityManager extends Lifecycle implements InternalSecurityManage
     }
   }
 
+  private CDOPermission authorize(CDORevision revision, CDORevisionProvider revisionProvider, CDOBranchPoint securityContext, Access defaultAccess,
+      Permission[] permissions)
+  {
+    CDOPermission result = convertPermission(defaultAccess);
+    if (result == CDOPermission.WRITE)
+    {
+      return result;
+    }
+
+    for (int i = 0; i < permissions.length; i++)
+    {
+      Permission permission = permissions[i];
+
+      CDOPermission p = convertPermission(permission.getAccess());
+      if (p.ordinal() <= result.ordinal())
+      {
+        // Avoid expensive calls to Permission.isApplicable() if the permission wouldn't increase
+        continue;
+      }
+
+      if (permission.isApplicable(revision, revisionProvider, securityContext))
+      {
+        result = p;
+        if (result == CDOPermission.WRITE)
+        {
+          return result;
+        }
+      }
+    }
+
+    return result;
+  }
+
   protected UserInfo getUserInfo(ISession session)
   {
     UserInfo userInfo;
@@ -772,6 +809,18 @@ public class SecurityManager extends Lifecycle implements InternalSecurityManage
       userInfos.put(session, userInfo);
 
       Permission[] permissions = userInfo.getPermissions();
+
+      // Users with equal permissions share the cached decisions, unless these depend on the user
+      Object permissionSetKey = PermissionDecisionCache.createPermissionSetKey(userID, user.getDefaultAccess(), permissions);
+      PermissionDecisionCache decisionCache = decisionCaches.get(permissionSetKey);
+      if (decisionCache == null)
+      {
+        decisionCache = new PermissionDecisionCache(permissions);
+        decisionCaches.put(permissionSetKey, decisionCache);
+      }
+
+      userInfo.setDecisionCache(decisionCache);
+
       for (int i = 0; i < permissions.length; i++)
       {
         Permission permission = permissions[i];
@@ -803,6 +852,14 @@ public class SecurityManager extends Lifecycle implements InternalSecurityManage
 
         // Atomic update
         permissionArray = permissionBag.toArray(new PermissionImpl[permissionBag.size()]);
+
+        PermissionDecisionCache decisionCache = userInfo.getDecisionCache();
+        if (decisionCache != null && !isDecisionCacheUsed(decisionCache))
+        {
+          // The permissions of this cache are no longer checked for commit impacts
+          decisionCaches.values().remove(decisionCache);
+          decisionCache.invalidate();
+        }
       }
     }
 
@@ -818,6 +875,40 @@ public class SecurityManager extends Lifecycle implements InternalSecurityManage
       userInfos.clear();
       permissionBag.clear();
       permissionArray = null;
+
+      invalidateDecisionCaches(null);
+      decisionCaches.clear();
+    }
+  }
+
+  private boolean isDecisionCacheUsed(PermissionDecisionCache decisionCache)
+  {
+    for (UserInfo userInfo : userInfos.values())
+    {
+      if (userInfo.getDecisionCache() == decisionCache)
+      {
+        return true;
+      }
+    }
+
+    return false;
+  }
+
+  /**
+   * Invalidates the decision caches that are affected by the given impacted rules, or all decision caches if
+   * <code>impactedRules</code> is <code>null</code>.
+   */
+  protected void invalidateDecisionCaches(Set<? extends Object> impactedRules)
+  {
+    synchronized (userInfos)
+    {
+      for (PermissionDecisionCache decisionCache : decisionCaches.values())
+      {
+        if (impactedRules == null || decisionCache.isAffected(impactedRules))
+        {
+          decisionCache.invalidate();
+        }
+      }
     }
   }
 
@@ -886,6 +977,8 @@ public class SecurityManager extends Lifecycle implements InternalSecurityManage
 
     private final Permission[] permissions;
 
+    private PermissionDecisionCache decisionCache;
+
     public UserInfo(User user)
     {
       this.user = user;
@@ -902,6 +995,16 @@ public class SecurityManager extends Lifecycle implements InternalSecurityManage
     {
       return permissions;
     }
+
+    public synchronized PermissionDecisionCache getDecisionCache()
+    {
+      return decisionCache;
+    }
+
+    public synchronized void setDecisionCache(PermissionDecisionCache decisionCache)
+    {
+      this.decisionCache = decisionCache;
+    }
   }
 
   /**
@@ -1157,6 +1260,7 @@ public class SecurityManager extends Lifecycle implements InternalSecurityManage
         }
 
         ((InternalCommitContext)commitContext).setSecurityImpact(securityImpact, impactedRules);
+        commitContext.setData(IMPACTED_RULES_KEY, impactedRules);
       }
       finally
       {
@@ -1167,9 +1271,16 @@ public class SecurityManager extends Lifecycle implements InternalSecurityManage
 
     public void handleTransactionAfterCommitted(ITransaction transaction, final CommitContext commitContext, OMMonitor monitor)
     {
-      if (commitContext.getSecurityImpact() == CommitNotificationInfo.IMPACT_REALM)
+      byte securityImpact = commitContext.getSecurityImpact();
+      if (securityImpact == CommitNotificationInfo.IMPACT_REALM)
       {
         lastRealmModification = commitContext.getBranchPoint().getTimeStamp();
+        invalidateDecisionCaches(null);
+      }
+      else if (securityImpact == CommitNotificationInfo.IMPACT_PERMISSIONS)
+      {
+        Set<Permission> impactedRules = commitContext.getData(IMPACTED_RULES_KEY);
+        invalidateDecisionCaches(impactedRules);
       }
 
       handleCommitted(commitContext);
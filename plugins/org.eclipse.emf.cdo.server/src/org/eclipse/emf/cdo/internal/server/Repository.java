@@ -175,6 +175,8 @@ public class Repository extends Container<Object> implements InternalRepository,
 
   private boolean serializingCommits;
 
+  private boolean hybridTimeStamps;
+
   private boolean ensuringReferentialIntegrity;
 
   private IDGenerationLocation idGenerationLocation;
@@ -381,6 +383,15 @@ public class Repository extends Container<Object> implements InternalRepository,
     return serializingCommits;
   }
 
+  /**
+   * Returns <code>true</code> if commit timestamps are issued by a hybrid logical clock that can run ahead of the physical
+   * time instead of waiting for the next millisecond, <code>false</code> otherwise.
+   */
+  public boolean isHybridTimeStamps()
+  {
+    return hybridTimeStamps;
+  }
+
   public boolean isEnsuringReferentialIntegrity()
   {
     return ensuringReferentialIntegrity;
@@ -529,6 +540,9 @@ public class Repository extends Container<Object> implements InternalRepository,
 
   public List<RevisionInfo> loadRevisions(List<RevisionInfo> infos, CDOBranchPoint branchPoint, int referenceChunk, int prefetchDepth)
   {
+    IStoreAccessor accessor = StoreThreadLocal.getAccessor();
+    List<RevisionInfo> infosToRead = new ArrayList<RevisionInfo>(infos.size());
+
     for (RevisionInfo info : infos)
     {
       CDOID id = info.getID();
@@ -579,8 +593,25 @@ public class Repository extends Container<Object> implements InternalRepository,
         throw new IllegalStateException("Invalid revision info type: " + type);
       }
 
-      IStoreAccessor accessor = StoreThreadLocal.getAccessor();
-      InternalCDORevision revision = accessor.readRevision(id, branchPoint, referenceChunk, revisionManager);
+      infosToRead.add(info);
+    }
+
+    Map<CDOID, InternalCDORevision> readRevisions = readRevisions(accessor, infosToRead, branchPoint, referenceChunk);
+
+    for (RevisionInfo info : infosToRead)
+    {
+      CDOID id = info.getID();
+
+      InternalCDORevision revision;
+      if (readRevisions != null)
+      {
+        revision = readRevisions.get(id);
+      }
+      else
+      {
+        revision = accessor.readRevision(id, branchPoint, referenceChunk, revisionManager);
+      }
+
       if (revision == null)
       {
         if (isSupportingAudits())
@@ -622,6 +653,28 @@ public class Repository extends Container<Object> implements InternalRepository,
     return null;
   }
 
+  /**
+   * Reads the revisions of the given infos with a single call to the store accessor, if it supports that.
+   *
+   * @return the read revisions, or <code>null</code> if the revisions must be read one by one.
+   */
+  private Map<CDOID, InternalCDORevision> readRevisions(IStoreAccessor accessor, List<RevisionInfo> infos, CDOBranchPoint branchPoint, int referenceChunk)
+  {
+    int size = infos.size();
+    if (size > 1 && accessor instanceof IStoreAccessor.BatchRead)
+    {
+      List<CDOID> ids = new ArrayList<CDOID>(size);
+      for (RevisionInfo info : infos)
+      {
+        ids.add(info.getID());
+      }
+
+      return ((IStoreAccessor.BatchRead)accessor).readRevisions(ids, branchPoint, referenceChunk, revisionManager);
+    }
+
+    return null;
+  }
+
   private InternalCDORevision normalizeRevision(InternalCDORevision revision, RevisionInfo info, int referenceChunk)
   {
     if (info instanceof RevisionInfo.Available)
@@ -1371,7 +1424,7 @@ public class Repository extends Container<Object> implements InternalRepository,
 
   public long getTimeStamp()
   {
-    return timeProvider.getTimeStamp();
+    return timeStampAuthority.getTimeStamp(timeProvider.getTimeStamp());
   }
 
   public Set<Handler> getHandlers()
@@ -2083,6 +2136,15 @@ public class Repository extends Container<Object> implements InternalRepository,
       serializingCommits = Boolean.valueOf(valueCommits);
     }
 
+    // HYBRID_TIME_STAMPS
+    String valueHybridTimeStamps = properties.get(Props.HYBRID_TIME_STAMPS);
+    if (valueHybridTimeStamps != null)
+    {
+      hybridTimeStamps = Boolean.valueOf(valueHybridTimeStamps);
+    }
+
+    timeStampAuthority.setHybrid(hybridTimeStamps);
+
     // ENSURE_REFERENTIAL_INTEGRITY
     String valueIntegrity = properties.get(Props.ENSURE_REFERENTIAL_INTEGRITY);
     if (valueIntegrity != null)
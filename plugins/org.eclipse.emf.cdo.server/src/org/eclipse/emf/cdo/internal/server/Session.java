@@ -65,6 +65,7 @@ import org.eclipse.emf.ecore.EReference;
 import org.eclipse.emf.ecore.EStructuralFeature;
 
 import java.text.MessageFormat;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -415,10 +416,13 @@ public class Session extends Container<IView> implements InternalSession
           {
             InternalCDORevision containedRevision = revisionManager.getRevision(id, branchPoint, referenceChunk, CDORevision.DEPTH_NONE, true);
             revisions.add(id);
-            additionalRevisions.add(containedRevision);
+            if (containedRevision != null)
+            {
+              additionalRevisions.add(containedRevision);
 
-            // Recurse
-            collectContainedRevisions(containedRevision, branchPoint, referenceChunk, revisions, additionalRevisions);
+              // Recurse
+              collectContainedRevisions(containedRevision, branchPoint, referenceChunk, revisions, additionalRevisions);
+            }
           }
         }
       }
@@ -490,15 +494,24 @@ public class Session extends Container<IView> implements InternalSession
   }
 
   public void sendCommitNotification(CommitNotificationInfo notificationInfo) throws Exception
+  {
+    CommitNotificationInfo sessionNotificationInfo = prepareCommitNotification(notificationInfo, null);
+    if (sessionNotificationInfo != null)
+    {
+      sendPreparedCommitNotification(sessionNotificationInfo);
+    }
+  }
+
+  public CommitNotificationInfo prepareCommitNotification(CommitNotificationInfo notificationInfo, Map<Object, CommitNotificationInfo> sharedInfos)
   {
     if (protocol == null)
     {
-      return;
+      return null;
     }
 
     if (!isPassiveUpdateEnabled())
     {
-      return;
+      return null;
     }
 
     byte securityImpact = notificationInfo.getSecurityImpact();
@@ -513,6 +526,31 @@ public class Session extends Container<IView> implements InternalSession
       }
     }
 
+    CDOLockChangeInfo lockChangeInfo = notificationInfo.getLockChangeInfo();
+    if (lockChangeInfo != null)
+    {
+      Object lockNotificationRequired = isLockNotificationRequired(lockChangeInfo);
+      if (lockNotificationRequired == null)
+      {
+        lockChangeInfo = null;
+      }
+    }
+
+    Object sharingKey = null;
+    if (sharedInfos != null)
+    {
+      sharingKey = getSharingKey(notificationInfo, lockChangeInfo != null);
+      if (sharingKey != null)
+      {
+        CommitNotificationInfo sharedInfo = sharedInfos.get(sharingKey);
+        if (sharedInfo != null)
+        {
+          sharedInfo.retain();
+          return sharedInfo;
+        }
+      }
+    }
+
     CommitInfo sessionCommitInfo = new CommitInfo(notificationInfo);
 
     CommitNotificationInfo sessionNotificationInfo = new CommitNotificationInfo();
@@ -522,24 +560,59 @@ public class Session extends Container<IView> implements InternalSession
     sessionNotificationInfo.setClearResourcePathCache(notificationInfo.isClearResourcePathCache());
     sessionNotificationInfo.setNewPermissions(sessionCommitInfo.getNewPermissions());
     sessionNotificationInfo.setSecurityImpact(securityImpact);
+    sessionNotificationInfo.setLockChangeInfo(lockChangeInfo);
+    sessionNotificationInfo.retain();
 
-    CDOLockChangeInfo lockChangeInfo = notificationInfo.getLockChangeInfo();
-    if (lockChangeInfo != null)
+    if (sharingKey != null)
     {
-      Object lockNotificationRequired = isLockNotificationRequired(lockChangeInfo);
-      if (lockNotificationRequired != null)
-      {
-        sessionNotificationInfo.setLockChangeInfo(lockChangeInfo);
-      }
+      sharedInfos.put(sharingKey, sessionNotificationInfo);
+    }
+
+    return sessionNotificationInfo;
+  }
+
+  public void sendPreparedCommitNotification(CommitNotificationInfo sessionNotificationInfo) throws Exception
+  {
+    if (protocol == null)
+    {
+      sessionNotificationInfo.release();
+      return;
     }
 
     protocol.sendCommitNotification(sessionNotificationInfo);
 
     synchronized (lastUpdateTimeLock)
     {
-      CDOCommitInfo originalCommitInfo = notificationInfo.getCommitInfo();
-      lastUpdateTime = originalCommitInfo.getTimeStamp();
+      CDOCommitInfo commitInfo = sessionNotificationInfo.getCommitInfo();
+      lastUpdateTime = commitInfo.getTimeStamp();
+    }
+  }
+
+  /**
+   * Returns a key that is equal for all sessions that receive identical notifications for the given commit, or
+   * <code>null</code> if the notification of this session depends on its user or on the state of its views.
+   */
+  private Object getSharingKey(CommitNotificationInfo notificationInfo, boolean withLockChangeInfo)
+  {
+    if (manager.getPermissionManager() != null)
+    {
+      return null;
     }
+
+    PassiveUpdateMode passiveUpdateMode = getPassiveUpdateMode();
+    if (passiveUpdateMode == PassiveUpdateMode.INVALIDATIONS)
+    {
+      InternalView[] views = getViews();
+      for (CDORevisionKey key : notificationInfo.getCommitInfo().getChangedObjects())
+      {
+        if (isDeltaNeeded(key.getID(), views))
+        {
+          return null;
+        }
+      }
+    }
+
+    return Arrays.<Object> asList(passiveUpdateMode, withLockChangeInfo);
   }
 
   public void sendLockNotification(CDOLockChangeInfo lockChangeInfo) throws Exception
@@ -25,6 +25,7 @@ import org.eclipse.emf.cdo.common.protocol.CDOProtocol.CommitNotificationInfo;
 import org.eclipse.emf.cdo.common.protocol.CDOProtocolConstants;
 import org.eclipse.emf.cdo.internal.server.bundle.OM;
 import org.eclipse.emf.cdo.server.IPermissionManager;
+import org.eclipse.emf.cdo.server.IRepository;
 import org.eclipse.emf.cdo.server.ISession;
 import org.eclipse.emf.cdo.session.remote.CDORemoteSessionMessage;
 import org.eclipse.emf.cdo.spi.common.branch.InternalCDOBranch;
@@ -35,6 +36,9 @@ import org.eclipse.emf.cdo.spi.server.InternalSession;
 import org.eclipse.emf.cdo.spi.server.InternalSessionManager;
 
 import org.eclipse.net4j.util.ObjectUtil;
+import org.eclipse.net4j.util.concurrent.ConcurrencyUtil;
+import org.eclipse.net4j.util.concurrent.ExecutorWorkSerializer;
+import org.eclipse.net4j.util.concurrent.ThreadPool;
 import org.eclipse.net4j.util.container.Container;
 import org.eclipse.net4j.util.event.IListener;
 import org.eclipse.net4j.util.io.ExtendedDataInputStream;
@@ -56,6 +60,8 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Semaphore;
 import java.util.concurrent.atomic.AtomicInteger;
 
 /**
@@ -77,16 +83,30 @@ public class SessionManager extends Container<ISession> implements InternalSessi
 
   private final AtomicInteger lastSessionID = new AtomicInteger();
 
-  private final Map<InternalSession, List<CommitNotificationInfo>> commitNotificationInfoQueues = new HashMap<InternalSession, List<CommitNotificationInfo>>();
+  /**
+   * The notifications that are kept back per session, in the order in which they must be sent. The elements are
+   * {@link CommitNotificationInfo commit notification infos} and {@link CDOLockChangeInfo lock change infos}.
+   */
+  private final Map<InternalSession, List<Object>> notificationQueues = new HashMap<InternalSession, List<Object>>();
+
+  private int notificationQueueSize;
+
+  private ExecutorService notificationExecutor;
+
+  private boolean shutdownNotificationExecutor;
+
+  private ExecutorWorkSerializer notificationFanOut;
+
+  private final Map<InternalSession, SessionNotifier> sessionNotifiers = new HashMap<InternalSession, SessionNotifier>();
 
   private final IListener sessionListener = new LifecycleEventAdapter()
   {
     @Override
     protected void onDeactivated(ILifecycle lifecycle)
     {
-      synchronized (commitNotificationInfoQueues)
+      synchronized (notificationQueues)
       {
-        commitNotificationInfoQueues.remove(lifecycle);
+        notificationQueues.remove(lifecycle);
       }
     }
   };
@@ -251,6 +271,17 @@ public class SessionManager extends Container<ISession> implements InternalSessi
       removeSession = sessions.remove(sessionID);
     }
 
+    SessionNotifier sessionNotifier;
+    synchronized (sessionNotifiers)
+    {
+      sessionNotifier = sessionNotifiers.remove(session);
+    }
+
+    if (sessionNotifier != null)
+    {
+      sessionNotifier.dispose();
+    }
+
     if (removeSession != null)
     {
       fireElementRemovedEvent(session);
@@ -260,7 +291,7 @@ public class SessionManager extends Container<ISession> implements InternalSessi
 
   public void openedOnClientSide(InternalSession session)
   {
-    processQueuedCommitNotifications(session);
+    processQueuedNotifications(session);
   }
 
   public void sendRepositoryTypeNotification(CDOCommonRepository.Type oldType, CDOCommonRepository.Type newType)
@@ -335,8 +366,30 @@ public class SessionManager extends Container<ISession> implements InternalSessi
     throw new UnsupportedOperationException();
   }
 
-  public void sendCommitNotification(CommitNotificationInfo info)
+  public void sendCommitNotification(final CommitNotificationInfo info)
   {
+    if (notificationFanOut != null)
+    {
+      notificationFanOut.addWork(new Runnable()
+      {
+        public void run()
+        {
+          fanOutCommitNotification(info);
+        }
+      });
+    }
+    else
+    {
+      fanOutCommitNotification(info);
+    }
+  }
+
+  private void fanOutCommitNotification(CommitNotificationInfo info)
+  {
+    List<InternalSession> preparedSessions = new ArrayList<InternalSession>();
+    List<CommitNotificationInfo> preparedInfos = new ArrayList<CommitNotificationInfo>();
+    Map<Object, CommitNotificationInfo> sharedInfos = new HashMap<Object, CommitNotificationInfo>();
+
     CDOCommonSession sender = info.getSender();
     for (InternalSession session : getSessions())
     {
@@ -344,38 +397,102 @@ public class SessionManager extends Container<ISession> implements InternalSessi
       {
         if (session.isOpenOnClientSide())
         {
-          processQueuedCommitNotifications(session);
-          doSendCommitNotification(session, info);
+          processQueuedNotifications(session);
+          if (hasQueuedNotifications(session))
+          {
+            // The session is still catching up, keep its notifications in order
+            queueNotification(session, info);
+            continue;
+          }
+
+          try
+          {
+            CommitNotificationInfo sessionInfo = session.prepareCommitNotification(info, sharedInfos);
+            if (sessionInfo != null)
+            {
+              preparedSessions.add(session);
+              preparedInfos.add(sessionInfo);
+            }
+          }
+          catch (Exception ex)
+          {
+            handleNotificationProblem(session, ex);
+          }
         }
         else
         {
-          queueCommitNotification(session, info);
+          queueNotification(session, info);
         }
       }
     }
-  }
 
-  private void doSendCommitNotification(InternalSession session, CommitNotificationInfo info)
-  {
-    try
+    // Send only after all sessions have been prepared, so that shared notifications are written only once
+    for (int i = 0; i < preparedSessions.size(); i++)
     {
-      session.sendCommitNotification(info);
+      final InternalSession session = preparedSessions.get(i);
+      final CommitNotificationInfo sessionInfo = preparedInfos.get(i);
+
+      boolean added = notifySession(session, new Runnable()
+      {
+        public void run()
+        {
+          try
+          {
+            session.sendPreparedCommitNotification(sessionInfo);
+          }
+          catch (Exception ex)
+          {
+            handleNotificationProblem(session, ex);
+          }
+        }
+      });
+
+      if (!added)
+      {
+        // The queue of the session is full, send the notification when the session has caught up
+        sessionInfo.release();
+        queueNotification(session, info);
+
+        // The notifier may have drained its queue before the notification was kept back
+        resumeQueuedNotifications(session);
+      }
     }
-    catch (Exception ex)
+  }
+
+  private boolean doSendNotification(final InternalSession session, final Object info)
+  {
+    return notifySession(session, new Runnable()
     {
-      handleNotificationProblem(session, ex);
-    }
+      public void run()
+      {
+        try
+        {
+          if (info instanceof CDOLockChangeInfo)
+          {
+            session.sendLockNotification((CDOLockChangeInfo)info);
+          }
+          else
+          {
+            session.sendCommitNotification((CommitNotificationInfo)info);
+          }
+        }
+        catch (Exception ex)
+        {
+          handleNotificationProblem(session, ex);
+        }
+      }
+    });
   }
 
-  private void queueCommitNotification(InternalSession session, CommitNotificationInfo info)
+  private void queueNotification(InternalSession session, Object info)
   {
-    synchronized (commitNotificationInfoQueues)
+    synchronized (notificationQueues)
     {
-      List<CommitNotificationInfo> queue = commitNotificationInfoQueues.get(session);
+      List<Object> queue = notificationQueues.get(session);
       if (queue == null)
       {
-        queue = new ArrayList<CommitNotificationInfo>();
-        commitNotificationInfoQueues.put(session, queue);
+        queue = new ArrayList<Object>();
+        notificationQueues.put(session, queue);
 
         session.addListener(sessionListener);
       }
@@ -384,26 +501,111 @@ public class SessionManager extends Container<ISession> implements InternalSessi
     }
   }
 
-  private void processQueuedCommitNotifications(InternalSession session)
+  private void requeueNotifications(InternalSession session, List<Object> infos)
+  {
+    synchronized (notificationQueues)
+    {
+      List<Object> queue = new ArrayList<Object>(infos);
+      List<Object> newerInfos = notificationQueues.put(session, queue);
+      if (newerInfos != null)
+      {
+        queue.addAll(newerInfos);
+      }
+      else
+      {
+        session.addListener(sessionListener);
+      }
+    }
+  }
+
+  private boolean hasQueuedNotifications(InternalSession session)
+  {
+    synchronized (notificationQueues)
+    {
+      return notificationQueues.containsKey(session);
+    }
+  }
+
+  private void processQueuedNotifications(InternalSession session)
   {
-    List<CommitNotificationInfo> queue;
-    synchronized (commitNotificationInfoQueues)
+    List<Object> queue;
+    synchronized (notificationQueues)
     {
-      queue = commitNotificationInfoQueues.remove(session);
+      queue = notificationQueues.remove(session);
     }
 
     if (queue != null && !session.isClosed())
     {
       session.removeListener(sessionListener);
 
-      for (CommitNotificationInfo queuedInfo : queue)
+      for (int i = 0; i < queue.size(); i++)
       {
-        doSendCommitNotification(session, queuedInfo);
+        if (!doSendNotification(session, queue.get(i)))
+        {
+          // The queue of the session is full again
+          requeueNotifications(session, queue.subList(i, queue.size()));
+          resumeQueuedNotifications(session);
+          break;
+        }
       }
     }
   }
 
-  public void sendLockNotification(InternalSession sender, CDOLockChangeInfo lockChangeInfo)
+  /**
+   * Lets the fan-out send the notifications that have been kept back for the given session because its
+   * {@link SessionNotifier notifier} was full.
+   */
+  private void resumeQueuedNotifications(final InternalSession session)
+  {
+    ExecutorWorkSerializer fanOut = notificationFanOut;
+    if (fanOut == null || !hasQueuedNotifications(session))
+    {
+      return;
+    }
+
+    SessionNotifier sessionNotifier;
+    synchronized (sessionNotifiers)
+    {
+      sessionNotifier = sessionNotifiers.get(session);
+    }
+
+    if (sessionNotifier != null && sessionNotifier.isFull())
+    {
+      // The notifier resumes when its next notification has been sent
+      return;
+    }
+
+    fanOut.addWork(new Runnable()
+    {
+      public void run()
+      {
+        if (session.isOpenOnClientSide())
+        {
+          processQueuedNotifications(session);
+        }
+      }
+    });
+  }
+
+  public void sendLockNotification(final InternalSession sender, final CDOLockChangeInfo lockChangeInfo)
+  {
+    if (notificationFanOut != null)
+    {
+      notificationFanOut.addWork(new Runnable()
+      {
+        public void run()
+        {
+          fanOutLockNotification(sender, lockChangeInfo);
+        }
+      });
+    }
+    else
+    {
+      fanOutLockNotification(sender, lockChangeInfo);
+    }
+  }
+
+  private void fanOutLockNotification(InternalSession sender, CDOLockChangeInfo lockChangeInfo)
   {
     for (InternalSession session : getSessions())
     {
@@ -412,17 +614,61 @@ public class SessionManager extends Container<ISession> implements InternalSessi
         continue;
       }
 
-      try
+      if (session.isOpenOnClientSide())
       {
-        session.sendLockNotification(lockChangeInfo);
+        processQueuedNotifications(session);
+        if (hasQueuedNotifications(session))
+        {
+          // The session is still catching up, keep its notifications in order
+          queueNotification(session, lockChangeInfo);
+        }
+        else if (!doSendNotification(session, lockChangeInfo))
+        {
+          // The queue of the session is full, send the notification when the session has caught up
+          queueNotification(session, lockChangeInfo);
+          resumeQueuedNotifications(session);
+        }
       }
-      catch (Exception ex)
+      else
       {
-        handleNotificationProblem(session, ex);
+        queueNotification(session, lockChangeInfo);
       }
     }
   }
 
+  /**
+   * Runs the given notification in the calling thread or, if the {@link IRepository.Props#NOTIFICATION_QUEUE_SIZE
+   * notification queue size} is positive, in the queue of the given session. Returns <code>false</code> if the
+   * notification has not been added because the queue of the session is full.
+   */
+  private boolean notifySession(InternalSession session, Runnable notification)
+  {
+    if (notificationQueueSize <= 0)
+    {
+      notification.run();
+      return true;
+    }
+
+    SessionNotifier sessionNotifier;
+    synchronized (sessionNotifiers)
+    {
+      if (session.isClosed())
+      {
+        return true;
+      }
+
+      sessionNotifier = sessionNotifiers.get(session);
+      if (sessionNotifier == null)
+      {
+        sessionNotifier = new SessionNotifier(session);
+        sessionNotifier.activate();
+        sessionNotifiers.put(session, sessionNotifier);
+      }
+    }
+
+    return sessionNotifier.addNotification(notification);
+  }
+
   /**
    * @since 2.0
    */
@@ -620,6 +866,7 @@ public class SessionManager extends Container<ISession> implements InternalSessi
   {
     super.doActivate();
     initAuthentication();
+    initNotifications();
   }
 
   protected void initAuthentication()
@@ -636,17 +883,60 @@ public class SessionManager extends Container<ISession> implements InternalSessi
     }
   }
 
+  protected void initNotifications()
+  {
+    String value = repository.getProperties().get(IRepository.Props.NOTIFICATION_QUEUE_SIZE);
+    if (value != null)
+    {
+      notificationQueueSize = Integer.parseInt(value);
+    }
+
+    if (notificationQueueSize > 0)
+    {
+      notificationExecutor = ConcurrencyUtil.getExecutorService(repository);
+      if (notificationExecutor == null)
+      {
+        shutdownNotificationExecutor = true;
+        notificationExecutor = ThreadPool.create();
+      }
+
+      notificationFanOut = new ExecutorWorkSerializer(notificationExecutor)
+      {
+        @Override
+        protected void handleException(Runnable runnable, Throwable ex)
+        {
+          OM.LOG.error(ex);
+        }
+      };
+
+      notificationFanOut.activate();
+    }
+  }
+
   @Override
   protected void doDeactivate() throws Exception
   {
     LifecycleUtil.deactivate(authenticator);
     LifecycleUtil.deactivate(authenticationServer);
 
+    if (notificationFanOut != null)
+    {
+      notificationFanOut.dispose();
+      notificationFanOut = null;
+    }
+
     for (InternalSession session : getSessions())
     {
       LifecycleUtil.deactivate(session);
     }
 
+    if (shutdownNotificationExecutor)
+    {
+      notificationExecutor.shutdown();
+      shutdownNotificationExecutor = false;
+    }
+
+    notificationExecutor = null;
     super.doDeactivate();
   }
 
@@ -656,4 +946,77 @@ public class SessionManager extends Container<ISession> implements InternalSessi
     // Existing clients may expect this deprecated exception type
     return new org.eclipse.emf.cdo.common.util.NotAuthenticatedException();
   }
+
+  /**
+   * Sends the notifications of one session in the order in which they've been added. At most
+   * {@link IRepository.Props#NOTIFICATION_QUEUE_SIZE notification queue size} notifications can be pending, so that
+   * a slow session never holds back the notifications of the other sessions.
+   *
+   * @author Eike Stepper
+   */
+  private final class SessionNotifier extends ExecutorWorkSerializer
+  {
+    private final InternalSession session;
+
+    private final Semaphore capacity = new Semaphore(notificationQueueSize);
+
+    public SessionNotifier(InternalSession session)
+    {
+      super(notificationExecutor);
+      this.session = session;
+    }
+
+    public boolean isFull()
+    {
+      return capacity.availablePermits() == 0;
+    }
+
+    /**
+     * Adds the given notification to the queue of the session without waiting, or returns <code>false</code> if the
+     * queue is full.
+     */
+    public boolean addNotification(final Runnable notification)
+    {
+      if (!capacity.tryAcquire())
+      {
+        return false;
+      }
+
+      boolean added = addWork(new Runnable()
+      {
+        public void run()
+        {
+          try
+          {
+            notification.run();
+          }
+          finally
+          {
+            capacity.release();
+            resumeQueuedNotifications(session);
+          }
+        }
+      });
+
+      if (!added)
+      {
+        // The session has been closed
+        capacity.release();
+      }
+
+      return true;
+    }
+
+    @Override
+    protected void handleException(Runnable runnable, Throwable ex)
+    {
+      handleNotificationProblem(session, ex);
+    }
+
+    @Override
+    public String toString()
+    {
+      return "SessionNotifier[" + session + "]"; //$NON-NLS-1$ //$NON-NLS-2$
+    }
+  }
 }
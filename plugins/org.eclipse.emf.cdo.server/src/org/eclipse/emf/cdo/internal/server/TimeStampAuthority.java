@@ -40,6 +40,25 @@ class TimeStampAuthority
   @ExcludeFromDump
   private transient long lastIssuedTimeStamp = CDOBranchPoint.UNSPECIFIED_DATE;
 
+  /**
+   * Holds the highest timestamp that has been issued as a commit timestamp or handed out as the base of a new branch.
+   * Only used in {@link #isHybrid() hybrid} mode, where it is the logical part of the repository clock.
+   * <p>
+   * Only raised through {@link #raiseLogicalTimeStamp(long)}, which synchronizes on <code>logicalTimeStampLock</code>,
+   * because it is written both while synchronized on <code>TimeStampAuthority.this</code> and while synchronized on
+   * <code>lastFinishedTimeStampLock</code>. Read without synchronization.
+   */
+  @ExcludeFromDump
+  private transient volatile long logicalTimeStamp = CDOBranchPoint.UNSPECIFIED_DATE;
+
+  private LogicalTimeStampLock logicalTimeStampLock = new LogicalTimeStampLock();
+
+  /**
+   * If <code>true</code> the repository clock is a hybrid logical clock, i.e., the maximum of the physical
+   * time and the logical time, so that new timestamps can be issued without waiting for the physical time to advance.
+   */
+  private boolean hybrid;
+
   /**
    * Holds the <i>begin</i> timestamp that was last reported finished by a call to {@link #endCommit(long)}.
    * <p>
@@ -72,6 +91,34 @@ class TimeStampAuthority
     this.repository = repository;
   }
 
+  boolean isHybrid()
+  {
+    return hybrid;
+  }
+
+  void setHybrid(boolean hybrid)
+  {
+    this.hybrid = hybrid;
+  }
+
+  /**
+   * Returns the current time of the repository clock, given the current physical time.
+   * In {@link #isHybrid() hybrid} mode the result never falls behind a timestamp that has already been issued.
+   */
+  long getTimeStamp(long physicalTimeStamp)
+  {
+    if (hybrid)
+    {
+      long logical = logicalTimeStamp;
+      if (logical > physicalTimeStamp)
+      {
+        return logical;
+      }
+    }
+
+    return physicalTimeStamp;
+  }
+
   /**
    * The purpose of this method is to make sure that no commit can occur at the same time as
    * the base of a new branch. Otherwise that commit could change revisions of that branch base.
@@ -79,6 +126,14 @@ class TimeStampAuthority
    */
   synchronized long getMaxBaseTimeForNewBranch()
   {
+    if (hybrid)
+    {
+      // Reserve the current time, so that the next commit is issued a later timestamp without waiting.
+      long now = getTimeStamp(getPhysicalTimeStamp());
+      raiseLogicalTimeStamp(now);
+      return now;
+    }
+
     long now = repository.getTimeStamp();
     while (repository.getTimeStamp() == now)
     {
@@ -104,25 +159,33 @@ class TimeStampAuthority
 
     try
     {
-      long now = repository.getTimeStamp();
-      if (lastIssuedTimeStamp != CDOBranchPoint.UNSPECIFIED_DATE)
-      {
-        while (lastIssuedTimeStamp == now)
-        {
-          ConcurrencyUtil.sleep(1);
-          now = repository.getTimeStamp();
-          monitor.checkCanceled();
-        }
-      }
-
+      long now;
       if (timeStampOverride != CDOBranchPoint.UNSPECIFIED_DATE)
       {
         now = timeStampOverride;
       }
+      else if (hybrid)
+      {
+        now = getNextHybridTimeStamp();
+      }
+      else
+      {
+        now = repository.getTimeStamp();
+        if (lastIssuedTimeStamp != CDOBranchPoint.UNSPECIFIED_DATE)
+        {
+          while (lastIssuedTimeStamp == now)
+          {
+            ConcurrencyUtil.sleep(1);
+            now = repository.getTimeStamp();
+            monitor.checkCanceled();
+          }
+        }
+      }
 
       long previousTimeStamp = lastIssuedTimeStamp;
       lastIssuedTimeStamp = now;
 
+      raiseLogicalTimeStamp(now);
       runningTransactions.add(now);
       return new long[] { now, previousTimeStamp };
     }
@@ -132,6 +195,32 @@ class TimeStampAuthority
     }
   }
 
+  /**
+   * Returns the maximum of the physical time and the successor of the logical time.
+   * Must be called while synchronized on <code>TimeStampAuthority.this</code>.
+   */
+  private long getNextHybridTimeStamp()
+  {
+    long physical = getPhysicalTimeStamp();
+    long logical = logicalTimeStamp;
+    if (lastIssuedTimeStamp > logical)
+    {
+      logical = lastIssuedTimeStamp;
+    }
+
+    if (logical == CDOBranchPoint.UNSPECIFIED_DATE || physical > logical)
+    {
+      return physical;
+    }
+
+    return logical + 1;
+  }
+
+  private long getPhysicalTimeStamp()
+  {
+    return repository.getTimeProvider().getTimeStamp();
+  }
+
   synchronized void endCommit(long timeStamp)
   {
     if (!runningTransactions.remove(timeStamp))
@@ -219,12 +308,27 @@ class TimeStampAuthority
       if (lastCommitTimeStamp > lastFinishedTimeStamp)
       {
         lastIssuedTimeStamp = lastCommitTimeStamp;
+        raiseLogicalTimeStamp(lastCommitTimeStamp);
         setLastFinishedTimeStampUnsynced(lastCommitTimeStamp);
         lastFinishedTimeStampLock.notifyAll();
       }
     }
   }
 
+  /**
+   * Sets the {@link #logicalTimeStamp} to the given timestamp if that is later, so that it never goes back.
+   */
+  private void raiseLogicalTimeStamp(long timeStamp)
+  {
+    synchronized (logicalTimeStampLock)
+    {
+      if (timeStamp > logicalTimeStamp)
+      {
+        logicalTimeStamp = timeStamp;
+      }
+    }
+  }
+
   private void setLastFinishedTimeStampUnsynced(long lastCommitTimeStamp)
   {
     lastFinishedTimeStamp = lastCommitTimeStamp;
@@ -256,6 +360,15 @@ class TimeStampAuthority
   {
   }
 
+  /**
+   * A separate class for better monitor debugging.
+   *
+   * @author Eike Stepper
+   */
+  private static final class LogicalTimeStampLock
+  {
+  }
+
   /**
    * A separate class for better monitor debugging.
    *
@@ -53,6 +53,7 @@ import org.eclipse.emf.cdo.server.IStoreAccessor;
 import org.eclipse.emf.cdo.server.IStoreAccessor.QueryXRefsContext;
 import org.eclipse.emf.cdo.server.IView;
 import org.eclipse.emf.cdo.server.StoreThreadLocal;
+import org.eclipse.emf.cdo.spi.common.branch.CDOBranchUtil;
 import org.eclipse.emf.cdo.spi.common.commit.CDOCommitInfoUtil;
 import org.eclipse.emf.cdo.spi.common.commit.InternalCDOCommitInfoManager;
 import org.eclipse.emf.cdo.spi.common.model.InternalCDOPackageInfo;
@@ -68,6 +69,7 @@ import org.eclipse.emf.cdo.spi.common.revision.InternalCDORevisionDelta;
 import org.eclipse.emf.cdo.spi.common.revision.InternalCDORevisionManager;
 import org.eclipse.emf.cdo.spi.common.revision.StubCDORevision;
 import org.eclipse.emf.cdo.spi.server.InternalCommitContext;
+import org.eclipse.emf.cdo.spi.server.InternalCommitManager;
 import org.eclipse.emf.cdo.spi.server.InternalLockManager;
 import org.eclipse.emf.cdo.spi.server.InternalRepository;
 import org.eclipse.emf.cdo.spi.server.InternalTransaction;
@@ -76,12 +78,15 @@ import org.eclipse.emf.cdo.spi.server.InternalUnitManager;
 
 import org.eclipse.net4j.util.CheckUtil;
 import org.eclipse.net4j.util.StringUtil;
+import org.eclipse.net4j.util.WrappedException;
 import org.eclipse.net4j.util.collection.IndexedList;
+import org.eclipse.net4j.util.concurrent.ConcurrencyUtil;
 import org.eclipse.net4j.util.concurrent.IRWLockManager.LockType;
 import org.eclipse.net4j.util.concurrent.RWOLockManager;
 import org.eclipse.net4j.util.concurrent.RWOLockManager.LockState;
 import org.eclipse.net4j.util.io.ExtendedDataInputStream;
 import org.eclipse.net4j.util.lifecycle.LifecycleUtil;
+import org.eclipse.net4j.util.om.OMPlatform;
 import org.eclipse.net4j.util.om.monitor.Monitor;
 import org.eclipse.net4j.util.om.monitor.OMMonitor;
 import org.eclipse.net4j.util.om.trace.ContextTracer;
@@ -100,6 +105,10 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * @author Simon McDuff
@@ -111,6 +120,15 @@ public class TransactionCommitContext implements InternalCommitContext
 
   private static final InternalCDORevision DETACHED = new StubCDORevision(null);
 
+  /**
+   * The minimum number of dirty objects in a commit for which the deltas are applied in parallel. Zero disables the
+   * parallel application of deltas.
+   */
+  private static final int PARALLEL_DELTAS_THRESHOLD = Integer
+      .parseInt(OMPlatform.INSTANCE.getProperty("org.eclipse.emf.cdo.server.PARALLEL_DELTAS_THRESHOLD", "1000")); //$NON-NLS-1$ //$NON-NLS-2$
+
+  private static final int PARALLEL_DELTAS_CHUNK = 256;
+
   private final InternalTransaction transaction;
 
   private final CDOBranch branch;
@@ -167,6 +185,11 @@ public class TransactionCommitContext implements InternalCommitContext
 
   private Map<CDOID, InternalCDORevision> oldRevisions = CDOIDUtil.createMap();
 
+  /**
+   * Set while the deltas are applied in parallel, in which case all origin revisions are already in {@link #oldRevisions}.
+   */
+  private boolean originRevisionsResolved;
+
   private Map<CDOID, InternalCDORevision> newRevisions;
 
   private Set<Object> lockedObjects = new HashSet<Object>();
@@ -1025,7 +1048,7 @@ public class TransactionCommitContext implements InternalCommitContext
       CDOFeatureDeltaVisitor deltaTargetLocker = null;
       if (ensuringReferentialIntegrity && !serializingCommits)
       {
-        final Set<CDOID> newIDs = new HashSet<CDOID>();
+        final Set<CDOID> newIDs = CDOIDUtil.createSet();
         for (int i = 0; i < newObjects.length; i++)
         {
           InternalCDORevision newRevision = newObjects[i];
@@ -1171,6 +1194,14 @@ public class TransactionCommitContext implements InternalCommitContext
     try
     {
       monitor.begin(dirtyObjectDeltas.length);
+      loadOriginRevisions();
+
+      if (PARALLEL_DELTAS_THRESHOLD > 0 && dirtyObjectDeltas.length >= PARALLEL_DELTAS_THRESHOLD)
+      {
+        computeDirtyObjectsInParallel(monitor);
+        return;
+      }
+
       for (int i = 0; i < dirtyObjectDeltas.length; i++)
       {
         dirtyObjects[i] = computeDirtyObject(dirtyObjectDeltas[i]);
@@ -1193,9 +1224,168 @@ public class TransactionCommitContext implements InternalCommitContext
     }
   }
 
+  /**
+   * Looks up and checks all origin revisions in this thread, which is the only one that may access the store, and then
+   * calls {@link #computeDirtyObject(InternalCDORevisionDelta)} in parallel, which finds the origin revisions resolved.
+   * The calling thread takes part in the delta application, so that the commit completes even if the executor has no
+   * idle threads.
+   */
+  private void computeDirtyObjectsInParallel(OMMonitor monitor)
+  {
+    final int count = dirtyObjectDeltas.length;
+    for (int i = 0; i < count; i++)
+    {
+      getOriginRevision(dirtyObjectDeltas[i]);
+    }
+
+    final int chunks = (count + PARALLEL_DELTAS_CHUNK - 1) / PARALLEL_DELTAS_CHUNK;
+    final AtomicInteger nextChunk = new AtomicInteger();
+    final CountDownLatch finishedChunks = new CountDownLatch(chunks);
+    final Throwable[] problems = new Throwable[count];
+
+    Runnable worker = new Runnable()
+    {
+      public void run()
+      {
+        int chunk;
+        while ((chunk = nextChunk.getAndIncrement()) < chunks)
+        {
+          int end = Math.min(count, (chunk + 1) * PARALLEL_DELTAS_CHUNK);
+          for (int i = chunk * PARALLEL_DELTAS_CHUNK; i < end; i++)
+          {
+            try
+            {
+              InternalCDORevision dirtyObject = computeDirtyObject(dirtyObjectDeltas[i]);
+              if (dirtyObject == null)
+              {
+                throw new IllegalStateException("Can not retrieve origin revision for " + dirtyObjectDeltas[i]); //$NON-NLS-1$
+              }
+
+              if (!dirtyObject.isWritable())
+              {
+                throw new NoPermissionException(dirtyObject);
+              }
+
+              dirtyObjects[i] = dirtyObject;
+            }
+            catch (Throwable t)
+            {
+              problems[i] = t;
+              break;
+            }
+          }
+
+          finishedChunks.countDown();
+        }
+      }
+    };
+
+    Executor executor = getDeltaExecutor();
+    int helpers = Math.min(chunks, Runtime.getRuntime().availableProcessors()) - 1;
+    originRevisionsResolved = true;
+
+    try
+    {
+      try
+      {
+        for (int i = 0; i < helpers; i++)
+        {
+          executor.execute(worker);
+        }
+      }
+      catch (RejectedExecutionException ex)
+      {
+        // The calling thread applies the remaining deltas.
+      }
+
+      worker.run();
+
+      try
+      {
+        finishedChunks.await();
+      }
+      catch (InterruptedException ex)
+      {
+        throw WrappedException.wrap(ex);
+      }
+    }
+    finally
+    {
+      originRevisionsResolved = false;
+    }
+
+    for (int i = 0; i < count; i++)
+    {
+      Throwable problem = problems[i];
+      if (problem instanceof RuntimeException)
+      {
+        throw (RuntimeException)problem;
+      }
+
+      if (problem instanceof Error)
+      {
+        throw (Error)problem;
+      }
+    }
+
+    monitor.worked(count);
+  }
+
+  private Executor getDeltaExecutor()
+  {
+    InternalCommitManager commitManager = repository.getCommitManager();
+    if (commitManager instanceof CommitManager)
+    {
+      return ((CommitManager)commitManager).getExecutors();
+    }
+
+    return ConcurrencyUtil.getExecutorService(repository);
+  }
+
+  /**
+   * Loads the origin revisions of all dirty objects into the revision cache with a single request to the store,
+   * so that {@link #computeDirtyObject(InternalCDORevisionDelta)} does not need a store round trip per object.
+   */
+  private void loadOriginRevisions()
+  {
+    if (dirtyObjectDeltas.length > 1)
+    {
+      List<CDOID> ids = new ArrayList<CDOID>(dirtyObjectDeltas.length);
+      for (int i = 0; i < dirtyObjectDeltas.length; i++)
+      {
+        ids.add(dirtyObjectDeltas[i].getID());
+      }
+
+      try
+      {
+        CDOBranchPoint branchPoint = CDOBranchUtil.normalizeBranchPoint(transaction);
+        repository.getRevisionManager().getRevisions(ids, branchPoint, CDORevision.UNCHUNKED, CDORevision.DEPTH_NONE, true);
+      }
+      catch (Exception ex)
+      {
+        // Problems are reported per object by computeDirtyObject().
+        OM.LOG.warn(ex);
+      }
+    }
+  }
+
+  /**
+   * Is called concurrently for the deltas of large commits, so overrides must be thread-safe and must not access the store.
+   */
   protected InternalCDORevision computeDirtyObject(InternalCDORevisionDelta delta)
+  {
+    InternalCDORevision oldRevision = getOriginRevision(delta);
+    return createDirtyObject(oldRevision, delta);
+  }
+
+  private InternalCDORevision getOriginRevision(InternalCDORevisionDelta delta)
   {
     CDOID id = delta.getID();
+    if (originRevisionsResolved)
+    {
+      // Called concurrently by computeDirtyObjectsInParallel(), which does not modify oldRevisions meanwhile
+      return oldRevisions.get(id);
+    }
 
     InternalCDORevision oldRevision = null;
     String rollbackMessage = null;
@@ -1238,7 +1428,14 @@ public class TransactionCommitContext implements InternalCommitContext
     repository.ensureChunks(oldRevision, CDORevision.UNCHUNKED);
 
     oldRevisions.put(id, oldRevision);
+    return oldRevision;
+  }
 
+  /**
+   * Does not access the store or any other state of this commit context and can therefore be called concurrently.
+   */
+  private InternalCDORevision createDirtyObject(InternalCDORevision oldRevision, InternalCDORevisionDelta delta)
+  {
     InternalCDORevision newRevision = oldRevision.copy();
     newRevision.adjustForCommit(branch, timeStamp);
 
@@ -1266,7 +1463,7 @@ public class TransactionCommitContext implements InternalCommitContext
       return;
     }
 
-    Set<CDOID> objectsThatReachTheRoot = new HashSet<CDOID>();
+    Set<CDOID> objectsThatReachTheRoot = CDOIDUtil.createSet();
     for (int i = 0; i < dirtyObjectDeltas.length; i++)
     {
       InternalCDORevisionDelta revisionDelta = dirtyObjectDeltas[i];
@@ -1274,7 +1471,7 @@ public class TransactionCommitContext implements InternalCommitContext
       if (containerDelta != null)
       {
         InternalCDORevision revision = dirtyObjects[i];
-        if (!isTheRootReachable(revision, objectsThatReachTheRoot, new HashSet<CDOID>()))
+        if (!isTheRootReachable(revision, objectsThatReachTheRoot, CDOIDUtil.createSet()))
         {
           throw new RollbackException(CDOProtocolConstants.ROLLBACK_REASON_CONTAINMENT_CYCLE,
               "Attempt by " + transaction + " to introduce a containment cycle");
@@ -1707,9 +1904,9 @@ public class TransactionCommitContext implements InternalCommitContext
   {
     private Map<EClass, List<EReference>> sourceCandidates = new HashMap<EClass, List<EReference>>();
 
-    private Set<CDOID> detachedIDs = new HashSet<CDOID>();
+    private Set<CDOID> detachedIDs = CDOIDUtil.createSet();
 
-    private Set<CDOID> dirtyIDs = new HashSet<CDOID>();
+    private Set<CDOID> dirtyIDs = CDOIDUtil.createSet();
 
     private List<CDOIDReference> result = new ArrayList<CDOIDReference>();
 
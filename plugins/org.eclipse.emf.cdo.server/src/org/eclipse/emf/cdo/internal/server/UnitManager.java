@@ -272,7 +272,7 @@ public class UnitManager extends Container<IUnit> implements InternalUnitManager
 
     try
     {
-      Map<CDOID, CDOID> units = new HashMap<CDOID, CDOID>();
+      Map<CDOID, CDOID> units = CDOIDUtil.createMap();
 
       Set<CDOID> rootIDs = getRootIDs();
       if (!rootIDs.isEmpty())
@@ -485,7 +485,7 @@ public class UnitManager extends Container<IUnit> implements InternalUnitManager
 
   private Set<CDOID> getRootIDs()
   {
-    Set<CDOID> rootIDs = new HashSet<CDOID>();
+    Set<CDOID> rootIDs = CDOIDUtil.createSet();
 
     // No need to synchronize on units because all other modifiers hold the manager write lock.
     rootIDs.addAll(units.keySet());
@@ -594,7 +594,7 @@ public class UnitManager extends Container<IUnit> implements InternalUnitManager
 
       try
       {
-        Set<CDOID> initializedIDs = new HashSet<CDOID>();
+        Set<CDOID> initializedIDs = CDOIDUtil.createSet();
         Object initResult = storeAccessor.initUnit(view, rootID, revisionHandler, initializedIDs, timeStamp, monitor);
 
         List<CDOID> ids = new ArrayList<CDOID>();
@@ -672,7 +672,7 @@ public class UnitManager extends Container<IUnit> implements InternalUnitManager
      */
     public IUnit hook(CDOID rootID, IView view, final CDORevisionHandler revisionHandler, OMMonitor monitor)
     {
-      final Set<CDOID> ids = new HashSet<CDOID>();
+      final Set<CDOID> ids = CDOIDUtil.createSet();
       hookedRevisionHandlers.add(new CDORevisionHandler()
       {
         public boolean handleRevision(CDORevision revision)
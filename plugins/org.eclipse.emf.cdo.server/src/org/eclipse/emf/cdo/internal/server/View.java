@@ -40,7 +40,6 @@ import org.eclipse.net4j.util.registry.HashMapRegistry;
 import org.eclipse.net4j.util.registry.IRegistry;
 
 import java.text.MessageFormat;
-import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Set;
@@ -65,9 +64,9 @@ public class View extends Lifecycle implements InternalView, CDOCommonView.Optio
 
   private final InternalRepository repository;
 
-  private final Set<CDOID> changeSubscriptionIDs = new HashSet<CDOID>();
+  private final Set<CDOID> changeSubscriptionIDs = CDOIDUtil.createSet();
 
-  private final Set<CDOID> openUnitRoots = new HashSet<CDOID>();
+  private final Set<CDOID> openUnitRoots = CDOIDUtil.createSet();
 
   private boolean lockNotificationsEnabled;
 
@@ -52,7 +52,6 @@ import org.eclipse.emf.ecore.EcorePackage;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
-import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -403,7 +402,7 @@ public class XRefsQueryHandler implements IQueryHandler
   {
     private final CDOBranchPoint originalBranchPoint;
 
-    private final Set<CDOID> ignoredObjects = new HashSet<CDOID>();
+    private final Set<CDOID> ignoredObjects = CDOIDUtil.createSet();
 
     public QueryContextBranching(CDOQueryInfo info, IQueryContext context)
     {
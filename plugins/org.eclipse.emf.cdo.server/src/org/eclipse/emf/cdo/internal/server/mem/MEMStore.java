@@ -39,7 +39,6 @@ import org.eclipse.emf.cdo.server.IStoreAccessor.DurableLocking2;
 import org.eclipse.emf.cdo.server.IStoreAccessor.QueryXRefsContext;
 import org.eclipse.emf.cdo.server.ITransaction;
 import org.eclipse.emf.cdo.server.IView;
-import org.eclipse.emf.cdo.server.StoreThreadLocal;
 import org.eclipse.emf.cdo.server.mem.IMEMStore;
 import org.eclipse.emf.cdo.spi.common.branch.InternalCDOBranch;
 import org.eclipse.emf.cdo.spi.common.branch.InternalCDOBranchManager;
@@ -82,6 +81,7 @@ import java.io.OutputStream;
 import java.io.OutputStreamWriter;
 import java.io.Reader;
 import java.io.Writer;
+import java.nio.ByteBuffer;
 import java.text.MessageFormat;
 import java.util.ArrayList;
 import java.util.Collection;
@@ -94,6 +94,12 @@ import java.util.ListIterator;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 
 /**
  * @author Simon McDuff
@@ -112,11 +118,40 @@ public class MEMStore extends LongIDStore implements IMEMStore, BranchLoader3, D
 
   private int lastLocalBranchID;
 
-  private Map<Object, List<InternalCDORevision>> revisions = new HashMap<Object, List<InternalCDORevision>>();
+  /**
+   * Readers don't synchronize on the store. The revision lists are copy-on-write and are only modified while
+   * synchronized on the store.
+   */
+  private Map<Object, List<InternalCDORevision>> revisions = new ConcurrentHashMap<Object, List<InternalCDORevision>>();
 
   private List<CommitInfo> commitInfos = new ArrayList<CommitInfo>();
 
-  private Map<CDOID, EClass> objectTypes = CDOIDUtil.createMap();
+  private ReadWriteLock commitInfosLock = new ReentrantReadWriteLock();
+
+  private Map<CDOID, EClass> objectTypes = new ConcurrentHashMap<CDOID, EClass>();
+
+  /**
+   * Maps each EClass to the list keys of its instances.
+   */
+  private Index<EClass> classIndex = new Index<EClass>();
+
+  /**
+   * Maps each folder ID to the list keys of the resource nodes that are or were (in a retained revision) contained in
+   * that folder.
+   */
+  private Index<CDOID> folderIndex = new Index<CDOID>();
+
+  /**
+   * Maps each pair of folder ID and name to the list keys of the resource nodes that have or had (in a retained revision)
+   * that name in that folder.
+   */
+  private Index<Pair<CDOID, String>> resourceIndex = new Index<Pair<CDOID, String>>();
+
+  /**
+   * Maps each target ID to the list keys of the objects that reference or referenced (in a retained revision) that
+   * target.
+   */
+  private Index<CDOID> xrefIndex = new Index<CDOID>();
 
   private Map<String, LockArea> lockAreas = new HashMap<String, LockArea>();
 
@@ -125,7 +160,7 @@ public class MEMStore extends LongIDStore implements IMEMStore, BranchLoader3, D
   private int listLimit;
 
   @ExcludeFromDump
-  private transient EStructuralFeature resourceNameFeature;
+  private transient volatile EStructuralFeature resourceNameFeature;
 
   /**
    * @param listLimit
@@ -285,9 +320,24 @@ public class MEMStore extends LongIDStore implements IMEMStore, BranchLoader3, D
     }
   }
 
-  public synchronized void loadCommitInfos(final CDOBranch branch, long startTime, final long endTime, CDOCommitInfoHandler handler)
+  public void loadCommitInfos(final CDOBranch branch, long startTime, final long endTime, CDOCommitInfoHandler handler)
+  {
+    Lock lock = commitInfosLock.readLock();
+    lock.lock();
+
+    try
+    {
+      loadCommitInfos(branch, startTime, endTime, handler, getRepository().getCommitInfoManager());
+    }
+    finally
+    {
+      lock.unlock();
+    }
+  }
+
+  private void loadCommitInfos(final CDOBranch branch, long startTime, final long endTime, CDOCommitInfoHandler handler,
+      InternalCDOCommitInfoManager manager)
   {
-    InternalCDOCommitInfoManager manager = getRepository().getCommitInfoManager();
 
     // Optimize the getCommitInfo(timeStamp) case.
     if (startTime == endTime && startTime > CDOBranchPoint.UNSPECIFIED_DATE)
@@ -366,7 +416,7 @@ public class MEMStore extends LongIDStore implements IMEMStore, BranchLoader3, D
     }
   }
 
-  public synchronized Set<CDOID> readChangeSet(CDOChangeSetSegment[] segments)
+  public Set<CDOID> readChangeSet(CDOChangeSetSegment[] segments)
   {
     Set<CDOID> ids = new HashSet<CDOID>();
     for (CDOChangeSetSegment segment : segments)
@@ -410,18 +460,43 @@ public class MEMStore extends LongIDStore implements IMEMStore, BranchLoader3, D
     }
   }
 
-  public synchronized void handleRevisions(EClass eClass, CDOBranch branch, long timeStamp, boolean exactTime, CDORevisionHandler handler)
+  public void handleRevisions(EClass eClass, CDOBranch branch, long timeStamp, boolean exactTime, CDORevisionHandler handler)
   {
-    for (List<InternalCDORevision> list : revisions.values())
+    if (eClass != null)
     {
-      for (InternalCDORevision revision : list)
+      for (Object listKey : classIndex.get(eClass))
       {
-        if (!handleRevision(revision, eClass, branch, timeStamp, exactTime, handler))
+        List<InternalCDORevision> list = revisions.get(listKey);
+        if (list != null && !handleRevisions(list, eClass, branch, timeStamp, exactTime, handler))
         {
           return;
         }
       }
+
+      return;
+    }
+
+    for (List<InternalCDORevision> list : revisions.values())
+    {
+      if (!handleRevisions(list, eClass, branch, timeStamp, exactTime, handler))
+      {
+        return;
+      }
+    }
+  }
+
+  private boolean handleRevisions(List<InternalCDORevision> list, EClass eClass, CDOBranch branch, long timeStamp, boolean exactTime,
+      CDORevisionHandler handler)
+  {
+    for (InternalCDORevision revision : list)
+    {
+      if (!handleRevision(revision, eClass, branch, timeStamp, exactTime, handler))
+      {
+        return false;
+      }
     }
+
+    return true;
   }
 
   private boolean handleRevision(InternalCDORevision revision, EClass eClass, CDOBranch branch, long timeStamp, boolean exactTime, CDORevisionHandler handler)
@@ -470,35 +545,39 @@ public class MEMStore extends LongIDStore implements IMEMStore, BranchLoader3, D
    */
   public synchronized void setListLimit(int listLimit)
   {
-    if (listLimit != UNLIMITED && this.listLimit != listLimit)
+    int oldListLimit = this.listLimit;
+    this.listLimit = listLimit;
+
+    if (listLimit != UNLIMITED && oldListLimit != listLimit)
     {
-      for (List<InternalCDORevision> list : revisions.values())
+      for (Entry<Object, List<InternalCDORevision>> entry : revisions.entrySet())
       {
-        enforceListLimit(list);
+        enforceListLimit(entry.getKey(), entry.getValue());
       }
     }
-
-    this.listLimit = listLimit;
   }
 
   /**
    * @since 2.0
    */
-  public synchronized List<InternalCDORevision> getCurrentRevisions()
+  public List<InternalCDORevision> getCurrentRevisions()
   {
     ArrayList<InternalCDORevision> simpleRevisions = new ArrayList<InternalCDORevision>();
     Iterator<List<InternalCDORevision>> itr = revisions.values().iterator();
     while (itr.hasNext())
     {
       List<InternalCDORevision> list = itr.next();
-      InternalCDORevision revision = list.get(list.size() - 1);
-      simpleRevisions.add(revision);
+      InternalCDORevision revision = getLastRevision(list);
+      if (revision != null)
+      {
+        simpleRevisions.add(revision);
+      }
     }
 
     return simpleRevisions;
   }
 
-  public synchronized InternalCDORevision getRevisionByVersion(CDOID id, CDOBranchVersion branchVersion)
+  public InternalCDORevision getRevisionByVersion(CDOID id, CDOBranchVersion branchVersion)
   {
     Object listKey = getListKey(id, branchVersion.getBranch());
     List<InternalCDORevision> list = revisions.get(listKey);
@@ -513,7 +592,7 @@ public class MEMStore extends LongIDStore implements IMEMStore, BranchLoader3, D
   /**
    * @since 2.0
    */
-  public synchronized InternalCDORevision getRevision(CDOID id, CDOBranchPoint branchPoint)
+  public InternalCDORevision getRevision(CDOID id, CDOBranchPoint branchPoint)
   {
     Object listKey = getListKey(id, branchPoint.getBranch());
     if (branchPoint.getTimeStamp() == CDORevision.UNSPECIFIED_DATE)
@@ -524,7 +603,7 @@ public class MEMStore extends LongIDStore implements IMEMStore, BranchLoader3, D
         return null;
       }
 
-      return list.get(list.size() - 1);
+      return getLastRevision(list);
     }
 
     if (!getRepository().isSupportingAudits())
@@ -541,6 +620,24 @@ public class MEMStore extends LongIDStore implements IMEMStore, BranchLoader3, D
     return getRevision(list, branchPoint);
   }
 
+  /**
+   * @since 4.6
+   */
+  public Map<CDOID, InternalCDORevision> getRevisions(Collection<CDOID> ids, CDOBranchPoint branchPoint)
+  {
+    Map<CDOID, InternalCDORevision> result = CDOIDUtil.createMap();
+    for (CDOID id : ids)
+    {
+      InternalCDORevision revision = getRevision(id, branchPoint);
+      if (revision != null)
+      {
+        result.put(id, revision);
+      }
+    }
+
+    return result;
+  }
+
   public synchronized void addRevision(InternalCDORevision revision, boolean raw)
   {
     InternalCDOBranch branch = revision.getBranch();
@@ -553,11 +650,11 @@ public class MEMStore extends LongIDStore implements IMEMStore, BranchLoader3, D
     List<InternalCDORevision> list = revisions.get(listKey);
     if (list == null)
     {
-      list = new ArrayList<InternalCDORevision>();
+      list = new CopyOnWriteArrayList<InternalCDORevision>();
       revisions.put(listKey, list);
     }
 
-    addRevision(list, revision, raw);
+    addRevision(listKey, list, revision, raw);
 
     if (raw)
     {
@@ -565,22 +662,32 @@ public class MEMStore extends LongIDStore implements IMEMStore, BranchLoader3, D
     }
   }
 
-  public synchronized void addCommitInfo(CDOBranch branch, long timeStamp, long previousTimeStamp, String userID, String comment, CDOBranchPoint mergeSource)
+  public void addCommitInfo(CDOBranch branch, long timeStamp, long previousTimeStamp, String userID, String comment, CDOBranchPoint mergeSource)
   {
-    int index = commitInfos.size() - 1;
-    while (index >= 0)
+    Lock lock = commitInfosLock.writeLock();
+    lock.lock();
+
+    try
     {
-      CommitInfo info = commitInfos.get(index);
-      if (timeStamp > info.getTimeStamp())
+      int index = commitInfos.size() - 1;
+      while (index >= 0)
       {
-        break;
+        CommitInfo info = commitInfos.get(index);
+        if (timeStamp > info.getTimeStamp())
+        {
+          break;
+        }
+
+        --index;
       }
 
-      --index;
+      CommitInfo commitInfo = new CommitInfo(branch, timeStamp, previousTimeStamp, userID, comment, mergeSource);
+      commitInfos.add(index + 1, commitInfo);
+    }
+    finally
+    {
+      lock.unlock();
     }
-
-    CommitInfo commitInfo = new CommitInfo(branch, timeStamp, previousTimeStamp, userID, comment, mergeSource);
-    commitInfos.add(index + 1, commitInfo);
   }
 
   /**
@@ -599,12 +706,12 @@ public class MEMStore extends LongIDStore implements IMEMStore, BranchLoader3, D
       return false;
     }
 
-    for (Iterator<InternalCDORevision> it = list.iterator(); it.hasNext();)
+    for (InternalCDORevision rev : list)
     {
-      InternalCDORevision rev = it.next();
       if (rev.getVersion() == version)
       {
-        it.remove();
+        list.remove(rev);
+        unindex(listKey, list, Collections.singletonList(rev));
         return true;
       }
       else if (rev.getVersion() == version - 1)
@@ -623,80 +730,57 @@ public class MEMStore extends LongIDStore implements IMEMStore, BranchLoader3, D
   {
     Object listKey = getListKey(id, branch);
     List<InternalCDORevision> list = revisions.get(listKey);
-    if (list != null)
-    {
-      InternalCDORevision revision = getRevision(list, branch.getHead());
-      if (revision != null)
-      {
-        revision.setRevised(timeStamp - 1);
-      }
-    }
+    InternalCDORevision revision = null;
 
     int version;
     if (list == null)
     {
-      list = new ArrayList<InternalCDORevision>();
+      list = new CopyOnWriteArrayList<InternalCDORevision>();
       revisions.put(listKey, list);
       version = CDOBranchVersion.FIRST_VERSION;
     }
     else
     {
+      revision = getRevision(list, branch.getHead());
       version = getHighestVersion(list) + 1;
     }
 
     EClass eClass = getObjectType(id);
     DetachedCDORevision detached = new DetachedCDORevision(eClass, id, branch, version, timeStamp);
-    addRevision(list, detached, false);
+    addRevision(listKey, list, detached, false);
+
+    // Revise after adding, so that concurrent readers of the head never miss the object
+    if (revision != null)
+    {
+      revision.setRevised(timeStamp - 1);
+    }
+
     return detached;
   }
 
   /**
    * @since 2.0
    */
-  public synchronized void queryResources(IStoreAccessor.QueryResourcesContext context)
+  public void queryResources(IStoreAccessor.QueryResourcesContext context)
   {
     CDOID folderID = context.getFolderID();
     String name = context.getName();
     boolean exactMatch = context.exactMatch();
-    for (Map.Entry<Object, List<InternalCDORevision>> entry : revisions.entrySet())
-    {
-      CDOBranch branch = getBranch(entry.getKey());
-      if (branch != context.getBranch())
-      {
-        continue;
-      }
-
-      List<InternalCDORevision> list = entry.getValue();
-      if (list.isEmpty())
-      {
-        continue;
-      }
 
-      InternalCDORevision revision = list.get(0);
-      if (revision instanceof SyntheticCDORevision)
-      {
-        continue;
-      }
-
-      if (!revision.isResourceNode())
-      {
-        continue;
-      }
-
-      revision = getRevision(list, context);
-      if (revision == null || revision instanceof DetachedCDORevision)
-      {
-        continue;
-      }
-
-      CDOID revisionFolder = (CDOID)revision.data().getContainerID();
-      if (!CDOIDUtil.equals(revisionFolder, folderID))
-      {
-        continue;
-      }
+    Collection<Object> listKeys;
+    if (exactMatch || name == null)
+    {
+      listKeys = resourceIndex.get(getResourceKey(folderID, name));
+    }
+    else
+    {
+      listKeys = folderIndex.get(getFolderKey(folderID));
+    }
 
-      String revisionName = (String)revision.data().get(resourceNameFeature, 0);
-      if (CDOTransactionImpl.isResourceMatch(revisionName, name, exactMatch))
+    for (Object listKey : listKeys)
+    {
+      InternalCDORevision revision = getResourceNode(listKey, context, folderID, name, exactMatch);
+      if (revision != null)
       {
         if (!context.addResource(revision.getID()))
         {
@@ -707,61 +791,97 @@ public class MEMStore extends LongIDStore implements IMEMStore, BranchLoader3, D
     }
   }
 
-  public synchronized void queryXRefs(QueryXRefsContext context)
+  private InternalCDORevision getResourceNode(Object listKey, CDOBranchPoint branchPoint, CDOID folderID, String name, boolean exactMatch)
   {
-    Set<CDOID> targetIDs = context.getTargetObjects().keySet();
-    Map<EClass, List<EReference>> sourceCandidates = context.getSourceCandidates();
+    if (getBranch(listKey) != branchPoint.getBranch())
+    {
+      return null;
+    }
 
-    for (Entry<Object, List<InternalCDORevision>> entry : revisions.entrySet())
+    List<InternalCDORevision> list = revisions.get(listKey);
+    if (list == null)
     {
-      CDOBranch branch = getBranch(entry.getKey());
-      if (branch != context.getBranch())
-      {
-        continue;
-      }
+      return null;
+    }
 
-      List<InternalCDORevision> list = entry.getValue();
-      if (list.isEmpty())
-      {
-        continue;
-      }
+    InternalCDORevision revision = getRevision(list, branchPoint);
+    if (revision == null || revision instanceof SyntheticCDORevision)
+    {
+      return null;
+    }
 
-      InternalCDORevision revision = getRevision(list, context);
-      if (revision == null || revision instanceof SyntheticCDORevision)
-      {
-        continue;
-      }
+    CDOID revisionFolder = (CDOID)revision.data().getContainerID();
+    if (!CDOIDUtil.equals(revisionFolder, folderID))
+    {
+      return null;
+    }
 
-      EClass eClass = revision.getEClass();
-      CDOID sourceID = revision.getID();
+    String revisionName = (String)revision.data().get(resourceNameFeature, 0);
+    if (!CDOTransactionImpl.isResourceMatch(revisionName, name, exactMatch))
+    {
+      return null;
+    }
+
+    return revision;
+  }
 
-      List<EReference> eReferences = sourceCandidates.get(eClass);
-      if (eReferences != null)
+  public void queryXRefs(QueryXRefsContext context)
+  {
+    Map<EClass, List<EReference>> sourceCandidates = context.getSourceCandidates();
+
+    for (CDOID targetID : context.getTargetObjects().keySet())
+    {
+      for (Object listKey : xrefIndex.get(targetID))
       {
-        for (EReference eReference : eReferences)
+        if (getBranch(listKey) != context.getBranch())
+        {
+          continue;
+        }
+
+        List<InternalCDORevision> list = revisions.get(listKey);
+        if (list == null)
+        {
+          continue;
+        }
+
+        InternalCDORevision revision = getRevision(list, context);
+        if (revision == null || revision instanceof SyntheticCDORevision)
         {
-          Object value = revision.getValue(eReference);
-          if (value != null)
+          continue;
+        }
+
+        List<EReference> eReferences = sourceCandidates.get(revision.getEClass());
+        if (eReferences != null)
+        {
+          CDOID sourceID = revision.getID();
+          for (EReference eReference : eReferences)
           {
-            if (eReference.isMany())
+            Object value = revision.getValue(eReference);
+            if (value != null)
             {
-              @SuppressWarnings("unchecked")
-              List<CDOID> ids = (List<CDOID>)value;
-              int index = 0;
-              for (CDOID id : ids)
+              if (eReference.isMany())
               {
-                if (!queryXRefs(context, targetIDs, id, sourceID, eReference, index++))
+                @SuppressWarnings("unchecked")
+                List<Object> ids = (List<Object>)value;
+                int index = 0;
+                for (Object id : ids)
                 {
-                  return;
+                  if (targetID.equals(id) && !context.addXRef(targetID, sourceID, eReference, index))
+                  {
+                    // No more results allowed
+                    return;
+                  }
+
+                  ++index;
                 }
               }
-            }
-            else
-            {
-              CDOID id = (CDOID)value;
-              if (!queryXRefs(context, targetIDs, id, sourceID, eReference, 0))
+              else
               {
-                return;
+                if (targetID.equals(value) && !context.addXRef(targetID, sourceID, eReference, 0))
+                {
+                  // No more results allowed
+                  return;
+                }
               }
             }
           }
@@ -770,23 +890,6 @@ public class MEMStore extends LongIDStore implements IMEMStore, BranchLoader3, D
     }
   }
 
-  private boolean queryXRefs(QueryXRefsContext context, Set<CDOID> targetIDs, CDOID targetID, CDOID sourceID, EReference sourceReference, int index)
-  {
-    for (CDOID id : targetIDs)
-    {
-      if (id == targetID)
-      {
-        if (!context.addXRef(targetID, sourceID, sourceReference, index))
-        {
-          // No more results allowed
-          return false;
-        }
-      }
-    }
-
-    return true;
-  }
-
   public synchronized void rawExport(CDODataOutput out, int fromBranchID, int toBranchID, long fromCommitTime, long toCommitTime)
   {
     // TODO: implement MEMStore.rawExport(out, fromBranchID, toBranchID, fromCommitTime, toCommitTime)
@@ -805,12 +908,12 @@ public class MEMStore extends LongIDStore implements IMEMStore, BranchLoader3, D
     List<InternalCDORevision> list = revisions.get(listKey);
     if (list != null)
     {
-      for (Iterator<InternalCDORevision> it = list.iterator(); it.hasNext();)
+      for (InternalCDORevision rev : list)
       {
-        InternalCDORevision rev = it.next();
         if (rev.getVersion() == version)
         {
-          it.remove();
+          list.remove(rev);
+          unindex(listKey, list, Collections.singletonList(rev));
           break;
         }
       }
@@ -1001,8 +1104,7 @@ public class MEMStore extends LongIDStore implements IMEMStore, BranchLoader3, D
     if (lob instanceof byte[])
     {
       byte[] blob = (byte[])lob;
-      ByteArrayInputStream in = new ByteArrayInputStream(blob);
-      IOUtil.copyBinary(in, out, blob.length);
+      IOUtil.copyBinary(ByteBuffer.wrap(blob), out);
     }
     else
     {
@@ -1059,6 +1161,16 @@ public class MEMStore extends LongIDStore implements IMEMStore, BranchLoader3, D
     return true;
   }
 
+  /**
+   * Returns the total number of entries in the class, folder, resource and xref indexes. For testing purposes only.
+   *
+   * @since 4.6
+   */
+  public synchronized int getIndexSize()
+  {
+    return classIndex.size() + folderIndex.size() + resourceIndex.size() + xrefIndex.size();
+  }
+
   public synchronized Map<CDOBranch, List<CDORevision>> getAllRevisions()
   {
     Map<CDOBranch, List<CDORevision>> result = new HashMap<CDOBranch, List<CDORevision>>();
@@ -1084,7 +1196,7 @@ public class MEMStore extends LongIDStore implements IMEMStore, BranchLoader3, D
     return result;
   }
 
-  public synchronized EClass getObjectType(CDOID id)
+  public EClass getObjectType(CDOID id)
   {
     return objectTypes.get(id);
   }
@@ -1111,6 +1223,10 @@ public class MEMStore extends LongIDStore implements IMEMStore, BranchLoader3, D
     branchInfos.clear();
     commitInfos.clear();
     objectTypes.clear();
+    classIndex.clear();
+    folderIndex.clear();
+    resourceIndex.clear();
+    xrefIndex.clear();
     properties.clear();
     resourceNameFeature = null;
     lastBranchID = 0;
@@ -1152,6 +1268,41 @@ public class MEMStore extends LongIDStore implements IMEMStore, BranchLoader3, D
     return getRepository().getBranchManager().getMainBranch();
   }
 
+  private static CDOID getFolderKey(CDOID folderID)
+  {
+    return CDOIDUtil.isNull(folderID) ? CDOID.NULL : folderID;
+  }
+
+  private static Pair<CDOID, String> getResourceKey(CDOID folderID, String name)
+  {
+    return Pair.create(getFolderKey(folderID), name);
+  }
+
+  /**
+   * Returns the last revision of the given list, or <code>null</code> if the list is empty. The list may be shrunk
+   * concurrently.
+   */
+  private static InternalCDORevision getLastRevision(List<InternalCDORevision> list)
+  {
+    for (;;)
+    {
+      int size = list.size();
+      if (size == 0)
+      {
+        return null;
+      }
+
+      try
+      {
+        return list.get(size - 1);
+      }
+      catch (IndexOutOfBoundsException ex)
+      {
+        // Try again
+      }
+    }
+  }
+
   private int getHighestVersion(List<InternalCDORevision> list)
   {
     int version = CDOBranchVersion.UNSPECIFIED_VERSION;
@@ -1203,7 +1354,7 @@ public class MEMStore extends LongIDStore implements IMEMStore, BranchLoader3, D
     return null;
   }
 
-  private void addRevision(List<InternalCDORevision> list, InternalCDORevision revision, boolean raw)
+  private void addRevision(Object listKey, List<InternalCDORevision> list, InternalCDORevision revision, boolean raw)
   {
     boolean resource = !(revision instanceof SyntheticCDORevision) && revision.isResourceNode();
     if (resource && resourceNameFeature == null)
@@ -1211,6 +1362,7 @@ public class MEMStore extends LongIDStore implements IMEMStore, BranchLoader3, D
       resourceNameFeature = revision.getEClass().getEStructuralFeature(CDOModelConstants.RESOURCE_NODE_NAME_ATTRIBUTE);
     }
 
+    InternalCDORevision oldRevision = null;
     if (!raw)
     {
       // Check version conflict
@@ -1222,22 +1374,10 @@ public class MEMStore extends LongIDStore implements IMEMStore, BranchLoader3, D
             "Concurrent modification of " + rev.getEClass().getName() + "@" + new CDORevisionKeyImpl(rev.getID(), rev.getBranch(), version));
       }
 
-      // Revise old revision
       int oldVersion = version - 1;
       if (oldVersion >= CDORevision.UNSPECIFIED_VERSION)
       {
-        InternalCDORevision oldRevision = getRevisionByVersion(list, oldVersion);
-        if (oldRevision != null)
-        {
-          if (getRepository().isSupportingAudits())
-          {
-            oldRevision.setRevised(revision.getTimeStamp() - 1);
-          }
-          else
-          {
-            list.remove(oldRevision);
-          }
-        }
+        oldRevision = getRevisionByVersion(list, oldVersion);
       }
 
       // Check duplicate resource
@@ -1247,11 +1387,19 @@ public class MEMStore extends LongIDStore implements IMEMStore, BranchLoader3, D
       }
     }
 
-    // Adjust the list
-    list.add(revision);
-    if (listLimit != UNLIMITED)
+    // Adjust the list. Readers don't synchronize, so the new revision is added before the old one is revised or removed.
+    if (oldRevision != null && !getRepository().isSupportingAudits())
+    {
+      list.set(list.indexOf(oldRevision), revision);
+    }
+    else
     {
-      enforceListLimit(list);
+      list.add(revision);
+      if (oldRevision != null)
+      {
+        oldRevision.setRevised(revision.getTimeStamp() - 1);
+        oldRevision = null;
+      }
     }
 
     CDOID id = revision.getID();
@@ -1259,27 +1407,248 @@ public class MEMStore extends LongIDStore implements IMEMStore, BranchLoader3, D
     {
       objectTypes.put(id, revision.getEClass());
     }
+
+    // Index the new revision before the entries of the replaced one are pruned, so that readers never miss a valid hit
+    index(listKey, revision);
+
+    if (oldRevision != null)
+    {
+      unindex(listKey, list, Collections.singletonList(oldRevision));
+    }
+
+    if (listLimit != UNLIMITED)
+    {
+      enforceListLimit(listKey, list);
+    }
+  }
+
+  private void index(Object listKey, InternalCDORevision revision)
+  {
+    IndexKeys keys = new IndexKeys();
+    keys.collect(revision);
+
+    for (EClass eClass : keys.eClasses)
+    {
+      classIndex.add(eClass, listKey);
+    }
+
+    for (CDOID folderKey : keys.folderKeys)
+    {
+      folderIndex.add(folderKey, listKey);
+    }
+
+    for (Pair<CDOID, String> resourceKey : keys.resourceKeys)
+    {
+      resourceIndex.add(resourceKey, listKey);
+    }
+
+    for (CDOID targetID : keys.targetIDs)
+    {
+      xrefIndex.add(targetID, listKey);
+    }
+  }
+
+  /**
+   * Removes the index entries of revisions that have been removed from the given list, unless a revision that is still
+   * in the list produces the same entries.
+   */
+  private void unindex(Object listKey, List<InternalCDORevision> list, List<InternalCDORevision> removedRevisions)
+  {
+    IndexKeys keys = new IndexKeys();
+    for (InternalCDORevision removedRevision : removedRevisions)
+    {
+      keys.collect(removedRevision);
+    }
+
+    IndexKeys retainedKeys = new IndexKeys();
+    for (InternalCDORevision retainedRevision : list)
+    {
+      retainedKeys.collect(retainedRevision);
+    }
+
+    keys.removeAll(retainedKeys);
+
+    for (EClass eClass : keys.eClasses)
+    {
+      classIndex.remove(eClass, listKey);
+    }
+
+    for (CDOID folderKey : keys.folderKeys)
+    {
+      folderIndex.remove(folderKey, listKey);
+    }
+
+    for (Pair<CDOID, String> resourceKey : keys.resourceKeys)
+    {
+      resourceIndex.remove(resourceKey, listKey);
+    }
+
+    for (CDOID targetID : keys.targetIDs)
+    {
+      xrefIndex.remove(targetID, listKey);
+    }
   }
 
   private void checkDuplicateResource(InternalCDORevision revision)
   {
     CDOID revisionFolder = (CDOID)revision.data().getContainerID();
     String revisionName = (String)revision.data().get(resourceNameFeature, 0);
+    CDOID revisionID = revision.getID();
 
-    IStoreAccessor accessor = StoreThreadLocal.getAccessor();
-
-    CDOID resourceID = accessor.readResourceID(revisionFolder, revisionName, revision);
-    if (!CDOIDUtil.isNull(resourceID))
+    for (Object listKey : resourceIndex.get(getResourceKey(revisionFolder, revisionName)))
     {
-      throw new IllegalStateException("Duplicate resource: name=" + revisionName + ", folderID=" + revisionFolder); //$NON-NLS-1$ //$NON-NLS-2$
+      InternalCDORevision existing = getResourceNode(listKey, revision, revisionFolder, revisionName, true);
+      if (existing != null && existing.getID() != revisionID)
+      {
+        throw new IllegalStateException("Duplicate resource: name=" + revisionName + ", folderID=" + revisionFolder); //$NON-NLS-1$ //$NON-NLS-2$
+      }
     }
   }
 
-  private void enforceListLimit(List<InternalCDORevision> list)
+  private void enforceListLimit(Object listKey, List<InternalCDORevision> list)
   {
+    List<InternalCDORevision> removedRevisions = null;
     while (list.size() > listLimit)
     {
-      list.remove(0);
+      if (removedRevisions == null)
+      {
+        removedRevisions = new ArrayList<InternalCDORevision>();
+      }
+
+      removedRevisions.add(list.remove(0));
+    }
+
+    if (removedRevisions != null)
+    {
+      unindex(listKey, list, removedRevisions);
+    }
+  }
+
+  /**
+   * The index keys that one or more revisions produce.
+   *
+   * @author Eike Stepper
+   */
+  private final class IndexKeys
+  {
+    public final Set<EClass> eClasses = new HashSet<EClass>();
+
+    public final Set<CDOID> folderKeys = new HashSet<CDOID>();
+
+    public final Set<Pair<CDOID, String>> resourceKeys = new HashSet<Pair<CDOID, String>>();
+
+    public final Set<CDOID> targetIDs = new HashSet<CDOID>();
+
+    public void collect(InternalCDORevision revision)
+    {
+      eClasses.add(revision.getEClass());
+      if (revision instanceof SyntheticCDORevision)
+      {
+        return;
+      }
+
+      if (revision.isResourceNode())
+      {
+        CDOID folderID = (CDOID)revision.data().getContainerID();
+        String name = (String)revision.data().get(resourceNameFeature, 0);
+        folderKeys.add(getFolderKey(folderID));
+        resourceKeys.add(getResourceKey(folderID, name));
+      }
+
+      for (EReference eReference : revision.getClassInfo().getAllPersistentReferences())
+      {
+        Object value = revision.getValue(eReference);
+        if (value instanceof List<?>)
+        {
+          for (Object element : (List<?>)value)
+          {
+            if (element instanceof CDOID)
+            {
+              targetIDs.add((CDOID)element);
+            }
+          }
+        }
+        else if (value instanceof CDOID)
+        {
+          targetIDs.add((CDOID)value);
+        }
+      }
+    }
+
+    public void removeAll(IndexKeys retainedKeys)
+    {
+      eClasses.removeAll(retainedKeys.eClasses);
+      folderKeys.removeAll(retainedKeys.folderKeys);
+      resourceKeys.removeAll(retainedKeys.resourceKeys);
+      targetIDs.removeAll(retainedKeys.targetIDs);
+    }
+  }
+
+  /**
+   * A concurrent multi-map from index keys to list keys. Entries are kept as long as a retained revision of the list
+   * produces them, so they must be verified against the revisions that are valid at the requested branch point.
+   *
+   * @author Eike Stepper
+   */
+  private static final class Index<K>
+  {
+    private final ConcurrentMap<K, ConcurrentMap<Object, Boolean>> map = new ConcurrentHashMap<K, ConcurrentMap<Object, Boolean>>();
+
+    public Collection<Object> get(K key)
+    {
+      ConcurrentMap<Object, Boolean> listKeys = map.get(key);
+      if (listKeys == null)
+      {
+        return Collections.emptySet();
+      }
+
+      return listKeys.keySet();
+    }
+
+    public void add(K key, Object listKey)
+    {
+      ConcurrentMap<Object, Boolean> listKeys = map.get(key);
+      if (listKeys == null)
+      {
+        listKeys = new ConcurrentHashMap<Object, Boolean>();
+        ConcurrentMap<Object, Boolean> existing = map.putIfAbsent(key, listKeys);
+        if (existing != null)
+        {
+          listKeys = existing;
+        }
+      }
+
+      listKeys.put(listKey, Boolean.TRUE);
+    }
+
+    public void remove(K key, Object listKey)
+    {
+      ConcurrentMap<Object, Boolean> listKeys = map.get(key);
+      if (listKeys != null)
+      {
+        listKeys.remove(listKey);
+        if (listKeys.isEmpty())
+        {
+          // Writers synchronize on the store, so no list key can be added concurrently
+          map.remove(key, listKeys);
+        }
+      }
+    }
+
+    public int size()
+    {
+      int size = 0;
+      for (ConcurrentMap<Object, Boolean> listKeys : map.values())
+      {
+        size += listKeys.size();
+      }
+
+      return size;
+    }
+
+    public void clear()
+    {
+      map.clear();
     }
   }
 
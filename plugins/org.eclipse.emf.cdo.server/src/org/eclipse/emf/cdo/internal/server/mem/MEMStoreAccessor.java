@@ -28,6 +28,7 @@ import org.eclipse.emf.cdo.common.util.CDOQueryInfo;
 import org.eclipse.emf.cdo.server.IQueryContext;
 import org.eclipse.emf.cdo.server.IQueryHandler;
 import org.eclipse.emf.cdo.server.ISession;
+import org.eclipse.emf.cdo.server.IStoreAccessor.BatchRead;
 import org.eclipse.emf.cdo.server.IStoreAccessor.DurableLocking2;
 import org.eclipse.emf.cdo.server.IStoreAccessor.Raw2;
 import org.eclipse.emf.cdo.server.ITransaction;
@@ -63,7 +64,7 @@ import java.util.Set;
 /**
  * @author Simon McDuff
  */
-public class MEMStoreAccessor extends LongIDStoreAccessor implements Raw2, DurableLocking2, BranchLoader3
+public class MEMStoreAccessor extends LongIDStoreAccessor implements Raw2, DurableLocking2, BranchLoader3, BatchRead
 {
   private final MEMStore store;
 
@@ -263,6 +264,14 @@ public class MEMStoreAccessor extends LongIDStoreAccessor implements Raw2, Durab
     return store.getRevision(id, branchPoint);
   }
 
+  /**
+   * @since 4.6
+   */
+  public Map<CDOID, InternalCDORevision> readRevisions(Collection<CDOID> ids, CDOBranchPoint branchPoint, int listChunk, CDORevisionCacheAdder cache)
+  {
+    return store.getRevisions(ids, branchPoint);
+  }
+
   public InternalCDORevision readRevisionByVersion(CDOID id, CDOBranchVersion branchVersion, int listChunk, CDORevisionCacheAdder cache)
   {
     return store.getRevisionByVersion(id, branchVersion);
@@ -57,6 +57,11 @@ public final class ReplicatorCommitContext extends TransactionCommitContext
     setDetachedObjects(detachedObjects);
   }
 
+  public CDOCommitInfo getCommitInfo()
+  {
+    return commitInfo;
+  }
+
   @Override
   public String getUserID()
   {
@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2010-2015 Eike Stepper (Berlin, Germany) and others.
+ * Copyright (c) 2010-2016 Eike Stepper (Berlin, Germany) and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -17,9 +17,11 @@ import org.eclipse.emf.cdo.common.CDOCommonSession.Options.PassiveUpdateMode;
 import org.eclipse.emf.cdo.common.branch.CDOBranch;
 import org.eclipse.emf.cdo.common.branch.CDOBranchChangedEvent;
 import org.eclipse.emf.cdo.common.branch.CDOBranchChangedEvent.ChangeKind;
+import org.eclipse.emf.cdo.common.branch.CDOBranchPoint;
 import org.eclipse.emf.cdo.common.commit.CDOCommitInfo;
 import org.eclipse.emf.cdo.common.id.CDOID;
 import org.eclipse.emf.cdo.common.lock.CDOLockChangeInfo;
+import org.eclipse.emf.cdo.common.lock.IDurableLockingManager.LockArea;
 import org.eclipse.emf.cdo.internal.common.revision.NOOPRevisionCache;
 import org.eclipse.emf.cdo.internal.server.bundle.OM;
 import org.eclipse.emf.cdo.server.StoreThreadLocal;
@@ -28,11 +30,13 @@ import org.eclipse.emf.cdo.session.CDOSessionConfiguration;
 import org.eclipse.emf.cdo.session.CDOSessionConfigurationFactory;
 import org.eclipse.emf.cdo.session.CDOSessionInvalidationEvent;
 import org.eclipse.emf.cdo.session.CDOSessionLocksChangedEvent;
+import org.eclipse.emf.cdo.spi.common.CDOReplicationContext;
 import org.eclipse.emf.cdo.spi.common.branch.CDOBranchAdjustable;
 import org.eclipse.emf.cdo.spi.common.revision.InternalCDORevisionCache;
 import org.eclipse.emf.cdo.spi.server.InternalRepositorySynchronizer;
 import org.eclipse.emf.cdo.spi.server.InternalSynchronizableRepository;
 
+import org.eclipse.net4j.util.WrappedException;
 import org.eclipse.net4j.util.concurrent.ConcurrencyUtil;
 import org.eclipse.net4j.util.concurrent.PriorityQueueRunnable;
 import org.eclipse.net4j.util.concurrent.PriorityQueueRunner;
@@ -52,6 +56,11 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.Timer;
 import java.util.TimerTask;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * @author Eike Stepper
@@ -95,6 +104,14 @@ public class RepositorySynchronizer extends PriorityQueueRunner implements Inter
 
   private Timer recommitTimer;
 
+  private int maxCommitBatchSize = DEFAULT_MAX_COMMIT_BATCH_SIZE;
+
+  private final AtomicInteger pendingCommits = new AtomicInteger();
+
+  private final AtomicInteger largestCommitBatchSize = new AtomicInteger();
+
+  private volatile long lastMasterCommitTime = CDOBranchPoint.UNSPECIFIED_DATE;
+
   public RepositorySynchronizer()
   {
     setDaemon(true);
@@ -168,6 +185,37 @@ public class RepositorySynchronizer extends PriorityQueueRunner implements Inter
     this.recommitInterval = recommitInterval;
   }
 
+  public int getMaxCommitBatchSize()
+  {
+    return maxCommitBatchSize;
+  }
+
+  public void setMaxCommitBatchSize(int maxCommitBatchSize)
+  {
+    checkArg(maxCommitBatchSize >= 1, "maxCommitBatchSize"); //$NON-NLS-1$
+    this.maxCommitBatchSize = maxCommitBatchSize;
+  }
+
+  public int getPendingCommits()
+  {
+    // Commits that are replicated while the queue is cleared can make the counter negative for a moment
+    return Math.max(0, pendingCommits.get());
+  }
+
+  /**
+   * Returns the number of commits in the largest batch that has been replicated into the local repository so far.
+   */
+  public int getLargestCommitBatchSize()
+  {
+    return largestCommitBatchSize.get();
+  }
+
+  public long getReplicationLag()
+  {
+    long lastReplicatedCommitTime = localRepository.getLastReplicatedCommitTime();
+    return Math.max(0L, lastMasterCommitTime - lastReplicatedCommitTime);
+  }
+
   public boolean isEmpty()
   {
     return remoteSession == null;
@@ -277,6 +325,7 @@ public class RepositorySynchronizer extends PriorityQueueRunner implements Inter
   private void reconnect()
   {
     clearQueue();
+    pendingCommits.set(0);
     if (isActive())
     {
       scheduleConnect();
@@ -308,6 +357,39 @@ public class RepositorySynchronizer extends PriorityQueueRunner implements Inter
     }
   }
 
+  private void receiveCommitInfo(CDOCommitInfo commitInfo)
+  {
+    long timeStamp = commitInfo.getTimeStamp();
+    if (lastMasterCommitTime < timeStamp)
+    {
+      lastMasterCommitTime = timeStamp;
+    }
+
+    pendingCommits.incrementAndGet();
+  }
+
+  private void replicateCommitInfos(List<CDOCommitInfo> commitInfos)
+  {
+    int size = commitInfos.size();
+    localRepository.handleCommitInfos(commitInfos);
+    pendingCommits.addAndGet(-size);
+
+    for (;;)
+    {
+      int largest = largestCommitBatchSize.get();
+      if (size <= largest || largestCommitBatchSize.compareAndSet(largest, size))
+      {
+        break;
+      }
+    }
+
+    if (TRACER.isEnabled())
+    {
+      TRACER.format("Replicated {0} commits. Pending commits: {1}, replication lag: {2} millis", size, //$NON-NLS-1$
+          getPendingCommits(), getReplicationLag());
+    }
+  }
+
   private void sleepRetryInterval()
   {
     long end = System.currentTimeMillis() + 1000L * retryInterval;
@@ -353,6 +435,7 @@ public class RepositorySynchronizer extends PriorityQueueRunner implements Inter
         CDOSessionInvalidationEvent e = (CDOSessionInvalidationEvent)event;
         if (e.isRemote())
         {
+          receiveCommitInfo(e);
           addWork(new CommitRunnable(e));
         }
       }
@@ -480,6 +563,21 @@ public class RepositorySynchronizer extends PriorityQueueRunner implements Inter
         {
           sessionProtocol.replicateRepositoryRaw(localRepository, monitor);
         }
+        else if (maxCommitBatchSize > 1)
+        {
+          PipeliningReplicationContext context = new PipeliningReplicationContext();
+          boolean success = false;
+
+          try
+          {
+            sessionProtocol.replicateRepository(context, monitor);
+            success = true;
+          }
+          finally
+          {
+            context.finish(success);
+          }
+        }
         else
         {
           sessionProtocol.replicateRepository(localRepository, monitor);
@@ -631,12 +729,17 @@ public class RepositorySynchronizer extends PriorityQueueRunner implements Inter
           }
 
           fireThrowable(ex);
+          giveUp();
         }
       }
     }
 
     protected abstract void doRun();
 
+    protected void giveUp()
+    {
+    }
+
     protected abstract String getErrorMessage();
   }
 
@@ -647,6 +750,12 @@ public class RepositorySynchronizer extends PriorityQueueRunner implements Inter
   {
     private CDOCommitInfo commitInfo;
 
+    /**
+     * The commits that are replicated together with this commit, or <code>null</code> if this runnable has not run yet
+     * or does not batch.
+     */
+    private List<CDOCommitInfo> commitInfos;
+
     public CommitRunnable(CDOCommitInfo commitInfo)
     {
       this.commitInfo = commitInfo;
@@ -655,7 +764,56 @@ public class RepositorySynchronizer extends PriorityQueueRunner implements Inter
     @Override
     protected void doRun()
     {
-      localRepository.handleCommitInfo(commitInfo);
+      if (commitInfos == null)
+      {
+        if (maxCommitBatchSize <= 1)
+        {
+          localRepository.handleCommitInfo(commitInfo);
+          pendingCommits.decrementAndGet();
+          return;
+        }
+
+        commitInfos = pollCommitInfos();
+      }
+
+      // Commits that have already been replicated by a failed run are skipped
+      replicateCommitInfos(commitInfos);
+    }
+
+    @Override
+    protected void giveUp()
+    {
+      pendingCommits.addAndGet(commitInfos == null ? -1 : -commitInfos.size());
+    }
+
+    /**
+     * Removes the commits that directly follow this commit in the queue and returns them together with this commit.
+     */
+    private List<CDOCommitInfo> pollCommitInfos()
+    {
+      List<CDOCommitInfo> result = new ArrayList<CDOCommitInfo>();
+      result.add(commitInfo);
+
+      BlockingQueue<PriorityQueueRunnable> queue = getQueue();
+      while (result.size() < maxCommitBatchSize)
+      {
+        PriorityQueueRunnable next = queue.peek();
+        if (!(next instanceof CommitRunnable))
+        {
+          break;
+        }
+
+        CommitRunnable nextCommit = (CommitRunnable)next;
+        if (nextCommit.commitInfos != null || !queue.remove(nextCommit))
+        {
+          // A retry of a failed batch, or the queue has changed
+          break;
+        }
+
+        result.add(nextCommit.commitInfo);
+      }
+
+      return result;
     }
 
     @Override
@@ -729,4 +887,143 @@ public class RepositorySynchronizer extends PriorityQueueRunner implements Inter
       return "Replication of master lock changes failed:" + lockChangeInfo;
     }
   }
+
+  /**
+   * Receives the commits of a resynchronization in batches and replicates each batch into the local repository while
+   * the next batch is received from the master.
+   *
+   * @author Eike Stepper
+   */
+  private final class PipeliningReplicationContext implements CDOReplicationContext
+  {
+    private final ExecutorService executorService = ConcurrencyUtil.getExecutorService(localRepository);
+
+    private List<CDOCommitInfo> batch = new ArrayList<CDOCommitInfo>();
+
+    private Future<?> write;
+
+    public PipeliningReplicationContext()
+    {
+    }
+
+    public int getLastReplicatedBranchID()
+    {
+      return localRepository.getLastReplicatedBranchID();
+    }
+
+    public long getLastReplicatedCommitTime()
+    {
+      return localRepository.getLastReplicatedCommitTime();
+    }
+
+    public String[] getLockAreaIDs()
+    {
+      return localRepository.getLockAreaIDs();
+    }
+
+    public void handleBranch(CDOBranch branch)
+    {
+      flush();
+      waitForWrite();
+      localRepository.handleBranch(branch);
+    }
+
+    public void handleCommitInfo(CDOCommitInfo commitInfo)
+    {
+      receiveCommitInfo(commitInfo);
+      batch.add(commitInfo);
+
+      if (batch.size() >= maxCommitBatchSize)
+      {
+        flush();
+      }
+    }
+
+    public boolean handleLockArea(LockArea area)
+    {
+      flush();
+      waitForWrite();
+      return localRepository.handleLockArea(area);
+    }
+
+    public void finish(boolean success)
+    {
+      if (success)
+      {
+        flush();
+        waitForWrite();
+      }
+      else if (write != null)
+      {
+        // Don't let the failed resynchronization overlap with the next one
+        try
+        {
+          waitForWrite();
+        }
+        catch (RuntimeException ex)
+        {
+          //$FALL-THROUGH$
+        }
+      }
+    }
+
+    /**
+     * Hands the received commits over to the writer, after the previous batch has been written.
+     */
+    private void flush()
+    {
+      waitForWrite();
+      if (batch.isEmpty())
+      {
+        return;
+      }
+
+      final List<CDOCommitInfo> commitInfos = batch;
+      batch = new ArrayList<CDOCommitInfo>();
+
+      if (executorService == null)
+      {
+        replicateCommitInfos(commitInfos);
+        return;
+      }
+
+      write = executorService.submit(new Runnable()
+      {
+        public void run()
+        {
+          replicateCommitInfos(commitInfos);
+        }
+      });
+    }
+
+    private void waitForWrite()
+    {
+      if (write == null)
+      {
+        return;
+      }
+
+      Future<?> future = write;
+      write = null;
+
+      try
+      {
+        future.get();
+      }
+      catch (ExecutionException ex)
+      {
+        Throwable cause = ex.getCause();
+        if (cause instanceof Error)
+        {
+          throw (Error)cause;
+        }
+
+        throw WrappedException.wrap((Exception)cause);
+      }
+      catch (InterruptedException ex)
+      {
+        throw WrappedException.wrap(ex);
+      }
+    }
+  }
 }
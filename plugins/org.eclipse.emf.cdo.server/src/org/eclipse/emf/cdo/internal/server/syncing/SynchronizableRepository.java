@@ -71,6 +71,7 @@ import org.eclipse.emf.cdo.spi.server.SyncingUtil;
 
 import org.eclipse.net4j.util.WrappedException;
 import org.eclipse.net4j.util.collection.IndexedList;
+import org.eclipse.net4j.util.concurrent.ConcurrencyUtil;
 import org.eclipse.net4j.util.concurrent.IRWLockManager.LockType;
 import org.eclipse.net4j.util.concurrent.TimeoutRuntimeException;
 import org.eclipse.net4j.util.lifecycle.LifecycleUtil;
@@ -98,6 +99,11 @@ import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
 import java.util.concurrent.locks.ReentrantReadWriteLock.ReadLock;
 import java.util.concurrent.locks.ReentrantReadWriteLock.WriteLock;
@@ -147,7 +153,7 @@ public abstract class SynchronizableRepository extends Repository.Default implem
 
   private long lastReplicatedCommitTime = CDOBranchPoint.UNSPECIFIED_DATE;
 
-  private int lastTransactionID;
+  private AtomicInteger lastTransactionID = new AtomicInteger();
 
   private ReadLock writeThroughCommitLock;
 
@@ -268,12 +274,86 @@ public abstract class SynchronizableRepository extends Repository.Default implem
     setLastReplicatedBranchID(branchID);
   }
 
-  public void handleCommitInfo(final CDOCommitInfo commitInfo)
+  public void handleCommitInfo(CDOCommitInfo commitInfo)
+  {
+    ReplicatorCommitContext commitContext = prepareCommitInfo(commitInfo, false);
+    if (commitContext != null)
+    {
+      writeCommitInfo(commitContext);
+    }
+  }
+
+  public void handleCommitInfos(List<CDOCommitInfo> commitInfos)
+  {
+    ExecutorService executorService = ConcurrencyUtil.getExecutorService(this);
+    Future<ReplicatorCommitContext> nextCommitContext = null;
+
+    try
+    {
+      for (int i = 0, size = commitInfos.size(); i < size; i++)
+      {
+        ReplicatorCommitContext commitContext;
+        if (nextCommitContext != null)
+        {
+          commitContext = getCommitContext(nextCommitContext);
+          nextCommitContext = null;
+        }
+        else
+        {
+          commitContext = prepareCommitInfo(commitInfos.get(i), true);
+        }
+
+        if (executorService != null && i + 1 < size)
+        {
+          // Prepare the next commit, including the loading of its data, while this commit is written
+          final CDOCommitInfo nextCommitInfo = commitInfos.get(i + 1);
+          nextCommitContext = executorService.submit(new Callable<ReplicatorCommitContext>()
+          {
+            public ReplicatorCommitContext call() throws Exception
+            {
+              return prepareCommitInfo(nextCommitInfo, true);
+            }
+          });
+        }
+
+        if (commitContext != null)
+        {
+          writeCommitInfo(commitContext);
+        }
+      }
+    }
+    finally
+    {
+      if (nextCommitContext != null)
+      {
+        // A commit of this run failed, so the prepared next commit is not written
+        try
+        {
+          ReplicatorCommitContext commitContext = getCommitContext(nextCommitContext);
+          if (commitContext != null)
+          {
+            commitContext.getTransaction().close();
+          }
+        }
+        catch (RuntimeException ex)
+        {
+          //$FALL-THROUGH$
+        }
+      }
+    }
+  }
+
+  private ReplicatorCommitContext prepareCommitInfo(final CDOCommitInfo commitInfo, boolean skipReplicated)
   {
     CDOBranch branch = commitInfo.getBranch();
     if (branch.isLocal())
     {
-      return;
+      return null;
+    }
+
+    if (skipReplicated && commitInfo.getTimeStamp() <= getLastReplicatedCommitTime())
+    {
+      return null;
     }
 
     // Convert branches from remoteSession to localRepository
@@ -322,11 +402,17 @@ public abstract class SynchronizableRepository extends Repository.Default implem
       }
     };
 
-    long timeStamp = newCommitInfo.getTimeStamp();
     CDOBranchPoint head = newBranch.getHead();
 
-    InternalTransaction transaction = replicatorSession.openTransaction(++lastTransactionID, head);
-    ReplicatorCommitContext commitContext = new ReplicatorCommitContext(transaction, newCommitInfo);
+    InternalTransaction transaction = replicatorSession.openTransaction(lastTransactionID.incrementAndGet(), head);
+    return new ReplicatorCommitContext(transaction, newCommitInfo);
+  }
+
+  private void writeCommitInfo(ReplicatorCommitContext commitContext)
+  {
+    InternalTransaction transaction = commitContext.getTransaction();
+    long timeStamp = commitContext.getCommitInfo().getTimeStamp();
+
     commitContext.preWrite();
     boolean success = false;
 
@@ -349,6 +435,28 @@ public abstract class SynchronizableRepository extends Repository.Default implem
     }
   }
 
+  private static ReplicatorCommitContext getCommitContext(Future<ReplicatorCommitContext> future)
+  {
+    try
+    {
+      return future.get();
+    }
+    catch (ExecutionException ex)
+    {
+      Throwable cause = ex.getCause();
+      if (cause instanceof Error)
+      {
+        throw (Error)cause;
+      }
+
+      throw WrappedException.wrap((Exception)cause);
+    }
+    catch (InterruptedException ex)
+    {
+      throw WrappedException.wrap(ex);
+    }
+  }
+
   public void handleLockChangeInfo(CDOLockChangeInfo lockChangeInfo)
   {
     CDOLockOwner owner = lockChangeInfo.getLockOwner();
@@ -336,6 +336,16 @@ public interface IRepository extends CDOCommonRepository, IQueryHandlerProvider,
      */
     public static final String SERIALIZE_COMMITS = "serializeCommits"; //$NON-NLS-1$
 
+    /**
+     * If set to <code>true</code> commit timestamps are issued by a hybrid logical clock, i.e., the maximum of the
+     * physical time and the successor of the last issued timestamp. Commits and new branches then no longer wait for
+     * the physical clock to advance to the next millisecond, at the price of timestamps that can temporarily run
+     * slightly ahead of the physical time under high commit rates.
+     *
+     * @since 4.6
+     */
+    public static final String HYBRID_TIME_STAMPS = "hybridTimeStamps"; //$NON-NLS-1$
+
     /**
      * @since 3.0
      */
@@ -363,6 +373,19 @@ public interface IRepository extends CDOCommonRepository, IQueryHandlerProvider,
      */
     public static final String OPTIMISTIC_LOCKING_TIMEOUT = "optimisticLockingTimeout"; //$NON-NLS-1$
 
+    /**
+     * If set to a positive number commit and lock notifications are sent to the sessions asynchronously, i.e., not in
+     * the committing thread. Each session then has its own queue that holds at most the given number of notifications.
+     * If the queue of a session is full, subsequent commit and lock notifications for that session are kept back, in
+     * their original order, until it has caught up. No notification is dropped. The delivery to other sessions never
+     * waits for a slow session.
+     * <p>
+     * The default is zero, i.e., notifications are sent synchronously.
+     *
+     * @since 4.6
+     */
+    public static final String NOTIFICATION_QUEUE_SIZE = "notificationQueueSize"; //$NON-NLS-1$
+
     /**
      * @since 4.0
      * @deprecated As of 4.2 instances of Ecore are always supported (on demand).
@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2010-2012, 2015 Eike Stepper (Berlin, Germany) and others.
+ * Copyright (c) 2010-2012, 2015, 2016 Eike Stepper (Berlin, Germany) and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -42,6 +42,11 @@ public interface IRepositorySynchronizer extends IContainer<CDOSession>
    */
   public static final int DEFAULT_RECOMMIT_INTERVAL = 1;
 
+  /**
+   * @since 4.6
+   */
+  public static final int DEFAULT_MAX_COMMIT_BATCH_SIZE = 1;
+
   public int getRetryInterval();
 
   public void setRetryInterval(int retryInterval);
@@ -66,4 +71,36 @@ public interface IRepositorySynchronizer extends IContainer<CDOSession>
   public int getRecommitInterval();
 
   public void setRecommitInterval(int recommitInterval);
+
+  /**
+   * Returns the maximum number of consecutive master commits that are replicated into the local repository as one
+   * batch.
+   * <p>
+   * With a value greater than one the commits of a batch are applied one after the other, each with its own time stamp
+   * and commit info, while the data of the next commit is already prepared, and while the next commits are already
+   * received from the master during a resynchronization.
+   *
+   * @since 4.6
+   */
+  public int getMaxCommitBatchSize();
+
+  /**
+   * @since 4.6
+   */
+  public void setMaxCommitBatchSize(int maxCommitBatchSize);
+
+  /**
+   * Returns the number of master commits that have been received but not yet replicated into the local repository.
+   *
+   * @since 4.6
+   */
+  public int getPendingCommits();
+
+  /**
+   * Returns the number of milliseconds between the time stamp of the latest master commit that has been received and
+   * the time stamp of the latest master commit that has been replicated into the local repository.
+   *
+   * @since 4.6
+   */
+  public long getReplicationLag();
 }
@@ -876,4 +876,28 @@ public interface IStoreAccessor extends IQueryHandlerProvider, BranchLoader, Com
 
     public void writeUnits(Map<CDOID, CDOID> unitMappings, long timeStamp);
   }
+
+  /**
+   * An extension interface for {@link IStoreAccessor store accessors} that can read the revisions of many objects
+   * with fewer back-end round trips than {@link IStoreAccessor#readRevision(CDOID, CDOBranchPoint, int, CDORevisionCacheAdder) readRevision()}
+   * would need for each of them.
+   *
+   * @author Eike Stepper
+   * @since 4.6
+   * @apiviz.exclude
+   */
+  public interface BatchRead extends IStoreAccessor
+  {
+    /**
+     * Reads the revisions with the given IDs from the back-end that were valid at the given timeStamp in the given branch.
+     * <p>
+     * The result must be equivalent to calling {@link IStoreAccessor#readRevision(CDOID, CDOBranchPoint, int, CDORevisionCacheAdder) readRevision()}
+     * for each of the given IDs. The IDs of objects that do not exist in the given branch are not contained in the returned map.
+     * <p>
+     * Implementations may still read some revisions or parts of them one by one. The DBStore, for example, reads the
+     * object types and the attributes in batches, but it reads chunked lists, feature maps and range-based lists per revision,
+     * and it reads the revisions of branching mappings and of non-audit classes with lists one by one.
+     */
+    public Map<CDOID, InternalCDORevision> readRevisions(Collection<CDOID> ids, CDOBranchPoint branchPoint, int listChunk, CDORevisionCacheAdder cache);
+  }
 }
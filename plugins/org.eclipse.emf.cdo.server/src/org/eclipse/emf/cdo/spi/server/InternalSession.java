@@ -27,6 +27,7 @@ import org.eclipse.emf.cdo.spi.common.branch.InternalCDOBranch;
 import org.eclipse.emf.cdo.spi.common.revision.InternalCDORevision;
 
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 /**
@@ -127,6 +128,26 @@ public interface InternalSession extends ISession, CDOIDProvider, CDOPermissionP
    */
   public void sendCommitNotification(CommitNotificationInfo info) throws Exception;
 
+  /**
+   * Returns the commit notification that this session needs to receive for the given commit notification, or
+   * <code>null</code> if this session doesn't need to receive it. The returned notification must be sent with
+   * {@link #sendPreparedCommitNotification(CommitNotificationInfo)}.
+   * <p>
+   * If the returned notification does not depend on the permissions of this session's user and on the state of its views
+   * it's looked up in and added to the given map, so that sessions with identical settings receive the identical
+   * notification. Such a notification is {@link CommitNotificationInfo#isShared() shared} and written only once.
+   *
+   * @param sharedInfos the notifications that are shared among the sessions, or <code>null</code> if this session's
+   *          notification is not to be shared.
+   * @since 4.6
+   */
+  public CommitNotificationInfo prepareCommitNotification(CommitNotificationInfo info, Map<Object, CommitNotificationInfo> sharedInfos);
+
+  /**
+   * @since 4.6
+   */
+  public void sendPreparedCommitNotification(CommitNotificationInfo sessionInfo) throws Exception;
+
   public void sendRemoteSessionNotification(InternalSession sender, byte opcode) throws Exception;
 
   public void sendRemoteMessageNotification(InternalSession sender, CDORemoteSessionMessage message) throws Exception;
@@ -10,11 +10,14 @@
  */
 package org.eclipse.emf.cdo.spi.server;
 
+import org.eclipse.emf.cdo.common.commit.CDOCommitInfo;
 import org.eclipse.emf.cdo.common.lock.CDOLockChangeInfoHandler;
 import org.eclipse.emf.cdo.server.ISynchronizableRepository;
 import org.eclipse.emf.cdo.spi.common.CDORawReplicationContext;
 import org.eclipse.emf.cdo.spi.common.CDOReplicationContext;
 
+import java.util.List;
+
 /**
  * If the meaning of this type isn't clear, there really should be more of a description here...
  *
@@ -35,4 +38,12 @@ public interface InternalSynchronizableRepository
   public void setLastReplicatedBranchID(int lastReplicatedBranchID);
 
   public void setLastReplicatedCommitTime(long lastReplicatedCommitTime);
+
+  /**
+   * Replicates the given run of consecutive master commits into this repository. Commits that have already been
+   * replicated are skipped, so that a partially replicated run can be passed in again.
+   *
+   * @since 4.6
+   */
+  public void handleCommitInfos(List<CDOCommitInfo> commitInfos);
 }
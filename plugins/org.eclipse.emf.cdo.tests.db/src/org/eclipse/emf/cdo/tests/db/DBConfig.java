@@ -13,6 +13,7 @@ package org.eclipse.emf.cdo.tests.db;
 import org.eclipse.emf.cdo.common.CDOCommonRepository.IDGenerationLocation;
 import org.eclipse.emf.cdo.server.IStore;
 import org.eclipse.emf.cdo.server.db.CDODBUtil;
+import org.eclipse.emf.cdo.server.db.IDBStore;
 import org.eclipse.emf.cdo.server.db.mapping.IMappingStrategy;
 import org.eclipse.emf.cdo.server.db.mapping.ITypeMapping;
 import org.eclipse.emf.cdo.server.internal.db.mapping.TypeMappingRegistry;
@@ -43,6 +44,10 @@ public abstract class DBConfig extends RepositoryConfig
 
   public static final String PROP_TEST_MAPPING_STRATEGY = "test.repository.MappingStrategy";
 
+  public static final String PROP_TEST_XREF_INDEX = "test.repository.XRefIndex";
+
+  public static final String PROP_TEST_GROUP_COMMIT_WINDOW = "test.repository.GroupCommitWindow";
+
   private static final long serialVersionUID = 1L;
 
   private boolean withRanges;
@@ -189,6 +194,17 @@ public abstract class DBConfig extends RepositoryConfig
     Map<String, String> props = new HashMap<String, String>();
     // props.put(IDBStore.Props.ID_COLUMN_LENGTH, "66");
 
+    if (Boolean.TRUE.equals(getTestProperty(PROP_TEST_XREF_INDEX)))
+    {
+      props.put(IDBStore.Props.XREF_INDEX, "true");
+    }
+
+    Object groupCommitWindow = getTestProperty(PROP_TEST_GROUP_COMMIT_WINDOW);
+    if (groupCommitWindow != null)
+    {
+      props.put(IDBStore.Props.GROUP_COMMIT_WINDOW, groupCommitWindow.toString());
+    }
+
     return CDODBUtil.createStore(mappingStrategy, dbAdapter, connectionProvider, props);
   }
 
@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2009-2013 Eike Stepper (Berlin, Germany) and others.
+ * Copyright (c) 2009-2013, 2016 Eike Stepper (Berlin, Germany) and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -41,6 +41,9 @@ public abstract class DBConfigs extends AllConfigs
     testClasses.add(SQLQueryTest.class);
     testClasses.add(Bugzilla_351068_Test.class);
     testClasses.add(Bugzilla_396743_Test.class);
+    testClasses.add(XRefIndexTest.class);
+    testClasses.add(GroupCommitTest.class);
+    testClasses.add(ObjectTypeCacheTest.class);
 
     super.initTestClasses(testClasses, scenario);
     testClasses.remove(MEMStoreQueryTest.class);
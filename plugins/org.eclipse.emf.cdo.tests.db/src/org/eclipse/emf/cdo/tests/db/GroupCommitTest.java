@@ -0,0 +1,348 @@
+/*
+ * Copyright (c) 2016 Eike Stepper (Berlin, Germany) and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    Eike Stepper - initial API and implementation
+ */
+package org.eclipse.emf.cdo.tests.db;
+
+import org.eclipse.emf.cdo.eresource.CDOResource;
+import org.eclipse.emf.cdo.server.internal.db.DBStore;
+import org.eclipse.emf.cdo.server.internal.db.GroupCommitter;
+import org.eclipse.emf.cdo.session.CDOSession;
+import org.eclipse.emf.cdo.tests.AbstractCDOTest;
+import org.eclipse.emf.cdo.tests.model1.Category;
+import org.eclipse.emf.cdo.transaction.CDOTransaction;
+import org.eclipse.emf.cdo.util.CommitException;
+import org.eclipse.emf.cdo.view.CDOView;
+
+import org.eclipse.net4j.spi.db.DBAdapter;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * @author Eike Stepper
+ */
+public class GroupCommitTest extends AbstractCDOTest
+{
+  private static final int USERS = 8;
+
+  private static final int COMMITS = 20;
+
+  /**
+   * The group commit window in microseconds. It's large enough for all users to join a group, the leader stops waiting
+   * as soon as all of them have joined.
+   */
+  private static final long WINDOW = 1000000L;
+
+  private GroupCommitter originalGroupCommitter;
+
+  @Override
+  public synchronized Map<String, Object> getTestProperties()
+  {
+    Map<String, Object> map = super.getTestProperties();
+    map.put(DBConfig.PROP_TEST_GROUP_COMMIT_WINDOW, 5000);
+    return map;
+  }
+
+  @Override
+  protected void doTearDown() throws Exception
+  {
+    if (originalGroupCommitter != null)
+    {
+      getStore().setGroupCommitter(originalGroupCommitter);
+      originalGroupCommitter = null;
+    }
+
+    super.doTearDown();
+  }
+
+  @CleanRepositoriesBefore(reason = "Group commit")
+  public void testConcurrentCommits() throws Exception
+  {
+    CDOSession session = openSession();
+    User[] users = createUsers(session);
+
+    TestGroupCommitter groupCommitter = installGroupCommitter();
+    runUsers(users, COMMITS);
+
+    for (int userID = 0; userID < USERS; userID++)
+    {
+      assertEquals(0, users[userID].getFailures());
+    }
+
+    // The barrier makes all users commit at the same time, so at least some of their commits are grouped
+    assertEquals(true, groupCommitter.getLargestGroupSize() >= 2);
+    assertEquals(true, groupCommitter.getGroupCount() < groupCommitter.getCommitCount());
+    assertEquals((long)USERS * COMMITS, groupCommitter.getCommitCount());
+
+    clearCache(getRepository().getRevisionManager());
+
+    CDOView view = openSession().openView();
+    for (int userID = 0; userID < USERS; userID++)
+    {
+      CDOResource resource = view.getResource(getResourcePath("/res" + userID));
+      assertEquals(COMMITS, resource.getContents().size());
+    }
+  }
+
+  @CleanRepositoriesBefore(reason = "Group commit")
+  public void testFailedGroupCommit() throws Exception
+  {
+    CDOSession session = openSession();
+    User[] users = createUsers(session);
+
+    TestGroupCommitter groupCommitter = installGroupCommitter();
+    groupCommitter.setFailing(true);
+    runUsers(users, 1);
+
+    // Every member of the failed group surfaces the failure
+    assertEquals(true, groupCommitter.getLargestGroupSize() >= 2);
+    assertEquals(USERS, groupCommitter.getInjectedFailures());
+    for (int userID = 0; userID < USERS; userID++)
+    {
+      assertEquals(1, users[userID].getFailures());
+    }
+
+    // And none of them has left a trace in the store
+    clearCache(getRepository().getRevisionManager());
+
+    CDOView view = openSession().openView();
+    for (int userID = 0; userID < USERS; userID++)
+    {
+      CDOResource resource = view.getResource(getResourcePath("/res" + userID));
+      assertEquals(0, resource.getContents().size());
+    }
+
+    // The connections of the rolled back transactions can be used again
+    groupCommitter.setFailing(false);
+    for (int userID = 0; userID < USERS; userID++)
+    {
+      User user = users[userID];
+      user.resource.getContents().add(getModel1Factory().createCategory());
+      user.transaction.commit();
+    }
+
+    clearCache(getRepository().getRevisionManager());
+
+    view = openSession().openView();
+    for (int userID = 0; userID < USERS; userID++)
+    {
+      CDOResource resource = view.getResource(getResourcePath("/res" + userID));
+      assertEquals(1, resource.getContents().size());
+    }
+  }
+
+  @CleanRepositoriesBefore(reason = "Group commit")
+  public void testConflictingCommit() throws Exception
+  {
+    CDOSession session = openSession();
+    CDOTransaction transaction = session.openTransaction();
+    CDOResource resource = transaction.createResource(getResourcePath("/res"));
+    Category category = getModel1Factory().createCategory();
+    resource.getContents().add(category);
+    transaction.commit();
+
+    CDOTransaction transaction2 = openSession().openTransaction();
+    transaction2.getObject(category).setName("Conflicting");
+    transaction2.commit();
+
+    category.setName("Changed");
+
+    try
+    {
+      transaction.commit();
+      fail("CommitException expected");
+    }
+    catch (CommitException expected)
+    {
+      // SUCCESS
+    }
+
+    transaction.rollback();
+    resource.getContents().add(getModel1Factory().createCategory());
+    transaction.commit();
+    assertEquals(2, resource.getContents().size());
+  }
+
+  private DBStore getStore()
+  {
+    return (DBStore)getRepository().getStore();
+  }
+
+  private TestGroupCommitter installGroupCommitter()
+  {
+    DBStore store = getStore();
+    originalGroupCommitter = store.getGroupCommitter();
+    assertNotNull(originalGroupCommitter);
+
+    TestGroupCommitter groupCommitter = new TestGroupCommitter((DBAdapter)store.getDBAdapter());
+    store.setGroupCommitter(groupCommitter);
+    return groupCommitter;
+  }
+
+  private User[] createUsers(CDOSession session) throws CommitException
+  {
+    User[] users = new User[USERS];
+    for (int userID = 0; userID < USERS; userID++)
+    {
+      CDOTransaction transaction = session.openTransaction();
+      CDOResource resource = transaction.createResource(getResourcePath("/res" + userID));
+      transaction.commit();
+
+      users[userID] = new User(userID, transaction, resource);
+    }
+
+    return users;
+  }
+
+  private void runUsers(User[] users, int commits) throws Exception
+  {
+    CyclicBarrier barrier = new CyclicBarrier(USERS);
+    CountDownLatch latch = new CountDownLatch(USERS);
+
+    for (int userID = 0; userID < USERS; userID++)
+    {
+      users[userID].start(barrier, latch, commits);
+    }
+
+    assertEquals(true, latch.await(DEFAULT_TIMEOUT, TimeUnit.MILLISECONDS));
+
+    for (int userID = 0; userID < USERS; userID++)
+    {
+      Exception exception = users[userID].getException();
+      if (exception != null)
+      {
+        throw exception;
+      }
+    }
+  }
+
+  /**
+   * A group committer with a large window that can be told to fail the commits of all members of a group.
+   *
+   * @author Eike Stepper
+   */
+  private static final class TestGroupCommitter extends GroupCommitter
+  {
+    private final AtomicInteger injectedFailures = new AtomicInteger();
+
+    private volatile boolean failing;
+
+    public TestGroupCommitter(DBAdapter dbAdapter)
+    {
+      super(dbAdapter, WINDOW, USERS);
+    }
+
+    public void setFailing(boolean failing)
+    {
+      this.failing = failing;
+    }
+
+    public int getInjectedFailures()
+    {
+      return injectedFailures.get();
+    }
+
+    @Override
+    protected void commitConnection(Connection connection) throws SQLException
+    {
+      if (failing)
+      {
+        injectedFailures.incrementAndGet();
+        throw new SQLException("Injected group commit failure");
+      }
+
+      super.commitConnection(connection);
+    }
+  }
+
+  /**
+   * @author Eike Stepper
+   */
+  private final class User
+  {
+    private final String name;
+
+    private final CDOTransaction transaction;
+
+    private final CDOResource resource;
+
+    private volatile int failures;
+
+    private volatile Exception exception;
+
+    public User(int userID, CDOTransaction transaction, CDOResource resource)
+    {
+      name = "User" + userID;
+      this.transaction = transaction;
+      this.resource = resource;
+    }
+
+    public int getFailures()
+    {
+      return failures;
+    }
+
+    public Exception getException()
+    {
+      return exception;
+    }
+
+    public void start(final CyclicBarrier barrier, final CountDownLatch latch, final int commits)
+    {
+      failures = 0;
+      exception = null;
+
+      Thread thread = new Thread(name)
+      {
+        @Override
+        public void run()
+        {
+          try
+          {
+            for (int i = 0; i < commits; i++)
+            {
+              Category category = getModel1Factory().createCategory();
+              category.setName(name + "-" + i);
+              resource.getContents().add(category);
+
+              // Make all users commit at the same time
+              barrier.await(DEFAULT_TIMEOUT, TimeUnit.MILLISECONDS);
+
+              try
+              {
+                transaction.commit();
+              }
+              catch (CommitException ex)
+              {
+                ++failures;
+                transaction.rollback();
+              }
+            }
+          }
+          catch (Exception ex)
+          {
+            exception = ex;
+          }
+          finally
+          {
+            latch.countDown();
+          }
+        }
+      };
+
+      thread.start();
+    }
+  }
+}
@@ -0,0 +1,337 @@
+/*
+ * Copyright (c) 2016 Eike Stepper (Berlin, Germany) and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    Eike Stepper - initial API and implementation
+ */
+package org.eclipse.emf.cdo.tests.db;
+
+import org.eclipse.emf.cdo.common.id.CDOID;
+import org.eclipse.emf.cdo.common.id.CDOIDUtil;
+import org.eclipse.emf.cdo.common.model.CDOClassifierRef;
+import org.eclipse.emf.cdo.eresource.CDOResource;
+import org.eclipse.emf.cdo.server.db.IDBStore;
+import org.eclipse.emf.cdo.server.internal.db.mapping.horizontal.ObjectTypeCache;
+import org.eclipse.emf.cdo.server.internal.db.mapping.horizontal.ObjectTypeTable;
+import org.eclipse.emf.cdo.tests.AbstractCDOTest;
+import org.eclipse.emf.cdo.transaction.CDOTransaction;
+import org.eclipse.emf.cdo.util.CDOUtil;
+
+import org.eclipse.net4j.util.lifecycle.LifecycleUtil;
+
+import org.eclipse.emf.ecore.EObject;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tests the segmented CLOCK cache of an {@link ObjectTypeCache} against a reference map.
+ *
+ * @author Eike Stepper
+ */
+public class ObjectTypeCacheTest extends AbstractCDOTest
+{
+  private static final int OPERATIONS = 100000;
+
+  private static final int THREADS = 4;
+
+  private static final int TYPES = 10;
+
+  private static final int OBJECTS = 100;
+
+  private TestCache cache;
+
+  @Override
+  protected void doTearDown() throws Exception
+  {
+    LifecycleUtil.deactivate(cache);
+    cache = null;
+    super.doTearDown();
+  }
+
+  public void testRandomOperations() throws Exception
+  {
+    // The cache is large enough to hold all keys, so it must behave exactly like the reference map
+    createCache(2000, false);
+    assertRandomOperations(new Random(4711L), 0, 1000, false);
+  }
+
+  public void testRandomOperationsWithEviction() throws Exception
+  {
+    createCache(256, false);
+    assertRandomOperations(new Random(4711L), 0, 1024, true);
+  }
+
+  public void testConcurrentOperations() throws Exception
+  {
+    createCache(4 * THREADS * 1000, false);
+
+    final CountDownLatch latch = new CountDownLatch(THREADS);
+    final List<Throwable> failures = Collections.synchronizedList(new ArrayList<Throwable>());
+
+    for (int i = 0; i < THREADS; i++)
+    {
+      // Each thread works on its own keys, which share the segments with the keys of the other threads. Readers don't
+      // lock, so they may miss an entry that a concurrent removal shifts.
+      final int offset = i * 1000;
+      Thread thread = new Thread("ObjectTypeCacheTest" + i)
+      {
+        @Override
+        public void run()
+        {
+          try
+          {
+            assertRandomOperations(new Random(offset), offset, 1000, true);
+          }
+          catch (Throwable ex)
+          {
+            failures.add(ex);
+          }
+          finally
+          {
+            latch.countDown();
+          }
+        }
+      };
+
+      thread.start();
+    }
+
+    assertEquals(true, latch.await(DEFAULT_TIMEOUT, TimeUnit.MILLISECONDS));
+    if (!failures.isEmpty())
+    {
+      throw new Exception("Concurrent operation failed", failures.get(0));
+    }
+  }
+
+  public void testEvictionAtCapacity() throws Exception
+  {
+    int capacity = 256;
+    createCache(capacity, false);
+
+    CDOID hotID = createID(0);
+    cache.put(hotID, createType(0));
+
+    int keys = 10 * capacity;
+    for (int i = 1; i < keys; i++)
+    {
+      cache.put(createID(i), createType(i));
+      assertEquals(true, cache.getSize() <= capacity);
+
+      // The reference bit gives the hot entry a second chance whenever the CLOCK hand passes it
+      assertEquals(createType(0), cache.get(hotID));
+    }
+
+    assertEquals(capacity, cache.getSize());
+
+    int cached = 0;
+    for (int i = 0; i < keys; i++)
+    {
+      CDOID type = cache.get(createID(i));
+      if (type != null)
+      {
+        assertEquals(createType(i), type);
+        ++cached;
+      }
+    }
+
+    assertEquals(capacity, cached);
+  }
+
+  public void testPreloadDoesNotEvict() throws Exception
+  {
+    int capacity = 256;
+    createCache(capacity, false);
+
+    int preloaded = 0;
+    for (int i = 0; i < 2 * capacity; i++)
+    {
+      if (cache.preload(createID(i), createType(i)))
+      {
+        ++preloaded;
+      }
+    }
+
+    assertEquals(preloaded, cache.getSize());
+    assertEquals(true, preloaded <= capacity);
+
+    for (int i = 0; i < 2 * capacity; i++)
+    {
+      CDOID type = cache.get(createID(i));
+      if (type != null)
+      {
+        assertEquals(createType(i), type);
+        --preloaded;
+      }
+    }
+
+    assertEquals(0, preloaded);
+  }
+
+  public void testHitAndMissCount() throws Exception
+  {
+    createCache(256, false);
+    cache.put(createID(1), createType(1));
+    cache.resetStatistics();
+
+    assertEquals(createType(1), cache.get(createID(1)));
+    assertEquals(createType(1), cache.get(createID(1)));
+    assertNull(cache.get(createID(2)));
+    assertEquals(2L, cache.getHitCount());
+    assertEquals(1L, cache.getMissCount());
+
+    cache.resetStatistics();
+    assertEquals(0L, cache.getHitCount());
+    assertEquals(0L, cache.getMissCount());
+  }
+
+  @CleanRepositoriesBefore(reason = "Object counting")
+  public void testWarmUp() throws Exception
+  {
+    CDOTransaction transaction = openSession().openTransaction();
+    CDOResource resource = transaction.createResource(getResourcePath("/res"));
+    for (int i = 0; i < OBJECTS; i++)
+    {
+      resource.getContents().add(getModel1Factory().createCategory());
+    }
+
+    transaction.commit();
+
+    // The cache is much larger than the repository, so that no segment overflows
+    createCache(10 * OBJECTS, true);
+    assertEquals(true, cache.getSize() >= OBJECTS);
+    cache.resetStatistics();
+
+    CDOClassifierRef expected = new CDOClassifierRef(getModel1Package().getCategory());
+    for (EObject category : resource.getContents())
+    {
+      // Hits don't need an accessor
+      CDOID id = CDOUtil.getCDOObject(category).cdoID();
+      assertEquals(expected, cache.getObjectType(null, id));
+    }
+
+    assertEquals((long)OBJECTS, cache.getHitCount());
+    assertEquals(0L, cache.getMissCount());
+  }
+
+  private void createCache(int capacity, boolean warmUp)
+  {
+    IDBStore store = (IDBStore)getRepository().getStore();
+
+    ObjectTypeTable table = new ObjectTypeTable();
+    table.setMappingStrategy(store.getMappingStrategy());
+
+    cache = new TestCache(capacity);
+    cache.setMappingStrategy(store.getMappingStrategy());
+    cache.setDelegate(table);
+    cache.setWarmUp(warmUp);
+    LifecycleUtil.activate(cache);
+  }
+
+  private void assertRandomOperations(Random random, int offset, int keys, boolean lossy)
+  {
+    Map<CDOID, CDOID> reference = new HashMap<CDOID, CDOID>();
+
+    for (int i = 0; i < OPERATIONS; i++)
+    {
+      CDOID id = createID(offset + random.nextInt(keys));
+      CDOID expected = reference.get(id);
+
+      switch (random.nextInt(3))
+      {
+      case 0:
+        CDOID type = createType(random.nextInt(TYPES));
+        cache.put(id, type);
+        reference.put(id, type);
+        break;
+
+      case 1:
+        boolean removed = cache.remove(id);
+        reference.remove(id);
+        if (expected == null)
+        {
+          assertEquals(false, removed);
+        }
+        else if (!lossy)
+        {
+          assertEquals(true, removed);
+        }
+
+        assertNull(cache.get(id));
+        break;
+
+      default:
+        CDOID actual = cache.get(id);
+        if (actual != null || !lossy)
+        {
+          // A cached type is never stale, a type may only be missing if it was evicted or a writer raced
+          assertEquals(expected, actual);
+        }
+      }
+
+      assertEquals(true, cache.getSize() <= cache.getCacheSize());
+    }
+
+    for (Map.Entry<CDOID, CDOID> entry : reference.entrySet())
+    {
+      CDOID actual = cache.get(entry.getKey());
+      if (actual != null || !lossy)
+      {
+        assertEquals(entry.getValue(), actual);
+      }
+    }
+
+    if (!lossy)
+    {
+      assertEquals(reference.size(), cache.getSize());
+    }
+  }
+
+  private static CDOID createID(int i)
+  {
+    return CDOIDUtil.createLong(1000000L + i);
+  }
+
+  private static CDOID createType(int i)
+  {
+    return CDOIDUtil.createLong(1L + i);
+  }
+
+  /**
+   * Exposes the cache operations that don't need an accessor.
+   *
+   * @author Eike Stepper
+   */
+  private static final class TestCache extends ObjectTypeCache
+  {
+    public TestCache(int cacheSize)
+    {
+      super(cacheSize);
+    }
+
+    public CDOID get(CDOID id)
+    {
+      return doGetObjectType(null, id);
+    }
+
+    public boolean put(CDOID id, CDOID type)
+    {
+      return doPutObjectType(null, id, type);
+    }
+
+    public boolean remove(CDOID id)
+    {
+      return doRemoveObjectType(null, id);
+    }
+  }
+}
@@ -0,0 +1,192 @@
+/*
+ * Copyright (c) 2016 Eike Stepper (Berlin, Germany) and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    Eike Stepper - initial API and implementation
+ */
+package org.eclipse.emf.cdo.tests.db;
+
+import org.eclipse.emf.cdo.CDOObjectReference;
+import org.eclipse.emf.cdo.eresource.CDOResource;
+import org.eclipse.emf.cdo.server.IRepository;
+import org.eclipse.emf.cdo.server.internal.db.DBStore;
+import org.eclipse.emf.cdo.server.internal.db.XRefIndexTable;
+import org.eclipse.emf.cdo.session.CDOSession;
+import org.eclipse.emf.cdo.tests.AbstractCDOTest;
+import org.eclipse.emf.cdo.tests.config.IRepositoryConfig;
+import org.eclipse.emf.cdo.tests.model4.ContainedElementNoOpposite;
+import org.eclipse.emf.cdo.tests.model4.RefMultiContainedNPL;
+import org.eclipse.emf.cdo.tests.model4.RefMultiNonContainedNPL;
+import org.eclipse.emf.cdo.tests.model4.RefSingleNonContainedNPL;
+import org.eclipse.emf.cdo.transaction.CDOTransaction;
+import org.eclipse.emf.cdo.util.CDOUtil;
+import org.eclipse.emf.cdo.util.CommitException;
+import org.eclipse.emf.cdo.view.CDOView;
+
+import org.eclipse.emf.ecore.EObject;
+import org.eclipse.emf.ecore.EReference;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * @author Eike Stepper
+ */
+public class XRefIndexTest extends AbstractCDOTest
+{
+  @Override
+  public synchronized Map<String, Object> getTestProperties()
+  {
+    Map<String, Object> map = super.getTestProperties();
+    map.put(IRepository.Props.ENSURE_REFERENTIAL_INTEGRITY, "true");
+    map.put(DBConfig.PROP_TEST_XREF_INDEX, Boolean.TRUE);
+    return map;
+  }
+
+  @CleanRepositoriesBefore(reason = "XRef index")
+  public void testQueryXRefs() throws Exception
+  {
+    CDOSession session = openSession();
+    CDOTransaction transaction = session.openTransaction();
+    CDOResource resource = transaction.createResource(getResourcePath("/test"));
+
+    RefMultiContainedNPL container = getModel4Factory().createRefMultiContainedNPL();
+    ContainedElementNoOpposite target0 = getModel4Factory().createContainedElementNoOpposite();
+    ContainedElementNoOpposite target1 = getModel4Factory().createContainedElementNoOpposite();
+    container.getElements().add(target0);
+    container.getElements().add(target1);
+
+    RefSingleNonContainedNPL single = getModel4Factory().createRefSingleNonContainedNPL();
+    single.setElement(target0);
+
+    RefMultiNonContainedNPL multi = getModel4Factory().createRefMultiNonContainedNPL();
+    multi.getElements().add(target1);
+    multi.getElements().add(target0);
+    multi.getElements().add(target1);
+
+    resource.getContents().add(container);
+    resource.getContents().add(single);
+    resource.getContents().add(multi);
+    transaction.commit();
+
+    assertEquals(true, getXRefIndexTable().isValid());
+
+    EReference singleElement = getModel4Package().getRefSingleNonContainedNPL_Element();
+    EReference multiElements = getModel4Package().getRefMultiNonContainedNPL_Elements();
+
+    CDOView view = session.openView();
+    assertXRefs(view, target0, single, singleElement, 0);
+    assertXRefs(view, target0, multi, multiElements, 1);
+    assertXRefs(view, target1, multi, multiElements, 0, 2);
+
+    multi.getElements().remove(0);
+    transaction.commit();
+    assertXRefs(view, target1, multi, multiElements, 1);
+
+    resource.getContents().remove(single);
+    transaction.commit();
+    assertXRefs(view, target0, single, singleElement);
+  }
+
+  @CleanRepositoriesBefore(reason = "XRef index")
+  public void testReferentialIntegrity() throws Exception
+  {
+    CDOSession session = openSession();
+    CDOTransaction transaction = session.openTransaction();
+    CDOResource resource = transaction.createResource(getResourcePath("/test"));
+
+    RefMultiContainedNPL container = getModel4Factory().createRefMultiContainedNPL();
+    ContainedElementNoOpposite target = getModel4Factory().createContainedElementNoOpposite();
+    container.getElements().add(target);
+
+    RefMultiNonContainedNPL multi = getModel4Factory().createRefMultiNonContainedNPL();
+    multi.getElements().add(target);
+
+    resource.getContents().add(container);
+    resource.getContents().add(multi);
+    transaction.commit();
+
+    container.getElements().remove(target);
+
+    try
+    {
+      transaction.commit();
+      fail("CommitException expected");
+    }
+    catch (CommitException expected)
+    {
+      // SUCCESS
+    }
+
+    transaction.rollback();
+    multi.getElements().clear();
+    container.getElements().clear();
+    transaction.commit();
+  }
+
+  @Requires(IRepositoryConfig.CAPABILITY_RESTARTABLE)
+  @CleanRepositoriesBefore(reason = "XRef index")
+  public void testRebuild() throws Exception
+  {
+    CDOSession session = openSession();
+    CDOTransaction transaction = session.openTransaction();
+    CDOResource resource = transaction.createResource(getResourcePath("/test"));
+
+    RefMultiContainedNPL container = getModel4Factory().createRefMultiContainedNPL();
+    ContainedElementNoOpposite target = getModel4Factory().createContainedElementNoOpposite();
+    container.getElements().add(target);
+
+    RefSingleNonContainedNPL single = getModel4Factory().createRefSingleNonContainedNPL();
+    single.setElement(target);
+
+    resource.getContents().add(container);
+    resource.getContents().add(single);
+    transaction.commit();
+    session.close();
+
+    getXRefIndexTable().invalidate();
+    assertEquals(false, getXRefIndexTable().isValid());
+
+    restartRepository();
+    assertEquals(true, getXRefIndexTable().isValid());
+
+    session = openSession();
+    CDOView view = session.openView();
+    resource = view.getResource(getResourcePath("/test"));
+    container = (RefMultiContainedNPL)resource.getContents().get(0);
+    single = (RefSingleNonContainedNPL)resource.getContents().get(1);
+
+    assertXRefs(view, container.getElements().get(0), single, getModel4Package().getRefSingleNonContainedNPL_Element(), 0);
+  }
+
+  private XRefIndexTable getXRefIndexTable()
+  {
+    return ((DBStore)getRepository().getStore()).getXRefIndexTable();
+  }
+
+  private static void assertXRefs(CDOView view, EObject target, EObject source, EReference reference, int... indexes)
+  {
+    EObject viewTarget = view.getObject(target);
+    List<CDOObjectReference> results = view.queryXRefs(CDOUtil.getCDOObject(viewTarget), reference);
+    assertEquals(indexes.length, results.size());
+
+    for (int i = 0; i < indexes.length; i++)
+    {
+      boolean found = false;
+      for (CDOObjectReference result : results)
+      {
+        if (result.getSourceID().equals(CDOUtil.getCDOObject(source).cdoID()) && result.getSourceIndex() == indexes[i])
+        {
+          found = true;
+          break;
+        }
+      }
+
+      assertEquals(true, found);
+    }
+  }
+}
@@ -18,6 +18,7 @@ import org.eclipse.emf.cdo.common.revision.CDORevisionUtil;
 import org.eclipse.emf.cdo.common.util.CDOCommonUtil;
 import org.eclipse.emf.cdo.internal.server.mem.MEMStore;
 import org.eclipse.emf.cdo.server.IRepository;
+import org.eclipse.emf.cdo.server.IRepositorySynchronizer;
 import org.eclipse.emf.cdo.server.mem.IMEMStore;
 import org.eclipse.emf.cdo.session.CDOSession;
 import org.eclipse.emf.cdo.session.CDOSessionInvalidationEvent;
@@ -76,6 +77,7 @@ public abstract class AbstractSyncingTest extends AbstractCDOTest
     testProperties.put(OfflineConfig.PROP_TEST_DELAYED2_COMMIT_HANDLING, getTestDelayed2CommitHandling());
     testProperties.put(OfflineConfig.PROP_TEST_FAILOVER, isFailover());
     testProperties.put(OfflineConfig.PROP_TEST_HINDER_INITIAL_REPLICATION, isHinderInitialReplication());
+    testProperties.put(OfflineConfig.PROP_TEST_COMMIT_BATCH_SIZE, getTestCommitBatchSize());
     return testProperties;
   }
 
@@ -104,6 +106,11 @@ public abstract class AbstractSyncingTest extends AbstractCDOTest
     return false;
   }
 
+  protected int getTestCommitBatchSize()
+  {
+    return IRepositorySynchronizer.DEFAULT_MAX_COMMIT_BATCH_SIZE;
+  }
+
   protected static void checkEvent(final TestListener listener, final int newPackageUnits, final int newObjects, final int changedObjects,
       final int detachedObjects) throws InterruptedException
   {
@@ -64,18 +64,28 @@ public class AllConfigs extends ConfigTestSuite
     testClasses.add(PushTransactionTest.class);
     testClasses.add(PushTransactionWithoutReconstructSavepointsTest.class);
     testClasses.add(CommitInfoTest.class);
+    testClasses.add(HybridTimeStampsTest.class);
+    testClasses.add(RevisionBatchReadTest.class);
+    testClasses.add(FetchPlanTest.class);
+    testClasses.add(PrimitiveRevisionTest.class);
+    testClasses.add(BoundedRevisionCacheTest.class);
+    testClasses.add(LargeCommitTest.class);
+    testClasses.add(LargeCommitRollbackTest.class);
     testClasses.add(SecurityTest.class);
+    testClasses.add(PermissionDecisionCacheTest.class);
     testClasses.add(AuditTest.class);
     testClasses.add(AuditEMapTest.class);
     testClasses.add(AuditSameSessionTest.class);
     testClasses.add(ResourceTest.class);
     testClasses.add(ContainmentTest.class);
     testClasses.add(InvalidationTest.class);
+    testClasses.add(CommitNotificationQueueTest.class);
     testClasses.add(RollbackTest.class);
     testClasses.add(CrossReferenceTest.class);
     testClasses.add(ChunkingTest.class);
     testClasses.add(ChunkingClearCachedRevisionTest.class);
     testClasses.add(MEMStoreQueryTest.class);
+    testClasses.add(MEMStoreIndexTest.class);
     testClasses.add(PackageRegistryTest.class);
     testClasses.add(PartialCommitTest.class);
     testClasses.add(MetaTest.class);
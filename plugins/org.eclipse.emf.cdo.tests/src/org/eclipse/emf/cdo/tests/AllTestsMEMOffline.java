@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2009-2013 Eike Stepper (Berlin, Germany) and others.
+ * Copyright (c) 2009-2013, 2016 Eike Stepper (Berlin, Germany) and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -13,6 +13,7 @@ package org.eclipse.emf.cdo.tests;
 import org.eclipse.emf.cdo.tests.config.IScenario;
 import org.eclipse.emf.cdo.tests.config.impl.ConfigTest;
 import org.eclipse.emf.cdo.tests.offline.FailoverTest;
+import org.eclipse.emf.cdo.tests.offline.OfflineBatchedTest;
 import org.eclipse.emf.cdo.tests.offline.OfflineDelayed2Test;
 import org.eclipse.emf.cdo.tests.offline.OfflineLockReplicationTest;
 import org.eclipse.emf.cdo.tests.offline.OfflineLockingTest;
@@ -46,6 +47,7 @@ public class AllTestsMEMOffline extends AllConfigs
     testClasses.add(OfflineLockReplicationTest.class);
     testClasses.add(OfflineTest.class);
     testClasses.add(OfflineDelayed2Test.class);
+    testClasses.add(OfflineBatchedTest.class);
     testClasses.add(FailoverTest.class);
 
     // MEM does not support raw replication
@@ -0,0 +1,178 @@
+/*
+ * Copyright (c) 2016 Eike Stepper (Berlin, Germany) and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    Eike Stepper - initial API and implementation
+ */
+package org.eclipse.emf.cdo.tests;
+
+import org.eclipse.emf.cdo.common.branch.CDOBranch;
+import org.eclipse.emf.cdo.common.branch.CDOBranchVersion;
+import org.eclipse.emf.cdo.common.id.CDOIDUtil;
+import org.eclipse.emf.cdo.common.revision.CDORevisionCache.EvictionEvent;
+import org.eclipse.emf.cdo.common.revision.CDORevisionFactory;
+import org.eclipse.emf.cdo.common.revision.CDORevisionUtil;
+import org.eclipse.emf.cdo.internal.common.revision.CDORevisionCacheBounded;
+import org.eclipse.emf.cdo.spi.common.revision.InternalCDORevision;
+
+import org.eclipse.net4j.util.cache.CacheMonitor;
+import org.eclipse.net4j.util.cache.ICacheProbe2;
+import org.eclipse.net4j.util.event.IEvent;
+import org.eclipse.net4j.util.event.IListener;
+import org.eclipse.net4j.util.lifecycle.LifecycleUtil;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Tests {@link CDORevisionCacheBounded}.
+ *
+ * @author Eike Stepper
+ */
+public class BoundedRevisionCacheTest extends AbstractCDOTest
+{
+  private static final int MAXIMUM_SIZE = 100;
+
+  private CDOBranch branch;
+
+  private CDORevisionCacheBounded cache;
+
+  @Override
+  protected void doSetUp() throws Exception
+  {
+    super.doSetUp();
+    branch = getRepository().getBranchManager().getMainBranch();
+
+    cache = (CDORevisionCacheBounded)CDORevisionUtil.createBoundedRevisionCache(
+        getRepository().isSupportingBranches(), MAXIMUM_SIZE, 0);
+  }
+
+  @Override
+  protected void doTearDown() throws Exception
+  {
+    LifecycleUtil.deactivate(cache);
+    cache = null;
+    branch = null;
+    super.doTearDown();
+  }
+
+  public void testMaximumSize() throws Exception
+  {
+    final AtomicInteger evictions = new AtomicInteger();
+    cache.addListener(new IListener()
+    {
+      public void notifyEvent(IEvent event)
+      {
+        if (event instanceof EvictionEvent)
+        {
+          evictions.incrementAndGet();
+        }
+      }
+    });
+
+    LifecycleUtil.activate(cache);
+
+    for (int i = 0; i < 10 * MAXIMUM_SIZE; i++)
+    {
+      cache.addRevision(createRevision(i + 1));
+    }
+
+    assertEquals(MAXIMUM_SIZE, getCachedRevisionCount());
+    assertEquals(9 * MAXIMUM_SIZE, evictions.get());
+  }
+
+  public void testFrequentlyUsedRevisionsSurviveScan() throws Exception
+  {
+    LifecycleUtil.activate(cache);
+
+    int hotCount = MAXIMUM_SIZE / 2;
+    InternalCDORevision[] hotRevisions = new InternalCDORevision[hotCount];
+    for (int i = 0; i < hotCount; i++)
+    {
+      hotRevisions[i] = createRevision(i + 1);
+      cache.addRevision(hotRevisions[i]);
+    }
+
+    for (int j = 0; j < 10; j++)
+    {
+      for (InternalCDORevision revision : hotRevisions)
+      {
+        assertSame(revision, cache.getRevisionByVersion(revision.getID(), revision));
+      }
+    }
+
+    for (int i = 0; i < 10 * MAXIMUM_SIZE; i++)
+    {
+      cache.addRevision(createRevision(hotCount + i + 1));
+    }
+
+    for (InternalCDORevision revision : hotRevisions)
+    {
+      assertSame(revision, cache.getRevisionByVersion(revision.getID(), revision));
+    }
+
+    assertEquals(MAXIMUM_SIZE, getCachedRevisionCount());
+  }
+
+  public void testCacheMonitor() throws Exception
+  {
+    CacheMonitor cacheMonitor = new CacheMonitor();
+    cache.setCacheMonitor(cacheMonitor);
+    LifecycleUtil.activate(cache);
+
+    ICacheProbe2 probe = (ICacheProbe2)cacheMonitor.getRegistrations()[0];
+
+    InternalCDORevision revision = createRevision(1);
+    assertNull(cache.getRevision(revision.getID(), branch.getHead()));
+    cache.addRevision(revision);
+    assertSame(revision, cache.getRevision(revision.getID(), branch.getHead()));
+
+    InternalCDORevision lastRevision = null;
+    for (int i = 0; i < 2 * MAXIMUM_SIZE; i++)
+    {
+      lastRevision = createRevision(i + 2);
+      cache.addRevision(lastRevision);
+    }
+
+    assertEquals(1, probe.getHitCount());
+    assertEquals(1, probe.getMissCount());
+    assertEquals(MAXIMUM_SIZE + 1, probe.getEvictionCount());
+    assertEquals(MAXIMUM_SIZE, probe.getElementCount());
+    assertEquals(MAXIMUM_SIZE, probe.getCacheSize());
+
+    // Removals that are not caused by the maximum size are no evictions
+    assertSame(lastRevision, cache.removeRevision(lastRevision.getID(), lastRevision));
+    assertEquals(MAXIMUM_SIZE + 1, probe.getEvictionCount());
+    assertEquals(MAXIMUM_SIZE - 1, probe.getElementCount());
+
+    cache.clear();
+    assertEquals(MAXIMUM_SIZE + 1, probe.getEvictionCount());
+    assertEquals(0, probe.getElementCount());
+    assertEquals(0, probe.getCacheSize());
+
+    LifecycleUtil.deactivate(cache);
+    assertEquals(0, cacheMonitor.getRegistrations().length);
+  }
+
+  private int getCachedRevisionCount()
+  {
+    List<InternalCDORevision> revisions = new ArrayList<InternalCDORevision>();
+    cache.getAllRevisions(revisions);
+    return revisions.size();
+  }
+
+  private InternalCDORevision createRevision(long id)
+  {
+    InternalCDORevision revision = (InternalCDORevision)CDORevisionFactory.DEFAULT
+        .createRevision(getModel1Package().getCompany());
+    revision.setID(CDOIDUtil.createLong(id));
+    revision.setVersion(CDOBranchVersion.FIRST_VERSION);
+    revision.setBranchPoint(branch.getPoint(1000L));
+    return revision;
+  }
+}
@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2009-2013 Eike Stepper (Berlin, Germany) and others.
+ * Copyright (c) 2009-2013, 2016 Eike Stepper (Berlin, Germany) and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -29,6 +29,11 @@ import org.eclipse.emf.cdo.util.CDOUtil;
 
 import org.eclipse.emf.internal.cdo.transaction.CDOTransactionImpl;
 
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+
 /**
  * @author Stefan Winkler
  */
@@ -90,6 +95,116 @@ public class CDOIDTest extends AbstractCDOTest
     }
   }
 
+  public void testMap() throws Exception
+  {
+    CDOID stringID = CDOIDUtil.createString("string");
+    CDOID tempID = CDOIDUtil.createTempObject(1);
+
+    Map<CDOID, Integer> map = CDOIDUtil.createMap();
+    for (int i = 1; i <= 1000; i++)
+    {
+      assertEquals(null, map.put(CDOIDUtil.createLong(i), i));
+    }
+
+    map.put(stringID, -1);
+    map.put(tempID, -2);
+    map.put(null, -3);
+    assertEquals(1003, map.size());
+
+    assertEquals(Integer.valueOf(500), map.put(CDOIDUtil.createLong(500), 5000));
+    assertEquals(Integer.valueOf(5000), map.get(CDOIDUtil.createLong(500)));
+    assertEquals(Integer.valueOf(-1), map.get(stringID));
+    assertEquals(Integer.valueOf(-2), map.get(tempID));
+    assertEquals(Integer.valueOf(-3), map.get(null));
+    assertEquals(null, map.get(CDOIDUtil.createLong(1001)));
+    assertEquals(true, map.containsValue(-2));
+
+    for (int i = 1; i <= 1000; i += 2)
+    {
+      assertNotNull(map.remove(CDOIDUtil.createLong(i)));
+    }
+
+    assertEquals(503, map.size());
+    assertEquals(false, map.containsKey(CDOIDUtil.createLong(1)));
+    assertEquals(true, map.containsKey(CDOIDUtil.createLong(2)));
+
+    for (int i = 1; i <= 1000; i += 2)
+    {
+      map.put(CDOIDUtil.createLong(i), i);
+    }
+
+    assertEquals(1003, map.size());
+    assertEquals(map, CDOIDUtil.createMap(map));
+  }
+
+  public void testMapIterator() throws Exception
+  {
+    Map<CDOID, Integer> map = CDOIDUtil.createMap();
+    for (int i = 1; i <= 1000; i++)
+    {
+      map.put(CDOIDUtil.createLong(i), i);
+    }
+
+    map.put(CDOIDUtil.createString("string"), 0);
+
+    int count = 0;
+    for (Iterator<Map.Entry<CDOID, Integer>> it = map.entrySet().iterator(); it.hasNext();)
+    {
+      Map.Entry<CDOID, Integer> entry = it.next();
+      ++count;
+
+      if (entry.getValue() % 2 == 0)
+      {
+        it.remove();
+      }
+      else
+      {
+        entry.setValue(-entry.getValue());
+      }
+    }
+
+    assertEquals(1001, count);
+    assertEquals(500, map.size());
+
+    for (Map.Entry<CDOID, Integer> entry : map.entrySet())
+    {
+      assertEquals(-CDOIDUtil.getLong(entry.getKey()), entry.getValue().longValue());
+    }
+
+    try
+    {
+      for (CDOID id : map.keySet())
+      {
+        map.remove(id);
+      }
+
+      fail("ConcurrentModificationException expected");
+    }
+    catch (ConcurrentModificationException expected)
+    {
+      // SUCCESS
+    }
+  }
+
+  public void testSet() throws Exception
+  {
+    Set<CDOID> set = CDOIDUtil.createSet();
+    for (int i = 1; i <= 1000; i++)
+    {
+      assertEquals(true, set.add(CDOIDUtil.createLong(i)));
+    }
+
+    assertEquals(false, set.add(CDOIDUtil.createLong(1)));
+    assertEquals(true, set.add(CDOIDUtil.createString("string")));
+    assertEquals(1001, set.size());
+
+    assertEquals(true, set.remove(CDOIDUtil.createLong(1)));
+    assertEquals(false, set.remove(CDOIDUtil.createLong(1)));
+    assertEquals(false, set.contains(CDOIDUtil.createLong(1)));
+    assertEquals(true, set.contains(CDOIDUtil.createString("string")));
+    assertEquals(set, CDOIDUtil.createSet(set));
+  }
+
   public void testURIFragment() throws Exception
   {
     CDOSession session = openSession();
@@ -0,0 +1,274 @@
+/*
+ * Copyright (c) 2016 Eike Stepper (Berlin, Germany) and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    Eike Stepper - initial API and implementation
+ */
+package org.eclipse.emf.cdo.tests;
+
+import org.eclipse.emf.cdo.CDOObject;
+import org.eclipse.emf.cdo.common.CDOCommonSession.Options.LockNotificationMode;
+import org.eclipse.emf.cdo.common.commit.CDOCommitInfo;
+import org.eclipse.emf.cdo.common.lock.CDOLockChangeInfo.Operation;
+import org.eclipse.emf.cdo.common.protocol.CDOProtocol.CommitNotificationInfo;
+import org.eclipse.emf.cdo.eresource.CDOResource;
+import org.eclipse.emf.cdo.server.IRepository;
+import org.eclipse.emf.cdo.session.CDOSession;
+import org.eclipse.emf.cdo.session.CDOSessionInvalidationEvent;
+import org.eclipse.emf.cdo.session.CDOSessionLocksChangedEvent;
+import org.eclipse.emf.cdo.spi.server.InternalRepository;
+import org.eclipse.emf.cdo.spi.server.InternalSession;
+import org.eclipse.emf.cdo.tests.model1.Company;
+import org.eclipse.emf.cdo.transaction.CDOTransaction;
+import org.eclipse.emf.cdo.util.CDOUtil;
+import org.eclipse.emf.cdo.view.CDOView;
+
+import org.eclipse.net4j.util.event.IEvent;
+import org.eclipse.net4j.util.event.IListener;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Tests the asynchronous fan-out of commit and lock notifications with a {@link IRepository.Props#NOTIFICATION_QUEUE_SIZE
+ * notification queue} that is much smaller than the number of notifications, and the sharing of commit notifications.
+ *
+ * @author Eike Stepper
+ */
+public class CommitNotificationQueueTest extends AbstractCDOTest
+{
+  private static final int SESSIONS = 4;
+
+  private static final int COMMITS = 50;
+
+  @Override
+  public synchronized Map<String, Object> getTestProperties()
+  {
+    Map<String, Object> map = super.getTestProperties();
+    map.put(IRepository.Props.NOTIFICATION_QUEUE_SIZE, "1");
+    return map;
+  }
+
+  public void testFanOut() throws Exception
+  {
+    CDOSession session = openSession();
+    CDOTransaction transaction = session.openTransaction();
+    CDOResource resource = transaction.createResource(getResourcePath("/res"));
+    Company company = getModel1Factory().createCompany();
+    resource.getContents().add(company);
+    transaction.commit();
+
+    List<CDOSession> sessions = new ArrayList<CDOSession>();
+    List<CDOView> views = new ArrayList<CDOView>();
+    List<List<Long>> timeStamps = new ArrayList<List<Long>>();
+
+    for (int i = 0; i < SESSIONS; i++)
+    {
+      CDOSession otherSession = openSession();
+      CDOView view = otherSession.openView();
+      view.getObject(company).getName();
+
+      sessions.add(otherSession);
+      views.add(view);
+      timeStamps.add(recordInvalidations(otherSession));
+    }
+
+    List<Long> expectedTimeStamps = new ArrayList<Long>();
+    for (int i = 0; i < COMMITS; i++)
+    {
+      company.setName("Company" + i);
+      expectedTimeStamps.add(transaction.commit().getTimeStamp());
+    }
+
+    long lastTimeStamp = expectedTimeStamps.get(COMMITS - 1);
+    for (int i = 0; i < SESSIONS; i++)
+    {
+      // Each session receives every notification in commit order, even if its queue was full in between
+      assertEquals(true, sessions.get(i).waitForUpdate(lastTimeStamp, DEFAULT_TIMEOUT));
+      assertEquals("Company" + (COMMITS - 1), views.get(i).getObject(company).getName());
+
+      final List<Long> sessionTimeStamps = timeStamps.get(i);
+      new PollingTimeOuter()
+      {
+        @Override
+        protected boolean successful()
+        {
+          synchronized (sessionTimeStamps)
+          {
+            return sessionTimeStamps.size() >= COMMITS;
+          }
+        }
+      }.assertNoTimeOut();
+
+      synchronized (sessionTimeStamps)
+      {
+        assertEquals(expectedTimeStamps, sessionTimeStamps);
+      }
+    }
+  }
+
+  public void testLockNotifications() throws Exception
+  {
+    CDOSession session = openSession();
+    CDOTransaction transaction = session.openTransaction();
+    CDOResource resource = transaction.createResource(getResourcePath("/res"));
+    Company company = getModel1Factory().createCompany();
+    resource.getContents().add(company);
+    transaction.commit();
+
+    List<List<Operation>> operations = new ArrayList<List<Operation>>();
+    for (int i = 0; i < SESSIONS; i++)
+    {
+      CDOSession otherSession = openSession();
+      otherSession.options().setLockNotificationMode(LockNotificationMode.ALWAYS);
+      operations.add(recordLockNotifications(otherSession));
+    }
+
+    List<Operation> expectedOperations = new ArrayList<Operation>();
+    CDOObject cdoCompany = CDOUtil.getCDOObject(company);
+    for (int i = 0; i < COMMITS; i++)
+    {
+      cdoCompany.cdoWriteLock().lock();
+      cdoCompany.cdoWriteLock().unlock();
+      expectedOperations.add(Operation.LOCK);
+      expectedOperations.add(Operation.UNLOCK);
+    }
+
+    for (int i = 0; i < SESSIONS; i++)
+    {
+      // Each session receives every lock notification in order, even if its queue was full in between
+      final List<Operation> sessionOperations = operations.get(i);
+      new PollingTimeOuter()
+      {
+        @Override
+        protected boolean successful()
+        {
+          synchronized (sessionOperations)
+          {
+            return sessionOperations.size() >= 2 * COMMITS;
+          }
+        }
+      }.assertNoTimeOut();
+
+      synchronized (sessionOperations)
+      {
+        assertEquals(expectedOperations, sessionOperations);
+      }
+    }
+  }
+
+  public void testSharedEncoding() throws Exception
+  {
+    CDOSession session = openSession();
+    CDOTransaction transaction = session.openTransaction();
+    CDOResource resource = transaction.createResource(getResourcePath("/res"));
+    Company company = getModel1Factory().createCompany();
+    resource.getContents().add(company);
+    transaction.commit();
+
+    InternalRepository repository = getRepository();
+    List<InternalSession> serverSessions = new ArrayList<InternalSession>();
+    List<CDOSession> sessions = new ArrayList<CDOSession>();
+
+    for (int i = 0; i < SESSIONS; i++)
+    {
+      CDOSession otherSession = openSession();
+      otherSession.openView().getObject(company).getName();
+
+      sessions.add(otherSession);
+      serverSessions.add(repository.getSessionManager().getSession(otherSession.getSessionID()));
+    }
+
+    company.setName("Changed");
+    long timeStamp = transaction.commit().getTimeStamp();
+    for (CDOSession otherSession : sessions)
+    {
+      assertEquals(true, otherSession.waitForUpdate(timeStamp, DEFAULT_TIMEOUT));
+    }
+
+    CDOCommitInfo commitInfo = repository.getCommitInfoManager().getCommitInfo(timeStamp);
+    CommitNotificationInfo info = new CommitNotificationInfo();
+    info.setCommitInfo(commitInfo);
+
+    // All sessions have the same settings, so they share one notification
+    Map<Object, CommitNotificationInfo> sharedInfos = new HashMap<Object, CommitNotificationInfo>();
+    CommitNotificationInfo sharedInfo = serverSessions.get(0).prepareCommitNotification(info, sharedInfos);
+    for (int i = 1; i < SESSIONS; i++)
+    {
+      assertSame(sharedInfo, serverSessions.get(i).prepareCommitNotification(info, sharedInfos));
+    }
+
+    assertEquals(true, sharedInfo.isShared());
+    assertNull(sharedInfo.getEncoding());
+
+    // The first send writes the encoding, the other sends reuse it and the last one discards it
+    serverSessions.get(0).sendPreparedCommitNotification(sharedInfo);
+    byte[] encoding = sharedInfo.getEncoding();
+    assertNotNull(encoding);
+
+    for (int i = 1; i < SESSIONS; i++)
+    {
+      assertSame(encoding, sharedInfo.getEncoding());
+      serverSessions.get(i).sendPreparedCommitNotification(sharedInfo);
+    }
+
+    assertNull(sharedInfo.getEncoding());
+
+    // The clients have read the shared encoding completely and still receive the next notifications
+    company.setName("Changed again");
+    timeStamp = transaction.commit().getTimeStamp();
+    for (CDOSession otherSession : sessions)
+    {
+      assertEquals(true, otherSession.waitForUpdate(timeStamp, DEFAULT_TIMEOUT));
+      assertEquals("Changed again", otherSession.getViews()[0].getObject(company).getName());
+    }
+  }
+
+  private static List<Operation> recordLockNotifications(CDOSession session)
+  {
+    final List<Operation> operations = new ArrayList<Operation>();
+    session.addListener(new IListener()
+    {
+      public void notifyEvent(IEvent event)
+      {
+        if (event instanceof CDOSessionLocksChangedEvent)
+        {
+          CDOSessionLocksChangedEvent e = (CDOSessionLocksChangedEvent)event;
+          synchronized (operations)
+          {
+            operations.add(e.getOperation());
+          }
+        }
+      }
+    });
+
+    return operations;
+  }
+
+  private static List<Long> recordInvalidations(CDOSession session)
+  {
+    final List<Long> timeStamps = new ArrayList<Long>();
+    session.addListener(new IListener()
+    {
+      public void notifyEvent(IEvent event)
+      {
+        if (event instanceof CDOSessionInvalidationEvent)
+        {
+          CDOSessionInvalidationEvent e = (CDOSessionInvalidationEvent)event;
+          synchronized (timeStamps)
+          {
+            timeStamps.add(e.getTimeStamp());
+          }
+        }
+      }
+    });
+
+    return timeStamps;
+  }
+}
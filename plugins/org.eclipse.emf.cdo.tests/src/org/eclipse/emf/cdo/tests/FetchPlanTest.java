@@ -0,0 +1,185 @@
+/*
+ * Copyright (c) 2016 Eike Stepper (Berlin, Germany) and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    Eike Stepper - initial API and implementation
+ */
+package org.eclipse.emf.cdo.tests;
+
+import org.eclipse.emf.cdo.common.id.CDOID;
+import org.eclipse.emf.cdo.common.revision.CDORevision;
+import org.eclipse.emf.cdo.common.util.CDOFetchRule;
+import org.eclipse.emf.cdo.eresource.CDOResource;
+import org.eclipse.emf.cdo.internal.net4j.protocol.LoadRevisionsRequest;
+import org.eclipse.emf.cdo.net4j.CDONet4jSession;
+import org.eclipse.emf.cdo.session.CDOSession;
+import org.eclipse.emf.cdo.spi.common.revision.InternalCDORevision;
+import org.eclipse.emf.cdo.tests.model1.Category;
+import org.eclipse.emf.cdo.transaction.CDOTransaction;
+import org.eclipse.emf.cdo.util.CDOUtil;
+import org.eclipse.emf.cdo.view.CDOFetchPlan;
+import org.eclipse.emf.cdo.view.CDOView;
+
+import org.eclipse.net4j.signal.ISignalProtocol;
+import org.eclipse.net4j.signal.SignalCounter;
+
+import org.eclipse.emf.spi.cdo.InternalCDOSession;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Tests that the rules of a {@link CDOFetchPlan fetch plan} are evaluated by the server in a single round trip.
+ *
+ * @author Eike Stepper
+ */
+public class FetchPlanTest extends AbstractCDOTest
+{
+  private static final int CHILDREN = 5;
+
+  public void testFetchPlanDepth() throws Exception
+  {
+    createTree();
+
+    CDOFetchPlan fetchPlan = CDOUtil.createFetchPlan();
+    fetchPlan.addFetchRule(getModel1Package().getCategory(), 2, getModel1Package().getCategory_Categories());
+
+    CDOSession session = openSession();
+    ((InternalCDOSession)session).setFetchRuleManager(fetchPlan);
+    CDOView view = session.openView();
+    CDOResource resource = view.getResource(getResourcePath("/res"));
+
+    ISignalProtocol<?> protocol = ((CDONet4jSession)session).options().getNet4jProtocol();
+    SignalCounter signalCounter = new SignalCounter(protocol);
+
+    Category root = (Category)resource.getContents().get(0);
+    assertEquals(1, signalCounter.getCountFor(LoadRevisionsRequest.class));
+
+    // The children and grandchildren have been loaded with the root
+    for (Category child : root.getCategories())
+    {
+      for (Category grandChild : child.getCategories())
+      {
+        assertNotNull(grandChild.getName());
+      }
+    }
+
+    assertEquals(1, signalCounter.getCountFor(LoadRevisionsRequest.class));
+
+    // The great-grandchildren are beyond the depth of the rule
+    root.getCategories().get(0).getCategories().get(0).getCategories().get(0).getName();
+    assertEquals(2, signalCounter.getCountFor(LoadRevisionsRequest.class));
+
+    protocol.removeListener(signalCounter);
+  }
+
+  public void testSelfReferencingRuleWithoutDepth() throws Exception
+  {
+    createTree();
+
+    CDOFetchPlan fetchPlan = CDOUtil.createFetchPlan();
+    fetchPlan.addFetchRule(getModel1Package().getCategory(), CDOFetchRule.DEPTH_ONCE_PER_PATH, getModel1Package().getCategory_Categories());
+
+    CDOSession session = openSession();
+    ((InternalCDOSession)session).setFetchRuleManager(fetchPlan);
+    CDOView view = session.openView();
+    Category root = (Category)view.getResource(getResourcePath("/res")).getContents().get(0);
+
+    // A rule without a depth is applied once on each path, so only the children are loaded with the root
+    List<CDOID> childIDs = getChildIDs(session, view, Collections.singletonList(CDOUtil.getCDOObject(root).cdoID()));
+    assertEquals(CHILDREN, childIDs.size());
+
+    List<CDOID> grandChildIDs = getChildIDs(session, view, childIDs);
+    assertEquals(CHILDREN * CHILDREN, grandChildIDs.size());
+
+    for (CDOID grandChildID : grandChildIDs)
+    {
+      assertEquals(false, session.getRevisionManager().containsRevision(grandChildID, view));
+    }
+  }
+
+  public void testFetchPlanTuning() throws Exception
+  {
+    createTree();
+
+    CDOFetchPlan fetchPlan = CDOUtil.createFetchPlan();
+
+    CDOSession session = openSession();
+    ((InternalCDOSession)session).setFetchRuleManager(fetchPlan);
+    CDOView view = session.openView();
+    view.options().setFeatureAnalyzer(CDOUtil.createModelBasedFeatureAnalyzer(fetchPlan));
+
+    Category root = (Category)view.getResource(getResourcePath("/res")).getContents().get(0);
+    for (Category child : root.getCategories())
+    {
+      for (Category grandChild : child.getCategories())
+      {
+        grandChild.getName();
+      }
+    }
+
+    assertEquals(true, fetchPlan.getMissCount() > 0);
+
+    CDOFetchRule fetchRule = fetchPlan.getFetchRule(getModel1Package().getCategory());
+    assertNotNull(fetchRule);
+    assertEquals(true, fetchRule.getFeatures().contains(getModel1Package().getCategory_Categories()));
+    assertEquals(true, fetchRule.getDepth() >= 1);
+    assertEquals(true, fetchRule.getDepth() <= fetchPlan.getMaxDepth());
+  }
+
+  /**
+   * Returns the IDs of the children of the given categories, which must be loaded already.
+   */
+  private List<CDOID> getChildIDs(CDOSession session, CDOView view, List<CDOID> ids)
+  {
+    List<CDOID> result = new ArrayList<CDOID>();
+    for (CDOID id : ids)
+    {
+      InternalCDORevision revision = (InternalCDORevision)session.getRevisionManager().getRevision(id, view, CDORevision.UNCHUNKED,
+          CDORevision.DEPTH_NONE, false);
+      assertNotNull(revision);
+
+      for (Object value : revision.getList(getModel1Package().getCategory_Categories()))
+      {
+        result.add((CDOID)value);
+      }
+    }
+
+    return result;
+  }
+
+  private void createTree() throws Exception
+  {
+    Category root = getModel1Factory().createCategory();
+    root.setName("root");
+    addChildren(root, 3);
+
+    CDOSession session = openSession();
+    CDOTransaction transaction = session.openTransaction();
+    CDOResource resource = transaction.createResource(getResourcePath("/res"));
+    resource.getContents().add(root);
+    transaction.commit();
+    session.close();
+  }
+
+  private void addChildren(Category parent, int levels)
+  {
+    if (levels == 0)
+    {
+      return;
+    }
+
+    for (int i = 0; i < CHILDREN; i++)
+    {
+      Category child = getModel1Factory().createCategory();
+      child.setName(parent.getName() + "." + i);
+      parent.getCategories().add(child);
+      addChildren(child, levels - 1);
+    }
+  }
+}
@@ -0,0 +1,83 @@
+/*
+ * Copyright (c) 2016 Eike Stepper (Berlin, Germany) and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    Eike Stepper - initial API and implementation
+ */
+package org.eclipse.emf.cdo.tests;
+
+import org.eclipse.emf.cdo.common.branch.CDOBranch;
+import org.eclipse.emf.cdo.eresource.CDOResource;
+import org.eclipse.emf.cdo.server.IRepository;
+import org.eclipse.emf.cdo.session.CDOSession;
+import org.eclipse.emf.cdo.spi.server.InternalRepository;
+import org.eclipse.emf.cdo.tests.config.IRepositoryConfig;
+import org.eclipse.emf.cdo.tests.model1.Customer;
+import org.eclipse.emf.cdo.transaction.CDOTransaction;
+
+import java.util.Map;
+
+/**
+ * Tests the {@link IRepository.Props#HYBRID_TIME_STAMPS hybrid logical clock} of the repository.
+ *
+ * @author Eike Stepper
+ */
+public class HybridTimeStampsTest extends AbstractCDOTest
+{
+  private static final int COMMITS = 200;
+
+  @Override
+  public synchronized Map<String, Object> getTestProperties()
+  {
+    Map<String, Object> map = super.getTestProperties();
+    map.put(IRepository.Props.HYBRID_TIME_STAMPS, "true");
+    return map;
+  }
+
+  public void testCommitTimeStampsIncrease() throws Exception
+  {
+    CDOSession session = openSession();
+    CDOTransaction transaction = session.openTransaction();
+    CDOResource resource = transaction.createResource(getResourcePath("/res"));
+    Customer customer = getModel1Factory().createCustomer();
+    resource.getContents().add(customer);
+
+    long lastTimeStamp = transaction.commit().getTimeStamp();
+    for (int i = 0; i < COMMITS; i++)
+    {
+      customer.setName("Customer " + i);
+
+      long timeStamp = transaction.commit().getTimeStamp();
+      assertEquals(true, timeStamp > lastTimeStamp);
+      lastTimeStamp = timeStamp;
+    }
+
+    InternalRepository repository = getRepository();
+    assertEquals(true, repository.getTimeStamp() >= lastTimeStamp);
+    assertEquals(lastTimeStamp, repository.getLastCommitTimeStamp());
+  }
+
+  @Requires(IRepositoryConfig.CAPABILITY_BRANCHING)
+  public void testCommitAfterBranchBase() throws Exception
+  {
+    CDOSession session = openSession();
+    CDOTransaction transaction = session.openTransaction();
+    CDOResource resource = transaction.createResource(getResourcePath("/res"));
+    Customer customer = getModel1Factory().createCustomer();
+    resource.getContents().add(customer);
+    transaction.commit();
+
+    for (int i = 0; i < 10; i++)
+    {
+      CDOBranch branch = session.getBranchManager().getMainBranch().createBranch("branch" + i);
+      customer.setName("Customer " + i);
+
+      long timeStamp = transaction.commit().getTimeStamp();
+      assertEquals(true, timeStamp > branch.getBase().getTimeStamp());
+    }
+  }
+}
@@ -35,6 +35,9 @@ import org.eclipse.emf.internal.cdo.view.CDOViewImpl;
 
 import org.eclipse.net4j.util.ObjectUtil;
 import org.eclipse.net4j.util.ReflectUtil;
+import org.eclipse.net4j.util.WrappedException;
+import org.eclipse.net4j.util.concurrent.ConcurrencyUtil;
+import org.eclipse.net4j.util.concurrent.ExecutorWorkSerializer;
 import org.eclipse.net4j.util.event.IEvent;
 import org.eclipse.net4j.util.event.IListener;
 
@@ -467,6 +470,129 @@ public class InvalidationTest extends AbstractCDOTest
     }.assertNoTimeOut();
   }
 
+  public void testSessionInvalidationEventMetrics() throws Exception
+  {
+    final Category categoryA = getModel1Factory().createCategory();
+    categoryA.setName("category");
+
+    CDOSession sessionA = openSession();
+    final CDOTransaction transaction = sessionA.openTransaction();
+    CDOResource resourceA = transaction.createResource(getResourcePath("/test1"));
+    resourceA.getContents().add(categoryA);
+    transaction.commit();
+
+    CDOSession sessionB = openSession();
+    final CDOView[] viewsB = new CDOView[10];
+    for (int i = 0; i < viewsB.length; i++)
+    {
+      viewsB[i] = sessionB.openView();
+      viewsB[i].getResource(getResourcePath("/test1")).getContents().get(0);
+    }
+
+    final ExecutorWorkSerializer invalidator = (ExecutorWorkSerializer)((CDOSessionImpl)sessionB).getInvalidator();
+    final CountDownLatch release = new CountDownLatch(1);
+    final List<CDOSessionInvalidationEvent> events = new ArrayList<CDOSessionInvalidationEvent>();
+
+    sessionB.addListener(new IListener()
+    {
+      public void notifyEvent(IEvent event)
+      {
+        if (event instanceof CDOSessionInvalidationEvent)
+        {
+          boolean first;
+          synchronized (events)
+          {
+            events.add((CDOSessionInvalidationEvent)event);
+            first = events.size() == 1;
+          }
+
+          if (first)
+          {
+            // Block the invalidator, so that the following commit notifications queue up behind this one
+            try
+            {
+              release.await(DEFAULT_TIMEOUT, TimeUnit.MILLISECONDS);
+            }
+            catch (InterruptedException ex)
+            {
+              Thread.currentThread().interrupt();
+            }
+          }
+        }
+      }
+    });
+
+    final int commits = 10;
+    for (int i = 0; i < commits; i++)
+    {
+      categoryA.setName("CHANGED NAME " + i);
+      transaction.commit();
+    }
+
+    new PollingTimeOuter()
+    {
+      @Override
+      protected boolean successful()
+      {
+        return invalidator.getWorkQueueSize() == commits - 1;
+      }
+    }.assertNoTimeOut();
+
+    // Let the queued notifications age before the invalidator is released
+    ConcurrencyUtil.sleep(100L);
+    release.countDown();
+
+    long timeStamp = transaction.getLastCommitTime();
+    for (CDOView viewB : viewsB)
+    {
+      assertEquals(true, viewB.waitForUpdate(timeStamp, DEFAULT_TIMEOUT));
+    }
+
+    synchronized (events)
+    {
+      assertEquals(commits, events.size());
+
+      CDOSessionInvalidationEvent queued = events.get(1);
+      assertEquals(commits - 2, queued.getQueueSize());
+      assertEquals(true, queued.getLag() > 0);
+
+      CDOSessionInvalidationEvent last = events.get(commits - 1);
+      assertEquals(0, last.getQueueSize());
+      assertEquals(true, last.getLag() > 0);
+
+      // All views are up to date, so no view invalidation can still be queued
+      assertEquals(0, last.getViewQueueSize());
+    }
+
+    // Without a backlog the lag returns to zero, within the resolution of the clock
+    new PollingTimeOuter()
+    {
+      @Override
+      protected boolean successful()
+      {
+        try
+        {
+          categoryA.setName("CHANGED NAME " + System.nanoTime());
+          long commitTime = transaction.commit().getTimeStamp();
+          for (CDOView viewB : viewsB)
+          {
+            assertEquals(true, viewB.waitForUpdate(commitTime, DEFAULT_TIMEOUT));
+          }
+        }
+        catch (Exception ex)
+        {
+          throw WrappedException.wrap(ex);
+        }
+
+        synchronized (events)
+        {
+          CDOSessionInvalidationEvent event = events.get(events.size() - 1);
+          return event.getQueueSize() == 0 && event.getLag() == 0;
+        }
+      }
+    }.assertNoTimeOut();
+  }
+
   /**
    * See bug 236784
    */
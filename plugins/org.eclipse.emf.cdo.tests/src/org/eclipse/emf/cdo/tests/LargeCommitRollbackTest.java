@@ -0,0 +1,162 @@
+/*
+ * Copyright (c) 2016 Eike Stepper (Berlin, Germany) and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    Eike Stepper - initial API and implementation
+ */
+package org.eclipse.emf.cdo.tests;
+
+import org.eclipse.emf.cdo.common.id.CDOID;
+import org.eclipse.emf.cdo.eresource.CDOResource;
+import org.eclipse.emf.cdo.internal.server.Repository;
+import org.eclipse.emf.cdo.internal.server.TransactionCommitContext;
+import org.eclipse.emf.cdo.spi.common.revision.InternalCDORevision;
+import org.eclipse.emf.cdo.spi.common.revision.InternalCDORevisionDelta;
+import org.eclipse.emf.cdo.spi.server.InternalCommitContext;
+import org.eclipse.emf.cdo.spi.server.InternalRepository;
+import org.eclipse.emf.cdo.spi.server.InternalTransaction;
+import org.eclipse.emf.cdo.tests.config.IRepositoryConfig;
+import org.eclipse.emf.cdo.tests.config.impl.ConfigTest.CleanRepositoriesAfter;
+import org.eclipse.emf.cdo.tests.config.impl.ConfigTest.CleanRepositoriesBefore;
+import org.eclipse.emf.cdo.tests.config.impl.ConfigTest.Skips;
+import org.eclipse.emf.cdo.tests.config.impl.RepositoryConfig;
+import org.eclipse.emf.cdo.tests.model1.Category;
+import org.eclipse.emf.cdo.transaction.CDOTransaction;
+import org.eclipse.emf.cdo.util.CDOUtil;
+import org.eclipse.emf.cdo.util.CommitException;
+import org.eclipse.emf.cdo.view.CDOView;
+
+import org.eclipse.emf.common.util.EList;
+import org.eclipse.emf.ecore.EObject;
+
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Tests that the deltas of a large commit, which are applied in parallel, are applied through
+ * {@link TransactionCommitContext#computeDirtyObject(InternalCDORevisionDelta) computeDirtyObject()} and that a failure
+ * in one of them rolls back the whole commit.
+ *
+ * @author Eike Stepper
+ */
+@Skips(IRepositoryConfig.CAPABILITY_OFFLINE)
+@CleanRepositoriesBefore(reason = "Instrumented repository")
+@CleanRepositoriesAfter(reason = "Instrumented repository")
+public class LargeCommitRollbackTest extends AbstractCDOTest
+{
+  private static final int OBJECTS = 2500;
+
+  private final AtomicInteger computedDirtyObjects = new AtomicInteger();
+
+  private volatile CDOID failingID;
+
+  @Override
+  protected void doSetUp() throws Exception
+  {
+    createRepository();
+    super.doSetUp();
+  }
+
+  public void testComputeDirtyObjectCalled() throws Exception
+  {
+    CDOTransaction transaction = openSession().openTransaction();
+    EList<EObject> contents = createCategories(transaction);
+    for (int i = 0; i < OBJECTS; i++)
+    {
+      ((Category)contents.get(i)).setName("Changed " + i);
+    }
+
+    computedDirtyObjects.set(0);
+    transaction.commit();
+    assertEquals(OBJECTS, computedDirtyObjects.get());
+  }
+
+  public void testFailureRollsBack() throws Exception
+  {
+    CDOTransaction transaction = openSession().openTransaction();
+    EList<EObject> contents = createCategories(transaction);
+    for (int i = 0; i < OBJECTS; i++)
+    {
+      ((Category)contents.get(i)).setName("Changed " + i);
+    }
+
+    // Fail in the last chunk, which is usually not applied by the committing thread
+    failingID = CDOUtil.getCDOObject(contents.get(OBJECTS - 1)).cdoID();
+
+    try
+    {
+      transaction.commit();
+      fail("CommitException expected");
+    }
+    catch (CommitException expected)
+    {
+      // SUCCESS
+    }
+    finally
+    {
+      failingID = null;
+    }
+
+    clearCache(getRepository().getRevisionManager());
+
+    CDOView view = openSession().openView();
+    contents = view.getResource(getResourcePath("/res")).getContents();
+    for (int i = 0; i < OBJECTS; i++)
+    {
+      assertEquals("Category " + i, ((Category)contents.get(i)).getName());
+    }
+  }
+
+  private EList<EObject> createCategories(CDOTransaction transaction) throws Exception
+  {
+    CDOResource resource = transaction.createResource(getResourcePath("/res"));
+
+    for (int i = 0; i < OBJECTS; i++)
+    {
+      Category category = getModel1Factory().createCategory();
+      category.setName("Category " + i);
+      resource.getContents().add(category);
+    }
+
+    transaction.commit();
+    return resource.getContents();
+  }
+
+  @SuppressWarnings("unchecked")
+  private void createRepository()
+  {
+    Repository repository = new Repository.Default()
+    {
+      @Override
+      public InternalCommitContext createCommitContext(InternalTransaction transaction)
+      {
+        return new TransactionCommitContext(transaction)
+        {
+          @Override
+          protected InternalCDORevision computeDirtyObject(InternalCDORevisionDelta delta)
+          {
+            computedDirtyObjects.incrementAndGet();
+            if (delta.getID().equals(failingID))
+            {
+              throw new IllegalStateException("Injected failure for " + delta.getID());
+            }
+
+            return super.computeDirtyObject(delta);
+          }
+        };
+      }
+    };
+
+    Map<String, String> props = getRepositoryProperties();
+    ((InternalRepository)repository).setProperties(props);
+
+    repository.setName(IRepositoryConfig.REPOSITORY_NAME);
+
+    Map<String, Object> map = getTestProperties();
+    map.put(RepositoryConfig.PROP_TEST_REPOSITORY, repository);
+  }
+}
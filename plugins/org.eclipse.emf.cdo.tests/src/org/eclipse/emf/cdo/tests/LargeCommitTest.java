@@ -0,0 +1,165 @@
+/*
+ * Copyright (c) 2016 Eike Stepper (Berlin, Germany) and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    Eike Stepper - initial API and implementation
+ */
+package org.eclipse.emf.cdo.tests;
+
+import org.eclipse.emf.cdo.eresource.CDOResource;
+import org.eclipse.emf.cdo.session.CDOSession;
+import org.eclipse.emf.cdo.tests.model1.Category;
+import org.eclipse.emf.cdo.transaction.CDOTransaction;
+import org.eclipse.emf.cdo.util.CommitException;
+import org.eclipse.emf.cdo.view.CDOView;
+
+import org.eclipse.emf.common.util.EList;
+import org.eclipse.emf.ecore.EObject;
+
+/**
+ * Tests commits with enough new, dirty or detached objects for the server to batch their writes and to apply their
+ * deltas in parallel.
+ *
+ * @author Eike Stepper
+ */
+public class LargeCommitTest extends AbstractCDOTest
+{
+  private static final int OBJECTS = 2500;
+
+  public void testModifyManyObjects() throws Exception
+  {
+    createCategories();
+
+    CDOSession session = openSession();
+    CDOTransaction transaction = session.openTransaction();
+    EList<EObject> contents = transaction.getResource(getResourcePath("/res")).getContents();
+    for (int i = 0; i < OBJECTS; i++)
+    {
+      Category category = (Category)contents.get(i);
+      category.setName("Changed " + i);
+
+      Category child = getModel1Factory().createCategory();
+      child.setName("Added " + i);
+      category.getCategories().add(0, child);
+    }
+
+    transaction.commit();
+    clearCache(getRepository().getRevisionManager());
+
+    CDOSession session2 = openSession();
+    CDOView view = session2.openView();
+    contents = view.getResource(getResourcePath("/res")).getContents();
+    assertEquals(OBJECTS, contents.size());
+
+    for (int i = 0; i < OBJECTS; i++)
+    {
+      Category category = (Category)contents.get(i);
+      assertEquals("Changed " + i, category.getName());
+      assertEquals(2, category.getCategories().size());
+      assertEquals("Added " + i, category.getCategories().get(0).getName());
+      assertEquals("Child " + i, category.getCategories().get(1).getName());
+    }
+  }
+
+  public void testDetachManyObjects() throws Exception
+  {
+    createCategories();
+
+    CDOSession session = openSession();
+    CDOTransaction transaction = session.openTransaction();
+    EList<EObject> contents = transaction.getResource(getResourcePath("/res")).getContents();
+    for (int i = OBJECTS - 1; i >= 0; i -= 2)
+    {
+      contents.remove(i);
+    }
+
+    transaction.commit();
+    clearCache(getRepository().getRevisionManager());
+
+    CDOSession session2 = openSession();
+    CDOView view = session2.openView();
+    contents = view.getResource(getResourcePath("/res")).getContents();
+    assertEquals(OBJECTS / 2, contents.size());
+
+    for (int i = 0; i < contents.size(); i++)
+    {
+      Category category = (Category)contents.get(i);
+      assertEquals("Category " + 2 * i, category.getName());
+      assertEquals("Child " + 2 * i, category.getCategories().get(0).getName());
+    }
+  }
+
+  public void testConflictInManyObjects() throws Exception
+  {
+    createCategories();
+
+    CDOSession session = openSession();
+    session.options().setPassiveUpdateEnabled(false);
+    CDOTransaction transaction = session.openTransaction();
+    EList<EObject> contents = transaction.getResource(getResourcePath("/res")).getContents();
+    for (int i = 0; i < OBJECTS; i++)
+    {
+      contents.get(i);
+    }
+
+    CDOSession session2 = openSession();
+    CDOTransaction transaction2 = session2.openTransaction();
+    Category conflicting = (Category)transaction2.getResource(getResourcePath("/res")).getContents().get(OBJECTS - 1);
+    conflicting.setName("Conflicting");
+    transaction2.commit();
+
+    for (int i = 0; i < OBJECTS; i++)
+    {
+      Category category = (Category)contents.get(i);
+      category.setName("Changed " + i);
+    }
+
+    try
+    {
+      transaction.commit();
+      fail("CommitException expected");
+    }
+    catch (CommitException expected)
+    {
+      // SUCCESS
+    }
+
+    clearCache(getRepository().getRevisionManager());
+
+    CDOSession session3 = openSession();
+    CDOView view = session3.openView();
+    contents = view.getResource(getResourcePath("/res")).getContents();
+    for (int i = 0; i < OBJECTS - 1; i++)
+    {
+      assertEquals("Category " + i, ((Category)contents.get(i)).getName());
+    }
+
+    assertEquals("Conflicting", ((Category)contents.get(OBJECTS - 1)).getName());
+  }
+
+  private void createCategories() throws Exception
+  {
+    CDOSession session = openSession();
+    CDOTransaction transaction = session.openTransaction();
+    CDOResource resource = transaction.createResource(getResourcePath("/res"));
+
+    for (int i = 0; i < OBJECTS; i++)
+    {
+      Category child = getModel1Factory().createCategory();
+      child.setName("Child " + i);
+
+      Category category = getModel1Factory().createCategory();
+      category.setName("Category " + i);
+      category.getCategories().add(child);
+
+      resource.getContents().add(category);
+    }
+
+    transaction.commit();
+    session.close();
+  }
+}
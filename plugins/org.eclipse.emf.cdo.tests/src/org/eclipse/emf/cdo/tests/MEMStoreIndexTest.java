@@ -0,0 +1,283 @@
+/*
+ * Copyright (c) 2016 Eike Stepper (Berlin, Germany) and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    Eike Stepper - initial API and implementation
+ */
+package org.eclipse.emf.cdo.tests;
+
+import org.eclipse.emf.cdo.CDOObjectReference;
+import org.eclipse.emf.cdo.common.branch.CDOBranch;
+import org.eclipse.emf.cdo.common.branch.CDOBranchPoint;
+import org.eclipse.emf.cdo.common.branch.CDOBranchVersion;
+import org.eclipse.emf.cdo.common.id.CDOID;
+import org.eclipse.emf.cdo.common.revision.CDORevision;
+import org.eclipse.emf.cdo.common.revision.CDORevisionHandler;
+import org.eclipse.emf.cdo.eresource.CDOResource;
+import org.eclipse.emf.cdo.eresource.CDOResourceFolder;
+import org.eclipse.emf.cdo.internal.server.mem.MEMStore;
+import org.eclipse.emf.cdo.session.CDOSession;
+import org.eclipse.emf.cdo.spi.common.revision.InternalCDORevision;
+import org.eclipse.emf.cdo.tests.config.impl.ConfigTest.Requires;
+import org.eclipse.emf.cdo.tests.model1.Company;
+import org.eclipse.emf.cdo.tests.model1.OrderDetail;
+import org.eclipse.emf.cdo.tests.model1.Product1;
+import org.eclipse.emf.cdo.transaction.CDOTransaction;
+import org.eclipse.emf.cdo.util.CDOUtil;
+import org.eclipse.emf.cdo.view.CDOView;
+
+import org.eclipse.emf.ecore.EClass;
+import org.eclipse.emf.ecore.EObject;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Tests the class, folder, resource and xref indexes of the {@link MEMStore} and its lock-free reads.
+ *
+ * @author Eike Stepper
+ */
+@Requires("MEM")
+public class MEMStoreIndexTest extends AbstractCDOTest
+{
+  private static final int COMMITS = 50;
+
+  private static final int READERS = 4;
+
+  public void testQueryXRefsAfterReferenceChange() throws Exception
+  {
+    CDOSession session = openSession();
+    CDOTransaction transaction = session.openTransaction();
+    CDOResource resource = transaction.createResource(getResourcePath("/res"));
+
+    Product1 product1 = createProduct("Product1");
+    Product1 product2 = createProduct("Product2");
+    OrderDetail detail = getModel1Factory().createOrderDetail();
+    detail.setProduct(product1);
+
+    resource.getContents().add(product1);
+    resource.getContents().add(product2);
+    resource.getContents().add(detail);
+    transaction.commit();
+
+    MEMStore store = getStore();
+    int indexSize = store.getIndexSize();
+
+    detail.setProduct(product2);
+    transaction.commit();
+
+    assertXRefs(transaction, product1);
+    assertXRefs(transaction, product2, detail);
+
+    if (!getRepository().isSupportingAudits())
+    {
+      // The entries of the replaced revisions have been pruned
+      assertEquals(indexSize, store.getIndexSize());
+    }
+  }
+
+  public void testQueryXRefsAfterDetach() throws Exception
+  {
+    CDOSession session = openSession();
+    CDOTransaction transaction = session.openTransaction();
+    CDOResource resource = transaction.createResource(getResourcePath("/res"));
+
+    Product1 product = createProduct("Product1");
+    OrderDetail detail = getModel1Factory().createOrderDetail();
+    detail.setProduct(product);
+
+    resource.getContents().add(product);
+    resource.getContents().add(detail);
+    transaction.commit();
+
+    MEMStore store = getStore();
+    int indexSize = store.getIndexSize();
+
+    resource.getContents().remove(detail);
+    transaction.commit();
+
+    assertXRefs(transaction, product);
+
+    if (!getRepository().isSupportingAudits())
+    {
+      assertEquals(true, store.getIndexSize() < indexSize);
+    }
+  }
+
+  public void testQueryResourcesAfterRenameAndMove() throws Exception
+  {
+    CDOSession session = openSession();
+    CDOTransaction transaction = session.openTransaction();
+    CDOResource resource = transaction.createResource(getResourcePath("/folder1/res"));
+    resource.getContents().add(createProduct("Product1"));
+    CDOResourceFolder folder2 = transaction.createResourceFolder(getResourcePath("/folder2"));
+    transaction.commit();
+
+    folder2.getNodes().add(resource);
+    resource.setName("renamed");
+    transaction.commit();
+
+    CDOView view = openSession().openView();
+    assertEquals(false, view.hasResource(getResourcePath("/folder1/res")));
+    assertEquals(false, view.hasResource(getResourcePath("/folder2/res")));
+    assertEquals(true, view.hasResource(getResourcePath("/folder2/renamed")));
+    assertEquals(0, ((CDOResourceFolder)view.getResourceNode(getResourcePath("/folder1"))).getNodes().size());
+
+    // The old name is free again
+    transaction.createResource(getResourcePath("/folder1/res"));
+    transaction.commit();
+    assertEquals(true, openSession().openView().hasResource(getResourcePath("/folder1/res")));
+  }
+
+  public void testHandleRevisions() throws Exception
+  {
+    CDOSession session = openSession();
+    CDOTransaction transaction = session.openTransaction();
+    CDOResource resource = transaction.createResource(getResourcePath("/res"));
+
+    List<Product1> products = new ArrayList<Product1>();
+    for (int i = 0; i < 3; i++)
+    {
+      Product1 product = createProduct("Product" + i);
+      resource.getContents().add(product);
+      products.add(product);
+    }
+
+    transaction.commit();
+
+    MEMStore store = getStore();
+    EClass eClass = store.getObjectType(CDOUtil.getCDOObject(products.get(0)).cdoID());
+    assertEquals(3, countHeadRevisions(store, eClass));
+
+    products.get(0).setName("Changed");
+    resource.getContents().remove(products.get(1));
+    transaction.commit();
+
+    assertEquals(2, countHeadRevisions(store, eClass));
+  }
+
+  public void testLockFreeReadsDuringCommits() throws Exception
+  {
+    CDOSession session = openSession();
+    CDOTransaction transaction = session.openTransaction();
+    CDOResource resource = transaction.createResource(getResourcePath("/res"));
+    Company company = getModel1Factory().createCompany();
+    company.setName("Company");
+    resource.getContents().add(company);
+    transaction.commit();
+
+    final MEMStore store = getStore();
+    final CDOID id = CDOUtil.getCDOObject(company).cdoID();
+    final CDOBranchPoint head = getRepository().getBranchManager().getMainBranch().getHead();
+    final AtomicBoolean done = new AtomicBoolean();
+    final CountDownLatch started = new CountDownLatch(READERS);
+    final List<Throwable> failures = Collections.synchronizedList(new ArrayList<Throwable>());
+
+    List<Thread> readers = new ArrayList<Thread>();
+    for (int i = 0; i < READERS; i++)
+    {
+      Thread reader = new Thread("MEMStoreReader" + i)
+      {
+        @Override
+        public void run()
+        {
+          started.countDown();
+
+          try
+          {
+            while (!done.get())
+            {
+              // The head revision must never be missing while it is replaced or revised
+              InternalCDORevision revision = store.getRevision(id, head);
+              assertNotNull(revision);
+              assertNotNull(store.getObjectType(id));
+            }
+          }
+          catch (Throwable ex)
+          {
+            failures.add(ex);
+          }
+        }
+      };
+
+      reader.start();
+      readers.add(reader);
+    }
+
+    started.await();
+
+    try
+    {
+      for (int i = 0; i < COMMITS; i++)
+      {
+        company.setName("Company" + i);
+        transaction.commit();
+      }
+    }
+    finally
+    {
+      done.set(true);
+      for (Thread reader : readers)
+      {
+        reader.join(DEFAULT_TIMEOUT);
+      }
+    }
+
+    if (!failures.isEmpty())
+    {
+      throw new Exception("Lock-free read failed", failures.get(0));
+    }
+
+    assertEquals(CDOBranchVersion.FIRST_VERSION + COMMITS, store.getRevision(id, head).getVersion());
+  }
+
+  private Product1 createProduct(String name)
+  {
+    Product1 product = getModel1Factory().createProduct1();
+    product.setName(name);
+    return product;
+  }
+
+  private MEMStore getStore()
+  {
+    return (MEMStore)getRepository().getStore();
+  }
+
+  private static void assertXRefs(CDOView view, EObject target, EObject... expectedSources)
+  {
+    List<EObject> sources = new ArrayList<EObject>();
+    for (CDOObjectReference reference : view.queryXRefs(Collections.singleton(CDOUtil.getCDOObject(target))))
+    {
+      sources.add(reference.getSourceObject());
+    }
+
+    assertEquals(expectedSources.length, sources.size());
+    for (EObject expectedSource : expectedSources)
+    {
+      assertEquals(true, sources.contains(expectedSource));
+    }
+  }
+
+  private static int countHeadRevisions(MEMStore store, EClass eClass)
+  {
+    final int[] count = { 0 };
+    CDOBranch mainBranch = store.getRepository().getBranchManager().getMainBranch();
+    store.handleRevisions(eClass, mainBranch, CDOBranchPoint.UNSPECIFIED_DATE, false, new CDORevisionHandler.Filtered.Undetached(new CDORevisionHandler()
+    {
+      public boolean handleRevision(CDORevision revision)
+      {
+        ++count[0];
+        return true;
+      }
+    }));
+
+    return count[0];
+  }
+}
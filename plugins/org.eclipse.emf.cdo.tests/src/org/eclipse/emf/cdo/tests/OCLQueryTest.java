@@ -10,10 +10,30 @@
  */
 package org.eclipse.emf.cdo.tests;
 
+import org.eclipse.emf.cdo.common.CDOCommonRepository;
+import org.eclipse.emf.cdo.common.branch.CDOBranch;
+import org.eclipse.emf.cdo.common.branch.CDOBranchPoint;
 import org.eclipse.emf.cdo.common.commit.CDOCommitInfo;
+import org.eclipse.emf.cdo.common.id.CDOID;
+import org.eclipse.emf.cdo.common.id.CDOIDUtil;
+import org.eclipse.emf.cdo.common.revision.CDOIDAndVersion;
+import org.eclipse.emf.cdo.common.revision.CDORevision;
+import org.eclipse.emf.cdo.common.revision.CDORevisionFactory;
+import org.eclipse.emf.cdo.common.revision.CDORevisionHandler;
+import org.eclipse.emf.cdo.common.revision.CDORevisionKey;
+import org.eclipse.emf.cdo.common.util.RepositoryTypeChangedEvent;
 import org.eclipse.emf.cdo.eresource.CDOResource;
 import org.eclipse.emf.cdo.server.ISession;
+import org.eclipse.emf.cdo.server.IStore;
+import org.eclipse.emf.cdo.server.db.IDBStore;
+import org.eclipse.emf.cdo.server.db.mapping.IClassMapping;
+import org.eclipse.emf.cdo.server.db.mapping.IClassMappingQuerySupport;
+import org.eclipse.emf.cdo.server.ocl.CDOExtentIndex;
+import org.eclipse.emf.cdo.server.ocl.OCLSQLTranslator;
 import org.eclipse.emf.cdo.session.CDOSession;
+import org.eclipse.emf.cdo.spi.common.commit.CDOCommitInfoUtil;
+import org.eclipse.emf.cdo.spi.common.revision.InternalCDORevision;
+import org.eclipse.emf.cdo.spi.server.InternalRepository;
 import org.eclipse.emf.cdo.tests.config.IRepositoryConfig;
 import org.eclipse.emf.cdo.tests.config.impl.ConfigTest.CleanRepositoriesBefore;
 import org.eclipse.emf.cdo.tests.model1.Customer;
@@ -27,14 +47,29 @@ import org.eclipse.emf.cdo.util.CommitException;
 import org.eclipse.emf.cdo.view.CDOQuery;
 import org.eclipse.emf.cdo.view.CDOView;
 
+import org.eclipse.net4j.spi.db.DBAdapter;
 import org.eclipse.net4j.util.collection.CloseableIterator;
+import org.eclipse.net4j.util.event.IEvent;
+import org.eclipse.net4j.util.event.IListener;
 import org.eclipse.net4j.util.io.IOUtil;
+import org.eclipse.net4j.util.lifecycle.ILifecycleEvent;
+import org.eclipse.net4j.util.lifecycle.LifecycleEvent;
 
+import org.eclipse.emf.ecore.EClass;
 import org.eclipse.emf.ecore.EObject;
 import org.eclipse.emf.ecore.EcorePackage;
 
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
  * @author Eike Stepper
@@ -301,6 +336,177 @@ public class OCLQueryTest extends AbstractCDOTest
     assertEquals(NUM_OF_PRODUCTS + 1, result.size());
   }
 
+  public void testExtentIndexAfterCommits() throws Exception
+  {
+    // Create the indexed extents
+    assertEquals(NUM_OF_PRODUCTS, getExtentSize(true));
+
+    Product1 p1 = getModel1Factory().createProduct1();
+    p1.setName("p1");
+    resource.getContents().add(0, p1);
+
+    Product1 p2 = getModel1Factory().createProduct1();
+    p2.setName("p2");
+    resource.getContents().add(0, p2);
+    transaction.commit();
+
+    assertEquals(NUM_OF_PRODUCTS + 2, getExtentSize(true));
+    assertEquals(NUM_OF_PRODUCTS + 2, getExtentSize(false));
+
+    resource.getContents().remove(p1);
+    transaction.commit();
+
+    assertEquals(NUM_OF_PRODUCTS + 1, getExtentSize(true));
+    assertEquals(NUM_OF_PRODUCTS + 1, getExtentSize(false));
+  }
+
+  public void testPushDown() throws Exception
+  {
+    assertPushDown(11, createQuery("Product1.allInstances()->select(p | p.name = '1' or p.vat = VAT::vat7)", getModel1Package().getProduct1()), true);
+    assertPushDown(1, createQuery("Customer.allInstances()->select(c | c.city = null)", getModel1Package().getCustomer()), false);
+    assertPushDown(4, createQuery("Customer.allInstances()->select(c | c.city <> 'City 1')", getModel1Package().getCustomer()), true);
+    assertPushDown(5, createQuery("SalesOrder.allInstances()->select(o | o.id >= 10 and o.id < 20)", getModel1Package().getSalesOrder()), false);
+    assertPushDown(5, createQuery("SalesOrder.allInstances()->select(o | o.customer.name = '2')", getModel1Package().getSalesOrder()), true);
+    assertPushDown(50, createQuery("OrderDetail.allInstances()->select(d | d.product.vat = VAT::vat7)->size()", getModel1Package().getOrderDetail()), false);
+    assertPushDown(true, createQuery("Product1.allInstances()->exists(p | p.name = '19')", getModel1Package().getProduct1()), true);
+    assertPushDown(true, createQuery("Product1.allInstances()->select(p | p.name = 'x')->isEmpty()", getModel1Package().getProduct1()), true);
+
+    CDOQuery query = createQuery("Product1.allInstances()->select(p | p.vat = myvat)", getModel1Package().getProduct1());
+    query.setParameter("myvat", VAT.VAT7);
+    assertPushDown(10, query, false);
+  }
+
+  public void testPushDownAfterCommit() throws Exception
+  {
+    Product1 product = products.get(0);
+    product.setName("renamed");
+    transaction.commit();
+
+    assertPushDown(1, createQuery("Product1.allInstances()->select(p | p.name = 'renamed')", getModel1Package().getProduct1()), true);
+    assertPushDown(0, createQuery("Product1.allInstances()->select(p | p.name = '0')", getModel1Package().getProduct1()), true);
+  }
+
+  public void testPushDownNullReference() throws Exception
+  {
+    SalesOrder salesOrder = getModel1Factory().createSalesOrder();
+    salesOrder.setId(4711);
+    resource.getContents().add(salesOrder);
+    transaction.commit();
+
+    // OCL evaluates the navigation of the null customer to invalid, which SQL can not express
+    CDOQuery query = createQuery("SalesOrder.allInstances()->select(o | o.customer.city = null)", getModel1Package().getSalesOrder());
+    long evaluations = OCLSQLTranslator.getEvaluations();
+    assertEquals(getPushDownOutcome(query, false), getPushDownOutcome(query, true));
+    assertEquals(evaluations, OCLSQLTranslator.getEvaluations());
+
+    salesOrder.setCustomer(customers.get(0));
+    transaction.commit();
+    assertPushDown(NUM_OF_SALES_ORDERS + 1, query, false);
+  }
+
+  @Requires(IRepositoryConfig.CAPABILITY_BRANCHING)
+  public void testExtentIndexSubBranch() throws Exception
+  {
+    Product1 base = getModel1Factory().createProduct1();
+    base.setName("base");
+    resource.getContents().add(0, base);
+    transaction.commit();
+
+    CDOBranch subBranch = transaction.getBranch().createBranch("sub");
+    CDOTransaction subTransaction = transaction.getSession().openTransaction(subBranch);
+
+    // Create the indexed extents of both branches
+    assertEquals(NUM_OF_PRODUCTS + 1, getExtentSize(transaction, true));
+    assertEquals(NUM_OF_PRODUCTS + 1, getExtentSize(subTransaction, true));
+
+    CDOResource subResource = subTransaction.getResource(getResourcePath("/test1"));
+    Product1 product = getModel1Factory().createProduct1();
+    product.setName("sub");
+    subResource.getContents().add(0, product);
+    subTransaction.commit();
+
+    assertEquals(NUM_OF_PRODUCTS + 2, getExtentSize(subTransaction, true));
+    assertEquals(NUM_OF_PRODUCTS + 2, getExtentSize(subTransaction, false));
+    assertEquals(NUM_OF_PRODUCTS + 1, getExtentSize(transaction, true));
+
+    // Detach a product that the sub branch inherits from the main branch
+    subResource.getContents().remove(subTransaction.getObject(base));
+    subTransaction.commit();
+
+    assertEquals(NUM_OF_PRODUCTS + 1, getExtentSize(subTransaction, true));
+    assertEquals(NUM_OF_PRODUCTS + 1, getExtentSize(subTransaction, false));
+    assertEquals(NUM_OF_PRODUCTS + 1, getExtentSize(transaction, true));
+    assertEquals(NUM_OF_PRODUCTS + 1, getExtentSize(transaction, false));
+  }
+
+  public void testExtentIndexCommitDuringScan() throws Exception
+  {
+    final CDOID scannedID = CDOIDUtil.createLong(Long.MAX_VALUE - 2);
+    final CDOID detachedID = CDOIDUtil.createLong(Long.MAX_VALUE - 1);
+    final CDOID attachedID = CDOIDUtil.createLong(Long.MAX_VALUE);
+
+    final ScanningRepository scanningRepository = new ScanningRepository(getRepository(), getModel1Package().getNsURI());
+    scanningRepository.addRevision(detachedID);
+    scanningRepository.addRevision(scannedID);
+
+    final CDOExtentIndex index = CDOExtentIndex.get(scanningRepository.getProxy());
+
+    try
+    {
+      // A commit lands after the scan has handled the first revision
+      scanningRepository.setScanListener(new Runnable()
+      {
+        public void run()
+        {
+          index.handleCommitInfo(scanningRepository.createCommitInfo(attachedID, detachedID));
+        }
+      });
+
+      assertEquals(new HashSet<CDOID>(Arrays.asList(scannedID, attachedID)), getExtent(index, scanningRepository));
+      assertEquals(1, scanningRepository.getScans());
+
+      // Commits after the scan are applied directly
+      index.handleCommitInfo(scanningRepository.createCommitInfo(null, scannedID));
+      assertEquals(Collections.singleton(attachedID), getExtent(index, scanningRepository));
+      assertEquals(1, scanningRepository.getScans());
+    }
+    finally
+    {
+      scanningRepository.deactivate();
+    }
+  }
+
+  public void testExtentIndexRepositoryTypeChanged() throws Exception
+  {
+    CDOID id = CDOIDUtil.createLong(Long.MAX_VALUE);
+
+    ScanningRepository scanningRepository = new ScanningRepository(getRepository(), getModel1Package().getNsURI());
+    scanningRepository.addRevision(id);
+
+    CDOExtentIndex index = CDOExtentIndex.get(scanningRepository.getProxy());
+
+    try
+    {
+      assertEquals(Collections.singleton(id), getExtent(index, scanningRepository));
+      assertEquals(Collections.singleton(id), getExtent(index, scanningRepository));
+      assertEquals(1, scanningRepository.getScans());
+
+      // Commits aren't announced reliably in a backup, so the index must not be used
+      scanningRepository.setType(CDOCommonRepository.Type.BACKUP);
+      assertNull(index.getExtent(Collections.singleton(scanningRepository.getEClass()), scanningRepository.getMainBranch(),
+          CDOBranchPoint.UNSPECIFIED_DATE, new AtomicBoolean()));
+
+      // The index has been cleared and creates the extent again
+      scanningRepository.setType(CDOCommonRepository.Type.MASTER);
+      assertEquals(Collections.singleton(id), getExtent(index, scanningRepository));
+      assertEquals(2, scanningRepository.getScans());
+    }
+    finally
+    {
+      scanningRepository.deactivate();
+    }
+  }
+
   public void testMultipleQueries() throws Exception
   {
     ISession session = getRepository().getSessionManager().getElements()[0];
@@ -437,11 +643,258 @@ public class OCLQueryTest extends AbstractCDOTest
     return query;
   }
 
+  private void assertPushDown(Object expected, CDOQuery query, boolean stringComparison)
+  {
+    long evaluations = OCLSQLTranslator.getEvaluations();
+    Object pushedDown = getPushDownResult(query, true);
+    assertEquals(isPushDownExpected(stringComparison) ? evaluations + 1 : evaluations, OCLSQLTranslator.getEvaluations());
+
+    Object inMemory = getPushDownResult(query, false);
+    assertEquals(inMemory, pushedDown);
+
+    if (pushedDown instanceof Set<?>)
+    {
+      assertEquals(expected, ((Set<?>)pushedDown).size());
+    }
+    else
+    {
+      assertEquals(expected, pushedDown);
+    }
+  }
+
+  private Object getPushDownResult(CDOQuery query, boolean pushDown)
+  {
+    query.setParameter("cdoPushDown", pushDown);
+    List<Object> result = query.getResult();
+    if (result.size() == 1 && !(result.get(0) instanceof EObject))
+    {
+      return result.get(0);
+    }
+
+    return new HashSet<Object>(result);
+  }
+
+  private Object getPushDownOutcome(CDOQuery query, boolean pushDown)
+  {
+    try
+    {
+      return getPushDownResult(query, pushDown);
+    }
+    catch (Exception ex)
+    {
+      return ex.getClass();
+    }
+  }
+
+  private boolean isPushDownExpected(boolean stringComparison)
+  {
+    IStore store = getRepository().getStore();
+    if (!(store instanceof IDBStore))
+    {
+      return false;
+    }
+
+    IDBStore dbStore = (IDBStore)store;
+    for (IClassMapping classMapping : dbStore.getMappingStrategy().getClassMappings().values())
+    {
+      if (!(classMapping instanceof IClassMappingQuerySupport))
+      {
+        return false;
+      }
+    }
+
+    return !stringComparison || ((DBAdapter)dbStore.getDBAdapter()).isBinaryStringComparison();
+  }
+
+  private int getExtentSize(boolean extentIndex)
+  {
+    return getExtentSize(transaction, extentIndex);
+  }
+
+  private int getExtentSize(CDOView view, boolean extentIndex)
+  {
+    CDOQuery query = view.createQuery("ocl", "Product1.allInstances()", getModel1Package().getProduct1());
+    query.setParameter("cdoLazyExtents", useLazyExtents());
+    query.setParameter("cdoExtentIndex", extentIndex);
+    return query.getResult().size();
+  }
+
+  private static Set<CDOID> getExtent(CDOExtentIndex index, ScanningRepository scanningRepository)
+  {
+    List<CDOID> extent = index.getExtent(Collections.singleton(scanningRepository.getEClass()), scanningRepository.getMainBranch(),
+        CDOBranchPoint.UNSPECIFIED_DATE, new AtomicBoolean());
+    return new HashSet<CDOID>(extent);
+  }
+
   protected boolean useLazyExtents()
   {
     return false;
   }
 
+  /**
+   * Delegates to a repository, except that the scans of the {@link CDOExtentIndex extent index} return the revisions
+   * of this repository and that the type and the listeners are kept locally.
+   *
+   * @author Eike Stepper
+   */
+  private static final class ScanningRepository implements InvocationHandler
+  {
+    private final InternalRepository delegate;
+
+    private final InternalRepository proxy;
+
+    private final EClass eClass;
+
+    private final List<CDORevision> revisions = new ArrayList<CDORevision>();
+
+    private final List<IListener> listeners = new ArrayList<IListener>();
+
+    private CDOCommonRepository.Type type = CDOCommonRepository.Type.MASTER;
+
+    private Runnable scanListener;
+
+    private int scans;
+
+    public ScanningRepository(InternalRepository delegate, String nsURI)
+    {
+      this.delegate = delegate;
+      proxy = (InternalRepository)Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[] { InternalRepository.class }, this);
+      eClass = (EClass)delegate.getPackageRegistry().getEPackage(nsURI).getEClassifier("Product1");
+    }
+
+    public InternalRepository getProxy()
+    {
+      return proxy;
+    }
+
+    public EClass getEClass()
+    {
+      return eClass;
+    }
+
+    public CDOBranch getMainBranch()
+    {
+      return delegate.getBranchManager().getMainBranch();
+    }
+
+    public int getScans()
+    {
+      return scans;
+    }
+
+    public void setScanListener(Runnable scanListener)
+    {
+      this.scanListener = scanListener;
+    }
+
+    public void addRevision(CDOID id)
+    {
+      revisions.add(createRevision(id));
+    }
+
+    public void setType(CDOCommonRepository.Type type)
+    {
+      CDOCommonRepository.Type oldType = this.type;
+      this.type = type;
+      fireEvent(new RepositoryTypeChangedEvent(proxy, oldType, type));
+    }
+
+    public void deactivate()
+    {
+      fireEvent(new LifecycleEvent(proxy, ILifecycleEvent.Kind.DEACTIVATED));
+    }
+
+    public CDOCommitInfo createCommitInfo(CDOID attachedID, CDOID detachedID)
+    {
+      List<CDOIDAndVersion> newObjects = new ArrayList<CDOIDAndVersion>();
+      if (attachedID != null)
+      {
+        newObjects.add(createRevision(attachedID));
+      }
+
+      List<CDOIDAndVersion> detachedObjects = new ArrayList<CDOIDAndVersion>();
+      detachedObjects.add(CDOIDUtil.createIDAndVersion(detachedID, CDORevision.UNSPECIFIED_VERSION));
+
+      long timeStamp = delegate.getTimeStamp();
+      return delegate.getCommitInfoManager().createCommitInfo(getMainBranch(), timeStamp, timeStamp, null, null,
+          CDOCommitInfoUtil.createCommitData(null, newObjects, Collections.<CDORevisionKey> emptyList(), detachedObjects));
+    }
+
+    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable
+    {
+      String name = method.getName();
+      if ("equals".equals(name))
+      {
+        return proxy == args[0];
+      }
+
+      if ("hashCode".equals(name))
+      {
+        return System.identityHashCode(proxy);
+      }
+
+      if ("getType".equals(name))
+      {
+        return type;
+      }
+
+      if ("addListener".equals(name))
+      {
+        listeners.add((IListener)args[0]);
+        return null;
+      }
+
+      if ("removeListener".equals(name))
+      {
+        listeners.remove(args[0]);
+        return null;
+      }
+
+      if ("handleRevisions".equals(name))
+      {
+        ++scans;
+
+        CDORevisionHandler handler = (CDORevisionHandler)args[args.length - 1];
+        for (int i = 0; i < revisions.size(); i++)
+        {
+          handler.handleRevision(revisions.get(i));
+          if (i == 0 && scanListener != null)
+          {
+            scanListener.run();
+          }
+        }
+
+        return null;
+      }
+
+      try
+      {
+        return method.invoke(delegate, args);
+      }
+      catch (InvocationTargetException ex)
+      {
+        throw ex.getTargetException();
+      }
+    }
+
+    private CDORevision createRevision(CDOID id)
+    {
+      InternalCDORevision revision = (InternalCDORevision)CDORevisionFactory.DEFAULT.createRevision(eClass);
+      revision.setID(id);
+      revision.setBranchPoint(getMainBranch().getHead());
+      revision.setVersion(CDORevision.FIRST_VERSION);
+      return revision;
+    }
+
+    private void fireEvent(IEvent event)
+    {
+      for (IListener listener : listeners.toArray(new IListener[listeners.size()]))
+      {
+        listener.notifyEvent(event);
+      }
+    }
+  }
+
   /**
    * @author Eike Stepper
    */
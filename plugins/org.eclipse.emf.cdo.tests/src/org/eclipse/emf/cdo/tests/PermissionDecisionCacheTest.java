@@ -0,0 +1,213 @@
+/*
+ * Copyright (c) 2016 Eike Stepper (Berlin, Germany) and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    Eike Stepper - initial API and implementation
+ */
+package org.eclipse.emf.cdo.tests;
+
+import org.eclipse.emf.cdo.common.security.CDOPermission;
+import org.eclipse.emf.cdo.eresource.CDOResource;
+import org.eclipse.emf.cdo.security.Access;
+import org.eclipse.emf.cdo.security.FilterPermission;
+import org.eclipse.emf.cdo.security.PatternStyle;
+import org.eclipse.emf.cdo.security.Realm;
+import org.eclipse.emf.cdo.security.ResourceFilter;
+import org.eclipse.emf.cdo.security.Role;
+import org.eclipse.emf.cdo.security.SecurityFactory;
+import org.eclipse.emf.cdo.security.User;
+import org.eclipse.emf.cdo.server.security.ISecurityManager;
+import org.eclipse.emf.cdo.server.security.SecurityManagerUtil;
+import org.eclipse.emf.cdo.session.CDOSession;
+import org.eclipse.emf.cdo.tests.config.impl.ConfigTest.CleanRepositoriesAfter;
+import org.eclipse.emf.cdo.tests.config.impl.ConfigTest.CleanRepositoriesBefore;
+import org.eclipse.emf.cdo.tests.config.impl.RepositoryConfig;
+import org.eclipse.emf.cdo.tests.model1.Company;
+import org.eclipse.emf.cdo.transaction.CDOTransaction;
+import org.eclipse.emf.cdo.util.CDOUtil;
+
+import org.eclipse.net4j.util.security.IPasswordCredentials;
+import org.eclipse.net4j.util.security.PasswordCredentials;
+
+import org.eclipse.emf.ecore.EObject;
+
+/**
+ * Tests that the permission decisions that the security manager caches are dropped when the realm changes or when a
+ * commit changes the resource paths of objects, and that decisions that depend on the user are not shared.
+ *
+ * @author Eike Stepper
+ */
+@CleanRepositoriesBefore(reason = "TEST_SECURITY_MANAGER")
+@CleanRepositoriesAfter(reason = "TEST_SECURITY_MANAGER")
+public class PermissionDecisionCacheTest extends AbstractCDOTest
+{
+  private static final SecurityFactory SF = SecurityFactory.eINSTANCE;
+
+  private static final String ROLE = "writableRole";
+
+  private static final IPasswordCredentials WRITER_CREDENTIALS = new PasswordCredentials("writer", "00000");
+
+  private static final IPasswordCredentials USER_1_CREDENTIALS = new PasswordCredentials("user1", "12345");
+
+  private static final IPasswordCredentials USER_2_CREDENTIALS = new PasswordCredentials("user2", "54321");
+
+  private ISecurityManager securityManager;
+
+  @Override
+  public void setUp() throws Exception
+  {
+    super.setUp();
+
+    securityManager = SecurityManagerUtil.createSecurityManager("/security", getServerContainer());
+
+    // Start repository
+    getTestProperties().put(RepositoryConfig.PROP_TEST_SECURITY_MANAGER, securityManager);
+    getRepository();
+  }
+
+  public void testRealmChangePermissionFilter() throws Exception
+  {
+    createUsers(getResourcePath("/res"), PatternStyle.TREE);
+    createCompany("/res");
+    assertPermission(CDOPermission.WRITE, USER_1_CREDENTIALS, "/res");
+
+    securityManager.modify(new ISecurityManager.RealmOperation()
+    {
+      public void execute(Realm realm)
+      {
+        getResourceFilter(realm).setPath(getResourcePath("/other"));
+      }
+    });
+
+    assertPermission(CDOPermission.READ, USER_1_CREDENTIALS, "/res");
+  }
+
+  public void testRealmChangePermissionAccess() throws Exception
+  {
+    createUsers(getResourcePath("/res"), PatternStyle.TREE);
+    createCompany("/res");
+    assertPermission(CDOPermission.WRITE, USER_1_CREDENTIALS, "/res");
+
+    securityManager.modify(new ISecurityManager.RealmOperation()
+    {
+      public void execute(Realm realm)
+      {
+        realm.getRole(ROLE).getPermissions().get(0).setAccess(Access.READ);
+      }
+    });
+
+    assertPermission(CDOPermission.READ, USER_1_CREDENTIALS, "/res");
+  }
+
+  public void testRenameExact() throws Exception
+  {
+    createUsers(getResourcePath("/res1"), PatternStyle.EXACT);
+    createCompany("/res1");
+    assertPermission(CDOPermission.WRITE, USER_1_CREDENTIALS, "/res1");
+
+    // The company revision doesn't change, only the path of its resource
+    renameResource("/res1", "res2");
+    assertPermission(CDOPermission.READ, USER_1_CREDENTIALS, "/res2");
+
+    renameResource("/res2", "res1");
+    assertPermission(CDOPermission.WRITE, USER_1_CREDENTIALS, "/res1");
+  }
+
+  public void testMoveTree() throws Exception
+  {
+    createUsers(getResourcePath("/tree"), PatternStyle.TREE);
+    createCompany("/tree/res");
+    assertPermission(CDOPermission.WRITE, USER_1_CREDENTIALS, "/tree/res");
+
+    CDOSession session = openSession(WRITER_CREDENTIALS);
+    CDOTransaction transaction = session.openTransaction();
+    transaction.getResource(getResourcePath("/tree/res")).setPath(getResourcePath("/moved/res"));
+    transaction.commit();
+    session.close();
+
+    assertPermission(CDOPermission.READ, USER_1_CREDENTIALS, "/moved/res");
+  }
+
+  public void testUserTokenNotShared() throws Exception
+  {
+    createUsers(getResourcePath("/home/${user}"), PatternStyle.TREE);
+    createCompany("/home/user1/res");
+    createCompany("/home/user2/res");
+
+    assertPermission(CDOPermission.WRITE, USER_1_CREDENTIALS, "/home/user1/res");
+    assertPermission(CDOPermission.READ, USER_2_CREDENTIALS, "/home/user1/res");
+
+    assertPermission(CDOPermission.WRITE, USER_2_CREDENTIALS, "/home/user2/res");
+    assertPermission(CDOPermission.READ, USER_1_CREDENTIALS, "/home/user2/res");
+  }
+
+  private void createUsers(final String path, final PatternStyle patternStyle)
+  {
+    securityManager.modify(new ISecurityManager.RealmOperation()
+    {
+      public void execute(Realm realm)
+      {
+        User writer = realm.addUser(WRITER_CREDENTIALS);
+        writer.setDefaultAccessOverride(Access.WRITE);
+
+        // Both users have the same permissions
+        Role role = realm.addRole(ROLE);
+        role.getPermissions().add(SF.createFilterPermission(Access.WRITE, SF.createResourceFilter(path, patternStyle, false)));
+
+        User user1 = realm.addUser(USER_1_CREDENTIALS);
+        user1.setDefaultAccessOverride(Access.READ);
+        user1.getRoles().add(role);
+
+        User user2 = realm.addUser(USER_2_CREDENTIALS);
+        user2.setDefaultAccessOverride(Access.READ);
+        user2.getRoles().add(role);
+      }
+    });
+  }
+
+  private void createCompany(String path) throws Exception
+  {
+    CDOSession session = openSession(WRITER_CREDENTIALS);
+    CDOTransaction transaction = session.openTransaction();
+    CDOResource resource = transaction.createResource(getResourcePath(path));
+    resource.getContents().add(getModel1Factory().createCompany());
+    transaction.commit();
+    session.close();
+  }
+
+  private void renameResource(String path, String name) throws Exception
+  {
+    CDOSession session = openSession(WRITER_CREDENTIALS);
+    CDOTransaction transaction = session.openTransaction();
+    transaction.getResource(getResourcePath(path)).setName(name);
+    transaction.commit();
+    session.close();
+  }
+
+  private void assertPermission(CDOPermission expected, IPasswordCredentials credentials, String path)
+  {
+    // A new session loads the company from the server, which consults the decision cache
+    CDOSession session = openSession(credentials);
+
+    try
+    {
+      EObject company = session.openView().getResource(getResourcePath(path)).getContents().get(0);
+      assertInstanceOf(Company.class, company);
+      assertEquals(expected, CDOUtil.getCDOObject(company).cdoPermission());
+    }
+    finally
+    {
+      session.close();
+    }
+  }
+
+  private static ResourceFilter getResourceFilter(Realm realm)
+  {
+    FilterPermission permission = (FilterPermission)realm.getRole(ROLE).getPermissions().get(0);
+    return (ResourceFilter)permission.getFilters().get(0);
+  }
+}
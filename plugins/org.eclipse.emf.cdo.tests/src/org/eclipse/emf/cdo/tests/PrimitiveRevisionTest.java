@@ -0,0 +1,152 @@
+/*
+ * Copyright (c) 2016 Eike Stepper (Berlin, Germany) and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    Eike Stepper - initial API and implementation
+ */
+package org.eclipse.emf.cdo.tests;
+
+import org.eclipse.emf.cdo.CDOObject;
+import org.eclipse.emf.cdo.common.revision.CDORevisionData;
+import org.eclipse.emf.cdo.common.revision.CDORevisionFactory;
+import org.eclipse.emf.cdo.common.revision.CDORevisionManager;
+import org.eclipse.emf.cdo.eresource.CDOResource;
+import org.eclipse.emf.cdo.internal.common.revision.CDOPrimitiveRevisionImpl;
+import org.eclipse.emf.cdo.session.CDOSession;
+import org.eclipse.emf.cdo.spi.common.revision.InternalCDORevision;
+import org.eclipse.emf.cdo.spi.common.revision.InternalCDORevisionManager;
+import org.eclipse.emf.cdo.tests.config.impl.ConfigTest.CleanRepositoriesAfter;
+import org.eclipse.emf.cdo.tests.config.impl.ConfigTest.CleanRepositoriesBefore;
+import org.eclipse.emf.cdo.tests.config.impl.RepositoryConfig;
+import org.eclipse.emf.cdo.tests.model2.Unsettable1;
+import org.eclipse.emf.cdo.tests.util.TestRevisionManager;
+import org.eclipse.emf.cdo.transaction.CDOTransaction;
+import org.eclipse.emf.cdo.util.CDOUtil;
+import org.eclipse.emf.cdo.view.CDOView;
+
+import org.eclipse.emf.ecore.EClass;
+import org.eclipse.emf.ecore.EStructuralFeature;
+
+/**
+ * Tests revisions created by {@link CDORevisionFactory#PRIMITIVE}.
+ *
+ * @author Eike Stepper
+ */
+@CleanRepositoriesBefore(reason = "TEST_REVISION_MANAGER")
+@CleanRepositoriesAfter(reason = "TEST_REVISION_MANAGER")
+public class PrimitiveRevisionTest extends AbstractCDOTest
+{
+  @Override
+  protected void doSetUp() throws Exception
+  {
+    InternalCDORevisionManager revisionManager = (InternalCDORevisionManager)getRepositoryConfig()
+        .getTestProperty(RepositoryConfig.PROP_TEST_REVISION_MANAGER);
+    if (revisionManager == null)
+    {
+      revisionManager = new TestRevisionManager();
+      getRepositoryConfig().getTestProperties().put(RepositoryConfig.PROP_TEST_REVISION_MANAGER, revisionManager);
+    }
+
+    revisionManager.setFactory(CDORevisionFactory.PRIMITIVE);
+    super.doSetUp();
+  }
+
+  @Override
+  public CDOSession openSession()
+  {
+    CDOSession session = super.openSession();
+    CDORevisionManager revisionManager = session.getRevisionManager();
+    ((InternalCDORevisionManager)revisionManager).deactivate();
+    ((InternalCDORevisionManager)revisionManager).setFactory(CDORevisionFactory.PRIMITIVE);
+    ((InternalCDORevisionManager)revisionManager).activate();
+    return session;
+  }
+
+  public void testValues() throws Exception
+  {
+    EClass eClass = getModel2Package().getUnsettable1();
+    InternalCDORevision revision = (InternalCDORevision)CDORevisionFactory.PRIMITIVE.createRevision(eClass);
+    assertInstanceOf(CDOPrimitiveRevisionImpl.class, revision);
+
+    EStructuralFeature intFeature = getModel2Package().getUnsettable1_UnsettableInt();
+    EStructuralFeature longFeature = getModel2Package().getUnsettable1_UnsettableLong();
+    EStructuralFeature doubleFeature = getModel2Package().getUnsettable1_UnsettableDouble();
+    EStructuralFeature floatFeature = getModel2Package().getUnsettable1_UnsettableFloat();
+    EStructuralFeature charFeature = getModel2Package().getUnsettable1_UnsettableChar();
+    EStructuralFeature shortFeature = getModel2Package().getUnsettable1_UnsettableShort();
+    EStructuralFeature stringFeature = getModel2Package().getUnsettable1_UnsettableString();
+
+    assertEquals(null, revision.getValue(intFeature));
+    assertEquals(null, revision.getValue(doubleFeature));
+
+    revision.setValue(intFeature, -4711);
+    revision.setValue(longFeature, Long.MIN_VALUE);
+    revision.setValue(doubleFeature, -0.5d);
+    revision.setValue(floatFeature, Float.NaN);
+    revision.setValue(charFeature, 'x');
+    revision.setValue(shortFeature, (short)-1);
+    revision.setValue(stringFeature, "string");
+
+    assertEquals(-4711, revision.getValue(intFeature));
+    assertEquals(Long.MIN_VALUE, revision.getValue(longFeature));
+    assertEquals(-0.5d, revision.getValue(doubleFeature));
+    assertEquals(Float.NaN, revision.getValue(floatFeature));
+    assertEquals('x', revision.getValue(charFeature));
+    assertEquals((short)-1, revision.getValue(shortFeature));
+    assertEquals("string", revision.getValue(stringFeature));
+
+    InternalCDORevision copy = revision.copy();
+    revision.setValue(intFeature, CDORevisionData.NIL);
+    revision.setValue(longFeature, null);
+
+    assertEquals(CDORevisionData.NIL, revision.getValue(intFeature));
+    assertEquals(null, revision.getValue(longFeature));
+    assertEquals(-4711, copy.getValue(intFeature));
+    assertEquals(Long.MIN_VALUE, copy.getValue(longFeature));
+    assertEquals("string", copy.getValue(stringFeature));
+
+    revision.setValue(intFeature, 0);
+    assertEquals(0, revision.getValue(intFeature));
+  }
+
+  public void testCommitAndLoad() throws Exception
+  {
+    CDOSession session = openSession();
+    CDOTransaction transaction = session.openTransaction();
+    CDOResource resource = transaction.createResource(getResourcePath("/res"));
+
+    Unsettable1 unsettable = getModel2Factory().createUnsettable1();
+    unsettable.setUnsettableInt(Integer.MAX_VALUE);
+    unsettable.setUnsettableLong(-1L);
+    unsettable.setUnsettableDouble(Math.PI);
+    unsettable.setUnsettableChar('c');
+    unsettable.setUnsettableString("string");
+    resource.getContents().add(unsettable);
+    transaction.commit();
+
+    InternalCDORevision revision = (InternalCDORevision)CDOUtil.getCDOObject(unsettable).cdoRevision();
+    assertInstanceOf(CDOPrimitiveRevisionImpl.class, revision);
+
+    clearCache(getRepository().getRevisionManager());
+
+    CDOSession session2 = openSession();
+    CDOView view = session2.openView();
+    Unsettable1 unsettable2 = (Unsettable1)view.getResource(getResourcePath("/res")).getContents().get(0);
+
+    CDOObject object2 = CDOUtil.getCDOObject(unsettable2);
+    assertInstanceOf(CDOPrimitiveRevisionImpl.class, object2.cdoRevision());
+
+    assertEquals(Integer.MAX_VALUE, unsettable2.getUnsettableInt());
+    assertEquals(-1L, unsettable2.getUnsettableLong());
+    assertEquals(Math.PI, unsettable2.getUnsettableDouble());
+    assertEquals('c', unsettable2.getUnsettableChar());
+    assertEquals("string", unsettable2.getUnsettableString());
+    assertEquals(true, unsettable2.isSetUnsettableInt());
+    assertEquals(false, unsettable2.isSetUnsettableFloat());
+    assertEquals(false, unsettable2.isSetUnsettableShort());
+  }
+}
@@ -0,0 +1,118 @@
+/*
+ * Copyright (c) 2016 Eike Stepper (Berlin, Germany) and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    Eike Stepper - initial API and implementation
+ */
+package org.eclipse.emf.cdo.tests;
+
+import org.eclipse.emf.cdo.common.id.CDOID;
+import org.eclipse.emf.cdo.eresource.CDOResource;
+import org.eclipse.emf.cdo.server.IStoreAccessor;
+import org.eclipse.emf.cdo.session.CDOSession;
+import org.eclipse.emf.cdo.tests.config.IRepositoryConfig;
+import org.eclipse.emf.cdo.tests.model1.Category;
+import org.eclipse.emf.cdo.transaction.CDOTransaction;
+import org.eclipse.emf.cdo.util.CDOUtil;
+import org.eclipse.emf.cdo.view.CDOView;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Tests that {@link IStoreAccessor.BatchRead batched revision reads} return the same revisions as single reads.
+ *
+ * @author Eike Stepper
+ */
+public class RevisionBatchReadTest extends AbstractCDOTest
+{
+  private static final int OBJECTS = 300;
+
+  public void testLoadRevisions() throws Exception
+  {
+    List<CDOID> ids = createCategories("Category ");
+    clearCache(getRepository().getRevisionManager());
+
+    CDOSession session = openSession();
+    CDOView view = session.openView();
+    view.options().setRevisionPrefetchingPolicy(CDOUtil.createRevisionPrefetchingPolicy(OBJECTS));
+
+    CDOResource resource = view.getResource(getResourcePath("/res"));
+    assertEquals(OBJECTS, resource.getContents().size());
+
+    for (int i = 0; i < OBJECTS; i++)
+    {
+      Category category = (Category)view.getObject(ids.get(i));
+      assertEquals("Category " + i, category.getName());
+      assertEquals(1, category.getCategories().size());
+      assertEquals("Child " + i, category.getCategories().get(0).getName());
+    }
+  }
+
+  @Requires(IRepositoryConfig.CAPABILITY_AUDITING)
+  public void testLoadRevisionsHistorical() throws Exception
+  {
+    List<CDOID> ids = createCategories("Category ");
+    long timeStamp = getRepository().getLastCommitTimeStamp();
+
+    CDOSession session = openSession();
+    CDOTransaction transaction = session.openTransaction();
+    for (int i = 0; i < OBJECTS; i += 2)
+    {
+      Category category = (Category)transaction.getObject(ids.get(i));
+      category.setName("Changed " + i);
+    }
+
+    transaction.commit();
+    clearCache(getRepository().getRevisionManager());
+
+    CDOSession session2 = openSession();
+    CDOView view = session2.openView(timeStamp);
+    view.options().setRevisionPrefetchingPolicy(CDOUtil.createRevisionPrefetchingPolicy(OBJECTS));
+
+    CDOResource resource = view.getResource(getResourcePath("/res"));
+    assertEquals(OBJECTS, resource.getContents().size());
+
+    for (int i = 0; i < OBJECTS; i++)
+    {
+      Category category = (Category)view.getObject(ids.get(i));
+      assertEquals("Category " + i, category.getName());
+    }
+  }
+
+  private List<CDOID> createCategories(String prefix) throws Exception
+  {
+    CDOSession session = openSession();
+    CDOTransaction transaction = session.openTransaction();
+    CDOResource resource = transaction.createResource(getResourcePath("/res"));
+
+    List<Category> categories = new ArrayList<Category>();
+    for (int i = 0; i < OBJECTS; i++)
+    {
+      Category child = getModel1Factory().createCategory();
+      child.setName("Child " + i);
+
+      Category category = getModel1Factory().createCategory();
+      category.setName(prefix + i);
+      category.getCategories().add(child);
+
+      resource.getContents().add(category);
+      categories.add(category);
+    }
+
+    transaction.commit();
+
+    List<CDOID> ids = new ArrayList<CDOID>();
+    for (Category category : categories)
+    {
+      ids.add(CDOUtil.getCDOObject(category).cdoID());
+    }
+
+    session.close();
+    return ids;
+  }
+}
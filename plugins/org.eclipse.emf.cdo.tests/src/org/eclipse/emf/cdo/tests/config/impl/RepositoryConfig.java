@@ -34,6 +34,7 @@ import org.eclipse.emf.cdo.server.IRepository;
 import org.eclipse.emf.cdo.server.IRepository.Handler;
 import org.eclipse.emf.cdo.server.IRepository.Props;
 import org.eclipse.emf.cdo.server.IRepositoryProvider;
+import org.eclipse.emf.cdo.server.IRepositorySynchronizer;
 import org.eclipse.emf.cdo.server.ISession;
 import org.eclipse.emf.cdo.server.IStore;
 import org.eclipse.emf.cdo.server.IStoreAccessor.CommitContext;
@@ -901,6 +902,8 @@ public abstract class RepositoryConfig extends Config implements IRepositoryConf
 
     public static final String PROP_TEST_HINDER_INITIAL_REPLICATION = "test.hinder.initial.replication";
 
+    public static final String PROP_TEST_COMMIT_BATCH_SIZE = "test.commit.batch.size";
+
     private static final long serialVersionUID = 1L;
 
     private transient IAcceptor masterAcceptor;
@@ -1071,6 +1074,7 @@ public abstract class RepositoryConfig extends Config implements IRepositoryConf
       synchronizer.setRemoteSessionConfigurationFactory(masterFactory);
       synchronizer.setRetryInterval(1);
       synchronizer.setRawReplication(getTestRawReplication());
+      synchronizer.setMaxCommitBatchSize(getTestCommitBatchSize());
       synchronizer.addListener(new IListener()
       {
         public void notifyEvent(IEvent event)
@@ -1108,6 +1112,17 @@ public abstract class RepositoryConfig extends Config implements IRepositoryConf
       return result;
     }
 
+    protected int getTestCommitBatchSize()
+    {
+      Integer result = (Integer)getTestProperty(PROP_TEST_COMMIT_BATCH_SIZE);
+      if (result == null)
+      {
+        result = IRepositorySynchronizer.DEFAULT_MAX_COMMIT_BATCH_SIZE;
+      }
+
+      return result;
+    }
+
     protected long getTestDelayedCommitHandling()
     {
       Long result = (Long)getTestProperty(PROP_TEST_DELAYED_COMMIT_HANDLING);
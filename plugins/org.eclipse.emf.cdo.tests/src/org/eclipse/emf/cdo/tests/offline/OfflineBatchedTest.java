@@ -0,0 +1,193 @@
+/*
+ * Copyright (c) 2016 Eike Stepper (Berlin, Germany) and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    Eike Stepper - initial API and implementation
+ */
+package org.eclipse.emf.cdo.tests.offline;
+
+import org.eclipse.emf.cdo.common.commit.CDOCommitInfo;
+import org.eclipse.emf.cdo.common.commit.CDOCommitInfoHandler;
+import org.eclipse.emf.cdo.eresource.CDOResource;
+import org.eclipse.emf.cdo.internal.server.syncing.RepositorySynchronizer;
+import org.eclipse.emf.cdo.server.IRepositorySynchronizer;
+import org.eclipse.emf.cdo.session.CDOSession;
+import org.eclipse.emf.cdo.spi.server.InternalRepository;
+import org.eclipse.emf.cdo.spi.server.InternalSynchronizableRepository;
+import org.eclipse.emf.cdo.tests.model1.Company;
+import org.eclipse.emf.cdo.transaction.CDOTransaction;
+
+import org.eclipse.net4j.util.WrappedException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs the {@link OfflineTest offline tests} with master commits that are replicated in batches, and asserts that
+ * several commits are actually replicated together.
+ *
+ * @author Eike Stepper
+ */
+public class OfflineBatchedTest extends OfflineTest
+{
+  private static final int COMMITS = 23;
+
+  @Override
+  protected boolean isRawReplication()
+  {
+    return false;
+  }
+
+  @Override
+  protected int getTestCommitBatchSize()
+  {
+    return 5;
+  }
+
+  public void testDisconnectAndSyncManyCommits() throws Exception
+  {
+    InternalSynchronizableRepository clone = getRepository();
+    waitForOnline(clone);
+
+    getOfflineConfig().stopMasterTransport();
+    waitForOffline(clone);
+
+    CDOSession masterSession = openSession("master");
+    CDOTransaction masterTransaction = masterSession.openTransaction();
+    CDOResource masterResource = masterTransaction.createResource(getResourcePath("/master/resource"));
+    long timeStamp = commitCompanies(masterTransaction, masterResource);
+    masterSession.close();
+
+    getOfflineConfig().startMasterTransport();
+    waitForOnline(clone);
+
+    assertEquals(timeStamp, clone.getLastReplicatedCommitTime());
+    assertCommitInfos(getRepository("master"), clone);
+    assertReplicated(clone.getSynchronizer());
+    assertBatched(clone.getSynchronizer());
+  }
+
+  public void testMasterCommitsBurst() throws Exception
+  {
+    final InternalSynchronizableRepository clone = getRepository();
+    waitForOnline(clone);
+
+    // Hold the replication of the first commit back, so that the following commits queue up in the synchronizer
+    final CountDownLatch burst = new CountDownLatch(1);
+    CDOCommitInfoHandler blocker = new CDOCommitInfoHandler()
+    {
+      public void handleCommitInfo(CDOCommitInfo commitInfo)
+      {
+        try
+        {
+          burst.await(DEFAULT_TIMEOUT, TimeUnit.MILLISECONDS);
+        }
+        catch (InterruptedException ex)
+        {
+          throw WrappedException.wrap(ex);
+        }
+      }
+    };
+
+    clone.getCommitInfoManager().addCommitInfoHandler(blocker);
+    final long timeStamp;
+
+    try
+    {
+      CDOSession masterSession = openSession("master");
+      CDOTransaction masterTransaction = masterSession.openTransaction();
+      CDOResource masterResource = masterTransaction.createResource(getResourcePath("/master/resource"));
+      timeStamp = commitCompanies(masterTransaction, masterResource);
+      masterSession.close();
+    }
+    finally
+    {
+      burst.countDown();
+    }
+
+    new PollingTimeOuter()
+    {
+      @Override
+      protected boolean successful()
+      {
+        return clone.getLastReplicatedCommitTime() == timeStamp;
+      }
+    }.assertNoTimeOut();
+
+    clone.getCommitInfoManager().removeCommitInfoHandler(blocker);
+    assertCommitInfos(getRepository("master"), clone);
+    assertReplicated(clone.getSynchronizer());
+    assertBatched(clone.getSynchronizer());
+  }
+
+  private long commitCompanies(CDOTransaction transaction, CDOResource resource) throws Exception
+  {
+    long timeStamp = 0L;
+    for (int i = 0; i < COMMITS; i++)
+    {
+      Company company = getModel1Factory().createCompany();
+      company.setName("Company" + i);
+      resource.getContents().add(company);
+
+      transaction.setCommitComment("Commit" + i);
+      timeStamp = transaction.commit().getTimeStamp();
+    }
+
+    return timeStamp;
+  }
+
+  private static void assertCommitInfos(InternalRepository master, InternalRepository clone)
+  {
+    List<CDOCommitInfo> masterInfos = getCommitInfos(master);
+    List<CDOCommitInfo> cloneInfos = getCommitInfos(clone);
+    assertEquals(masterInfos.size(), cloneInfos.size());
+
+    for (int i = 0; i < masterInfos.size(); i++)
+    {
+      CDOCommitInfo masterInfo = masterInfos.get(i);
+      CDOCommitInfo cloneInfo = cloneInfos.get(i);
+      assertEquals(masterInfo.getTimeStamp(), cloneInfo.getTimeStamp());
+      assertEquals(masterInfo.getComment(), cloneInfo.getComment());
+    }
+  }
+
+  private static List<CDOCommitInfo> getCommitInfos(InternalRepository repository)
+  {
+    final List<CDOCommitInfo> result = new ArrayList<CDOCommitInfo>();
+    repository.getCommitInfoManager().getCommitInfos(null, 0L, 0L, new CDOCommitInfoHandler()
+    {
+      public void handleCommitInfo(CDOCommitInfo commitInfo)
+      {
+        result.add(commitInfo);
+      }
+    });
+
+    return result;
+  }
+
+  private static void assertBatched(IRepositorySynchronizer synchronizer)
+  {
+    int largestCommitBatchSize = ((RepositorySynchronizer)synchronizer).getLargestCommitBatchSize();
+    assertEquals("Largest commit batch: " + largestCommitBatchSize, true, largestCommitBatchSize > 1);
+  }
+
+  private static void assertReplicated(final IRepositorySynchronizer synchronizer)
+  {
+    new PollingTimeOuter()
+    {
+      @Override
+      protected boolean successful()
+      {
+        return synchronizer.getPendingCommits() == 0;
+      }
+    }.assertNoTimeOut();
+
+    assertEquals(0L, synchronizer.getReplicationLag());
+  }
+}
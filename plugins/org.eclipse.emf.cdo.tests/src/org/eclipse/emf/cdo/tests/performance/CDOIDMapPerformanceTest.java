@@ -0,0 +1,125 @@
+/*
+ * Copyright (c) 2016 Eike Stepper (Berlin, Germany) and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    Eike Stepper - initial API and implementation
+ */
+package org.eclipse.emf.cdo.tests.performance;
+
+import org.eclipse.emf.cdo.common.id.CDOID;
+import org.eclipse.emf.cdo.common.id.CDOIDUtil;
+import org.eclipse.emf.cdo.tests.performance.framework.PerformanceTest;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Compares the memory footprint and the throughput of a {@link HashMap} and of the map that {@link CDOIDUtil#createMap()}
+ * returns, with 10 million long IDs that are inserted in random order, as objects are loaded in navigation order rather
+ * than in ID order. Needs a heap of about 4 GB.
+ *
+ * @author Eike Stepper
+ */
+public class CDOIDMapPerformanceTest extends PerformanceTest
+{
+  private static final int ENTRIES = 10000000;
+
+  private static final int LOOKUPS = 20000000;
+
+  private static CDOID[] ids;
+
+  public void testHashMap() throws Exception
+  {
+    measure(new HashMap<CDOID, Object>());
+  }
+
+  public void testCDOIDMap() throws Exception
+  {
+    measure(CDOIDUtil.<Object> createMap());
+  }
+
+  private void measure(Map<CDOID, Object> map)
+  {
+    CDOID[] ids = getIDs();
+    long heap = getUsedHeap();
+
+    startProbing();
+    long start = System.nanoTime();
+    for (int i = 0; i < ENTRIES; i++)
+    {
+      map.put(ids[i], ids);
+    }
+
+    long putNanos = System.nanoTime() - start;
+    long bytes = getUsedHeap() - heap;
+
+    Random random = new Random(0);
+    int hits = 0;
+
+    start = System.nanoTime();
+    for (int i = 0; i < LOOKUPS; i++)
+    {
+      if (map.get(ids[random.nextInt(ENTRIES)]) != null)
+      {
+        ++hits;
+      }
+    }
+
+    long getNanos = System.nanoTime() - start;
+
+    start = System.nanoTime();
+    int count = 0;
+    for (CDOID id : map.keySet())
+    {
+      if (id != null)
+      {
+        ++count;
+      }
+    }
+
+    long iterateNanos = System.nanoTime() - start;
+    stopProbing();
+
+    assertEquals(LOOKUPS, hits);
+    assertEquals(ENTRIES, count);
+
+    msg(map.getClass().getSimpleName() + ": " + bytes / ENTRIES + " bytes per entry, " //
+        + ENTRIES * 1000L / (putNanos / 1000000L + 1) + " puts/s, " //
+        + LOOKUPS * 1000L / (getNanos / 1000000L + 1) + " gets/s, " //
+        + ENTRIES * 1000L / (iterateNanos / 1000000L + 1) + " keys/s iterated");
+  }
+
+  private static synchronized CDOID[] getIDs()
+  {
+    if (ids == null)
+    {
+      ids = new CDOID[ENTRIES];
+      for (int i = 0; i < ENTRIES; i++)
+      {
+        ids[i] = CDOIDUtil.createLong(i + 1);
+      }
+
+      Collections.shuffle(Arrays.asList(ids), new Random(0));
+    }
+
+    return ids;
+  }
+
+  private static long getUsedHeap()
+  {
+    Runtime runtime = Runtime.getRuntime();
+    for (int i = 0; i < 3; i++)
+    {
+      System.gc();
+    }
+
+    return runtime.totalMemory() - runtime.freeMemory();
+  }
+}
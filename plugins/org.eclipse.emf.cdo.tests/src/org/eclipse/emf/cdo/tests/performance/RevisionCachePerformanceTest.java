@@ -0,0 +1,176 @@
+/*
+ * Copyright (c) 2016 Eike Stepper (Berlin, Germany) and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    Eike Stepper - initial API and implementation
+ */
+package org.eclipse.emf.cdo.tests.performance;
+
+import org.eclipse.emf.cdo.common.branch.CDOBranch;
+import org.eclipse.emf.cdo.common.branch.CDOBranchPoint;
+import org.eclipse.emf.cdo.common.id.CDOID;
+import org.eclipse.emf.cdo.common.id.CDOIDUtil;
+import org.eclipse.emf.cdo.common.revision.CDORevisionFactory;
+import org.eclipse.emf.cdo.common.revision.CDORevisionUtil;
+import org.eclipse.emf.cdo.spi.common.revision.InternalCDORevision;
+import org.eclipse.emf.cdo.spi.common.revision.InternalCDORevisionCache;
+import org.eclipse.emf.cdo.tests.performance.framework.PerformanceTest;
+
+import org.eclipse.net4j.util.lifecycle.LifecycleUtil;
+
+import org.eclipse.emf.ecore.EClass;
+
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Measures the read throughput of the auditing revision caches while one thread keeps adding and removing revisions.
+ *
+ * @author Eike Stepper
+ */
+public class RevisionCachePerformanceTest extends PerformanceTest
+{
+  private static final int OBJECTS = 10000;
+
+  private static final int VERSIONS = 3;
+
+  private static final int READERS = 8;
+
+  private static final long MEASURE_MILLIS = 2000;
+
+  public void testAuditingCache() throws Exception
+  {
+    measure(false);
+  }
+
+  public void testConcurrentCache() throws Exception
+  {
+    measure(true);
+  }
+
+  private void measure(boolean concurrent) throws Exception
+  {
+    boolean supportingBranches = getRepository().isSupportingBranches();
+    final InternalCDORevisionCache cache = (InternalCDORevisionCache)CDORevisionUtil.createRevisionCache(true,
+        supportingBranches, concurrent);
+    LifecycleUtil.activate(cache);
+
+    try
+    {
+      final CDOBranch branch = getRepository().getBranchManager().getMainBranch();
+      final InternalCDORevision[][] revisions = createRevisions(branch);
+      for (InternalCDORevision[] objectRevisions : revisions)
+      {
+        for (InternalCDORevision revision : objectRevisions)
+        {
+          cache.addRevision(revision);
+        }
+      }
+
+      final AtomicLong reads = new AtomicLong();
+      final CountDownLatch finished = new CountDownLatch(READERS + 1);
+      final long end = System.currentTimeMillis() + MEASURE_MILLIS;
+
+      startProbing();
+
+      for (int i = 0; i < READERS; i++)
+      {
+        final int seed = i;
+        new Thread("reader-" + i)
+        {
+          @Override
+          public void run()
+          {
+            try
+            {
+              Random random = new Random(seed);
+              CDOBranchPoint head = branch.getHead();
+              long count = 0;
+
+              while (System.currentTimeMillis() < end)
+              {
+                for (int j = 0; j < 1000; j++)
+                {
+                  InternalCDORevision[] objectRevisions = revisions[random.nextInt(OBJECTS)];
+                  CDOID id = objectRevisions[0].getID();
+                  cache.getRevision(id, head);
+                  cache.getRevisionByVersion(id, branch.getVersion(1 + random.nextInt(VERSIONS)));
+                }
+
+                count += 2000;
+              }
+
+              reads.addAndGet(count);
+            }
+            finally
+            {
+              finished.countDown();
+            }
+          }
+        }.start();
+      }
+
+      new Thread("writer")
+      {
+        @Override
+        public void run()
+        {
+          try
+          {
+            Random random = new Random();
+            while (System.currentTimeMillis() < end)
+            {
+              InternalCDORevision revision = revisions[random.nextInt(OBJECTS)][random.nextInt(VERSIONS)];
+              cache.removeRevision(revision.getID(), revision);
+              cache.addRevision(revision);
+            }
+          }
+          finally
+          {
+            finished.countDown();
+          }
+        }
+      }.start();
+
+      finished.await();
+      stopProbing();
+
+      msg("Reads per second: " + reads.get() * 1000 / MEASURE_MILLIS);
+    }
+    finally
+    {
+      LifecycleUtil.deactivate(cache);
+    }
+  }
+
+  private InternalCDORevision[][] createRevisions(CDOBranch branch)
+  {
+    EClass eClass = getModel1Package().getCompany();
+    InternalCDORevision[][] revisions = new InternalCDORevision[OBJECTS][VERSIONS];
+
+    for (int i = 0; i < OBJECTS; i++)
+    {
+      CDOID id = CDOIDUtil.createLong(i + 1);
+      for (int v = 0; v < VERSIONS; v++)
+      {
+        InternalCDORevision revision = (InternalCDORevision)CDORevisionFactory.DEFAULT.createRevision(eClass);
+        revision.setID(id);
+        revision.setVersion(v + 1);
+        revision.setBranchPoint(branch.getPoint(1000L * (v + 1)));
+        if (v < VERSIONS - 1)
+        {
+          revision.setRevised(1000L * (v + 2) - 1);
+        }
+
+        revisions[i][v] = revision;
+      }
+    }
+
+    return revisions;
+  }
+}
@@ -0,0 +1,123 @@
+/*
+ * Copyright (c) 2016 Eike Stepper (Berlin, Germany) and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    Eike Stepper - initial API and implementation
+ */
+package org.eclipse.emf.cdo.tests.performance;
+
+import org.eclipse.emf.cdo.common.revision.CDORevisionFactory;
+import org.eclipse.emf.cdo.spi.common.revision.InternalCDORevision;
+import org.eclipse.emf.cdo.tests.model2.Model2Package;
+import org.eclipse.emf.cdo.tests.performance.framework.PerformanceTest;
+
+import org.eclipse.emf.ecore.EClass;
+import org.eclipse.emf.ecore.EStructuralFeature;
+
+/**
+ * Compares the heap footprint and the read throughput of revisions created by {@link CDORevisionFactory#DEFAULT} and
+ * {@link CDORevisionFactory#PRIMITIVE}.
+ *
+ * @author Eike Stepper
+ */
+public class RevisionLayoutPerformanceTest extends PerformanceTest
+{
+  private static final int REVISIONS = 100000;
+
+  private static final int READS = 20;
+
+  public void testFootprintDefaultLayout() throws Exception
+  {
+    measureFootprint(CDORevisionFactory.DEFAULT);
+  }
+
+  public void testFootprintPrimitiveLayout() throws Exception
+  {
+    measureFootprint(CDORevisionFactory.PRIMITIVE);
+  }
+
+  public void testReadDefaultLayout() throws Exception
+  {
+    measureReads(CDORevisionFactory.DEFAULT);
+  }
+
+  public void testReadPrimitiveLayout() throws Exception
+  {
+    measureReads(CDORevisionFactory.PRIMITIVE);
+  }
+
+  private void measureFootprint(CDORevisionFactory factory)
+  {
+    long before = getUsedMemory();
+
+    startProbing();
+    InternalCDORevision[] revisions = createRevisions(factory);
+    stopProbing();
+
+    long after = getUsedMemory();
+    msg("Bytes per revision: " + (after - before) / revisions.length);
+  }
+
+  private void measureReads(CDORevisionFactory factory)
+  {
+    InternalCDORevision[] revisions = createRevisions(factory);
+
+    Model2Package model2Package = getModel2Package();
+    EStructuralFeature intFeature = model2Package.getUnsettable1_UnsettableInt();
+    EStructuralFeature longFeature = model2Package.getUnsettable1_UnsettableLong();
+    EStructuralFeature doubleFeature = model2Package.getUnsettable1_UnsettableDouble();
+
+    double sum = 0;
+    startProbing();
+
+    for (int i = 0; i < READS; i++)
+    {
+      for (InternalCDORevision revision : revisions)
+      {
+        sum += (Integer)revision.getValue(intFeature);
+        sum += (Long)revision.getValue(longFeature);
+        sum += (Double)revision.getValue(doubleFeature);
+      }
+    }
+
+    stopProbing();
+    msg("Sum: " + sum);
+  }
+
+  private InternalCDORevision[] createRevisions(CDORevisionFactory factory)
+  {
+    Model2Package model2Package = getModel2Package();
+    EClass eClass = model2Package.getUnsettable1();
+
+    InternalCDORevision[] revisions = new InternalCDORevision[REVISIONS];
+    for (int i = 0; i < REVISIONS; i++)
+    {
+      InternalCDORevision revision = (InternalCDORevision)factory.createRevision(eClass);
+      revision.setValue(model2Package.getUnsettable1_UnsettableInt(), 1000 + i);
+      revision.setValue(model2Package.getUnsettable1_UnsettableLong(), 1000L * i);
+      revision.setValue(model2Package.getUnsettable1_UnsettableDouble(), 0.5d * i);
+      revision.setValue(model2Package.getUnsettable1_UnsettableFloat(), 0.25f * i);
+      revision.setValue(model2Package.getUnsettable1_UnsettableShort(), (short)(1000 + i));
+      revision.setValue(model2Package.getUnsettable1_UnsettableChar(), (char)(1000 + i));
+      revision.setValue(model2Package.getUnsettable1_UnsettableString(), "string");
+      revisions[i] = revision;
+    }
+
+    return revisions;
+  }
+
+  private static long getUsedMemory()
+  {
+    Runtime runtime = Runtime.getRuntime();
+    for (int i = 0; i < 3; i++)
+    {
+      System.gc();
+    }
+
+    return runtime.totalMemory() - runtime.freeMemory();
+  }
+}
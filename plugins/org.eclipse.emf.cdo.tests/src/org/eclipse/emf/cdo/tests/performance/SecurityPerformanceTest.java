@@ -0,0 +1,313 @@
+/*
+ * Copyright (c) 2016 Eike Stepper (Berlin, Germany) and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    Eike Stepper - initial API and implementation
+ */
+package org.eclipse.emf.cdo.tests.performance;
+
+import org.eclipse.emf.cdo.common.branch.CDOBranchPoint;
+import org.eclipse.emf.cdo.common.id.CDOID;
+import org.eclipse.emf.cdo.common.id.CDOIDUtil;
+import org.eclipse.emf.cdo.common.revision.CDORevision;
+import org.eclipse.emf.cdo.common.revision.CDORevisionProvider;
+import org.eclipse.emf.cdo.common.security.CDOPermission;
+import org.eclipse.emf.cdo.eresource.EresourcePackage;
+import org.eclipse.emf.cdo.internal.common.revision.CDORevisionImpl;
+import org.eclipse.emf.cdo.security.Access;
+import org.eclipse.emf.cdo.security.ClassFilter;
+import org.eclipse.emf.cdo.security.PatternStyle;
+import org.eclipse.emf.cdo.security.Permission;
+import org.eclipse.emf.cdo.security.PermissionFilter;
+import org.eclipse.emf.cdo.security.SecurityFactory;
+import org.eclipse.emf.cdo.server.internal.security.PermissionDecisionCache;
+import org.eclipse.emf.cdo.tests.performance.framework.PerformanceTest;
+
+import org.eclipse.net4j.util.io.IOUtil;
+
+import org.eclipse.emf.ecore.EClass;
+import org.eclipse.emf.ecore.EcorePackage;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+
+/**
+ * Measures the authorization of revisions against realms of different sizes and with different filter types, with and
+ * without a {@link PermissionDecisionCache}.
+ *
+ * @author Eike Stepper
+ */
+public class SecurityPerformanceTest extends PerformanceTest
+{
+  private static final SecurityFactory SF = SecurityFactory.eINSTANCE;
+
+  private static final EClass RESOURCE = EresourcePackage.Literals.CDO_RESOURCE;
+
+  private static final EClass FOLDER = EresourcePackage.Literals.CDO_RESOURCE_FOLDER;
+
+  private static final int[] REALM_SIZES = { 1, 10, 30, 100 };
+
+  private static final int HOMES = 20;
+
+  private static final int FOLDERS = 10;
+
+  private static final int RESOURCES = 10;
+
+  private static final int ROUNDS = 10;
+
+  public void testResourceFilter_EXACT() throws Exception
+  {
+    measure(PatternStyle.EXACT, false);
+  }
+
+  public void testResourceFilter_EXACT_Cached() throws Exception
+  {
+    measure(PatternStyle.EXACT, true);
+  }
+
+  public void testResourceFilter_TREE() throws Exception
+  {
+    measure(PatternStyle.TREE, false);
+  }
+
+  public void testResourceFilter_TREE_Cached() throws Exception
+  {
+    measure(PatternStyle.TREE, true);
+  }
+
+  public void testResourceFilter_ANT() throws Exception
+  {
+    measure(PatternStyle.ANT, false);
+  }
+
+  public void testResourceFilter_ANT_Cached() throws Exception
+  {
+    measure(PatternStyle.ANT, true);
+  }
+
+  public void testResourceFilter_REGEX() throws Exception
+  {
+    measure(PatternStyle.REGEX, false);
+  }
+
+  public void testResourceFilter_REGEX_Cached() throws Exception
+  {
+    measure(PatternStyle.REGEX, true);
+  }
+
+  public void testClassFilter() throws Exception
+  {
+    measure(null, false);
+  }
+
+  public void testClassFilter_Cached() throws Exception
+  {
+    measure(null, true);
+  }
+
+  private void measure(PatternStyle patternStyle, boolean cached) throws Exception
+  {
+    RevisionMap revisions = new RevisionMap(getRepository().getBranchManager().getMainBranch().getHead());
+    CDORevision[] nodes = revisions.createTree();
+    CDOBranchPoint securityContext = revisions.getBranchPoint();
+
+    for (int realmSize : REALM_SIZES)
+    {
+      Permission[] permissions = createPermissions(patternStyle, realmSize);
+      PermissionDecisionCache decisionCache = cached ? new PermissionDecisionCache(permissions) : null;
+      int writable = 0;
+
+      long start = System.currentTimeMillis();
+      startProbing();
+
+      for (int round = 0; round < ROUNDS; round++)
+      {
+        writable = 0;
+        for (int i = 0; i < nodes.length; i++)
+        {
+          CDORevision revision = nodes[i];
+          CDOPermission permission;
+
+          if (decisionCache != null)
+          {
+            Object key = decisionCache.createKey(revision, securityContext);
+            permission = decisionCache.get(key);
+            if (permission == null)
+            {
+              int generation = decisionCache.getGeneration();
+              permission = authorize(revision, revisions, securityContext, permissions);
+              decisionCache.put(key, permission, generation);
+            }
+          }
+          else
+          {
+            permission = authorize(revision, revisions, securityContext, permissions);
+          }
+
+          if (permission == CDOPermission.WRITE)
+          {
+            ++writable;
+          }
+        }
+      }
+
+      stopProbing();
+      long millis = System.currentTimeMillis() - start;
+
+      assertEquals(true, writable > 0);
+      IOUtil.OUT().println(getName() + ": " + realmSize + " permissions, " + ROUNDS * nodes.length + " decisions in " + millis
+          + " millis");
+    }
+  }
+
+  private static CDOPermission authorize(CDORevision revision, CDORevisionProvider revisionProvider, CDOBranchPoint securityContext,
+      Permission[] permissions)
+  {
+    // Same evaluation order as in SecurityManager.authorize()
+    CDOPermission result = CDOPermission.NONE;
+    for (int i = 0; i < permissions.length; i++)
+    {
+      Permission permission = permissions[i];
+      CDOPermission p = permission.getAccess() == Access.WRITE ? CDOPermission.WRITE : CDOPermission.READ;
+      if (p.ordinal() <= result.ordinal())
+      {
+        continue;
+      }
+
+      if (permission.isApplicable(revision, revisionProvider, securityContext))
+      {
+        result = p;
+        if (result == CDOPermission.WRITE)
+        {
+          return result;
+        }
+      }
+    }
+
+    return result;
+  }
+
+  private static Permission[] createPermissions(PatternStyle patternStyle, int realmSize)
+  {
+    Permission[] permissions = new Permission[realmSize];
+    for (int i = 0; i < realmSize; i++)
+    {
+      // Only the last permission grants write access, so that all permissions are evaluated for most revisions
+      Access access = i == realmSize - 1 ? Access.WRITE : Access.READ;
+      permissions[i] = SF.createFilterPermission(access, createFilter(patternStyle, i));
+    }
+
+    return permissions;
+  }
+
+  private static PermissionFilter createFilter(PatternStyle patternStyle, int i)
+  {
+    String home = "home" + i % HOMES;
+    if (patternStyle == null)
+    {
+      ClassFilter filter = SF.createClassFilter(i % 2 == 0 ? FOLDER : EresourcePackage.Literals.CDO_RESOURCE_NODE);
+      filter.setSubTypes(true);
+      return i % 3 == 0 ? SF.createOrFilter(filter, SF.createPackageFilter(EcorePackage.eINSTANCE)) : filter;
+    }
+
+    switch (patternStyle)
+    {
+    case EXACT:
+    case TREE:
+      return SF.createResourceFilter("/" + home + "/folder" + i % FOLDERS, patternStyle, true);
+
+    case ANT:
+      return SF.createResourceFilter("/" + home + "/**/resource" + i % RESOURCES, patternStyle, false);
+
+    case REGEX:
+      return SF.createResourceFilter("/" + home + "/folder[0-" + i % FOLDERS + "]/.*", patternStyle, false);
+
+    default:
+      throw new IllegalArgumentException("Unsupported pattern style: " + patternStyle);
+    }
+  }
+
+  /**
+   * @author Eike Stepper
+   */
+  private static final class RevisionMap extends HashMap<CDOID, CDORevisionImpl> implements CDORevisionProvider
+  {
+    private static final long serialVersionUID = 1L;
+
+    private final CDOBranchPoint branchPoint;
+
+    private long lastID;
+
+    public RevisionMap(CDOBranchPoint branchPoint)
+    {
+      this.branchPoint = branchPoint;
+    }
+
+    public CDOBranchPoint getBranchPoint()
+    {
+      return branchPoint;
+    }
+
+    public CDORevisionImpl getRevision(CDOID id)
+    {
+      return get(id);
+    }
+
+    public CDORevision[] createTree()
+    {
+      List<CDORevision> result = new ArrayList<CDORevision>();
+      CDORevisionImpl root = createNode(null, null, RESOURCE);
+
+      for (int h = 0; h < HOMES; h++)
+      {
+        CDORevisionImpl home = createNode(root, "home" + h, FOLDER);
+        result.add(home);
+
+        for (int f = 0; f < FOLDERS; f++)
+        {
+          CDORevisionImpl folder = createNode(home, "folder" + f, FOLDER);
+          result.add(folder);
+
+          for (int r = 0; r < RESOURCES; r++)
+          {
+            result.add(createNode(folder, "resource" + r, RESOURCE));
+          }
+        }
+      }
+
+      return result.toArray(new CDORevision[result.size()]);
+    }
+
+    private CDORevisionImpl createNode(CDORevisionImpl parent, String name, EClass type)
+    {
+      CDOID id = CDOIDUtil.createLong(++lastID);
+
+      CDORevisionImpl revision = new CDORevisionImpl(type);
+      revision.setID(id);
+      revision.setVersion(CDORevision.FIRST_VERSION);
+      revision.setBranchPoint(branchPoint);
+      revision.setValue(EresourcePackage.Literals.CDO_RESOURCE_NODE__NAME, name);
+      put(id, revision);
+
+      if (parent != null)
+      {
+        revision.setContainerID(parent.getID());
+        if (parent.getEClass() == RESOURCE)
+        {
+          parent.getList(EresourcePackage.Literals.CDO_RESOURCE__CONTENTS, 0).add(id);
+        }
+        else
+        {
+          parent.getList(EresourcePackage.Literals.CDO_RESOURCE_FOLDER__NODES, 0).add(id);
+        }
+      }
+
+      return revision;
+    }
+  }
+}
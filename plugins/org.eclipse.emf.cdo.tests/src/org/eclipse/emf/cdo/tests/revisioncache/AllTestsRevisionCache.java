@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2013 Eike Stepper (Berlin, Germany) and others.
+ * Copyright (c) 2013, 2016 Eike Stepper (Berlin, Germany) and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -25,6 +25,7 @@ public class AllTestsRevisionCache
 
     // $JUnit-BEGIN$
     suite.addTestSuite(DefaultRevisionCacheTest.class);
+    suite.addTestSuite(ConcurrentRevisionCacheTest.class);
     // $JUnit-END$
 
     return suite;
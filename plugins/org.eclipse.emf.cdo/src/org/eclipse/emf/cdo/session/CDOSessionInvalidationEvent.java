@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2009-2014 Eike Stepper (Berlin, Germany) and others.
+ * Copyright (c) 2009-2014, 2016 Eike Stepper (Berlin, Germany) and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -60,4 +60,26 @@ public interface CDOSessionInvalidationEvent extends CDOSessionEvent, CDOCommitI
    * @since 4.3
    */
   public Map<CDORevision, CDOPermission> getOldPermissions();
+
+  /**
+   * Returns the number of commit notifications that were waiting behind the one of this event when it was processed.
+   *
+   * @since 4.6
+   */
+  public int getQueueSize();
+
+  /**
+   * Returns the time in milliseconds between the arrival of the commit notification of this event and its processing.
+   *
+   * @since 4.6
+   */
+  public long getLag();
+
+  /**
+   * Returns the number of invalidations that wait to be applied to the views of the session when this method is called.
+   * The views of a session are invalidated in parallel.
+   *
+   * @since 4.6
+   */
+  public int getViewQueueSize();
 }
@@ -40,6 +40,7 @@ import org.eclipse.emf.cdo.transaction.CDOTransactionCommentator;
 import org.eclipse.emf.cdo.transaction.CDOTransactionContainer;
 import org.eclipse.emf.cdo.transaction.CDOXATransaction;
 import org.eclipse.emf.cdo.view.CDOFeatureAnalyzer;
+import org.eclipse.emf.cdo.view.CDOFetchPlan;
 import org.eclipse.emf.cdo.view.CDOFetchRuleManager;
 import org.eclipse.emf.cdo.view.CDORevisionPrefetchingPolicy;
 import org.eclipse.emf.cdo.view.CDOStaleObject;
@@ -50,6 +51,7 @@ import org.eclipse.emf.cdo.view.CDOViewSet;
 
 import org.eclipse.emf.internal.cdo.analyzer.CDOFeatureAnalyzerModelBased;
 import org.eclipse.emf.internal.cdo.analyzer.CDOFeatureAnalyzerUI;
+import org.eclipse.emf.internal.cdo.analyzer.CDOFetchPlanImpl;
 import org.eclipse.emf.internal.cdo.analyzer.CDOFetchRuleManagerThreadLocal;
 import org.eclipse.emf.internal.cdo.bundle.OM;
 import org.eclipse.emf.internal.cdo.messages.Messages;
@@ -328,6 +330,24 @@ public final class CDOUtil
     return new CDOFeatureAnalyzerModelBased();
   }
 
+  /**
+   * Creates a model based feature analyzer that tunes the given fetch plan.
+   *
+   * @since 4.6
+   */
+  public static CDOFeatureAnalyzer createModelBasedFeatureAnalyzer(CDOFetchPlan fetchPlan)
+  {
+    return new CDOFeatureAnalyzerModelBased(fetchPlan);
+  }
+
+  /**
+   * @since 4.6
+   */
+  public static CDOFetchPlan createFetchPlan()
+  {
+    return new CDOFetchPlanImpl();
+  }
+
   /**
    * @since 4.1
    */
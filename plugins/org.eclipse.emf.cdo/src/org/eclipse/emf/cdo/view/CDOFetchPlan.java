@@ -0,0 +1,84 @@
+/*
+ * Copyright (c) 2016 Eike Stepper (Berlin, Germany) and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    Eike Stepper - initial API and implementation
+ */
+package org.eclipse.emf.cdo.view;
+
+import org.eclipse.emf.cdo.common.util.CDOFetchRule;
+import org.eclipse.emf.cdo.session.CDOCollectionLoadingPolicy;
+import org.eclipse.emf.cdo.session.CDOSessionConfiguration;
+import org.eclipse.emf.cdo.util.CDOUtil;
+
+import org.eclipse.emf.ecore.EClass;
+import org.eclipse.emf.ecore.EStructuralFeature;
+
+import java.util.List;
+
+/**
+ * A declarative {@link CDOFetchRuleManager fetch rule manager} that holds one {@link CDOFetchRule fetch rule} per
+ * {@link EClass class}.
+ * <p>
+ * A fetch plan is registered with {@link CDOSessionConfiguration#setFetchRuleManager(CDOFetchRuleManager)
+ * CDOSessionConfiguration.setFetchRuleManager()}. Its rules are then shipped with every revision load request of the
+ * session and the server loads the revisions that are reachable through the rules, level by level, in the same round
+ * trip.
+ * <p>
+ * A fetch plan can be tuned automatically by a {@link CDOUtil#createModelBasedFeatureAnalyzer(CDOFetchPlan) model
+ * based feature analyzer} that reports the traversals that still needed a round trip to the server.
+ *
+ * @author Eike Stepper
+ * @since 4.6
+ * @noextend This interface is not intended to be extended by clients.
+ * @noimplement This interface is not intended to be implemented by clients.
+ */
+public interface CDOFetchPlan extends CDOFetchRuleManager
+{
+  public static final int DEFAULT_MAX_DEPTH = 3;
+
+  /**
+   * Returns the fetch rules of this plan. The returned rules must not be modified.
+   */
+  public List<CDOFetchRule> getFetchRules();
+
+  /**
+   * Returns the fetch rule for the given class, or <code>null</code> if this plan has no rule for it. The returned rule
+   * must not be modified.
+   */
+  public CDOFetchRule getFetchRule(EClass eClass);
+
+  /**
+   * Adds the given features to the rule for the given class and sets its depth, which can be
+   * {@link CDOFetchRule#DEPTH_ONCE_PER_PATH} to apply the rule only once on each path.
+   */
+  public void addFetchRule(EClass eClass, int depth, EStructuralFeature... features);
+
+  public void removeFetchRule(EClass eClass);
+
+  public void setCollectionLoadingPolicy(CDOCollectionLoadingPolicy collectionLoadingPolicy);
+
+  /**
+   * Returns the depth up to which the rules of this plan are increased by {@link #handleMiss(EClass, EStructuralFeature)}.
+   */
+  public int getMaxDepth();
+
+  public void setMaxDepth(int maxDepth);
+
+  /**
+   * Returns the number of {@link #handleMiss(EClass, EStructuralFeature) misses} that have been reported to this plan.
+   */
+  public long getMissCount();
+
+  /**
+   * Reports that traversing the given feature of an object of the given class needed a round trip to the server.
+   * <p>
+   * If the feature is a reference that isn't in the rule of the class yet it's added with a depth of one. Otherwise the
+   * depth of the rule is increased up to the {@link #getMaxDepth() maximum depth}.
+   */
+  public void handleMiss(EClass eClass, EStructuralFeature feature);
+}
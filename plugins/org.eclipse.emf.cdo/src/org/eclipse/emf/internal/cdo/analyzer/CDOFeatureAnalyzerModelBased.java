@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2007-2012, 2014, 2015 Eike Stepper (Berlin, Germany) and others.
+ * Copyright (c) 2007-2012, 2014-2016 Eike Stepper (Berlin, Germany) and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -14,6 +14,7 @@ package org.eclipse.emf.internal.cdo.analyzer;
 import org.eclipse.emf.cdo.CDOObject;
 import org.eclipse.emf.cdo.common.id.CDOID;
 import org.eclipse.emf.cdo.common.util.CDOFetchRule;
+import org.eclipse.emf.cdo.view.CDOFetchPlan;
 
 import org.eclipse.emf.ecore.EStructuralFeature;
 
@@ -28,8 +29,25 @@ public class CDOFeatureAnalyzerModelBased extends CDOAbstractFeatureRuleAnalyzer
 {
   CDOAnalyzerFeatureInfo featureInfos = new CDOAnalyzerFeatureInfo();
 
+  private final CDOFetchPlan fetchPlan;
+
   public CDOFeatureAnalyzerModelBased()
   {
+    this(null);
+  }
+
+  /**
+   * Creates an analyzer that reports the traversals which caused a fetch to the given plan and that returns the rules
+   * of the plan.
+   */
+  public CDOFeatureAnalyzerModelBased(CDOFetchPlan fetchPlan)
+  {
+    this.fetchPlan = fetchPlan;
+  }
+
+  public CDOFetchPlan getFetchPlan()
+  {
+    return fetchPlan;
   }
 
   @Override
@@ -43,6 +61,10 @@ public class CDOFeatureAnalyzerModelBased extends CDOAbstractFeatureRuleAnalyzer
     if (didFetch())
     {
       featureInfos.activate(cdoObject.eClass(), feature);
+      if (fetchPlan != null)
+      {
+        fetchPlan.handleMiss(cdoObject.eClass(), feature);
+      }
     }
   }
 
@@ -54,6 +76,11 @@ public class CDOFeatureAnalyzerModelBased extends CDOAbstractFeatureRuleAnalyzer
   public List<CDOFetchRule> getFetchRules(Collection<CDOID> ids)
   {
     fetchData();
+    if (fetchPlan != null)
+    {
+      return fetchPlan.getFetchRules();
+    }
+
     List<CDOFetchRule> rules = new ArrayList<CDOFetchRule>();
     if (lastTraverseCDOObject != null)
     {
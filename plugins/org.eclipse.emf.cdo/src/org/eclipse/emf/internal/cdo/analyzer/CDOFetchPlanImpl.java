@@ -0,0 +1,181 @@
+/*
+ * Copyright (c) 2016 Eike Stepper (Berlin, Germany) and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    Eike Stepper - initial API and implementation
+ */
+package org.eclipse.emf.internal.cdo.analyzer;
+
+import org.eclipse.emf.cdo.common.id.CDOID;
+import org.eclipse.emf.cdo.common.util.CDOFetchRule;
+import org.eclipse.emf.cdo.session.CDOCollectionLoadingPolicy;
+import org.eclipse.emf.cdo.view.CDOFetchPlan;
+import org.eclipse.emf.cdo.view.CDOFetchRuleManager;
+
+import org.eclipse.emf.internal.cdo.bundle.OM;
+
+import org.eclipse.net4j.util.om.trace.ContextTracer;
+
+import org.eclipse.emf.ecore.EClass;
+import org.eclipse.emf.ecore.EReference;
+import org.eclipse.emf.ecore.EStructuralFeature;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The rules of this plan are never modified after they've been published. Changes replace them with modified copies,
+ * so that requests can write them without locking.
+ *
+ * @author Eike Stepper
+ */
+public class CDOFetchPlanImpl implements CDOFetchPlan
+{
+  private static final ContextTracer TRACER = new ContextTracer(OM.DEBUG, CDOFetchPlanImpl.class);
+
+  private final Map<EClass, CDOFetchRule> fetchRules = new ConcurrentHashMap<EClass, CDOFetchRule>();
+
+  private volatile CDOCollectionLoadingPolicy collectionLoadingPolicy;
+
+  private volatile int maxDepth = DEFAULT_MAX_DEPTH;
+
+  private long missCount;
+
+  public CDOFetchPlanImpl()
+  {
+  }
+
+  public CDOID getContext()
+  {
+    return CDOID.NULL;
+  }
+
+  public List<CDOFetchRule> getFetchRules(Collection<CDOID> ids)
+  {
+    // Let an analyzer that is traversing a feature know that the traversal caused a fetch
+    CDOFetchRuleManager analyzer = CDOFetchRuleManagerThreadLocal.getCurrent();
+    if (analyzer instanceof CDOAbstractFeatureRuleAnalyzer)
+    {
+      ((CDOAbstractFeatureRuleAnalyzer)analyzer).fetchData();
+    }
+
+    return getFetchRules();
+  }
+
+  public List<CDOFetchRule> getFetchRules()
+  {
+    return new ArrayList<CDOFetchRule>(fetchRules.values());
+  }
+
+  public CDOFetchRule getFetchRule(EClass eClass)
+  {
+    return fetchRules.get(eClass);
+  }
+
+  public synchronized void addFetchRule(EClass eClass, int depth, EStructuralFeature... features)
+  {
+    CDOFetchRule fetchRule = copy(eClass, depth);
+    for (EStructuralFeature feature : features)
+    {
+      if (!fetchRule.getFeatures().contains(feature))
+      {
+        fetchRule.addFeature(feature);
+      }
+    }
+
+    fetchRules.put(eClass, fetchRule);
+  }
+
+  public synchronized void removeFetchRule(EClass eClass)
+  {
+    fetchRules.remove(eClass);
+  }
+
+  public CDOCollectionLoadingPolicy getCollectionLoadingPolicy()
+  {
+    return collectionLoadingPolicy;
+  }
+
+  public void setCollectionLoadingPolicy(CDOCollectionLoadingPolicy collectionLoadingPolicy)
+  {
+    this.collectionLoadingPolicy = collectionLoadingPolicy;
+  }
+
+  public int getMaxDepth()
+  {
+    return maxDepth;
+  }
+
+  public void setMaxDepth(int maxDepth)
+  {
+    this.maxDepth = maxDepth;
+  }
+
+  public synchronized long getMissCount()
+  {
+    return missCount;
+  }
+
+  public synchronized void handleMiss(EClass eClass, EStructuralFeature feature)
+  {
+    ++missCount;
+    if (!(feature instanceof EReference))
+    {
+      return;
+    }
+
+    CDOFetchRule fetchRule = fetchRules.get(eClass);
+    if (fetchRule == null || !fetchRule.getFeatures().contains(feature))
+    {
+      if (TRACER.isEnabled())
+      {
+        TRACER.format("Adding feature to fetch plan: {0}.{1}", eClass.getName(), feature.getName()); //$NON-NLS-1$
+      }
+
+      fetchRule = copy(eClass, fetchRule == null ? 1 : fetchRule.getDepth());
+      fetchRule.addFeature(feature);
+      fetchRules.put(eClass, fetchRule);
+      return;
+    }
+
+    int depth = fetchRule.getDepth();
+    if (depth != CDOFetchRule.DEPTH_ONCE_PER_PATH && depth < maxDepth)
+    {
+      if (TRACER.isEnabled())
+      {
+        TRACER.format("Increasing fetch plan depth of {0} to {1}", eClass.getName(), depth + 1); //$NON-NLS-1$
+      }
+
+      fetchRules.put(eClass, copy(eClass, depth + 1));
+    }
+  }
+
+  @Override
+  public String toString()
+  {
+    return "CDOFetchPlan" + fetchRules.keySet(); //$NON-NLS-1$
+  }
+
+  private CDOFetchRule copy(EClass eClass, int depth)
+  {
+    CDOFetchRule copy = new CDOFetchRule(eClass, depth);
+
+    CDOFetchRule fetchRule = fetchRules.get(eClass);
+    if (fetchRule != null)
+    {
+      for (EStructuralFeature feature : fetchRule.getFeatures())
+      {
+        copy.addFeature(feature);
+      }
+    }
+
+    return copy;
+  }
+}
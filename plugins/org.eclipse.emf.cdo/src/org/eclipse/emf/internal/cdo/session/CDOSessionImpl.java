@@ -92,6 +92,7 @@ import org.eclipse.emf.internal.cdo.messages.Messages;
 import org.eclipse.emf.internal.cdo.object.CDOFactoryImpl;
 import org.eclipse.emf.internal.cdo.session.remote.CDORemoteSessionManagerImpl;
 import org.eclipse.emf.internal.cdo.util.DefaultLocksChangedEvent;
+import org.eclipse.emf.internal.cdo.view.CDOViewImpl;
 
 import org.eclipse.net4j.util.AdapterUtil;
 import org.eclipse.net4j.util.ReflectUtil.ExcludeFromDump;
@@ -1902,6 +1903,11 @@ public abstract class CDOSessionImpl extends CDOTransactionContainerImpl impleme
       scheduleInvalidations();
     }
 
+    public synchronized int getQueueSize()
+    {
+      return reorderQueue.size() + getWorkQueueSize();
+    }
+
     public synchronized void scheduleInvalidations()
     {
       while (!reorderQueue.isEmpty() && canProcess(reorderQueue.get(0)))
@@ -1949,6 +1955,8 @@ public abstract class CDOSessionImpl extends CDOTransactionContainerImpl impleme
 
     private final CDOCommitInfo commitInfo;
 
+    private final long arrivalTime = System.currentTimeMillis();
+
     public Invalidation(InvalidationData invalidationData)
     {
       this.invalidationData = invalidationData;
@@ -1986,6 +1994,8 @@ public abstract class CDOSessionImpl extends CDOTransactionContainerImpl impleme
     protected void doRun()
     {
       long timeStamp = getTimeStamp();
+      long lag = System.currentTimeMillis() - arrivalTime;
+      int queueSize = invalidator.getQueueSize();
 
       if (Invalidator.DEBUG)
       {
@@ -2022,7 +2032,7 @@ public abstract class CDOSessionImpl extends CDOTransactionContainerImpl impleme
 
         if (success)
         {
-          fireEvent(new InvalidationEvent(sender, commitInfo, invalidationData.getSecurityImpact(), oldPermissions));
+          fireEvent(new InvalidationEvent(sender, commitInfo, invalidationData.getSecurityImpact(), oldPermissions, queueSize, lag));
           fireEvent(new SessionLocksChangedEvent(sender, lockChangeInfo));
 
           commitInfoManager.notifyCommitInfoHandlers(commitInfo);
@@ -2252,13 +2262,20 @@ public abstract class CDOSessionImpl extends CDOTransactionContainerImpl impleme
 
     private Map<CDORevision, CDOPermission> oldPermissions;
 
-    public InvalidationEvent(InternalCDOTransaction sender, CDOCommitInfo commitInfo, byte securityImpact, Map<CDORevision, CDOPermission> oldPermissions)
+    private int queueSize;
+
+    private long lag;
+
+    public InvalidationEvent(InternalCDOTransaction sender, CDOCommitInfo commitInfo, byte securityImpact, Map<CDORevision, CDOPermission> oldPermissions,
+        int queueSize, long lag)
     {
       super(CDOSessionImpl.this);
       this.sender = sender;
       this.commitInfo = commitInfo;
       this.securityImpact = securityImpact;
       this.oldPermissions = oldPermissions;
+      this.queueSize = queueSize;
+      this.lag = lag;
     }
 
     @Override
@@ -2394,6 +2411,30 @@ public abstract class CDOSessionImpl extends CDOTransactionContainerImpl impleme
       return oldPermissions;
     }
 
+    public int getQueueSize()
+    {
+      return queueSize;
+    }
+
+    public long getLag()
+    {
+      return lag;
+    }
+
+    public int getViewQueueSize()
+    {
+      int viewQueueSize = 0;
+      for (InternalCDOView view : getViews())
+      {
+        if (view instanceof CDOViewImpl)
+        {
+          viewQueueSize += ((CDOViewImpl)view).getInvalidationRunner().getWorkQueueSize();
+        }
+      }
+
+      return viewQueueSize;
+    }
+
     @Override
     public String toString()
     {
@@ -72,6 +72,12 @@ public class H2Adapter extends DBAdapter
     return getSQL92ReservedWords();
   }
 
+  @Override
+  public boolean isBinaryStringComparison()
+  {
+    return true;
+  }
+
   @Override
   protected boolean isPrimaryKeyShadow(Connection connection, IDBTable table, String name, Type type, IDBField[] fields)
   {
@@ -14,12 +14,14 @@
 package org.eclipse.net4j.db.postgresql;
 
 import org.eclipse.net4j.db.DBType;
+import org.eclipse.net4j.db.DBUtil;
 import org.eclipse.net4j.db.IDBAdapter;
 import org.eclipse.net4j.db.ddl.IDBField;
 import org.eclipse.net4j.db.ddl.IDBTable;
 import org.eclipse.net4j.db.internal.postgresql.bundle.OM;
 import org.eclipse.net4j.spi.db.DBAdapter;
 
+import java.sql.Connection;
 import java.sql.SQLException;
 import java.sql.Savepoint;
 import java.sql.Statement;
@@ -141,6 +143,53 @@ public class PostgreSQLAdapter extends DBAdapter
     return "42703".equals(ex.getSQLState());
   }
 
+  @Override
+  public boolean isBinaryStringComparison()
+  {
+    return true;
+  }
+
+  @Override
+  public boolean isDeferredDurabilitySupported()
+  {
+    return true;
+  }
+
+  /**
+   * See <a href="https://www.postgresql.org/docs/9.0/static/wal-async-commit.html">Asynchronous Commit</a>.
+   * The write-ahead log is sequential, so the next synchronous commit also makes this transaction durable.
+   */
+  @Override
+  public void deferDurability(Connection connection) throws SQLException
+  {
+    execute(connection, "SET LOCAL synchronous_commit TO OFF"); //$NON-NLS-1$
+  }
+
+  /**
+   * Assigns a transaction ID to an otherwise empty transaction, so that its synchronous commit writes a commit record
+   * and waits for all preceding log records to be flushed.
+   */
+  @Override
+  public void flushDeferredCommits(Connection connection) throws SQLException
+  {
+    execute(connection, "SELECT txid_current()"); //$NON-NLS-1$
+    connection.commit();
+  }
+
+  private static void execute(Connection connection, String sql) throws SQLException
+  {
+    Statement statement = connection.createStatement();
+
+    try
+    {
+      statement.execute(sql);
+    }
+    finally
+    {
+      DBUtil.close(statement);
+    }
+  }
+
   /**
    * @since 4.1
    */
@@ -11,6 +11,7 @@
 package org.eclipse.net4j.db;
 
 import java.sql.PreparedStatement;
+import java.sql.SQLException;
 
 /**
  * @since 4.5
@@ -25,4 +26,12 @@ public interface BatchedStatement extends PreparedStatement
   public int getBatchCount();
 
   public int getTotalResult();
+
+  /**
+   * Sends the pending updates of this statement to the database.
+   *
+   * @return the sum of the update counts of the pending updates.
+   * @since 4.6
+   */
+  public int flush() throws SQLException;
 }
@@ -67,6 +67,16 @@ public final class BatchedStatementImpl extends DelegatingPreparedStatement impl
     return 0;
   }
 
+  public int flush() throws SQLException
+  {
+    if (batchCount != 0)
+    {
+      return doExecuteBatch();
+    }
+
+    return 0;
+  }
+
   @Override
   public void close() throws SQLException
   {
@@ -116,6 +126,7 @@ public final class BatchedStatementImpl extends DelegatingPreparedStatement impl
       }
     }
 
+    batchCount = 0;
     totalResult += sum;
     return sum;
   }
@@ -11,6 +11,7 @@
  */
 package org.eclipse.net4j.spi.db;
 
+import org.eclipse.net4j.db.BatchedStatement;
 import org.eclipse.net4j.db.DBException;
 import org.eclipse.net4j.db.DBType;
 import org.eclipse.net4j.db.DBUtil;
@@ -762,6 +763,77 @@ public abstract class DBAdapter implements IDBAdapter
     return 128;
   }
 
+  /**
+   * Returns the largest number of updates that should be sent to the database in one JDBC batch,
+   * or zero if JDBC batches should not be used with this database.
+   *
+   * @since 4.6
+   */
+  public int getMaxBatchSize()
+  {
+    return Integer.MAX_VALUE;
+  }
+
+  /**
+   * Returns a {@link BatchedStatement} that sends the updates of the given statement to the database in batches of the
+   * given size. Subclasses can override this method to provide dialect-specific bulk write paths.
+   *
+   * @since 4.6
+   */
+  public BatchedStatement createBatchedStatement(PreparedStatement stmt, int batchSize) throws DBException
+  {
+    return DBUtil.batched(stmt, Math.min(batchSize, getMaxBatchSize()));
+  }
+
+  /**
+   * Returns <code>true</code> if this adapter can {@link #deferDurability(Connection) defer the durability} of a commit.
+   *
+   * @since 4.6
+   */
+  public boolean isDeferredDurabilitySupported()
+  {
+    return false;
+  }
+
+  /**
+   * Lets the next commit of the current transaction of the given connection return without waiting for its log records
+   * to be flushed to disk. The transaction becomes durable together with the next transaction that commits durably, or
+   * with the next call to {@link #flushDeferredCommits(Connection)}.
+   * <p>
+   * This is a no-op if {@link #isDeferredDurabilitySupported()} returns <code>false</code>.
+   *
+   * @since 4.6
+   */
+  public void deferDurability(Connection connection) throws SQLException
+  {
+    // Do nothing
+  }
+
+  /**
+   * Makes all commits durable that have been {@link #deferDurability(Connection) deferred}, using the given connection.
+   * The given connection must not have an active transaction.
+   * <p>
+   * This is a no-op if {@link #isDeferredDurabilitySupported()} returns <code>false</code>.
+   *
+   * @since 4.6
+   */
+  public void flushDeferredCommits(Connection connection) throws SQLException
+  {
+    // Do nothing
+  }
+
+  /**
+   * Returns <code>true</code> if two {@link DBType#VARCHAR VARCHAR} values are only equal in the databases of this
+   * adapter if they consist of exactly the same characters, i.e., if the comparison is case sensitive and trailing
+   * spaces are significant. The default collations of many databases don't compare strings like that.
+   *
+   * @since 4.6
+   */
+  public boolean isBinaryStringComparison()
+  {
+    return false;
+  }
+
   /**
    * @since 4.2
    */
@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2007-2013, 2015 Eike Stepper (Berlin, Germany) and others.
+ * Copyright (c) 2007-2013, 2015, 2016 Eike Stepper (Berlin, Germany) and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -189,7 +189,7 @@ public class TCPAcceptor extends Acceptor implements ITCPAcceptor, ITCPPassiveSe
         TCPConnector connector = createConnector();
         prepareConnector(connector);
         connector.setSocketChannel(socketChannel);
-        connector.setSelector(selector);
+        connector.setSelector(this.selector.getNextSelector());
         connector.activate();
       }
     }
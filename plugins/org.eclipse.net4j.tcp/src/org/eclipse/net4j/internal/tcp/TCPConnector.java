@@ -27,18 +27,24 @@ import org.eclipse.net4j.util.WrappedException;
 import org.eclipse.net4j.util.collection.RoundRobinBlockingQueue;
 import org.eclipse.net4j.util.io.IOUtil;
 import org.eclipse.net4j.util.lifecycle.LifecycleUtil;
+import org.eclipse.net4j.util.om.OMPlatform;
 import org.eclipse.net4j.util.om.trace.ContextTracer;
 import org.eclipse.net4j.util.security.INegotiationContext;
 import org.eclipse.net4j.util.security.NegotiationContext;
 import org.eclipse.net4j.util.security.NegotiationException;
 
+import org.eclipse.internal.net4j.buffer.Buffer;
+
 import org.eclipse.spi.net4j.Connector;
 import org.eclipse.spi.net4j.InternalChannel;
 
+import java.io.IOException;
 import java.nio.ByteBuffer;
 import java.nio.channels.ClosedChannelException;
 import java.nio.channels.SelectionKey;
 import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Queue;
 import java.util.concurrent.BlockingQueue;
 
@@ -49,6 +55,19 @@ public abstract class TCPConnector extends Connector implements ITCPConnector, I
 {
   private static final ContextTracer TRACER = new ContextTracer(OM.DEBUG, TCPConnector.class);
 
+  /**
+   * The default maximum number of buffers that are written to the socket with a single gathering write.
+   * A value of 1 disables gathering writes.
+   */
+  public static final int DEFAULT_MAX_GATHERING_BUFFERS = Integer
+      .parseInt(OMPlatform.INSTANCE.getProperty("org.eclipse.net4j.tcp.MAX_GATHERING_BUFFERS", "16")); //$NON-NLS-1$ //$NON-NLS-2$
+
+  /**
+   * The default maximum number of bytes that are written to the socket with a single gathering write.
+   */
+  public static final int DEFAULT_MAX_GATHERING_BYTES = Integer
+      .parseInt(OMPlatform.INSTANCE.getProperty("org.eclipse.net4j.tcp.MAX_GATHERING_BYTES", "65536")); //$NON-NLS-1$ //$NON-NLS-2$
+
   private SocketChannel socketChannel;
 
   private ITCPSelector selector;
@@ -58,6 +77,20 @@ public abstract class TCPConnector extends Connector implements ITCPConnector, I
 
   private BlockingQueue<InternalChannel> writeQueue = new RoundRobinBlockingQueue<InternalChannel>();
 
+  /**
+   * Buffers that have been taken from the send queues of their channels but not yet completely written.
+   * Guarded by the {@link #writeQueue}.
+   */
+  private final List<PendingWrite> pendingWrites = new ArrayList<PendingWrite>();
+
+  private int maxGatheringBuffers = DEFAULT_MAX_GATHERING_BUFFERS;
+
+  private int maxGatheringBytes = DEFAULT_MAX_GATHERING_BYTES;
+
+  private long writeCalls;
+
+  private long writtenBuffers;
+
   private IBuffer inputBuffer;
 
   private ControlChannel controlChannel;
@@ -133,6 +166,48 @@ public abstract class TCPConnector extends Connector implements ITCPConnector, I
     this.writeQueue = writeQueue;
   }
 
+  public int getMaxGatheringBuffers()
+  {
+    return maxGatheringBuffers;
+  }
+
+  public void setMaxGatheringBuffers(int maxGatheringBuffers)
+  {
+    this.maxGatheringBuffers = maxGatheringBuffers;
+  }
+
+  public int getMaxGatheringBytes()
+  {
+    return maxGatheringBytes;
+  }
+
+  public void setMaxGatheringBytes(int maxGatheringBytes)
+  {
+    this.maxGatheringBytes = maxGatheringBytes;
+  }
+
+  /**
+   * Returns the number of write calls that have been issued to the socket channel.
+   */
+  public long getWriteCalls()
+  {
+    synchronized (writeQueue)
+    {
+      return writeCalls;
+    }
+  }
+
+  /**
+   * Returns the number of buffers that have been completely written to the socket channel.
+   */
+  public long getWrittenBuffers()
+  {
+    synchronized (writeQueue)
+    {
+      return writtenBuffers;
+    }
+  }
+
   public IBuffer getInputBuffer()
   {
     return inputBuffer;
@@ -294,33 +369,16 @@ public abstract class TCPConnector extends Connector implements ITCPConnector, I
     {
       synchronized (writeQueue)
       {
-        InternalChannel channel = writeQueue.peek();
-        if (channel != null)
+        if (maxGatheringBuffers > 1 || !pendingWrites.isEmpty())
         {
-          Queue<IBuffer> channelSendQueue = channel.getSendQueue();
-          if (channelSendQueue != null)
-          {
-            IBuffer buffer = channelSendQueue.peek();
-            if (buffer != null)
-            {
-              boolean closeChannelAfterMe = buffer.isCCAM();
-
-              if (buffer.write(socketChannel))
-              {
-                writeQueue.poll();
-                channelSendQueue.poll();
-                buffer.release();
-              }
-
-              if (closeChannelAfterMe)
-              {
-                channel.close();
-              }
-            }
-          }
+          writeGathering(socketChannel);
+        }
+        else
+        {
+          writeSingle(socketChannel);
         }
 
-        if (writeQueue.isEmpty())
+        if (writeQueue.isEmpty() && pendingWrites.isEmpty())
         {
           if (selectionKey != null)
           {
@@ -351,6 +409,200 @@ public abstract class TCPConnector extends Connector implements ITCPConnector, I
     }
   }
 
+  /**
+   * Writes (a part of) the head buffer of the next channel in the {@link #writeQueue}.
+   * Must be called while holding the monitor of the write queue.
+   */
+  private void writeSingle(SocketChannel socketChannel) throws IOException
+  {
+    InternalChannel channel = writeQueue.peek();
+    if (channel != null)
+    {
+      Queue<IBuffer> channelSendQueue = channel.getSendQueue();
+      if (channelSendQueue != null)
+      {
+        IBuffer buffer = channelSendQueue.peek();
+        if (buffer != null)
+        {
+          boolean closeChannelAfterMe = buffer.isCCAM();
+
+          ++writeCalls;
+          if (buffer.write(socketChannel))
+          {
+            writeQueue.poll();
+            channelSendQueue.poll();
+            buffer.release();
+            ++writtenBuffers;
+          }
+
+          if (closeChannelAfterMe)
+          {
+            channel.close();
+          }
+        }
+      }
+    }
+  }
+
+  /**
+   * Takes the buffers that are already queued for writing, up to the configured {@link #getMaxGatheringBuffers() number}
+   * and {@link #getMaxGatheringBytes() size} limits, and writes them to the socket channel with a single gathering write.
+   * Buffers that could not be written completely remain pending for the next call.
+   * Must be called while holding the monitor of the write queue.
+   */
+  private void writeGathering(SocketChannel socketChannel) throws IOException
+  {
+    int bytes = 0;
+    for (PendingWrite pendingWrite : pendingWrites)
+    {
+      bytes += pendingWrite.getByteBuffer().remaining();
+    }
+
+    while (pendingWrites.size() < maxGatheringBuffers && bytes < maxGatheringBytes)
+    {
+      int size = pendingWrites.size();
+      if (size != 0 && pendingWrites.get(size - 1).isCloseChannelAfterMe())
+      {
+        // Buffers of other channels are not written before the channel is closed
+        break;
+      }
+
+      InternalChannel channel = writeQueue.peek();
+      if (channel == null)
+      {
+        break;
+      }
+
+      Queue<IBuffer> channelSendQueue = channel.getSendQueue();
+      IBuffer buffer = channelSendQueue == null ? null : channelSendQueue.peek();
+      if (buffer != null && !(buffer instanceof Buffer))
+      {
+        if (size == 0)
+        {
+          writeSingle(socketChannel);
+          return;
+        }
+
+        break;
+      }
+
+      writeQueue.poll();
+      if (buffer == null)
+      {
+        // The channel has been closed in the meantime
+        continue;
+      }
+
+      channelSendQueue.poll();
+
+      Buffer writeBuffer = (Buffer)buffer;
+      boolean closeChannelAfterMe = writeBuffer.isCCAM();
+      ByteBuffer byteBuffer;
+
+      try
+      {
+        byteBuffer = writeBuffer.startWriting();
+      }
+      catch (RuntimeException ex)
+      {
+        writeBuffer.handleError(ex);
+        throw ex;
+      }
+
+      if (byteBuffer == null)
+      {
+        // *Pretend* that this empty buffer has been written
+        writeBuffer.release();
+        if (closeChannelAfterMe)
+        {
+          channel.close();
+        }
+
+        continue;
+      }
+
+      pendingWrites.add(new PendingWrite(channel, writeBuffer, byteBuffer, closeChannelAfterMe));
+      bytes += byteBuffer.remaining();
+    }
+
+    int size = pendingWrites.size();
+    if (size == 0)
+    {
+      return;
+    }
+
+    ByteBuffer[] byteBuffers = new ByteBuffer[size];
+    for (int i = 0; i < size; i++)
+    {
+      byteBuffers[i] = pendingWrites.get(i).getByteBuffer();
+    }
+
+    try
+    {
+      ++writeCalls;
+      if (socketChannel.write(byteBuffers) == -1)
+      {
+        throw new IOException("Channel closed"); //$NON-NLS-1$
+      }
+    }
+    catch (IOException ex)
+    {
+      releasePendingWrites(ex);
+      throw ex;
+    }
+    catch (RuntimeException ex)
+    {
+      releasePendingWrites(ex);
+      throw ex;
+    }
+
+    int written = 0;
+    while (written < size)
+    {
+      PendingWrite pendingWrite = pendingWrites.get(written);
+      Buffer buffer = pendingWrite.getBuffer();
+      if (!buffer.finishWriting())
+      {
+        break;
+      }
+
+      buffer.release();
+      ++written;
+
+      if (pendingWrite.isCloseChannelAfterMe())
+      {
+        pendingWrite.getChannel().close();
+      }
+    }
+
+    if (written != 0)
+    {
+      pendingWrites.subList(0, written).clear();
+      writtenBuffers += written;
+    }
+  }
+
+  /**
+   * Must be called while holding the monitor of the write queue.
+   */
+  private void releasePendingWrites(Throwable t)
+  {
+    for (PendingWrite pendingWrite : pendingWrites)
+    {
+      Buffer buffer = pendingWrite.getBuffer();
+      if (t != null)
+      {
+        buffer.handleError(t);
+      }
+      else
+      {
+        buffer.release();
+      }
+    }
+
+    pendingWrites.clear();
+  }
+
   protected void doOrderWriteInterest(boolean on)
   {
     selector.orderWriteInterest(selectionKey, isClient(), on);
@@ -414,6 +666,12 @@ public abstract class TCPConnector extends Connector implements ITCPConnector, I
 
     IOUtil.closeSilent(socketChannel);
     socketChannel = null;
+
+    synchronized (writeQueue)
+    {
+      releasePendingWrites(null);
+    }
+
     super.doDeactivate();
   }
 
@@ -441,6 +699,48 @@ public abstract class TCPConnector extends Connector implements ITCPConnector, I
     }
   }
 
+  /**
+   * @author Eike Stepper
+   */
+  private static final class PendingWrite
+  {
+    private final InternalChannel channel;
+
+    private final Buffer buffer;
+
+    private final ByteBuffer byteBuffer;
+
+    private final boolean closeChannelAfterMe;
+
+    public PendingWrite(InternalChannel channel, Buffer buffer, ByteBuffer byteBuffer, boolean closeChannelAfterMe)
+    {
+      this.channel = channel;
+      this.buffer = buffer;
+      this.byteBuffer = byteBuffer;
+      this.closeChannelAfterMe = closeChannelAfterMe;
+    }
+
+    public InternalChannel getChannel()
+    {
+      return channel;
+    }
+
+    public Buffer getBuffer()
+    {
+      return buffer;
+    }
+
+    public ByteBuffer getByteBuffer()
+    {
+      return byteBuffer;
+    }
+
+    public boolean isCloseChannelAfterMe()
+    {
+      return closeChannelAfterMe;
+    }
+  }
+
   /**
    * @author Eike Stepper
    */
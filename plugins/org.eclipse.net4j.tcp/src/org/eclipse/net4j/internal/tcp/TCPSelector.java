@@ -15,8 +15,11 @@ import org.eclipse.net4j.tcp.ITCPActiveSelectorListener;
 import org.eclipse.net4j.tcp.ITCPPassiveSelectorListener;
 import org.eclipse.net4j.tcp.ITCPSelector;
 import org.eclipse.net4j.util.lifecycle.Lifecycle;
+import org.eclipse.net4j.util.lifecycle.LifecycleUtil;
 import org.eclipse.net4j.util.om.trace.ContextTracer;
 
+import org.eclipse.internal.net4j.buffer.SlabBufferPool;
+
 import java.io.IOException;
 import java.nio.channels.CancelledKeyException;
 import java.nio.channels.ClosedSelectorException;
@@ -28,14 +31,29 @@ import java.nio.channels.SocketChannel;
 import java.util.Iterator;
 import java.util.Queue;
 import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
+ * Runs a socket selector on its own thread. A selector can be configured with a {@link #getSelectorCount() selector count}
+ * greater than one, in which case it additionally runs the required number of I/O selectors on separate threads and
+ * distributes the {@link #getNextSelector() connectors} among itself and these I/O selectors.
+ *
  * @author Eike Stepper
  */
 public class TCPSelector extends Lifecycle implements ITCPSelector, Runnable
 {
   private static final ContextTracer TRACER = new ContextTracer(OM.DEBUG, TCPSelector.class);
 
+  private static final String DEFAULT_NAME = "TCPSelector"; //$NON-NLS-1$
+
+  private final String name;
+
+  private int selectorCount = 1;
+
+  private volatile TCPSelector[] selectors;
+
+  private final AtomicInteger nextSelector = new AtomicInteger();
+
   private Selector selector;
 
   /**
@@ -54,6 +72,18 @@ public class TCPSelector extends Lifecycle implements ITCPSelector, Runnable
 
   public TCPSelector()
   {
+    this(DEFAULT_NAME);
+  }
+
+  public TCPSelector(int selectorCount)
+  {
+    this();
+    setSelectorCount(selectorCount);
+  }
+
+  protected TCPSelector(String name)
+  {
+    this.name = name;
   }
 
   public Selector getSocketSelector()
@@ -61,10 +91,46 @@ public class TCPSelector extends Lifecycle implements ITCPSelector, Runnable
     return selector;
   }
 
+  /**
+   * Returns the number of socket selectors, each with its own thread, that this selector distributes its connectors to.
+   */
+  public int getSelectorCount()
+  {
+    return selectorCount;
+  }
+
+  public void setSelectorCount(int selectorCount)
+  {
+    checkInactive();
+    if (selectorCount < 1)
+    {
+      throw new IllegalArgumentException("selectorCount < 1"); //$NON-NLS-1$
+    }
+
+    this.selectorCount = selectorCount;
+  }
+
+  /**
+   * Returns the selector that a new connector should be registered with. The selectors are assigned round-robin and a
+   * connector stays with its selector for its whole life time, so that all I/O of a connector, and hence of its
+   * channels, is serialized by a single selector thread.
+   */
+  public TCPSelector getNextSelector()
+  {
+    TCPSelector[] selectors = this.selectors;
+    if (selectors == null)
+    {
+      return this;
+    }
+
+    int index = (nextSelector.getAndIncrement() & Integer.MAX_VALUE) % selectors.length;
+    return selectors[index];
+  }
+
   @Override
   public String toString()
   {
-    return "TCPSelector"; //$NON-NLS-1$
+    return name;
   }
 
   public void orderRegistration(final ServerSocketChannel channel, final ITCPPassiveSelectorListener listener)
@@ -156,6 +222,9 @@ public class TCPSelector extends Lifecycle implements ITCPSelector, Runnable
 
   public void run()
   {
+    // Never block the selector thread on an exhausted buffer pool, it may be the one that retains the buffers
+    SlabBufferPool.setIOThread(true);
+
     while (running && !Thread.interrupted())
     {
       try
@@ -265,6 +334,14 @@ public class TCPSelector extends Lifecycle implements ITCPSelector, Runnable
     }
   }
 
+  /**
+   * Creates one of the additional I/O selectors if the {@link #getSelectorCount() selector count} is greater than one.
+   */
+  protected TCPSelector createIOSelector(int index)
+  {
+    return new TCPSelector(name + "-" + index); //$NON-NLS-1$
+  }
+
   protected Selector openSelector() throws IOException
   {
     return Selector.open();
@@ -282,14 +359,38 @@ public class TCPSelector extends Lifecycle implements ITCPSelector, Runnable
     running = true;
     selector = openSelector();
 
-    thread = new Thread(this, "TCPSelector"); //$NON-NLS-1$
+    thread = new Thread(this, name);
     thread.setDaemon(true);
     thread.start();
+
+    if (selectorCount > 1)
+    {
+      TCPSelector[] selectors = new TCPSelector[selectorCount];
+      selectors[0] = this;
+
+      for (int i = 1; i < selectorCount; i++)
+      {
+        selectors[i] = createIOSelector(i);
+        selectors[i].activate();
+      }
+
+      this.selectors = selectors;
+    }
   }
 
   @Override
   protected void doDeactivate() throws Exception
   {
+    if (selectors != null)
+    {
+      for (int i = 1; i < selectors.length; i++)
+      {
+        LifecycleUtil.deactivate(selectors[i]);
+      }
+
+      selectors = null;
+    }
+
     running = false;
     selector.wakeup();
     Exception exception = null;
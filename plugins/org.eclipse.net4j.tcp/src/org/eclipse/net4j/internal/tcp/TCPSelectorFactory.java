@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2007-2009, 2011, 2012, 2015 Eike Stepper (Berlin, Germany) and others.
+ * Copyright (c) 2007-2009, 2011, 2012, 2015, 2016 Eike Stepper (Berlin, Germany) and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -10,10 +10,17 @@
  */
 package org.eclipse.net4j.internal.tcp;
 
+import org.eclipse.net4j.util.StringUtil;
 import org.eclipse.net4j.util.container.IManagedContainer;
 import org.eclipse.net4j.util.factory.Factory;
+import org.eclipse.net4j.util.factory.ProductCreationException;
+import org.eclipse.net4j.util.om.OMPlatform;
 
 /**
+ * Creates {@link TCPSelector selectors}. The description, if not empty, is the number of socket selectors (I/O threads)
+ * that the created selector distributes its connectors to. An empty description results in the number given by the
+ * system property <code>org.eclipse.net4j.tcp.selectors</code>, or 1 if that property is not set.
+ *
  * @author Eike Stepper
  */
 public class TCPSelectorFactory extends Factory
@@ -22,14 +29,36 @@ public class TCPSelectorFactory extends Factory
 
   public static final String TYPE = "tcp"; //$NON-NLS-1$
 
+  public static final int DEFAULT_SELECTOR_COUNT = Integer
+      .parseInt(OMPlatform.INSTANCE.getProperty("org.eclipse.net4j.tcp.selectors", "1")); //$NON-NLS-1$ //$NON-NLS-2$
+
   public TCPSelectorFactory()
   {
     super(PRODUCT_GROUP, TYPE);
   }
 
-  public TCPSelector create(String description)
+  public TCPSelector create(String description) throws ProductCreationException
   {
-    return new TCPSelector();
+    int selectorCount = DEFAULT_SELECTOR_COUNT;
+    if (!StringUtil.isEmpty(description))
+    {
+      try
+      {
+        selectorCount = Integer.parseInt(description.trim());
+      }
+      catch (NumberFormatException ex)
+      {
+        throw new ProductCreationException("Invalid selector count: " + description, ex); //$NON-NLS-1$
+      }
+    }
+
+    TCPSelector selector = new TCPSelector();
+    if (selectorCount > 1)
+    {
+      selector.setSelectorCount(selectorCount);
+    }
+
+    return selector;
   }
 
   public static TCPSelector get(IManagedContainer container, String description)
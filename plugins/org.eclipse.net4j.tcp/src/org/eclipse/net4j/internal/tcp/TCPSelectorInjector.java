@@ -20,8 +20,25 @@ public class TCPSelectorInjector implements IElementProcessor
 {
   public static final String TYPE = null;
 
+  private final String selectorDescription;
+
   public TCPSelectorInjector()
   {
+    this(null);
+  }
+
+  /**
+   * @param selectorDescription the {@link TCPSelectorFactory description} of the selector to inject, e.g., the number of
+   * I/O selectors that the injected selector distributes the connectors to.
+   */
+  public TCPSelectorInjector(String selectorDescription)
+  {
+    this.selectorDescription = selectorDescription;
+  }
+
+  public String getSelectorDescription()
+  {
+    return selectorDescription;
   }
 
   public Object process(IManagedContainer container, String productGroup, String factoryType, String description, Object element)
@@ -39,7 +56,7 @@ public class TCPSelectorInjector implements IElementProcessor
       TCPConnector connector = (TCPConnector)element;
       if (connector.getSelector() == null)
       {
-        connector.setSelector(getSelector(container));
+        connector.setSelector(getSelector(container).getNextSelector());
       }
     }
 
@@ -48,6 +65,6 @@ public class TCPSelectorInjector implements IElementProcessor
 
   protected TCPSelector getSelector(IManagedContainer container)
   {
-    return TCPSelectorFactory.get(container, null);
+    return TCPSelectorFactory.get(container, selectorDescription);
   }
 }
@@ -35,6 +35,12 @@ public class SSLConnector extends TCPConnector
 
   private SSLEngineManager sslEngineManager;
 
+  public SSLConnector()
+  {
+    // SSLBuffer encrypts its content while being written, which gathering writes would bypass
+    setMaxGatheringBuffers(1);
+  }
+
   @Override
   public String getProtocolString()
   {
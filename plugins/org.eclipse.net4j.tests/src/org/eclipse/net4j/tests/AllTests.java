@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2006-2012, 2015 Eike Stepper (Berlin, Germany) and others.
+ * Copyright (c) 2006-2012, 2015, 2016 Eike Stepper (Berlin, Germany) and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -16,11 +16,14 @@ import org.eclipse.net4j.tests.bugzilla.Bugzilla_262875_Test;
 import org.eclipse.net4j.util.tests.ExecutorWorkSerializerTest;
 import org.eclipse.net4j.util.tests.ExpectedIOTest;
 import org.eclipse.net4j.util.tests.ExtendedIOTest;
+import org.eclipse.net4j.util.tests.MappedFileTest;
 import org.eclipse.net4j.util.tests.MultiMapTest;
 import org.eclipse.net4j.util.tests.ReferenceValueMapTest;
 import org.eclipse.net4j.util.tests.SecurityTest;
 import org.eclipse.net4j.util.tests.SortedFileMapTest;
 import org.eclipse.net4j.util.tests.StringCompressorTest;
+import org.eclipse.net4j.util.tests.StringTableTest;
+import org.eclipse.net4j.util.tests.StripedRWOLockManagerTest;
 import org.eclipse.net4j.util.tests.SynchronizingCorrelatorTest;
 import org.eclipse.net4j.util.tests.UUIDGeneratorTest;
 
@@ -38,11 +41,15 @@ public class AllTests
     suite.addTestSuite(UUIDGeneratorTest.class);
     suite.addTestSuite(MultiMapTest.class);
     suite.addTestSuite(SortedFileMapTest.class);
+    suite.addTestSuite(MappedFileTest.class);
     suite.addTestSuite(SynchronizingCorrelatorTest.class);
     suite.addTestSuite(ReferenceValueMapTest.class);
     suite.addTestSuite(BufferPoolTest.class);
+    suite.addTestSuite(SlabBufferPoolTest.class);
+    suite.addTestSuite(BufferStreamTest.class);
     suite.addTestSuite(ExtendedIOTest.class);
     suite.addTestSuite(StringCompressorTest.class);
+    suite.addTestSuite(StringTableTest.class);
     suite.addTestSuite(ChannelTest.JVM.class);
     suite.addTestSuite(ChannelTest.TCP.class);
     suite.addTestSuite(TCPConnectorTest.TCP.class);
@@ -53,6 +60,7 @@ public class AllTests
     suite.addTestSuite(ExceptionTest.TCP.class);
     suite.addTestSuite(SecurityTest.class);
     suite.addTestSuite(ExecutorWorkSerializerTest.class);
+    suite.addTestSuite(StripedRWOLockManagerTest.class);
     suite.addTestSuite(ExpectedIOTest.class);
 
     // Bugzillas
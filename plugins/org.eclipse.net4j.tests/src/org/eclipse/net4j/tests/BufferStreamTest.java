@@ -0,0 +1,236 @@
+/*
+ * Copyright (c) 2016 Eike Stepper (Berlin, Germany) and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    Eike Stepper - initial API and implementation
+ */
+package org.eclipse.net4j.tests;
+
+import org.eclipse.net4j.Net4jUtil;
+import org.eclipse.net4j.buffer.BufferInputStream;
+import org.eclipse.net4j.buffer.BufferOutputStream;
+import org.eclipse.net4j.buffer.IBuffer;
+import org.eclipse.net4j.buffer.IBufferHandler;
+import org.eclipse.net4j.buffer.IBufferPool;
+import org.eclipse.net4j.util.io.IOUtil;
+import org.eclipse.net4j.util.lifecycle.LifecycleUtil;
+import org.eclipse.net4j.util.tests.AbstractOMTest;
+
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Arrays;
+
+/**
+ * @author Eike Stepper
+ */
+public class BufferStreamTest extends AbstractOMTest
+{
+  private static final short CHANNEL_ID = 4711;
+
+  private static final int SIZE = 100000;
+
+  private IBufferPool bufferPool;
+
+  private BufferInputStream in;
+
+  private BufferOutputStream out;
+
+  @Override
+  protected void doSetUp() throws Exception
+  {
+    super.doSetUp();
+    bufferPool = Net4jUtil.createBufferPool((short)1000);
+    LifecycleUtil.activate(bufferPool);
+
+    in = new BufferInputStream();
+    out = new BufferOutputStream(new IBufferHandler()
+    {
+      public void handleBuffer(IBuffer buffer)
+      {
+        buffer.flip();
+        in.handleBuffer(buffer);
+      }
+    }, bufferPool, CHANNEL_ID);
+  }
+
+  @Override
+  protected void doTearDown() throws Exception
+  {
+    IOUtil.close(in);
+    LifecycleUtil.deactivate(bufferPool);
+    super.doTearDown();
+  }
+
+  public void testBulkWriteAndRead() throws Exception
+  {
+    byte[] data = createData(SIZE);
+    out.write(data, 0, 333);
+    out.write(data, 333, SIZE - 333);
+    out.flushWithEOS();
+
+    byte[] result = new byte[SIZE + 10];
+    int read = 0;
+    int n;
+    while ((n = in.read(result, read, Math.min(777, result.length - read))) != IOUtil.EOF)
+    {
+      read += n;
+    }
+
+    assertEquals(SIZE, read);
+    assertEquals(true, Arrays.equals(data, copy(result, 0, SIZE)));
+    assertEquals(IOUtil.EOF, in.read());
+  }
+
+  public void testMixedReads() throws Exception
+  {
+    byte[] data = createData(SIZE);
+    out.write(data);
+    out.flushWithEOS();
+
+    byte[] result = new byte[SIZE];
+    int read = 0;
+    while (read < SIZE)
+    {
+      if (read % 3 == 0)
+      {
+        result[read++] = (byte)in.read();
+      }
+      else
+      {
+        read += in.read(result, read, Math.min(1234, SIZE - read));
+      }
+    }
+
+    assertEquals(true, Arrays.equals(data, result));
+    assertEquals(IOUtil.EOF, in.read(result, 0, 1));
+  }
+
+  public void testWriteByteBuffer() throws Exception
+  {
+    byte[] data = createData(SIZE);
+    ByteBuffer direct = ByteBuffer.allocateDirect(SIZE);
+    direct.put(data).flip();
+
+    IOUtil.copyBinary(direct, out);
+    assertEquals(false, direct.hasRemaining());
+    out.flushWithEOS();
+
+    assertEquals(true, Arrays.equals(data, readAll()));
+  }
+
+  public void testTransferFromFile() throws Exception
+  {
+    byte[] data = createData(SIZE);
+    File file = createTempFile();
+    IOUtil.writeFile(file, data);
+
+    FileInputStream stream = new FileInputStream(file);
+
+    try
+    {
+      IOUtil.copyBinary(stream.getChannel(), 10, SIZE - 20, out);
+      out.flushWithEOS();
+    }
+    finally
+    {
+      IOUtil.close(stream);
+    }
+
+    assertEquals(true, Arrays.equals(copy(data, 10, SIZE - 20), readAll()));
+  }
+
+  public void testTransferToFile() throws Exception
+  {
+    byte[] data = createData(SIZE);
+    out.write(data);
+    out.flushWithEOS();
+
+    File file = createTempFile();
+    FileOutputStream stream = new FileOutputStream(file);
+
+    try
+    {
+      assertEquals(SIZE - 100, in.transferTo(stream.getChannel(), SIZE - 100));
+      assertEquals(data[SIZE - 100], (byte)in.read());
+      assertEquals(99, in.transferTo(stream.getChannel(), SIZE));
+    }
+    finally
+    {
+      IOUtil.close(stream);
+    }
+
+    byte[] expected = new byte[SIZE - 1];
+    System.arraycopy(data, 0, expected, 0, SIZE - 100);
+    System.arraycopy(data, SIZE - 99, expected, SIZE - 100, 99);
+    assertEquals(true, Arrays.equals(expected, IOUtil.readFile(file)));
+  }
+
+  public void testTransferFromFileBeyondEnd() throws Exception
+  {
+    File file = createTempFile();
+    IOUtil.writeFile(file, createData(100));
+
+    RandomAccessFile raf = new RandomAccessFile(file, "r"); //$NON-NLS-1$
+
+    try
+    {
+      FileChannel channel = raf.getChannel();
+      assertEquals(-1L, out.transferFrom(channel, 100, 10));
+
+      try
+      {
+        IOUtil.copyBinary(channel, 50, 100, out);
+        fail("EOFException expected"); //$NON-NLS-1$
+      }
+      catch (EOFException expected)
+      {
+        // SUCCESS
+      }
+    }
+    finally
+    {
+      IOUtil.close(raf);
+    }
+  }
+
+  private byte[] readAll() throws Exception
+  {
+    ByteArrayOutputStream result = new ByteArrayOutputStream();
+    byte[] array = new byte[4096];
+    int n;
+    while ((n = in.read(array)) != IOUtil.EOF)
+    {
+      result.write(array, 0, n);
+    }
+
+    return result.toByteArray();
+  }
+
+  private static byte[] copy(byte[] array, int offset, int length)
+  {
+    byte[] result = new byte[length];
+    System.arraycopy(array, offset, result, 0, length);
+    return result;
+  }
+
+  private static byte[] createData(int size)
+  {
+    byte[] data = new byte[size];
+    for (int i = 0; i < size; i++)
+    {
+      data[i] = (byte)(i * 31 + (i >>> 8));
+    }
+
+    return data;
+  }
+}
@@ -0,0 +1,230 @@
+/*
+ * Copyright (c) 2016 Eike Stepper (Berlin, Germany) and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    Eike Stepper - initial API and implementation
+ */
+package org.eclipse.net4j.tests;
+
+import org.eclipse.net4j.Net4jUtil;
+import org.eclipse.net4j.buffer.IBuffer;
+import org.eclipse.net4j.util.concurrent.TimeoutRuntimeException;
+import org.eclipse.net4j.util.tests.AbstractOMTest;
+
+import org.eclipse.internal.net4j.buffer.SlabBufferPool;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * @author Eike Stepper
+ */
+public class SlabBufferPoolTest extends AbstractOMTest
+{
+  private static final short CAPACITY = 64;
+
+  public void testSlabAllocation() throws Exception
+  {
+    SlabBufferPool bufferPool = (SlabBufferPool)Net4jUtil.createSlabBufferPool(CAPACITY, 4, 2);
+    assertEquals(8, bufferPool.getMaximumBuffers());
+    assertEquals(0, bufferPool.getSlabs());
+
+    IBuffer buffer = bufferPool.provideBuffer();
+    assertEquals(CAPACITY, buffer.getCapacity());
+    assertEquals(1, bufferPool.getSlabs());
+    assertEquals(4, bufferPool.getAllocatedBuffers());
+    assertEquals(3, bufferPool.getPooledBuffers());
+    assertEquals(1, bufferPool.getUsedBuffers());
+
+    List<IBuffer> buffers = new ArrayList<IBuffer>();
+    buffers.add(buffer);
+    for (int i = 1; i < 8; i++)
+    {
+      buffers.add(bufferPool.provideBuffer());
+    }
+
+    assertEquals(2, bufferPool.getSlabs());
+    assertEquals(8, bufferPool.getAllocatedBuffers());
+    assertEquals(0, bufferPool.getPooledBuffers());
+
+    // Buffers must not overlap.
+    for (int i = 0; i < buffers.size(); i++)
+    {
+      ByteBuffer byteBuffer = buffers.get(i).getByteBuffer();
+      byteBuffer.clear();
+      while (byteBuffer.hasRemaining())
+      {
+        byteBuffer.put((byte)i);
+      }
+    }
+
+    for (int i = 0; i < buffers.size(); i++)
+    {
+      ByteBuffer byteBuffer = buffers.get(i).getByteBuffer();
+      byteBuffer.flip();
+      while (byteBuffer.hasRemaining())
+      {
+        assertEquals((byte)i, byteBuffer.get());
+      }
+    }
+
+    for (IBuffer b : buffers)
+    {
+      b.release();
+    }
+
+    assertEquals(8, bufferPool.getPooledBuffers());
+    assertEquals(0, bufferPool.getUsedBuffers());
+    assertEquals(8, bufferPool.getProvidedBuffers());
+    assertEquals(8, bufferPool.getRetainedBuffers());
+  }
+
+  public void testCeiling() throws Exception
+  {
+    SlabBufferPool bufferPool = (SlabBufferPool)Net4jUtil.createSlabBufferPool(CAPACITY, 2, 1);
+    bufferPool.setProvideTimeout(100);
+
+    bufferPool.provideBuffer();
+    bufferPool.provideBuffer();
+
+    try
+    {
+      bufferPool.provideBuffer();
+      fail("TimeoutRuntimeException expected");
+    }
+    catch (TimeoutRuntimeException expected)
+    {
+      // SUCCESS
+    }
+
+    assertEquals(1, bufferPool.getSlabs());
+    assertEquals(2, bufferPool.getAllocatedBuffers());
+  }
+
+  public void testBackPressure() throws Exception
+  {
+    final SlabBufferPool bufferPool = (SlabBufferPool)Net4jUtil.createSlabBufferPool(CAPACITY, 1, 1);
+    bufferPool.setProvideTimeout(10000);
+
+    final IBuffer buffer = bufferPool.provideBuffer();
+    final AtomicReference<IBuffer> provided = new AtomicReference<IBuffer>();
+    final CountDownLatch latch = new CountDownLatch(1);
+
+    Thread thread = new Thread("provider")
+    {
+      @Override
+      public void run()
+      {
+        provided.set(bufferPool.provideBuffer());
+        latch.countDown();
+      }
+    };
+
+    thread.start();
+    assertEquals(false, latch.await(200, TimeUnit.MILLISECONDS));
+
+    buffer.release();
+    assertEquals(true, latch.await(DEFAULT_TIMEOUT, TimeUnit.MILLISECONDS));
+    assertSame(buffer, provided.get());
+  }
+
+  public void testIOThreadNotBlocked() throws Exception
+  {
+    final SlabBufferPool bufferPool = (SlabBufferPool)Net4jUtil.createSlabBufferPool(CAPACITY, 1, 1);
+    bufferPool.setProvideTimeout(10000);
+
+    final IBuffer buffer = bufferPool.provideBuffer();
+    final AtomicReference<IBuffer> provided = new AtomicReference<IBuffer>();
+    final CountDownLatch latch = new CountDownLatch(1);
+
+    Thread thread = new Thread("selector")
+    {
+      @Override
+      public void run()
+      {
+        SlabBufferPool.setIOThread(true);
+        provided.set(bufferPool.provideBuffer());
+        latch.countDown();
+      }
+    };
+
+    thread.start();
+    assertEquals(true, latch.await(DEFAULT_TIMEOUT, TimeUnit.MILLISECONDS));
+
+    IBuffer unpooled = provided.get();
+    assertNotSame(buffer, unpooled);
+    assertEquals(CAPACITY, unpooled.getCapacity());
+    assertEquals(false, unpooled.getByteBuffer().isDirect());
+    assertEquals(1, bufferPool.getUnpooledBuffers());
+    assertEquals(1, bufferPool.getAllocatedBuffers());
+
+    // The unpooled buffer is discarded, the slab buffer is pooled again
+    unpooled.release();
+    assertEquals(0, bufferPool.getUnpooledBuffers());
+    buffer.release();
+    assertEquals(1, bufferPool.getPooledBuffers());
+    assertSame(buffer, bufferPool.provideBuffer());
+    assertEquals(false, SlabBufferPool.isIOThread());
+  }
+
+  public void testConcurrentAccounting() throws Exception
+  {
+    final SlabBufferPool bufferPool = (SlabBufferPool)Net4jUtil.createSlabBufferPool(CAPACITY, 8, 4);
+    final int threads = 8;
+    final int iterations = 10000;
+    final CountDownLatch latch = new CountDownLatch(threads);
+    final AtomicReference<Throwable> error = new AtomicReference<Throwable>();
+
+    for (int i = 0; i < threads; i++)
+    {
+      new Thread("user-" + i)
+      {
+        @Override
+        public void run()
+        {
+          try
+          {
+            IBuffer[] buffers = new IBuffer[4];
+            for (int j = 0; j < iterations; j++)
+            {
+              for (int k = 0; k < buffers.length; k++)
+              {
+                buffers[k] = bufferPool.provideBuffer();
+              }
+
+              for (int k = 0; k < buffers.length; k++)
+              {
+                buffers[k].release();
+              }
+            }
+          }
+          catch (Throwable ex)
+          {
+            error.set(ex);
+          }
+          finally
+          {
+            latch.countDown();
+          }
+        }
+      }.start();
+    }
+
+    assertEquals(true, latch.await(DEFAULT_TIMEOUT, TimeUnit.MILLISECONDS));
+    assertEquals(null, error.get());
+
+    assertEquals(true, bufferPool.getSlabs() <= 4);
+    assertEquals(0, bufferPool.getUsedBuffers());
+    assertEquals(bufferPool.getAllocatedBuffers(), bufferPool.getPooledBuffers());
+    assertEquals(threads * iterations * 4L, bufferPool.getProvidedBuffers());
+    assertEquals(threads * iterations * 4L, bufferPool.getRetainedBuffers());
+  }
+}
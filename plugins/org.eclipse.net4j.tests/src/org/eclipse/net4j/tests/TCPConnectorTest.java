@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2008-2012, 2015 Eike Stepper (Berlin, Germany) and others.
+ * Copyright (c) 2008-2012, 2015, 2016 Eike Stepper (Berlin, Germany) and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -268,6 +268,50 @@ public class TCPConnectorTest extends AbstractTransportTest
     }
   }
 
+  public void testSelectorCount() throws Exception
+  {
+    threadPool = ThreadPool.create();
+    bufferPool = Net4jUtil.createBufferPool();
+    LifecycleUtil.activate(bufferPool);
+
+    provideTransport();
+
+    selector.setSelectorCount(3);
+    selector.activate();
+
+    acceptor.setStartSynchronously(true);
+    acceptor.setSynchronousStartTimeout(TIMEOUT);
+    acceptor.getConfig().setBufferProvider(bufferPool);
+    acceptor.getConfig().setReceiveExecutor(threadPool);
+    acceptor.setSelector(selector);
+    acceptor.setAddress("0.0.0.0"); //$NON-NLS-1$
+    acceptor.setPort(PORT);
+    acceptor.activate();
+
+    TCPSelector clientSelector = selector.getNextSelector();
+    assertSame(selector, clientSelector);
+
+    connector.getConfig().setBufferProvider(bufferPool);
+    connector.getConfig().setReceiveExecutor(threadPool);
+    connector.setSelector(clientSelector);
+    connector.setHost("localhost"); //$NON-NLS-1$
+    connector.setPort(PORT);
+    connector.activate();
+
+    connector.waitForConnection(DEFAULT_TIMEOUT);
+    assertEquals(true, connector.isActive());
+
+    IChannel channel = connector.openChannel();
+    assertActive(channel);
+
+    TCPConnector serverConnector = (TCPConnector)acceptor.getAcceptedConnectors()[0];
+    assertNotSame(selector, serverConnector.getSelector());
+    assertActive(serverConnector.getSelector());
+    assertEquals(1, serverConnector.getChannels().size());
+
+    channel.close();
+  }
+
   public void testNegotiationSuccess() throws Exception
   {
     threadPool = ThreadPool.create();
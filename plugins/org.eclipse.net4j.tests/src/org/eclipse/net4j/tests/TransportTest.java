@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2008, 2009, 2011, 2012 Eike Stepper (Berlin, Germany) and others.
+ * Copyright (c) 2008, 2009, 2011, 2012, 2016 Eike Stepper (Berlin, Germany) and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -18,6 +18,7 @@ import org.eclipse.net4j.channel.ChannelInputStream;
 import org.eclipse.net4j.channel.ChannelOutputStream;
 import org.eclipse.net4j.channel.IChannel;
 import org.eclipse.net4j.connector.IConnector;
+import org.eclipse.net4j.internal.tcp.TCPConnector;
 import org.eclipse.net4j.tests.data.HugeData;
 import org.eclipse.net4j.util.container.IContainerDelta;
 import org.eclipse.net4j.util.container.IContainerEvent;
@@ -173,6 +174,44 @@ public abstract class TransportTest extends AbstractProtocolTest
     assertEquals(true, counter.await(2, TimeUnit.SECONDS));
   }
 
+  public void testHandleManyBuffers() throws Exception
+  {
+    disableConsole();
+
+    final int COUNT = 1000;
+    final CountDownLatch counter = new CountDownLatch(COUNT);
+    container.registerFactory(new TestProtocol.ServerFactory(counter));
+    // need to handle about separating container between client and server for SSL.
+    registerClientFactory(new TestProtocol.ClientFactory());
+    startTransport();
+    IConnector iConnecter = getConnector();
+    IChannel channel = iConnecter.openChannel(TestProtocol.ClientFactory.TYPE, null);
+    for (int i = 0; i < COUNT; i++)
+    {
+      IBuffer buffer = provideBuffer(iConnecter);
+      ByteBuffer byteBuffer = buffer.startPutting(channel.getID());
+      byteBuffer.putInt(i);
+      channel.sendBuffer(buffer);
+    }
+
+    assertEquals(true, counter.await(10, TimeUnit.SECONDS));
+
+    if (iConnecter instanceof TCPConnector)
+    {
+      TCPConnector tcpConnector = (TCPConnector)iConnecter;
+      assertEquals(true, tcpConnector.getWrittenBuffers() >= COUNT);
+      if (tcpConnector.getMaxGatheringBuffers() > 1)
+      {
+        // The buffers that queue up while a write is in progress are written together
+        assertEquals(true, tcpConnector.getWriteCalls() < tcpConnector.getWrittenBuffers());
+      }
+
+      msg("Buffers: " + tcpConnector.getWrittenBuffers() + ", write calls: " + tcpConnector.getWriteCalls()); //$NON-NLS-1$ //$NON-NLS-2$
+    }
+
+    enableConsole();
+  }
+
   public void testHandleEmptyBuffer() throws Exception
   {
     final int COUNT = 3;
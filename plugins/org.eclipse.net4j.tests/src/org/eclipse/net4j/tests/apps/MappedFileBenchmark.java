@@ -0,0 +1,226 @@
+/*
+ * Copyright (c) 2016 Eike Stepper (Berlin, Germany) and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    Eike Stepper - initial API and implementation
+ */
+package org.eclipse.net4j.tests.apps;
+
+import org.eclipse.net4j.util.io.DataInputOutputFile;
+import org.eclipse.net4j.util.io.IOUtil;
+import org.eclipse.net4j.util.io.MappedFile;
+
+import java.io.BufferedOutputStream;
+import java.io.DataInput;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Compares the throughput of random record reads through {@link DataInputOutputFile}, as the Lissome store used them,
+ * with reads through a shared {@link MappedFile}, with 1 to 16 threads. Each thread seeks to a random record of a large
+ * journal-like file and reads its header and payload. With {@link DataInputOutputFile} every thread needs a handle of its
+ * own; all {@link MappedFile.Reader readers} share one mapping.
+ * <p>
+ * Usage: <code>MappedFileBenchmark [file] [megabytes]</code>. The file is created if it does not exist or is smaller than
+ * requested; the default size is 4 GB, so that the mapping needs more than one segment.
+ *
+ * @author Eike Stepper
+ */
+public class MappedFileBenchmark
+{
+  private static final int RECORD_SIZE = 256;
+
+  private static final long WARMUP_MILLIS = 1000;
+
+  private static final long MEASURE_MILLIS = 5000;
+
+  public static void main(String[] args) throws Exception
+  {
+    File file = new File(args.length > 0 ? args[0] : "MappedFileBenchmark.dat");
+    long megabytes = args.length > 1 ? Long.parseLong(args[1]) : 4096;
+    final long records = createFile(file, megabytes * 1024 * 1024);
+
+    final MappedFile mappedFile = new MappedFile(file);
+
+    try
+    {
+      System.out.println("threads\tDataInputOutputFile\tMappedFile (reads/s)");
+
+      for (int threads = 1; threads <= 16; threads <<= 1)
+      {
+        long buffered = run(threads, records, new InputFactory()
+        {
+          public Input create(final File file) throws IOException
+          {
+            final DataInputOutputFile in = new DataInputOutputFile(file, "r");
+            return new Input()
+            {
+              public DataInput seek(long pointer) throws IOException
+              {
+                in.seek(pointer);
+                return in;
+              }
+
+              public void close()
+              {
+                IOUtil.close(in);
+              }
+            };
+          }
+        }, file);
+
+        long mapped = run(threads, records, new InputFactory()
+        {
+          public Input create(File file)
+          {
+            final MappedFile.Reader in = mappedFile.openReader();
+            return new Input()
+            {
+              public DataInput seek(long pointer) throws IOException
+              {
+                in.seek(pointer);
+                return in;
+              }
+
+              public void close()
+              {
+                // Nothing to close
+              }
+            };
+          }
+        }, file);
+
+        System.out.println(threads + "\t" + buffered + "\t" + mapped);
+      }
+    }
+    finally
+    {
+      IOUtil.close(mappedFile);
+    }
+  }
+
+  private static long createFile(File file, long size) throws IOException
+  {
+    long records = size / RECORD_SIZE;
+    if (file.length() >= records * RECORD_SIZE)
+    {
+      return records;
+    }
+
+    System.out.println("Creating " + file.getAbsolutePath() + " with " + records + " records...");
+    DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file), 1 << 20));
+
+    try
+    {
+      byte[] payload = new byte[RECORD_SIZE - 12];
+      new Random(0).nextBytes(payload);
+
+      for (long i = 0; i < records; i++)
+      {
+        out.writeLong(i);
+        out.writeInt(payload.length);
+        out.write(payload);
+      }
+    }
+    finally
+    {
+      IOUtil.close(out);
+    }
+
+    return records;
+  }
+
+  private static long run(int threads, final long records, final InputFactory factory, final File file) throws Exception
+  {
+    final AtomicLong reads = new AtomicLong();
+    final CountDownLatch finished = new CountDownLatch(threads);
+    final long warmupEnd = System.currentTimeMillis() + WARMUP_MILLIS;
+    final long measureEnd = warmupEnd + MEASURE_MILLIS;
+
+    for (int i = 0; i < threads; i++)
+    {
+      final int seed = i;
+      new Thread("reader-" + i)
+      {
+        @Override
+        public void run()
+        {
+          Random random = new Random(seed);
+          byte[] payload = new byte[RECORD_SIZE];
+          Input input = null;
+
+          try
+          {
+            input = factory.create(file);
+
+            for (;;)
+            {
+              long now = System.currentTimeMillis();
+              if (now >= measureEnd)
+              {
+                break;
+              }
+
+              long record = (random.nextLong() & Long.MAX_VALUE) % records;
+              DataInput in = input.seek(record * RECORD_SIZE);
+              if (in.readLong() != record)
+              {
+                throw new IllegalStateException("Wrong record: " + record);
+              }
+
+              in.readFully(payload, 0, in.readInt());
+
+              if (now >= warmupEnd)
+              {
+                reads.incrementAndGet();
+              }
+            }
+          }
+          catch (IOException ex)
+          {
+            ex.printStackTrace();
+          }
+          finally
+          {
+            if (input != null)
+            {
+              input.close();
+            }
+
+            finished.countDown();
+          }
+        }
+      }.start();
+    }
+
+    finished.await();
+    return reads.get() * 1000 / MEASURE_MILLIS;
+  }
+
+  /**
+   * @author Eike Stepper
+   */
+  private interface Input
+  {
+    public DataInput seek(long pointer) throws IOException;
+
+    public void close();
+  }
+
+  /**
+   * @author Eike Stepper
+   */
+  private interface InputFactory
+  {
+    public Input create(File file) throws IOException;
+  }
+}
@@ -0,0 +1,111 @@
+/*
+ * Copyright (c) 2016 Eike Stepper (Berlin, Germany) and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    Eike Stepper - initial API and implementation
+ */
+package org.eclipse.net4j.tests.apps;
+
+import org.eclipse.net4j.util.concurrent.IRWLockManager.LockType;
+import org.eclipse.net4j.util.concurrent.IRWOLockManager;
+import org.eclipse.net4j.util.concurrent.RWOLockManager;
+import org.eclipse.net4j.util.concurrent.StripedRWOLockManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Compares the throughput of {@link RWOLockManager} and {@link StripedRWOLockManager} with 1 to 64 threads that
+ * simulate committing transactions: each commit write-locks a few random objects out of a large set, holds the locks
+ * briefly and then releases all locks of its context.
+ *
+ * @author Eike Stepper
+ */
+public class RWOLockManagerBenchmark
+{
+  private static final int OBJECTS = 100000;
+
+  private static final int OBJECTS_PER_COMMIT = 10;
+
+  private static final long WARMUP_MILLIS = 1000;
+
+  private static final long MEASURE_MILLIS = 3000;
+
+  public static void main(String[] args) throws Exception
+  {
+    System.out.println("threads\tRWOLockManager\tStripedRWOLockManager (commits/s)");
+
+    for (int threads = 1; threads <= 64; threads <<= 1)
+    {
+      long classic = run(new RWOLockManager<Integer, Integer>(), threads);
+      long striped = run(new StripedRWOLockManager<Integer, Integer>(), threads);
+      System.out.println(threads + "\t" + classic + "\t" + striped);
+    }
+  }
+
+  private static long run(final IRWOLockManager<Integer, Integer> lockManager, int threads) throws Exception
+  {
+    final AtomicLong commits = new AtomicLong();
+    final CountDownLatch finished = new CountDownLatch(threads);
+    final long warmupEnd = System.currentTimeMillis() + WARMUP_MILLIS;
+    final long measureEnd = warmupEnd + MEASURE_MILLIS;
+
+    for (int i = 0; i < threads; i++)
+    {
+      final int context = i;
+      new Thread("committer-" + i)
+      {
+        @Override
+        public void run()
+        {
+          Random random = new Random(context);
+          List<Integer> objects = new ArrayList<Integer>(OBJECTS_PER_COMMIT);
+
+          try
+          {
+            for (;;)
+            {
+              long now = System.currentTimeMillis();
+              if (now >= measureEnd)
+              {
+                break;
+              }
+
+              objects.clear();
+              for (int j = 0; j < OBJECTS_PER_COMMIT; j++)
+              {
+                objects.add(random.nextInt(OBJECTS));
+              }
+
+              lockManager.lock(LockType.WRITE, context, objects, IRWOLockManager.WAIT);
+              lockManager.unlock(context);
+
+              if (now >= warmupEnd)
+              {
+                commits.incrementAndGet();
+              }
+            }
+          }
+          catch (InterruptedException ex)
+          {
+            ex.printStackTrace();
+          }
+          finally
+          {
+            finished.countDown();
+          }
+        }
+      }.start();
+    }
+
+    finished.await();
+    return commits.get() * 1000 / MEASURE_MILLIS;
+  }
+}
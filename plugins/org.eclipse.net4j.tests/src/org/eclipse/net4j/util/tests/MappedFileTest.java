@@ -0,0 +1,222 @@
+/*
+ * Copyright (c) 2016 Eike Stepper (Berlin, Germany) and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    Eike Stepper - initial API and implementation
+ */
+package org.eclipse.net4j.util.tests;
+
+import org.eclipse.net4j.util.io.DataInputOutputFile;
+import org.eclipse.net4j.util.io.IOUtil;
+import org.eclipse.net4j.util.io.MappedFile;
+
+import java.io.EOFException;
+import java.io.File;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @author Eike Stepper
+ */
+public class MappedFileTest extends AbstractOMTest
+{
+  /**
+   * Small enough that most values span two segments somewhere in the file.
+   */
+  private static final int SEGMENT_SIZE = 13;
+
+  private static final int VALUES = 100;
+
+  private File file;
+
+  @Override
+  protected void doSetUp() throws Exception
+  {
+    super.doSetUp();
+    file = createTempFile("MappedFileTest-", ".dat"); //$NON-NLS-1$ //$NON-NLS-2$
+  }
+
+  public void testReadAcrossSegments() throws Exception
+  {
+    writeValues(0, VALUES);
+
+    MappedFile mappedFile = new MappedFile(file, SEGMENT_SIZE);
+
+    try
+    {
+      MappedFile.Reader reader = mappedFile.openReader();
+      for (int i = 0; i < VALUES; i++)
+      {
+        assertValue(reader, i);
+      }
+
+      assertEquals(-1, reader.read());
+      assertEquals(mappedFile.length(), reader.getFilePointer());
+      assertEquals((int)((mappedFile.length() + SEGMENT_SIZE - 1) / SEGMENT_SIZE), mappedFile.getSegmentCount());
+    }
+    finally
+    {
+      IOUtil.close(mappedFile);
+    }
+  }
+
+  public void testSeek() throws Exception
+  {
+    writeValues(0, VALUES);
+
+    MappedFile mappedFile = new MappedFile(file, SEGMENT_SIZE);
+
+    try
+    {
+      MappedFile.Reader reader = mappedFile.openReader();
+      for (int i = VALUES - 1; i >= 0; i--)
+      {
+        reader.seek(getPointer(i));
+        assertValue(reader, i);
+      }
+    }
+    finally
+    {
+      IOUtil.close(mappedFile);
+    }
+  }
+
+  public void testGrowth() throws Exception
+  {
+    writeValues(0, VALUES);
+
+    MappedFile mappedFile = new MappedFile(file, SEGMENT_SIZE);
+
+    try
+    {
+      MappedFile.Reader reader = mappedFile.openReader();
+      reader.seek(getPointer(VALUES - 1));
+      assertValue(reader, VALUES - 1);
+
+      try
+      {
+        reader.readInt();
+        fail("EOFException expected"); //$NON-NLS-1$
+      }
+      catch (EOFException expected)
+      {
+        // SUCCESS
+      }
+
+      writeValues(VALUES, 2 * VALUES);
+
+      reader.seek(getPointer(VALUES));
+      for (int i = VALUES; i < 2 * VALUES; i++)
+      {
+        assertValue(reader, i);
+      }
+    }
+    finally
+    {
+      IOUtil.close(mappedFile);
+    }
+  }
+
+  public void testConcurrentReaders() throws Exception
+  {
+    writeValues(0, VALUES);
+
+    final MappedFile mappedFile = new MappedFile(file, SEGMENT_SIZE);
+    final CountDownLatch latch = new CountDownLatch(10);
+    final Exception[] exception = { null };
+
+    try
+    {
+      for (int t = 0; t < 10; t++)
+      {
+        final long seed = t;
+        new Thread("reader-" + t) //$NON-NLS-1$
+        {
+          @Override
+          public void run()
+          {
+            try
+            {
+              Random random = new Random(seed);
+              MappedFile.Reader reader = mappedFile.openReader();
+
+              for (int i = 0; i < 10000; i++)
+              {
+                int value = random.nextInt(VALUES);
+                reader.seek(getPointer(value));
+                assertValue(reader, value);
+              }
+            }
+            catch (Exception ex)
+            {
+              exception[0] = ex;
+            }
+            finally
+            {
+              latch.countDown();
+            }
+          }
+        }.start();
+      }
+
+      assertEquals(true, latch.await(DEFAULT_TIMEOUT, TimeUnit.MILLISECONDS));
+      if (exception[0] != null)
+      {
+        throw exception[0];
+      }
+    }
+    finally
+    {
+      IOUtil.close(mappedFile);
+    }
+  }
+
+  private void writeValues(int from, int to) throws Exception
+  {
+    DataInputOutputFile out = new DataInputOutputFile(file, "rw"); //$NON-NLS-1$
+
+    try
+    {
+      out.seek(getPointer(from));
+      for (int i = from; i < to; i++)
+      {
+        out.writeByte(i);
+        out.writeShort(i);
+        out.writeInt(i);
+        out.writeLong(i);
+        out.writeDouble(i);
+        out.writeUTF("Value " + i); //$NON-NLS-1$
+      }
+    }
+    finally
+    {
+      IOUtil.close(out);
+    }
+  }
+
+  private static long getPointer(int i)
+  {
+    long pointer = 0;
+    for (int j = 0; j < i; j++)
+    {
+      pointer += 1 + 2 + 4 + 8 + 8 + 2 + ("Value " + j).length(); //$NON-NLS-1$
+    }
+
+    return pointer;
+  }
+
+  private static void assertValue(MappedFile.Reader reader, int i) throws Exception
+  {
+    assertEquals((byte)i, reader.readByte());
+    assertEquals((short)i, reader.readShort());
+    assertEquals(i, reader.readInt());
+    assertEquals(i, reader.readLong());
+    assertEquals((double)i, reader.readDouble(), 0d);
+    assertEquals("Value " + i, reader.readUTF()); //$NON-NLS-1$
+  }
+}
@@ -0,0 +1,78 @@
+/*
+ * Copyright (c) 2016 Eike Stepper (Berlin, Germany) and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    Eike Stepper - initial API and implementation
+ */
+package org.eclipse.net4j.util.tests;
+
+import org.eclipse.net4j.util.io.ExtendedDataInputStream;
+import org.eclipse.net4j.util.io.ExtendedDataOutputStream;
+import org.eclipse.net4j.util.io.StringTable;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+
+/**
+ * @author Eike Stepper
+ */
+public class StringTableTest extends AbstractOMTest
+{
+  private static final String[] STRINGS = { "http://www.eclipse.org/emf/CDO/model1/1.0.0", null, "http://www.eclipse.org/emf/2002/Ecore", //$NON-NLS-1$ //$NON-NLS-2$
+      "http://www.eclipse.org/emf/CDO/model1/1.0.0", "", null, "http://www.eclipse.org/emf/2002/Ecore", "" }; //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+
+  public void testWriteOnceReadMany() throws Exception
+  {
+    byte[] data = write();
+
+    // The same data can be read by several readers, each with its own string table
+    for (int reader = 0; reader < 3; reader++)
+    {
+      StringTable table = new StringTable();
+      ExtendedDataInputStream in = new ExtendedDataInputStream(new ByteArrayInputStream(data));
+
+      for (String expected : STRINGS)
+      {
+        assertEquals(expected, table.read(in));
+      }
+
+      assertEquals(-1, in.read());
+    }
+  }
+
+  public void testRepetitionsAreNotWrittenAgain() throws Exception
+  {
+    ByteArrayOutputStream baos = new ByteArrayOutputStream();
+    ExtendedDataOutputStream out = new ExtendedDataOutputStream(baos);
+
+    StringTable table = new StringTable();
+    table.write(out, STRINGS[0]);
+    int size = baos.size();
+
+    for (int i = 0; i < 100; i++)
+    {
+      table.write(out, STRINGS[0]);
+    }
+
+    assertEquals(size + 100, baos.size());
+  }
+
+  private static byte[] write() throws Exception
+  {
+    ByteArrayOutputStream baos = new ByteArrayOutputStream();
+    ExtendedDataOutputStream out = new ExtendedDataOutputStream(baos);
+
+    StringTable table = new StringTable();
+    for (String string : STRINGS)
+    {
+      table.write(out, string);
+    }
+
+    out.flush();
+    return baos.toByteArray();
+  }
+}
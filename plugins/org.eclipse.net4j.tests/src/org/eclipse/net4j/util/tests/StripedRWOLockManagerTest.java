@@ -0,0 +1,219 @@
+/*
+ * Copyright (c) 2016 Eike Stepper (Berlin, Germany) and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    Eike Stepper - initial API and implementation
+ */
+package org.eclipse.net4j.util.tests;
+
+import org.eclipse.net4j.util.concurrent.IRWLockManager.LockType;
+import org.eclipse.net4j.util.concurrent.RWOLockManager.LockState;
+import org.eclipse.net4j.util.concurrent.StripedRWOLockManager;
+import org.eclipse.net4j.util.concurrent.TimeoutRuntimeException;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * @author Eike Stepper
+ */
+public class StripedRWOLockManagerTest extends AbstractOMTest
+{
+  public void testReadAndWriteLocks() throws Exception
+  {
+    StripedRWOLockManager<Integer, Integer> lockManager = new StripedRWOLockManager<Integer, Integer>();
+    List<Integer> keys = Arrays.asList(1, 2, 3, 4);
+
+    lockManager.lock(LockType.READ, 1, keys, 100);
+    lockManager.lock(LockType.READ, 2, keys.subList(0, 3), 100);
+    assertEquals(true, lockManager.hasLock(LockType.READ, 1, 4));
+    assertEquals(true, lockManager.hasLock(LockType.READ, 2, 3));
+    assertEquals(true, lockManager.hasLockByOthers(LockType.READ, 1, 1));
+    assertEquals(false, lockManager.hasLockByOthers(LockType.READ, 1, 4));
+
+    lockManager.lock(LockType.WRITE, 1, 4, 100);
+    assertEquals(true, lockManager.hasLock(LockType.WRITE, 1, 4));
+    assertTimeout(lockManager, LockType.WRITE, 1, 1);
+    assertTimeout(lockManager, LockType.READ, 2, 4);
+
+    lockManager.unlock(LockType.READ, 2, keys);
+    lockManager.lock(LockType.WRITE, 1, keys, 100);
+
+    List<LockState<Integer, Integer>> lockStates = lockManager.unlock2(1);
+    assertEquals(4, lockStates.size());
+    assertEquals(0, lockManager.getLockStates().size());
+  }
+
+  public void testWriteOptions() throws Exception
+  {
+    StripedRWOLockManager<Integer, Integer> lockManager = new StripedRWOLockManager<Integer, Integer>();
+    lockManager.lock(LockType.OPTION, 1, 1, 100);
+
+    // 1 has WO, 2 requests W -> fail
+    assertTimeout(lockManager, LockType.WRITE, 2, 1);
+
+    // 1 has WO, 2 requests R -> succeed
+    lockManager.lock(LockType.READ, 2, 1, 100);
+
+    // 1 has WO, 2 has R, 1 requests W -> fail
+    assertTimeout(lockManager, LockType.WRITE, 1, 1);
+
+    // 1 has WO, 2 has R, 2 requests WO -> fail
+    assertTimeout(lockManager, LockType.OPTION, 2, 1);
+
+    // 1 has W, 2 has nothing, 2 requests WO -> fail
+    lockManager.unlock(LockType.READ, 2, Collections.singleton(1));
+    lockManager.unlock(LockType.OPTION, 1, Collections.singleton(1));
+    lockManager.lock(LockType.WRITE, 1, 1, 100);
+    assertTimeout(lockManager, LockType.OPTION, 2, 1);
+
+    // 1 has W, 1 requests WO -> succeed
+    lockManager.lock(LockType.OPTION, 1, 1, 100);
+    assertEquals(true, lockManager.hasLock(LockType.OPTION, 1, 1));
+  }
+
+  public void testWaiterIsWokenByUnlock() throws Exception
+  {
+    final StripedRWOLockManager<Integer, Integer> lockManager = new StripedRWOLockManager<Integer, Integer>();
+    lockManager.lock(LockType.WRITE, 1, Arrays.asList(1, 2, 3), 100);
+
+    final CountDownLatch locked = new CountDownLatch(1);
+    Thread thread = new Thread()
+    {
+      @Override
+      public void run()
+      {
+        try
+        {
+          lockManager.lock(LockType.WRITE, 2, Arrays.asList(3, 4), StripedRWOLockManager.WAIT);
+          locked.countDown();
+        }
+        catch (InterruptedException ex)
+        {
+          //$FALL-THROUGH$
+        }
+      }
+    };
+
+    thread.start();
+    assertEquals(false, locked.await(200, TimeUnit.MILLISECONDS));
+
+    lockManager.unlock(LockType.WRITE, 1, Collections.singleton(3));
+    assertEquals(true, locked.await(DEFAULT_TIMEOUT, TimeUnit.MILLISECONDS));
+    assertEquals(true, lockManager.hasLock(LockType.WRITE, 2, 4));
+  }
+
+  public void testChangeContext() throws Exception
+  {
+    TestLockManager lockManager = new TestLockManager();
+    lockManager.lock(LockType.READ, 1, Arrays.asList(1, 2), 100);
+    lockManager.lock(LockType.WRITE, 1, 2, 100);
+
+    lockManager.changeContext(1, 2);
+    assertEquals(false, lockManager.hasLock(LockType.READ, 1, 1));
+    assertEquals(true, lockManager.hasLock(LockType.READ, 2, 1));
+    assertEquals(true, lockManager.hasLock(LockType.WRITE, 2, 2));
+
+    lockManager.unlock(1);
+    assertEquals(true, lockManager.hasLock(LockType.WRITE, 2, 2));
+
+    lockManager.unlock(2);
+    assertEquals(0, lockManager.getLockStates().size());
+  }
+
+  public void testConcurrentWriteLocks() throws Exception
+  {
+    final StripedRWOLockManager<Integer, Integer> lockManager = new StripedRWOLockManager<Integer, Integer>(4);
+    final int[] counters = new int[16];
+    final AtomicInteger errors = new AtomicInteger();
+
+    Thread[] threads = new Thread[8];
+    for (int i = 0; i < threads.length; i++)
+    {
+      final int context = i;
+      threads[i] = new Thread()
+      {
+        @Override
+        public void run()
+        {
+          try
+          {
+            for (int j = 0; j < 1000; j++)
+            {
+              List<Integer> keys = new ArrayList<Integer>();
+              keys.add((context + j) % counters.length);
+              keys.add((context * 7 + j * 3 + 1) % counters.length);
+
+              lockManager.lock(LockType.WRITE, context, keys, StripedRWOLockManager.WAIT);
+
+              for (Integer key : keys)
+              {
+                int value = counters[key];
+                Thread.yield();
+                counters[key] = value + 1;
+              }
+
+              lockManager.unlock(context);
+            }
+          }
+          catch (Throwable ex)
+          {
+            errors.incrementAndGet();
+          }
+        }
+      };
+
+      threads[i].start();
+    }
+
+    for (Thread thread : threads)
+    {
+      thread.join(DEFAULT_TIMEOUT);
+      assertEquals(false, thread.isAlive());
+    }
+
+    int sum = 0;
+    for (int counter : counters)
+    {
+      sum += counter;
+    }
+
+    assertEquals(0, errors.get());
+    assertEquals(threads.length * 1000 * 2, sum);
+    assertEquals(0, lockManager.getLockStates().size());
+  }
+
+  private static void assertTimeout(StripedRWOLockManager<Integer, Integer> lockManager, LockType type, int context, int key) throws InterruptedException
+  {
+    try
+    {
+      lockManager.lock(type, context, key, 100);
+      fail("TimeoutRuntimeException expected");
+    }
+    catch (TimeoutRuntimeException expected)
+    {
+      // SUCCESS
+    }
+  }
+
+  /**
+   * @author Eike Stepper
+   */
+  private static final class TestLockManager extends StripedRWOLockManager<Integer, Integer>
+  {
+    @Override
+    protected void changeContext(Integer oldContext, Integer newContext)
+    {
+      super.changeContext(oldContext, newContext);
+    }
+  }
+}
@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2008, 2009, 2011, 2012, 2015 Eike Stepper (Berlin, Germany) and others.
+ * Copyright (c) 2008, 2009, 2011, 2012, 2015, 2016 Eike Stepper (Berlin, Germany) and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -10,10 +10,12 @@
  */
 package org.eclipse.net4j.util.cache;
 
+import java.util.concurrent.atomic.AtomicLong;
+
 /**
  * @author Eike Stepper
  */
-public class CacheRegistration implements ICacheRegistration
+public class CacheRegistration implements ICacheRegistration, ICacheProbe2
 {
   public static final float DEFAULT_RECONSTRUCTION_COST_DECAY_FACTOR = 0.1f;
 
@@ -27,6 +29,12 @@ public class CacheRegistration implements ICacheRegistration
 
   private long reconstructionCost;
 
+  private final AtomicLong hitCount = new AtomicLong();
+
+  private final AtomicLong missCount = new AtomicLong();
+
+  private long evictionCount;
+
   public CacheRegistration(ICacheMonitor cacheMonitor, ICache cache)
   {
     this.cacheMonitor = cacheMonitor;
@@ -74,6 +82,30 @@ public class CacheRegistration implements ICacheRegistration
     return reconstructionCost;
   }
 
+  /**
+   * @since 3.7
+   */
+  public long getHitCount()
+  {
+    return hitCount.get();
+  }
+
+  /**
+   * @since 3.7
+   */
+  public long getMissCount()
+  {
+    return missCount.get();
+  }
+
+  /**
+   * @since 3.7
+   */
+  public long getEvictionCount()
+  {
+    return evictionCount;
+  }
+
   public void elementCached(int elementSize)
   {
     checkDisposal();
@@ -86,6 +118,33 @@ public class CacheRegistration implements ICacheRegistration
     checkDisposal();
     --elementCount;
     cacheSize -= elementSize;
+    ++evictionCount;
+  }
+
+  /**
+   * @since 3.7
+   */
+  public void elementRemoved(int elementSize)
+  {
+    checkDisposal();
+    --elementCount;
+    cacheSize -= elementSize;
+  }
+
+  /**
+   * @since 3.7
+   */
+  public void elementHit()
+  {
+    hitCount.incrementAndGet();
+  }
+
+  /**
+   * @since 3.7
+   */
+  public void elementMissed()
+  {
+    missCount.incrementAndGet();
   }
 
   public void elementReconstructed(long reconstructionTime)
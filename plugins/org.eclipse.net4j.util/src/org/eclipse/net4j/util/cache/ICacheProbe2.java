@@ -0,0 +1,46 @@
+/*
+ * Copyright (c) 2016 Eike Stepper (Berlin, Germany) and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    Eike Stepper - initial API and implementation
+ */
+package org.eclipse.net4j.util.cache;
+
+/**
+ * An extension of {@link ICacheProbe} that also records lookups and tells evictions from other removals.
+ *
+ * @author Eike Stepper
+ * @since 3.7
+ */
+public interface ICacheProbe2 extends ICacheProbe
+{
+  /**
+   * Records a lookup that was served from the cache. May be called concurrently.
+   */
+  public void elementHit();
+
+  /**
+   * Records a lookup that could not be served from the cache. May be called concurrently.
+   */
+  public void elementMissed();
+
+  /**
+   * Records the removal of an element that has not been evicted by the cache, e.g., because it has become stale or the
+   * cache has been cleared. Unlike {@link #elementEvicted(int)} it does not increase the {@link #getEvictionCount()
+   * eviction count}.
+   */
+  public void elementRemoved(int elementSize);
+
+  public long getHitCount();
+
+  public long getMissCount();
+
+  /**
+   * Returns the number of calls to {@link #elementEvicted(int)}.
+   */
+  public long getEvictionCount();
+}
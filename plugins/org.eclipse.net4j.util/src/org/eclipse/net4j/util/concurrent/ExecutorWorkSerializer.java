@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2015 Eike Stepper (Berlin, Germany) and others.
+ * Copyright (c) 2015, 2016 Eike Stepper (Berlin, Germany) and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -71,6 +71,16 @@ public class ExecutorWorkSerializer extends Lifecycle implements IWorkSerializer
     return true;
   }
 
+  /**
+   * Returns the number of work items that wait to be executed, not counting the one that is currently executed.
+   *
+   * @since 3.7
+   */
+  public synchronized int getWorkQueueSize()
+  {
+    return workQueue.size();
+  }
+
   public synchronized void dispose()
   {
     LifecycleUtil.deactivate(this, OMLogger.Level.DEBUG);
@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2008, 2010-2013 Eike Stepper (Berlin, Germany) and others.
+ * Copyright (c) 2008, 2010-2013, 2016 Eike Stepper (Berlin, Germany) and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -54,6 +54,17 @@ public abstract class QueueWorker<E> extends Worker
     queue.clear();
   }
 
+  /**
+   * Returns the queue of this worker, for example to remove or inspect elements that are related to the element being
+   * worked on.
+   *
+   * @since 3.7
+   */
+  protected BlockingQueue<E> getQueue()
+  {
+    return queue;
+  }
+
   public boolean addWork(E element)
   {
     if (getLifecycleState() != LifecycleState.DEACTIVATING)
@@ -148,7 +148,7 @@ public class RWOLockManager<OBJECT, CONTEXT> extends Lifecycle implements IRWOLo
             lockState.unlock(type, context);
             result.add(lockState);
 
-            if (UNLOCK_ALL.get() != Boolean.TRUE)
+            if (!isUnlockAll())
             {
               break;
             }
@@ -427,6 +427,11 @@ public class RWOLockManager<OBJECT, CONTEXT> extends Lifecycle implements IRWOLo
     }
   }
 
+  static boolean isUnlockAll()
+  {
+    return UNLOCK_ALL.get() == Boolean.TRUE;
+  }
+
   /**
    * Represents a combination of locks for one OBJECT. The different lock types are represented by the values of the
    * enum {@link IRWLockManager.LockType}
@@ -0,0 +1,665 @@
+/*
+ * Copyright (c) 2016 Eike Stepper (Berlin, Germany) and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    Eike Stepper - initial API and implementation
+ */
+package org.eclipse.net4j.util.concurrent;
+
+import org.eclipse.net4j.internal.util.bundle.OM;
+import org.eclipse.net4j.util.concurrent.RWOLockManager.LockState;
+import org.eclipse.net4j.util.lifecycle.Lifecycle;
+import org.eclipse.net4j.util.om.trace.ContextTracer;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A {@link IRWOLockManager read/write/option lock manager} with the same locking semantics as {@link RWOLockManager},
+ * but without a single global monitor.
+ * <p>
+ * The locked objects are distributed over a fixed number of <i>stripes</i>, each with its own lock and its own wait
+ * condition. A lock request only acquires the stripes of the requested objects (always in ascending order) and a
+ * blocked request waits only on the stripe of the object that blocked it. An unlock request only wakes up the waiters
+ * of the stripes it has changed.
+ * <p>
+ * The lock states that are returned by {@link #getLockState(Object) getLockState()} and {@link #getLockStates()} are the
+ * live instances, as with {@link RWOLockManager}; they may change as soon as the stripe locks are released.
+ *
+ * @author Eike Stepper
+ * @since 3.7
+ */
+public class StripedRWOLockManager<OBJECT, CONTEXT> extends Lifecycle implements IRWOLockManager<OBJECT, CONTEXT>
+{
+  public static final int DEFAULT_STRIPES = 64;
+
+  private static final ContextTracer TRACER = new ContextTracer(OM.DEBUG_CONCURRENCY, StripedRWOLockManager.class);
+
+  private final List<LockState<OBJECT, CONTEXT>> EMPTY_RESULT = Collections.emptyList();
+
+  private final ConcurrentMap<OBJECT, LockState<OBJECT, CONTEXT>> objectToLockStateMap = new ConcurrentHashMap<OBJECT, LockState<OBJECT, CONTEXT>>();
+
+  /**
+   * A mapping of contexts (owners of locks) to the lock states that they are involved in.
+   * Each {@link ContextLocks} instance is guarded by its own monitor.
+   */
+  private final ConcurrentMap<CONTEXT, ContextLocks<OBJECT, CONTEXT>> contextToLockStates = new ConcurrentHashMap<CONTEXT, ContextLocks<OBJECT, CONTEXT>>();
+
+  private final Stripe[] stripes;
+
+  private final int stripeMask;
+
+  public StripedRWOLockManager()
+  {
+    this(DEFAULT_STRIPES);
+  }
+
+  /**
+   * Creates a lock manager with at least the given number of stripes, rounded up to the next power of two.
+   */
+  public StripedRWOLockManager(int stripes)
+  {
+    int size = 1;
+    while (size < stripes)
+    {
+      size <<= 1;
+    }
+
+    this.stripes = new Stripe[size];
+    for (int i = 0; i < size; i++)
+    {
+      this.stripes[i] = new Stripe(i);
+    }
+
+    stripeMask = size - 1;
+  }
+
+  public final int getStripes()
+  {
+    return stripes.length;
+  }
+
+  public void lock(LockType type, CONTEXT context, Collection<? extends OBJECT> objectsToLock, long timeout) throws InterruptedException
+  {
+    lock2(type, context, objectsToLock, timeout);
+  }
+
+  public void lock(LockType type, CONTEXT context, OBJECT objectToLock, long timeout) throws InterruptedException
+  {
+    lock(type, context, Collections.singleton(objectToLock), timeout);
+  }
+
+  public List<LockState<OBJECT, CONTEXT>> lock2(LockType type, CONTEXT context, Collection<? extends OBJECT> objectsToLock, long timeout)
+      throws InterruptedException
+  {
+    if (objectsToLock.isEmpty())
+    {
+      return EMPTY_RESULT;
+    }
+
+    if (TRACER.isEnabled())
+    {
+      TRACER.format("Lock: {0} --> {1}", context, objectsToLock); //$NON-NLS-1$
+    }
+
+    long startTime = timeout == WAIT ? 0L : currentTimeMillis();
+    Stripe[] lockStripes = getStripes(objectsToLock);
+
+    for (;;)
+    {
+      Stripe blockingStripe = null;
+      lockStripes(lockStripes);
+
+      try
+      {
+        ArrayList<LockState<OBJECT, CONTEXT>> lockStates = new ArrayList<LockState<OBJECT, CONTEXT>>(objectsToLock.size());
+        for (OBJECT o : objectsToLock)
+        {
+          LockState<OBJECT, CONTEXT> lockState = getOrCreateLockState(o);
+          if (!lockState.canLock(type, context))
+          {
+            blockingStripe = getStripe(o);
+            break;
+          }
+
+          lockStates.add(lockState);
+        }
+
+        if (blockingStripe == null)
+        {
+          for (LockState<OBJECT, CONTEXT> lockState : lockStates)
+          {
+            lockState.lock(type, context);
+            addContextToLockStateMapping(context, lockState);
+          }
+
+          return lockStates;
+        }
+
+        for (LockState<OBJECT, CONTEXT> lockState : lockStates)
+        {
+          if (lockState.hasNoLocks())
+          {
+            objectToLockStateMap.remove(lockState.getLockedObject());
+          }
+        }
+      }
+      finally
+      {
+        // Keep the blocking stripe locked until the waiting starts, so that no unlock of it can be missed
+        unlockStripes(lockStripes, blockingStripe);
+      }
+
+      try
+      {
+        await(blockingStripe, startTime, timeout);
+      }
+      finally
+      {
+        blockingStripe.unlock();
+      }
+    }
+  }
+
+  public void unlock(LockType type, CONTEXT context, Collection<? extends OBJECT> objectsToUnlock)
+  {
+    unlock2(type, context, objectsToUnlock);
+  }
+
+  public List<LockState<OBJECT, CONTEXT>> unlock2(CONTEXT context, Collection<? extends OBJECT> objectsToUnlock)
+  {
+    return unlock2(LockType.values(), context, objectsToUnlock);
+  }
+
+  public List<LockState<OBJECT, CONTEXT>> unlock2(LockType type, CONTEXT context, Collection<? extends OBJECT> objectsToUnlock)
+  {
+    return unlock2(new LockType[] { type }, context, objectsToUnlock);
+  }
+
+  private List<LockState<OBJECT, CONTEXT>> unlock2(LockType[] types, CONTEXT context, Collection<? extends OBJECT> objectsToUnlock)
+  {
+    if (objectsToUnlock.isEmpty())
+    {
+      return EMPTY_RESULT;
+    }
+
+    if (TRACER.isEnabled())
+    {
+      TRACER.format("Unlock: {0} --> {1}", context, objectsToUnlock); //$NON-NLS-1$
+    }
+
+    Set<LockState<OBJECT, CONTEXT>> result = new HashSet<LockState<OBJECT, CONTEXT>>();
+    boolean unlockAll = RWOLockManager.isUnlockAll();
+
+    Stripe[] lockStripes = getStripes(objectsToUnlock);
+    lockStripes(lockStripes);
+
+    try
+    {
+      for (OBJECT o : objectsToUnlock)
+      {
+        LockState<OBJECT, CONTEXT> lockState = objectToLockStateMap.get(o);
+        if (lockState != null)
+        {
+          for (LockType type : types)
+          {
+            while (lockState.canUnlock(type, context))
+            {
+              lockState.unlock(type, context);
+              result.add(lockState);
+
+              if (!unlockAll)
+              {
+                break;
+              }
+            }
+          }
+        }
+      }
+
+      for (LockState<OBJECT, CONTEXT> lockState : result)
+      {
+        if (!lockState.hasLocks(context))
+        {
+          removeLockStateForContext(context, lockState);
+        }
+
+        OBJECT o = lockState.getLockedObject();
+        if (lockState.hasNoLocks())
+        {
+          objectToLockStateMap.remove(o);
+        }
+
+        getStripe(o).signalAll();
+      }
+    }
+    finally
+    {
+      unlockStripes(lockStripes, null);
+    }
+
+    return new LinkedList<LockState<OBJECT, CONTEXT>>(result);
+  }
+
+  public void unlock(CONTEXT context)
+  {
+    unlock2(context);
+  }
+
+  public List<LockState<OBJECT, CONTEXT>> unlock2(CONTEXT context)
+  {
+    ContextLocks<OBJECT, CONTEXT> contextLocks = contextToLockStates.remove(context);
+    if (contextLocks == null)
+    {
+      return EMPTY_RESULT;
+    }
+
+    List<LockState<OBJECT, CONTEXT>> lockStates = contextLocks.dispose();
+
+    if (TRACER.isEnabled())
+    {
+      TRACER.format("Unlock: {0} --> {1}", context, lockStates); //$NON-NLS-1$
+    }
+
+    Stripe[] lockStripes = getStripes(getLockedObjects(lockStates));
+    lockStripes(lockStripes);
+
+    try
+    {
+      for (LockState<OBJECT, CONTEXT> lockState : lockStates)
+      {
+        for (LockType type : LockType.values())
+        {
+          while (lockState.hasLock(type, context, false))
+          {
+            lockState.unlock(type, context);
+          }
+        }
+
+        OBJECT o = lockState.getLockedObject();
+        if (lockState.hasNoLocks())
+        {
+          objectToLockStateMap.remove(o);
+        }
+
+        getStripe(o).signalAll();
+      }
+    }
+    finally
+    {
+      unlockStripes(lockStripes, null);
+    }
+
+    return lockStates;
+  }
+
+  public boolean hasLock(LockType type, CONTEXT context, OBJECT objectToLock)
+  {
+    Stripe stripe = getStripe(objectToLock);
+    stripe.lock();
+
+    try
+    {
+      LockState<OBJECT, CONTEXT> lockState = objectToLockStateMap.get(objectToLock);
+      return lockState != null && lockState.hasLock(type, context, false);
+    }
+    finally
+    {
+      stripe.unlock();
+    }
+  }
+
+  public boolean hasLockByOthers(LockType type, CONTEXT context, OBJECT objectToLock)
+  {
+    Stripe stripe = getStripe(objectToLock);
+    stripe.lock();
+
+    try
+    {
+      LockState<OBJECT, CONTEXT> lockState = objectToLockStateMap.get(objectToLock);
+      return lockState != null && lockState.hasLock(type, context, true);
+    }
+    finally
+    {
+      stripe.unlock();
+    }
+  }
+
+  /**
+   * Transfers all locks of the old context to the new context.
+   */
+  protected void changeContext(CONTEXT oldContext, CONTEXT newContext)
+  {
+    ContextLocks<OBJECT, CONTEXT> contextLocks = contextToLockStates.remove(oldContext);
+    if (contextLocks == null)
+    {
+      return;
+    }
+
+    List<LockState<OBJECT, CONTEXT>> lockStates = contextLocks.dispose();
+
+    Stripe[] lockStripes = getStripes(getLockedObjects(lockStates));
+    lockStripes(lockStripes);
+
+    try
+    {
+      for (LockState<OBJECT, CONTEXT> lockState : lockStates)
+      {
+        lockState.replaceContext(oldContext, newContext);
+        addContextToLockStateMapping(newContext, lockState);
+      }
+    }
+    finally
+    {
+      unlockStripes(lockStripes, null);
+    }
+  }
+
+  public LockState<OBJECT, CONTEXT> getLockState(OBJECT key)
+  {
+    Stripe stripe = getStripe(key);
+    stripe.lock();
+
+    try
+    {
+      return objectToLockStateMap.get(key);
+    }
+    finally
+    {
+      stripe.unlock();
+    }
+  }
+
+  /**
+   * Returns the lock states of all objects. All stripes are locked while the lock states are collected, so the result is
+   * a consistent snapshot.
+   */
+  public List<LockState<OBJECT, CONTEXT>> getLockStates()
+  {
+    lockStripes(stripes);
+
+    try
+    {
+      return new ArrayList<LockState<OBJECT, CONTEXT>>(objectToLockStateMap.values());
+    }
+    finally
+    {
+      unlockStripes(stripes, null);
+    }
+  }
+
+  public void setLockState(OBJECT key, LockState<OBJECT, CONTEXT> lockState)
+  {
+    Stripe stripe = getStripe(key);
+    stripe.lock();
+
+    try
+    {
+      objectToLockStateMap.put(key, lockState);
+
+      for (CONTEXT readLockOwner : lockState.getReadLockOwners())
+      {
+        addContextToLockStateMapping(readLockOwner, lockState);
+      }
+
+      CONTEXT writeLockOwner = lockState.getWriteLockOwner();
+      if (writeLockOwner != null)
+      {
+        addContextToLockStateMapping(writeLockOwner, lockState);
+      }
+
+      CONTEXT writeOptionOwner = lockState.getWriteOptionOwner();
+      if (writeOptionOwner != null)
+      {
+        addContextToLockStateMapping(writeOptionOwner, lockState);
+      }
+    }
+    finally
+    {
+      stripe.unlock();
+    }
+  }
+
+  protected long currentTimeMillis()
+  {
+    return System.currentTimeMillis();
+  }
+
+  /**
+   * Must be called with the stripe of the given object being locked.
+   */
+  private LockState<OBJECT, CONTEXT> getOrCreateLockState(OBJECT o)
+  {
+    LockState<OBJECT, CONTEXT> lockState = objectToLockStateMap.get(o);
+    if (lockState == null)
+    {
+      lockState = new LockState<OBJECT, CONTEXT>(o);
+      objectToLockStateMap.put(o, lockState);
+    }
+
+    return lockState;
+  }
+
+  private void addContextToLockStateMapping(CONTEXT context, LockState<OBJECT, CONTEXT> lockState)
+  {
+    for (;;)
+    {
+      ContextLocks<OBJECT, CONTEXT> contextLocks = contextToLockStates.get(context);
+      if (contextLocks == null)
+      {
+        contextLocks = new ContextLocks<OBJECT, CONTEXT>();
+        ContextLocks<OBJECT, CONTEXT> existing = contextToLockStates.putIfAbsent(context, contextLocks);
+        if (existing != null)
+        {
+          contextLocks = existing;
+        }
+      }
+
+      if (contextLocks.add(lockState))
+      {
+        return;
+      }
+
+      // The lock states of the context have just been disposed, try again with a new instance.
+      contextToLockStates.remove(context, contextLocks);
+    }
+  }
+
+  private void removeLockStateForContext(CONTEXT context, LockState<OBJECT, CONTEXT> lockState)
+  {
+    ContextLocks<OBJECT, CONTEXT> contextLocks = contextToLockStates.get(context);
+    if (contextLocks != null && contextLocks.remove(lockState))
+    {
+      contextToLockStates.remove(context, contextLocks);
+    }
+  }
+
+  private Stripe getStripe(Object o)
+  {
+    int hash = o.hashCode();
+    hash ^= hash >>> 16;
+    return stripes[hash & stripeMask];
+  }
+
+  /**
+   * Returns the distinct stripes of the given objects in ascending order, the only order in which stripes are ever locked.
+   */
+  private Stripe[] getStripes(Collection<?> objects)
+  {
+    if (objects.size() == 1)
+    {
+      return new Stripe[] { getStripe(objects.iterator().next()) };
+    }
+
+    boolean[] used = new boolean[stripes.length];
+    int count = 0;
+
+    for (Object o : objects)
+    {
+      int index = getStripe(o).index;
+      if (!used[index])
+      {
+        used[index] = true;
+        ++count;
+      }
+    }
+
+    Stripe[] result = new Stripe[count];
+    for (int i = 0, j = 0; j < count; i++)
+    {
+      if (used[i])
+      {
+        result[j++] = stripes[i];
+      }
+    }
+
+    return result;
+  }
+
+  private void lockStripes(Stripe[] lockStripes)
+  {
+    for (int i = 0; i < lockStripes.length; i++)
+    {
+      lockStripes[i].lock();
+    }
+  }
+
+  private void unlockStripes(Stripe[] lockStripes, Stripe exception)
+  {
+    for (int i = lockStripes.length - 1; i >= 0; --i)
+    {
+      Stripe stripe = lockStripes[i];
+      if (stripe != exception)
+      {
+        stripe.unlock();
+      }
+    }
+  }
+
+  private void await(Stripe stripe, long startTime, long timeout) throws InterruptedException
+  {
+    if (timeout == WAIT)
+    {
+      stripe.await();
+    }
+    else
+    {
+      long elapsedTime = currentTimeMillis() - startTime;
+      long waitTime = timeout - elapsedTime;
+      if (waitTime < 1)
+      {
+        throw new TimeoutRuntimeException("Could not lock objects within " + timeout + " milli seconds");
+      }
+
+      stripe.await(waitTime);
+    }
+  }
+
+  private static <OBJECT, CONTEXT> List<OBJECT> getLockedObjects(List<LockState<OBJECT, CONTEXT>> lockStates)
+  {
+    List<OBJECT> objects = new ArrayList<OBJECT>(lockStates.size());
+    for (LockState<OBJECT, CONTEXT> lockState : lockStates)
+    {
+      objects.add(lockState.getLockedObject());
+    }
+
+    return objects;
+  }
+
+  /**
+   * A lock with a wait condition for all objects that are mapped to it.
+   *
+   * @author Eike Stepper
+   */
+  private static final class Stripe extends ReentrantLock
+  {
+    private static final long serialVersionUID = 1L;
+
+    private final int index;
+
+    private final Condition unlocked = newCondition();
+
+    public Stripe(int index)
+    {
+      this.index = index;
+    }
+
+    public void await() throws InterruptedException
+    {
+      unlocked.await();
+    }
+
+    public void await(long millis) throws InterruptedException
+    {
+      unlocked.await(millis, TimeUnit.MILLISECONDS);
+    }
+
+    public void signalAll()
+    {
+      unlocked.signalAll();
+    }
+  }
+
+  /**
+   * The lock states that a context is involved in.
+   * Once {@link #dispose() disposed} an instance does not accept new lock states anymore.
+   *
+   * @author Eike Stepper
+   */
+  private static final class ContextLocks<OBJECT, CONTEXT>
+  {
+    private final Set<LockState<OBJECT, CONTEXT>> lockStates = new HashSet<LockState<OBJECT, CONTEXT>>();
+
+    private boolean disposed;
+
+    public ContextLocks()
+    {
+    }
+
+    public synchronized boolean add(LockState<OBJECT, CONTEXT> lockState)
+    {
+      if (disposed)
+      {
+        return false;
+      }
+
+      lockStates.add(lockState);
+      return true;
+    }
+
+    /**
+     * Removes the given lock state and returns <code>true</code> if this instance has been disposed because it became empty.
+     */
+    public synchronized boolean remove(LockState<OBJECT, CONTEXT> lockState)
+    {
+      lockStates.remove(lockState);
+      if (lockStates.isEmpty() && !disposed)
+      {
+        disposed = true;
+        return true;
+      }
+
+      return false;
+    }
+
+    public synchronized List<LockState<OBJECT, CONTEXT>> dispose()
+    {
+      disposed = true;
+      return new ArrayList<LockState<OBJECT, CONTEXT>>(lockStates);
+    }
+  }
+}
@@ -0,0 +1,41 @@
+/*
+ * Copyright (c) 2016 Eike Stepper (Berlin, Germany) and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    Eike Stepper - initial API and implementation
+ */
+package org.eclipse.net4j.util.io;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * An output that takes bytes from {@link ByteBuffer byte buffers} and {@link FileChannel file channels} without
+ * copying them through intermediate byte arrays. {@link java.io.OutputStream Output streams} that implement this
+ * interface are used by {@link IOUtil#copyBinary(FileChannel, long, long, java.io.OutputStream)} and
+ * {@link IOUtil#copyBinary(ByteBuffer, java.io.OutputStream)}.
+ *
+ * @author Eike Stepper
+ * @since 3.7
+ */
+public interface IByteBufferOutput
+{
+  /**
+   * Writes all remaining bytes of the given buffer.
+   */
+  public void write(ByteBuffer source) throws IOException;
+
+  /**
+   * Reads up to <code>count</code> bytes from the given channel, starting at the given position, directly into this
+   * output.
+   *
+   * @return the number of bytes transferred, possibly less than <code>count</code>, or -1 if the position is at or
+   *         beyond the end of the channel.
+   */
+  public long transferFrom(FileChannel channel, long position, long count) throws IOException;
+}
@@ -44,6 +44,8 @@ import java.net.ServerSocket;
 import java.net.URI;
 import java.net.URL;
 import java.net.URLConnection;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 import java.nio.charset.Charset;
 import java.util.ArrayList;
 import java.util.Collection;
@@ -583,6 +585,88 @@ public final class IOUtil
     outputStream.flush();
   }
 
+  /**
+   * Copies <code>size</code> bytes of the given channel, starting at the given position, to the given output stream. If
+   * the output stream is an {@link IByteBufferOutput} the bytes are read from the channel directly into the stream.
+   *
+   * @since 3.7
+   */
+  public static void copyBinary(FileChannel channel, long position, long size, OutputStream outputStream) throws IOException
+  {
+    long remaining = size;
+
+    if (outputStream instanceof IByteBufferOutput)
+    {
+      IByteBufferOutput output = (IByteBufferOutput)outputStream;
+      while (remaining > 0L)
+      {
+        long bytesRead = output.transferFrom(channel, position, remaining);
+        if (bytesRead < 1)
+        {
+          throw new EOFException("Read only " + (size - remaining) + " but expected to read " + size);
+        }
+
+        position += bytesRead;
+        remaining -= bytesRead;
+      }
+    }
+    else
+    {
+      byte[] buffer = new byte[DEFAULT_BUFFER_SIZE];
+      ByteBuffer byteBuffer = ByteBuffer.wrap(buffer);
+
+      while (remaining > 0L)
+      {
+        byteBuffer.clear();
+        byteBuffer.limit((int)Math.min(remaining, buffer.length));
+
+        int bytesRead = channel.read(byteBuffer, position);
+        if (bytesRead < 1)
+        {
+          throw new EOFException("Read only " + (size - remaining) + " but expected to read " + size);
+        }
+
+        outputStream.write(buffer, 0, bytesRead);
+        position += bytesRead;
+        remaining -= bytesRead;
+      }
+    }
+
+    outputStream.flush();
+  }
+
+  /**
+   * Copies the remaining bytes of the given buffer to the given output stream. If the output stream is an
+   * {@link IByteBufferOutput} the buffer is handed to the stream as is.
+   *
+   * @since 3.7
+   */
+  public static void copyBinary(ByteBuffer byteBuffer, OutputStream outputStream) throws IOException
+  {
+    if (outputStream instanceof IByteBufferOutput)
+    {
+      ((IByteBufferOutput)outputStream).write(byteBuffer);
+    }
+    else if (byteBuffer.hasArray())
+    {
+      int remaining = byteBuffer.remaining();
+      outputStream.write(byteBuffer.array(), byteBuffer.arrayOffset() + byteBuffer.position(), remaining);
+      byteBuffer.position(byteBuffer.position() + remaining);
+    }
+    else
+    {
+      byte[] buffer = new byte[(int)Math.min(byteBuffer.remaining(), DEFAULT_BUFFER_SIZE)];
+      while (byteBuffer.hasRemaining())
+      {
+        int bytesToCopy = Math.min(byteBuffer.remaining(), buffer.length);
+        byteBuffer.get(buffer, 0, bytesToCopy);
+        outputStream.write(buffer, 0, bytesToCopy);
+      }
+    }
+
+    outputStream.flush();
+  }
+
   /**
    * @since 3.1
    */
@@ -0,0 +1,498 @@
+/*
+ * Copyright (c) 2016 Eike Stepper (Berlin, Germany) and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    Eike Stepper - initial API and implementation
+ */
+package org.eclipse.net4j.util.io;
+
+import java.io.Closeable;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+
+/**
+ * A read-only, memory-mapped view of a file that can be shared by any number of concurrent {@link Reader readers}.
+ * <p>
+ * The file is mapped in segments of a fixed size, so that files larger than 2 GB can be mapped, too. Segments are mapped
+ * lazily and the last segment is remapped when the file grows, e.g., because another handle appends to it. Every reader
+ * has its own file pointer and reads directly from the mapped segments, so readers need neither a lock nor a copy of the
+ * data in a buffer of their own.
+ *
+ * @author Eike Stepper
+ * @since 3.7
+ */
+public class MappedFile implements Closeable
+{
+  public static final int DEFAULT_SEGMENT_SIZE = 1 << 30;
+
+  private static final ByteBuffer[] NO_SEGMENTS = {};
+
+  private final File file;
+
+  private final int segmentSize;
+
+  private final Object mapLock = new Object();
+
+  private RandomAccessFile raf;
+
+  private FileChannel channel;
+
+  private volatile ByteBuffer[] segments = NO_SEGMENTS;
+
+  public MappedFile(File file) throws IOException
+  {
+    this(file, DEFAULT_SEGMENT_SIZE);
+  }
+
+  public MappedFile(File file, int segmentSize) throws IOException
+  {
+    if (segmentSize < 8)
+    {
+      throw new IllegalArgumentException("segmentSize < 8"); //$NON-NLS-1$
+    }
+
+    this.file = file;
+    this.segmentSize = segmentSize;
+
+    raf = new RandomAccessFile(file, "r"); //$NON-NLS-1$
+    channel = raf.getChannel();
+  }
+
+  public File getFile()
+  {
+    return file;
+  }
+
+  public int getSegmentSize()
+  {
+    return segmentSize;
+  }
+
+  /**
+   * Returns the number of segments that are currently mapped.
+   */
+  public int getSegmentCount()
+  {
+    return segments.length;
+  }
+
+  public long length() throws IOException
+  {
+    synchronized (mapLock)
+    {
+      checkOpen();
+      return channel.size();
+    }
+  }
+
+  /**
+   * Reads the byte at the given position, or returns <code>-1</code> if the position is beyond the end of the file.
+   */
+  public int read(long position) throws IOException
+  {
+    ByteBuffer segment = getSegment(position);
+    if (segment == null)
+    {
+      return -1;
+    }
+
+    return segment.get(getOffset(position)) & 0xff;
+  }
+
+  /**
+   * Reads up to <code>length</code> bytes starting at the given position. Returns the number of bytes read, which can be
+   * less than requested at the end of a segment, or <code>-1</code> if the position is beyond the end of the file.
+   */
+  public int read(long position, byte[] array, int offset, int length) throws IOException
+  {
+    if (length == 0)
+    {
+      return 0;
+    }
+
+    ByteBuffer segment = getSegment(position);
+    if (segment == null)
+    {
+      return -1;
+    }
+
+    // Absolute bulk gets are not available, so a duplicate carries the position of this read
+    ByteBuffer buffer = segment.duplicate();
+    buffer.position(getOffset(position));
+
+    int count = Math.min(length, buffer.remaining());
+    buffer.get(array, offset, count);
+    return count;
+  }
+
+  public Reader openReader()
+  {
+    return new Reader();
+  }
+
+  public void close() throws IOException
+  {
+    synchronized (mapLock)
+    {
+      if (raf != null)
+      {
+        segments = NO_SEGMENTS;
+        channel = null;
+
+        raf.close();
+        raf = null;
+      }
+    }
+  }
+
+  @Override
+  public String toString()
+  {
+    return "MappedFile[" + file + "]"; //$NON-NLS-1$ //$NON-NLS-2$
+  }
+
+  private int getOffset(long position)
+  {
+    return (int)(position % segmentSize);
+  }
+
+  /**
+   * Returns the segment that contains the given position, or <code>null</code> if the position is beyond the end of the
+   * file.
+   */
+  private ByteBuffer getSegment(long position) throws IOException
+  {
+    if (position < 0)
+    {
+      throw new IOException("Negative position: " + position); //$NON-NLS-1$
+    }
+
+    ByteBuffer[] segments = this.segments;
+    long index = position / segmentSize;
+    if (index < segments.length)
+    {
+      ByteBuffer segment = segments[(int)index];
+      if (getOffset(position) < segment.limit())
+      {
+        return segment;
+      }
+    }
+
+    return remap(position);
+  }
+
+  /**
+   * Maps the segments that have been added and remaps the last segment if it has grown since it was mapped. The segments
+   * that are already mapped completely are reused. Readers that still use the previous array are not affected because
+   * mapped segments are never modified.
+   */
+  private ByteBuffer remap(long position) throws IOException
+  {
+    synchronized (mapLock)
+    {
+      checkOpen();
+
+      long size = channel.size();
+      if (position >= size)
+      {
+        return null;
+      }
+
+      ByteBuffer[] oldSegments = segments;
+      int count = (int)((size + segmentSize - 1) / segmentSize);
+      ByteBuffer[] newSegments = new ByteBuffer[count];
+
+      for (int i = 0; i < count; i++)
+      {
+        long start = (long)i * segmentSize;
+        int length = (int)Math.min(segmentSize, size - start);
+
+        if (i < oldSegments.length && oldSegments[i].limit() == length)
+        {
+          newSegments[i] = oldSegments[i];
+        }
+        else
+        {
+          newSegments[i] = channel.map(MapMode.READ_ONLY, start, length);
+        }
+      }
+
+      segments = newSegments;
+      return newSegments[(int)(position / segmentSize)];
+    }
+  }
+
+  private void checkOpen() throws IOException
+  {
+    if (channel == null)
+    {
+      throw new IOException("Closed: " + file); //$NON-NLS-1$
+    }
+  }
+
+  /**
+   * A {@link DataInput} with its own file pointer that reads from the segments of a {@link MappedFile}.
+   * <p>
+   * A reader must not be used by more than one thread at a time, but any number of readers can read from the same
+   * mapped file concurrently.
+   *
+   * @author Eike Stepper
+   */
+  public final class Reader implements DataInput
+  {
+    private long position;
+
+    private Reader()
+    {
+    }
+
+    public MappedFile getMappedFile()
+    {
+      return MappedFile.this;
+    }
+
+    public void seek(long filePointer) throws IOException
+    {
+      if (filePointer < 0)
+      {
+        throw new IOException("Negative position: " + filePointer); //$NON-NLS-1$
+      }
+
+      position = filePointer;
+    }
+
+    public long getFilePointer()
+    {
+      return position;
+    }
+
+    public long length() throws IOException
+    {
+      return MappedFile.this.length();
+    }
+
+    public int skipBytes(int n) throws IOException
+    {
+      position += n;
+      return n;
+    }
+
+    public int read() throws IOException
+    {
+      int b = MappedFile.this.read(position);
+      if (b != -1)
+      {
+        ++position;
+      }
+
+      return b;
+    }
+
+    public int read(byte[] array, int offset, int length) throws IOException
+    {
+      int count = MappedFile.this.read(position, array, offset, length);
+      if (count > 0)
+      {
+        position += count;
+      }
+
+      return count;
+    }
+
+    public int read(byte[] array) throws IOException
+    {
+      return read(array, 0, array.length);
+    }
+
+    public void readFully(byte[] array) throws IOException
+    {
+      readFully(array, 0, array.length);
+    }
+
+    public void readFully(byte[] array, int offset, int length) throws IOException
+    {
+      int n = 0;
+      while (n < length)
+      {
+        int count = read(array, offset + n, length - n);
+        if (count < 0)
+        {
+          throw new EOFException();
+        }
+
+        n += count;
+      }
+    }
+
+    public boolean readBoolean() throws IOException
+    {
+      return readUnsignedByte() != 0;
+    }
+
+    public byte readByte() throws IOException
+    {
+      return (byte)readUnsignedByte();
+    }
+
+    public int readUnsignedByte() throws IOException
+    {
+      int ch = read();
+      if (ch < 0)
+      {
+        throw new EOFException();
+      }
+
+      return ch;
+    }
+
+    public short readShort() throws IOException
+    {
+      ByteBuffer segment = getSegment(2);
+      if (segment != null)
+      {
+        short value = segment.getShort(getOffset(position));
+        position += 2;
+        return value;
+      }
+
+      int ch1 = read();
+      int ch2 = read();
+      if ((ch1 | ch2) < 0)
+      {
+        throw new EOFException();
+      }
+
+      return (short)((ch1 << 8) + ch2);
+    }
+
+    public int readUnsignedShort() throws IOException
+    {
+      return readShort() & 0xffff;
+    }
+
+    public char readChar() throws IOException
+    {
+      return (char)readShort();
+    }
+
+    public int readInt() throws IOException
+    {
+      ByteBuffer segment = getSegment(4);
+      if (segment != null)
+      {
+        int value = segment.getInt(getOffset(position));
+        position += 4;
+        return value;
+      }
+
+      int ch1 = read();
+      int ch2 = read();
+      int ch3 = read();
+      int ch4 = read();
+      if ((ch1 | ch2 | ch3 | ch4) < 0)
+      {
+        throw new EOFException();
+      }
+
+      return (ch1 << 24) + (ch2 << 16) + (ch3 << 8) + ch4;
+    }
+
+    public long readLong() throws IOException
+    {
+      ByteBuffer segment = getSegment(8);
+      if (segment != null)
+      {
+        long value = segment.getLong(getOffset(position));
+        position += 8;
+        return value;
+      }
+
+      return ((long)readInt() << 32) + (readInt() & 0xFFFFFFFFL);
+    }
+
+    public float readFloat() throws IOException
+    {
+      return Float.intBitsToFloat(readInt());
+    }
+
+    public double readDouble() throws IOException
+    {
+      return Double.longBitsToDouble(readLong());
+    }
+
+    public String readLine() throws IOException
+    {
+      StringBuffer input = new StringBuffer();
+      int c = -1;
+      boolean eol = false;
+
+      while (!eol)
+      {
+        switch (c = read())
+        {
+        case -1:
+        case '\n':
+          eol = true;
+          break;
+
+        case '\r':
+          eol = true;
+          long cur = getFilePointer();
+          if (read() != '\n')
+          {
+            seek(cur);
+          }
+
+          break;
+
+        default:
+          input.append((char)c);
+        }
+      }
+
+      if (c == -1 && input.length() == 0)
+      {
+        return null;
+      }
+
+      return input.toString();
+    }
+
+    public String readUTF() throws IOException
+    {
+      return DataInputStream.readUTF(this);
+    }
+
+    @Override
+    public String toString()
+    {
+      return "MappedFile.Reader[" + file + ", " + position + "]"; //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+    }
+
+    /**
+     * Returns the segment that contains the given number of bytes at the current position, or <code>null</code> if the
+     * bytes span two segments or the end of the mapped part of the file.
+     */
+    private ByteBuffer getSegment(int bytes) throws IOException
+    {
+      ByteBuffer segment = MappedFile.this.getSegment(position);
+      if (segment != null && getOffset(position) + bytes <= segment.limit())
+      {
+        return segment;
+      }
+
+      return null;
+    }
+  }
+}
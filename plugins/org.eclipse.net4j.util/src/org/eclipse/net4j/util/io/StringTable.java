@@ -0,0 +1,94 @@
+/*
+ * Copyright (c) 2016 Eike Stepper (Berlin, Germany) and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    Eike Stepper - initial API and implementation
+ */
+package org.eclipse.net4j.util.io;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A {@link StringIO} that writes each distinct string only once and replaces repetitions with small IDs.
+ * <p>
+ * Unlike a {@link StringCompressor} a string table does not depend on acknowledgements from the other side. The written
+ * data can therefore be read by any number of readers, but each string table must only be used for a single message
+ * on the writing side and a single message on the reading side. String tables are not thread-safe.
+ *
+ * @author Eike Stepper
+ * @since 3.7
+ */
+public class StringTable implements StringIO
+{
+  private static final int NULL_ID = 0;
+
+  private static final int STRING_FOLLOWS = 1;
+
+  private static final int FIRST_ID = 2;
+
+  private final Map<String, Integer> stringToID = new HashMap<String, Integer>();
+
+  private final List<String> idToString = new ArrayList<String>();
+
+  public StringTable()
+  {
+  }
+
+  public void write(ExtendedDataOutput out, String string) throws IOException
+  {
+    if (string == null)
+    {
+      out.writeVarInt(NULL_ID);
+      return;
+    }
+
+    Integer id = stringToID.get(string);
+    if (id != null)
+    {
+      out.writeVarInt(id);
+      return;
+    }
+
+    stringToID.put(string, FIRST_ID + stringToID.size());
+    out.writeVarInt(STRING_FOLLOWS);
+    out.writeString(string);
+  }
+
+  public String read(ExtendedDataInput in) throws IOException
+  {
+    int id = in.readVarInt();
+    if (id == NULL_ID)
+    {
+      return null;
+    }
+
+    if (id == STRING_FOLLOWS)
+    {
+      String string = in.readString();
+      idToString.add(string);
+      return string;
+    }
+
+    int index = id - FIRST_ID;
+    if (index < 0 || index >= idToString.size())
+    {
+      throw new IOException("Unknown string ID: " + id); //$NON-NLS-1$
+    }
+
+    return idToString.get(index);
+  }
+
+  @Override
+  public String toString()
+  {
+    return "StringTable[" + Math.max(stringToID.size(), idToString.size()) + "]"; //$NON-NLS-1$ //$NON-NLS-2$
+  }
+}
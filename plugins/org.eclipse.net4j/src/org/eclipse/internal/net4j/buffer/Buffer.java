@@ -30,6 +30,7 @@ import java.nio.ByteBuffer;
 import java.nio.channels.ClosedChannelException;
 import java.nio.channels.SocketChannel;
 import java.text.MessageFormat;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * @author Eike Stepper
@@ -45,9 +46,9 @@ public class Buffer implements InternalBuffer
 
   private static final ContextTracer TRACER = new ContextTracer(OM.DEBUG_BUFFER, Buffer.class);
 
-  private static int lastID;
+  private static final AtomicInteger lastID = new AtomicInteger();
 
-  private int id = ++lastID;
+  private int id = lastID.incrementAndGet();
 
   private IErrorHandler errorHandler;
 
@@ -67,6 +68,17 @@ public class Buffer implements InternalBuffer
     byteBuffer = ByteBuffer.allocateDirect(capacity);
   }
 
+  /**
+   * Creates a buffer that wraps the given, possibly shared, byte buffer instead of allocating its own one.
+   *
+   * @since 4.6
+   */
+  public Buffer(IBufferProvider provider, ByteBuffer byteBuffer)
+  {
+    bufferProvider = provider;
+    this.byteBuffer = byteBuffer;
+  }
+
   public boolean isEOS()
   {
     return (flags & FLAG_EOS) != 0;
@@ -316,58 +328,18 @@ public class Buffer implements InternalBuffer
   {
     try
     {
-      if (byteBuffer.position() == HEADER_SIZE)
+      if (startWriting() == null)
       {
-        clear();
         return true; // *Pretend* that this empty buffer has been written
       }
 
-      if (state != BufferState.PUTTING && state != BufferState.WRITING)
-      {
-        throw new IllegalStateException(toString());
-      }
-
-      if (state == BufferState.PUTTING)
-      {
-        if (channelID == NO_CHANNEL)
-        {
-          throw new IllegalStateException("channelID == NO_CHANNEL"); //$NON-NLS-1$
-        }
-
-        int payloadSize = byteBuffer.position() - IBuffer.HEADER_SIZE + MAKE_PAYLOAD_SIZE_NON_ZERO;
-
-        boolean eos = isEOS();
-        if (eos)
-        {
-          payloadSize = -payloadSize;
-        }
-
-        if (TRACER.isEnabled())
-        {
-          TRACER.trace("Writing " + (Math.abs(payloadSize) - 1) + " bytes" //$NON-NLS-1$ //$NON-NLS-2$
-              + (eos ? " (EOS)" : "") + StringUtil.NL + formatContent(false)); //$NON-NLS-1$ //$NON-NLS-2$
-        }
-
-        byteBuffer.flip();
-        byteBuffer.putShort(channelID);
-        byteBuffer.putShort((short)payloadSize);
-        byteBuffer.position(0);
-        state = BufferState.WRITING;
-      }
-
       int numBytes = socketChannel.write(byteBuffer);
       if (numBytes == -1)
       {
         throw new IOException("Channel closed"); //$NON-NLS-1$
       }
 
-      if (byteBuffer.hasRemaining())
-      {
-        return false;
-      }
-
-      clear();
-      return true;
+      return finishWriting();
     }
     catch (IOException ex)
     {
@@ -386,6 +358,74 @@ public class Buffer implements InternalBuffer
     }
   }
 
+  /**
+   * Prepares this buffer for being written to a channel, i.e., writes the header on the first call.
+   * Used by multiplexers that combine several buffers in a single gathering write.
+   *
+   * @return the byte buffer to be written, or <code>null</code> if this buffer is empty and has been cleared.
+   * @see #finishWriting()
+   */
+  public ByteBuffer startWriting() throws IllegalStateException
+  {
+    if (state == BufferState.PUTTING && byteBuffer.position() == HEADER_SIZE)
+    {
+      clear();
+      return null;
+    }
+
+    if (state != BufferState.PUTTING && state != BufferState.WRITING)
+    {
+      throw new IllegalStateException(toString());
+    }
+
+    if (state == BufferState.PUTTING)
+    {
+      if (channelID == NO_CHANNEL)
+      {
+        throw new IllegalStateException("channelID == NO_CHANNEL"); //$NON-NLS-1$
+      }
+
+      int payloadSize = byteBuffer.position() - IBuffer.HEADER_SIZE + MAKE_PAYLOAD_SIZE_NON_ZERO;
+
+      boolean eos = isEOS();
+      if (eos)
+      {
+        payloadSize = -payloadSize;
+      }
+
+      if (TRACER.isEnabled())
+      {
+        TRACER.trace("Writing " + (Math.abs(payloadSize) - 1) + " bytes" //$NON-NLS-1$ //$NON-NLS-2$
+            + (eos ? " (EOS)" : "") + StringUtil.NL + formatContent(false)); //$NON-NLS-1$ //$NON-NLS-2$
+      }
+
+      byteBuffer.flip();
+      byteBuffer.putShort(channelID);
+      byteBuffer.putShort((short)payloadSize);
+      byteBuffer.position(0);
+      state = BufferState.WRITING;
+    }
+
+    return byteBuffer;
+  }
+
+  /**
+   * Clears this buffer if it has been completely written.
+   *
+   * @return <code>true</code> if the buffer has been completely written, <code>false</code> otherwise.
+   * @see #startWriting()
+   */
+  public boolean finishWriting()
+  {
+    if (byteBuffer.hasRemaining())
+    {
+      return false;
+    }
+
+    clear();
+    return true;
+  }
+
   public void flip()
   {
     try
@@ -27,6 +27,7 @@ import java.lang.ref.SoftReference;
 import java.text.MessageFormat;
 import java.util.Queue;
 import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * @author Eike Stepper
@@ -37,7 +38,7 @@ public class BufferPool extends BufferProvider implements IBufferPool.Introspect
 
   private final IBufferProvider provider;
 
-  private int pooledBuffers;
+  private final AtomicInteger pooledBuffers = new AtomicInteger();
 
   @ExcludeFromDump
   private final Queue<BufferRef> buffers = new ConcurrentLinkedQueue<BufferRef>();
@@ -56,7 +57,7 @@ public class BufferPool extends BufferProvider implements IBufferPool.Introspect
     {
       if (buffers.remove(reference))
       {
-        --pooledBuffers;
+        pooledBuffers.decrementAndGet();
         if (TRACER.isEnabled())
         {
           TRACER.trace("Collected buffer"); //$NON-NLS-1$
@@ -83,7 +84,7 @@ public class BufferPool extends BufferProvider implements IBufferPool.Introspect
 
   public int getPooledBuffers()
   {
-    return pooledBuffers;
+    return pooledBuffers.get();
   }
 
   public boolean evictOne()
@@ -105,7 +106,7 @@ public class BufferPool extends BufferProvider implements IBufferPool.Introspect
         }
 
         provider.retainBuffer(buffer);
-        --pooledBuffers;
+        pooledBuffers.decrementAndGet();
         return true;
       }
     }
@@ -114,7 +115,7 @@ public class BufferPool extends BufferProvider implements IBufferPool.Introspect
   public int evict(int survivors)
   {
     int evictedBuffers = 0;
-    while (pooledBuffers > survivors)
+    while (pooledBuffers.get() > survivors)
     {
       if (evictOne())
       {
@@ -157,7 +158,7 @@ public class BufferPool extends BufferProvider implements IBufferPool.Introspect
     }
     else
     {
-      --pooledBuffers;
+      pooledBuffers.decrementAndGet();
     }
 
     buffer.clear();
@@ -184,7 +185,7 @@ public class BufferPool extends BufferProvider implements IBufferPool.Introspect
 
     BufferRef bufferRef = createBufferRef(buffer);
     buffers.add(bufferRef);
-    ++pooledBuffers;
+    pooledBuffers.incrementAndGet();
   }
 
   /**
@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2007, 2008, 2010-2012 Eike Stepper (Berlin, Germany) and others.
+ * Copyright (c) 2007, 2008, 2010-2012, 2016 Eike Stepper (Berlin, Germany) and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -16,6 +16,8 @@ import org.eclipse.net4j.util.event.Event;
 import org.eclipse.net4j.util.event.IListener;
 import org.eclipse.net4j.util.event.Notifier;
 
+import java.util.concurrent.atomic.AtomicLong;
+
 /**
  * @author Eike Stepper
  */
@@ -23,9 +25,9 @@ public abstract class BufferProvider extends Notifier implements IBufferProvider
 {
   private short bufferCapacity;
 
-  private long providedBuffers;
+  private final AtomicLong providedBuffers = new AtomicLong();
 
-  private long retainedBuffers;
+  private final AtomicLong retainedBuffers = new AtomicLong();
 
   public BufferProvider(short bufferCapacity)
   {
@@ -34,12 +36,12 @@ public abstract class BufferProvider extends Notifier implements IBufferProvider
 
   public final long getProvidedBuffers()
   {
-    return providedBuffers;
+    return providedBuffers.get();
   }
 
   public final long getRetainedBuffers()
   {
-    return retainedBuffers;
+    return retainedBuffers.get();
   }
 
   public final short getBufferCapacity()
@@ -50,7 +52,7 @@ public abstract class BufferProvider extends Notifier implements IBufferProvider
   public final IBuffer provideBuffer()
   {
     IBuffer buffer = doProvideBuffer();
-    ++providedBuffers;
+    providedBuffers.incrementAndGet();
 
     IListener[] listeners = getListeners();
     if (listeners != null)
@@ -70,7 +72,7 @@ public abstract class BufferProvider extends Notifier implements IBufferProvider
     }
 
     doRetainBuffer(buffer);
-    ++retainedBuffers;
+    retainedBuffers.incrementAndGet();
   }
 
   @Override
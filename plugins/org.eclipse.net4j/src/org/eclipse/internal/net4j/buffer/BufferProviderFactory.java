@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2007-2009, 2011, 2012, 2015 Eike Stepper (Berlin, Germany) and others.
+ * Copyright (c) 2007-2009, 2011, 2012, 2015, 2016 Eike Stepper (Berlin, Germany) and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -33,6 +33,11 @@ public class BufferProviderFactory extends Factory
 
   public IBufferProvider create(String description)
   {
+    if (SlabBufferPool.DEFAULT_MAXIMUM_SLABS > 0)
+    {
+      return Net4jUtil.createSlabBufferPool(BUFFER_CAPACITY);
+    }
+
     return Net4jUtil.createBufferPool(BUFFER_CAPACITY);
   }
 
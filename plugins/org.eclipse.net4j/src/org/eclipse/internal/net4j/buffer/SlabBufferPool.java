@@ -0,0 +1,458 @@
+/*
+ * Copyright (c) 2016 Eike Stepper (Berlin, Germany) and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    Eike Stepper - initial API and implementation
+ */
+package org.eclipse.internal.net4j.buffer;
+
+import org.eclipse.net4j.buffer.IBuffer;
+import org.eclipse.net4j.buffer.IBufferPool;
+import org.eclipse.net4j.util.ReflectUtil.ExcludeFromDump;
+import org.eclipse.net4j.util.concurrent.TimeoutRuntimeException;
+import org.eclipse.net4j.util.om.OMPlatform;
+import org.eclipse.net4j.util.om.trace.ContextTracer;
+
+import org.eclipse.internal.net4j.bundle.OM;
+
+import java.nio.ByteBuffer;
+import java.text.MessageFormat;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A {@link IBufferPool buffer pool} that carves its buffers out of large, pre-allocated direct {@link ByteBuffer slabs}.
+ * <p>
+ * The number of slabs is limited by a hard ceiling. When all buffers of all slabs are in use
+ * {@link #provideBuffer()} blocks until another thread retains a buffer or until the provide timeout expires, in which
+ * case a {@link TimeoutRuntimeException} is thrown. This applies back-pressure to the threads that fill channel buffers.
+ * {@link #setIOThread(boolean) I/O threads} are never blocked, because they are often the ones that retain buffers;
+ * they are provided with an unpooled heap buffer instead, which is discarded when it is retained. Heap buffers are
+ * reclaimed by the garbage collector, so an exhausted pool never makes I/O threads allocate direct memory beyond
+ * the ceiling of the slabs; the number of unpooled buffers in use is reported by {@link #getUnpooledBuffers()}.
+ * <p>
+ * Free buffers are kept in a number of lock-free stripes that are selected by the calling thread, so that concurrent
+ * threads usually don't contend for the same free list.
+ * <p>
+ * Slab memory is never returned to the system, hence {@link #evictOne()} and {@link #evict(int)} do nothing.
+ *
+ * @author Eike Stepper
+ * @since 4.6
+ */
+public class SlabBufferPool extends BufferProvider implements IBufferPool.Introspection
+{
+  public static final int DEFAULT_SLAB_BUFFERS = Integer
+      .parseInt(OMPlatform.INSTANCE.getProperty("org.eclipse.net4j.buffer.SLAB_BUFFERS", "256")); //$NON-NLS-1$ //$NON-NLS-2$
+
+  /**
+   * The default maximum number of slabs. A value of zero disables slab buffer pools in the
+   * {@link BufferProviderFactory}.
+   */
+  public static final int DEFAULT_MAXIMUM_SLABS = Integer
+      .parseInt(OMPlatform.INSTANCE.getProperty("org.eclipse.net4j.buffer.MAXIMUM_SLABS", "0")); //$NON-NLS-1$ //$NON-NLS-2$
+
+  public static final long DEFAULT_PROVIDE_TIMEOUT = Long
+      .parseLong(OMPlatform.INSTANCE.getProperty("org.eclipse.net4j.buffer.PROVIDE_TIMEOUT", "30000")); //$NON-NLS-1$ //$NON-NLS-2$
+
+  private static final ContextTracer TRACER = new ContextTracer(OM.DEBUG_BUFFER, SlabBufferPool.class);
+
+  private static final ThreadLocal<Boolean> IO_THREAD = new ThreadLocal<Boolean>();
+
+  private final int slabBuffers;
+
+  private final int maximumSlabs;
+
+  private long provideTimeout = DEFAULT_PROVIDE_TIMEOUT;
+
+  @ExcludeFromDump
+  private final List<ByteBuffer> slabs = new ArrayList<ByteBuffer>();
+
+  @ExcludeFromDump
+  private final Stripe[] stripes;
+
+  private final int stripeMask;
+
+  private final AtomicInteger pooledBuffers = new AtomicInteger();
+
+  private final AtomicInteger allocatedBuffers = new AtomicInteger();
+
+  private final AtomicInteger unpooledBuffers = new AtomicInteger();
+
+  private final Object waitLock = new Object();
+
+  private volatile int waiters;
+
+  public SlabBufferPool(short bufferCapacity, int slabBuffers, int maximumSlabs)
+  {
+    super(bufferCapacity);
+    if (slabBuffers <= 0)
+    {
+      throw new IllegalArgumentException("slabBuffers <= 0"); //$NON-NLS-1$
+    }
+
+    if (maximumSlabs <= 0)
+    {
+      throw new IllegalArgumentException("maximumSlabs <= 0"); //$NON-NLS-1$
+    }
+
+    if ((long)bufferCapacity * slabBuffers > Integer.MAX_VALUE)
+    {
+      throw new IllegalArgumentException("bufferCapacity * slabBuffers > Integer.MAX_VALUE"); //$NON-NLS-1$
+    }
+
+    this.slabBuffers = slabBuffers;
+    this.maximumSlabs = maximumSlabs;
+
+    int count = 1;
+    while (count < 2 * Runtime.getRuntime().availableProcessors())
+    {
+      count <<= 1;
+    }
+
+    stripes = new Stripe[count];
+    for (int i = 0; i < count; i++)
+    {
+      stripes[i] = new Stripe();
+    }
+
+    stripeMask = count - 1;
+  }
+
+  public SlabBufferPool(short bufferCapacity)
+  {
+    this(bufferCapacity, DEFAULT_SLAB_BUFFERS, Math.max(1, DEFAULT_MAXIMUM_SLABS));
+  }
+
+  public int getSlabBuffers()
+  {
+    return slabBuffers;
+  }
+
+  public int getMaximumSlabs()
+  {
+    return maximumSlabs;
+  }
+
+  public int getMaximumBuffers()
+  {
+    return slabBuffers * maximumSlabs;
+  }
+
+  public int getSlabs()
+  {
+    synchronized (slabs)
+    {
+      return slabs.size();
+    }
+  }
+
+  /**
+   * Returns the number of buffers that have been carved out of the slabs so far.
+   */
+  public int getAllocatedBuffers()
+  {
+    return allocatedBuffers.get();
+  }
+
+  public int getPooledBuffers()
+  {
+    return pooledBuffers.get();
+  }
+
+  /**
+   * Returns the number of buffers that are currently provided to and not yet retained by the users of this pool.
+   */
+  public int getUsedBuffers()
+  {
+    return allocatedBuffers.get() - pooledBuffers.get();
+  }
+
+  /**
+   * Returns the number of unpooled heap buffers that have been provided to {@link #setIOThread(boolean) I/O threads},
+   * because all buffers of all slabs were in use, and that have not been retained yet.
+   */
+  public int getUnpooledBuffers()
+  {
+    return unpooledBuffers.get();
+  }
+
+  public long getProvideTimeout()
+  {
+    return provideTimeout;
+  }
+
+  /**
+   * Sets the number of milliseconds that {@link #provideBuffer()} waits for a buffer to be retained when all buffers are
+   * in use. A value of zero or less means to wait without a timeout.
+   */
+  public void setProvideTimeout(long provideTimeout)
+  {
+    this.provideTimeout = provideTimeout;
+  }
+
+  public boolean evictOne()
+  {
+    return false;
+  }
+
+  public int evict(int survivors)
+  {
+    return 0;
+  }
+
+  @Override
+  public String toString()
+  {
+    return MessageFormat.format("SlabBufferPool[{0}]", getBufferCapacity()); //$NON-NLS-1$
+  }
+
+  @Override
+  protected IBuffer doProvideBuffer()
+  {
+    IBuffer buffer = pollBuffer();
+    if (buffer == null)
+    {
+      buffer = allocateSlab();
+      if (buffer == null)
+      {
+        buffer = isIOThread() ? allocateUnpooledBuffer() : awaitBuffer();
+      }
+    }
+
+    buffer.clear();
+    if (TRACER.isEnabled())
+    {
+      TRACER.trace("Obtained " + buffer); //$NON-NLS-1$
+    }
+
+    return buffer;
+  }
+
+  @Override
+  protected void doRetainBuffer(IBuffer buffer)
+  {
+    if (buffer.getBufferProvider() != this)
+    {
+      throw new IllegalArgumentException("buffer.getBufferProvider() != this"); //$NON-NLS-1$
+    }
+
+    if (buffer instanceof UnpooledBuffer)
+    {
+      unpooledBuffers.decrementAndGet();
+      if (TRACER.isEnabled())
+      {
+        TRACER.trace("Discarding " + buffer); //$NON-NLS-1$
+      }
+
+      return;
+    }
+
+    if (TRACER.isEnabled())
+    {
+      TRACER.trace("Retaining " + buffer); //$NON-NLS-1$
+    }
+
+    offerBuffer(buffer);
+
+    if (waiters != 0)
+    {
+      synchronized (waitLock)
+      {
+        waitLock.notify();
+      }
+    }
+  }
+
+  private IBuffer pollBuffer()
+  {
+    int index = getStripeIndex();
+    for (int i = 0; i <= stripeMask; i++)
+    {
+      IBuffer buffer = stripes[(index + i) & stripeMask].poll();
+      if (buffer != null)
+      {
+        pooledBuffers.decrementAndGet();
+        return buffer;
+      }
+    }
+
+    return null;
+  }
+
+  private void offerBuffer(IBuffer buffer)
+  {
+    pooledBuffers.incrementAndGet();
+    stripes[getStripeIndex()].offer(buffer);
+  }
+
+  private int getStripeIndex()
+  {
+    return (int)Thread.currentThread().getId() & stripeMask;
+  }
+
+  private IBuffer allocateSlab()
+  {
+    short bufferCapacity = getBufferCapacity();
+    ByteBuffer slab;
+
+    synchronized (slabs)
+    {
+      if (slabs.size() >= maximumSlabs)
+      {
+        return null;
+      }
+
+      slab = ByteBuffer.allocateDirect(bufferCapacity * slabBuffers);
+      slabs.add(slab);
+    }
+
+    if (TRACER.isEnabled())
+    {
+      TRACER.format("Allocated slab of {0} buffers", slabBuffers); //$NON-NLS-1$
+    }
+
+    IBuffer result = null;
+
+    for (int i = 0; i < slabBuffers; i++)
+    {
+      slab.limit((i + 1) * bufferCapacity);
+      slab.position(i * bufferCapacity);
+
+      IBuffer buffer = new Buffer(this, slab.slice());
+      allocatedBuffers.incrementAndGet();
+
+      if (result == null)
+      {
+        result = buffer;
+      }
+      else
+      {
+        offerBuffer(buffer);
+      }
+    }
+
+    if (waiters != 0)
+    {
+      synchronized (waitLock)
+      {
+        waitLock.notifyAll();
+      }
+    }
+
+    return result;
+  }
+
+  private IBuffer allocateUnpooledBuffer()
+  {
+    if (TRACER.isEnabled())
+    {
+      TRACER.trace("Allocating unpooled heap buffer for I/O thread"); //$NON-NLS-1$
+    }
+
+    unpooledBuffers.incrementAndGet();
+    return new UnpooledBuffer(this, getBufferCapacity());
+  }
+
+  private IBuffer awaitBuffer()
+  {
+    long timeout = provideTimeout;
+    long end = timeout > 0 ? System.currentTimeMillis() + timeout : Long.MAX_VALUE;
+
+    synchronized (waitLock)
+    {
+      ++waiters;
+
+      try
+      {
+        for (;;)
+        {
+          IBuffer buffer = pollBuffer();
+          if (buffer != null)
+          {
+            return buffer;
+          }
+
+          long remaining = end - System.currentTimeMillis();
+          if (remaining <= 0)
+          {
+            throw new TimeoutRuntimeException(
+                MessageFormat.format("No buffer retained to {0} within {1} milliseconds", this, timeout)); //$NON-NLS-1$
+          }
+
+          if (TRACER.isEnabled())
+          {
+            TRACER.trace("Waiting for a buffer to be retained"); //$NON-NLS-1$
+          }
+
+          try
+          {
+            waitLock.wait(remaining);
+          }
+          catch (InterruptedException ex)
+          {
+            Thread.currentThread().interrupt();
+            throw new TimeoutRuntimeException(ex);
+          }
+        }
+      }
+      finally
+      {
+        --waiters;
+      }
+    }
+  }
+
+  /**
+   * Returns <code>true</code> if the calling thread has been marked as an {@link #setIOThread(boolean) I/O thread},
+   * <code>false</code> otherwise.
+   */
+  public static boolean isIOThread()
+  {
+    return IO_THREAD.get() == Boolean.TRUE;
+  }
+
+  /**
+   * Marks or unmarks the calling thread as an I/O thread, e.g., a socket selector thread. Slab buffer pools never block
+   * I/O threads when all buffers are in use, because the buffers are often retained by these threads.
+   */
+  public static void setIOThread(boolean ioThread)
+  {
+    if (ioThread)
+    {
+      IO_THREAD.set(Boolean.TRUE);
+    }
+    else
+    {
+      IO_THREAD.remove();
+    }
+  }
+
+  /**
+   * A lock-free free list of buffers.
+   *
+   * @author Eike Stepper
+   */
+  private static final class Stripe extends ConcurrentLinkedQueue<IBuffer>
+  {
+    private static final long serialVersionUID = 1L;
+  }
+
+  /**
+   * A heap buffer that does not belong to a slab and is discarded when it is retained.
+   *
+   * @author Eike Stepper
+   */
+  private static final class UnpooledBuffer extends Buffer
+  {
+    public UnpooledBuffer(SlabBufferPool bufferPool, short capacity)
+    {
+      super(bufferPool, ByteBuffer.allocate(capacity));
+    }
+  }
+}
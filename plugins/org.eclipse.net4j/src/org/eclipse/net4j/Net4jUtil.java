@@ -29,6 +29,7 @@ import org.eclipse.internal.net4j.TransportConfig;
 import org.eclipse.internal.net4j.buffer.BufferFactory;
 import org.eclipse.internal.net4j.buffer.BufferPool;
 import org.eclipse.internal.net4j.buffer.BufferProviderFactory;
+import org.eclipse.internal.net4j.buffer.SlabBufferPool;
 
 import org.eclipse.spi.net4j.AcceptorFactory;
 import org.eclipse.spi.net4j.ConnectorFactory;
@@ -144,6 +145,29 @@ public final class Net4jUtil
     return createBufferPool(createBufferFactory());
   }
 
+  /**
+   * Creates a buffer pool that carves its buffers out of direct slabs of <code>slabBuffers</code> buffers each and
+   * that never allocates more than <code>maximumSlabs</code> slabs. When all buffers are in use
+   * {@link IBufferProvider#provideBuffer() provideBuffer()} blocks until a buffer is retained, or throws a
+   * {@link org.eclipse.net4j.util.concurrent.TimeoutRuntimeException TimeoutRuntimeException} when the provide timeout
+   * expires. I/O threads are never blocked; they are provided with unpooled heap buffers that are discarded when they
+   * are retained, so that the direct memory of the pool stays bounded.
+   *
+   * @since 4.6
+   */
+  public static IBufferPool createSlabBufferPool(short bufferCapacity, int slabBuffers, int maximumSlabs)
+  {
+    return new SlabBufferPool(bufferCapacity, slabBuffers, maximumSlabs);
+  }
+
+  /**
+   * @since 4.6
+   */
+  public static IBufferPool createSlabBufferPool(short bufferCapacity)
+  {
+    return new SlabBufferPool(bufferCapacity);
+  }
+
   public static long getProvidedBuffers(IBufferProvider bufferProvider)
   {
     if (bufferProvider instanceof IBufferProvider.Introspection)
@@ -22,6 +22,7 @@ import org.eclipse.internal.net4j.bundle.OM;
 import java.io.IOException;
 import java.io.InputStream;
 import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.TimeUnit;
@@ -29,6 +30,9 @@ import java.util.concurrent.TimeUnit;
 /**
  * A {@link IBufferHandler buffer handler} that defragments the passed {@link IBuffer buffers} into a continuous byte
  * sequence which is exposed as an {@link InputStream input stream}.
+ * <p>
+ * Byte arrays are read from the buffers in bulk, and the buffers can be {@link #transferTo(WritableByteChannel, long)
+ * written} to a channel directly.
  *
  * @author Eike Stepper
  */
@@ -165,6 +169,91 @@ public class BufferInputStream extends InputStream implements IBufferHandler
     return result;
   }
 
+  @Override
+  public int read(byte[] b, int off, int len) throws IOException
+  {
+    if (tracerEnabled)
+    {
+      // Trace byte by byte
+      return super.read(b, off, len);
+    }
+
+    if (off < 0 || len < 0 || len > b.length - off)
+    {
+      throw new IndexOutOfBoundsException();
+    }
+
+    if (len == 0)
+    {
+      return 0;
+    }
+
+    // Like InputStream.read(byte[], int, int) fill the array until the end of the stream is reached
+    int bytesRead = 0;
+    while (bytesRead < len)
+    {
+      ByteBuffer byteBuffer = getRemainingByteBuffer();
+      if (byteBuffer == null)
+      {
+        break;
+      }
+
+      int bytesToCopy = Math.min(len - bytesRead, byteBuffer.remaining());
+      byteBuffer.get(b, off + bytesRead, bytesToCopy);
+      bytesRead += bytesToCopy;
+
+      releaseIfConsumed(byteBuffer);
+    }
+
+    return bytesRead == 0 ? IOUtil.EOF : bytesRead;
+  }
+
+  /**
+   * Writes the next <code>count</code> bytes of this stream to the given channel, directly from the received buffers.
+   *
+   * @return the number of bytes transferred, less than <code>count</code> only if the end of the stream has been
+   *         reached.
+   * @since 4.6
+   */
+  public long transferTo(WritableByteChannel channel, long count) throws IOException
+  {
+    long transferred = 0;
+    while (transferred < count)
+    {
+      ByteBuffer byteBuffer = getRemainingByteBuffer();
+      if (byteBuffer == null)
+      {
+        break;
+      }
+
+      int bytesToWrite = (int)Math.min(count - transferred, byteBuffer.remaining());
+      int limit = byteBuffer.limit();
+      byteBuffer.limit(byteBuffer.position() + bytesToWrite);
+
+      try
+      {
+        while (byteBuffer.hasRemaining())
+        {
+          channel.write(byteBuffer);
+        }
+      }
+      finally
+      {
+        byteBuffer.limit(limit);
+      }
+
+      if (tracerEnabled)
+      {
+        TRACER.trace("<-- " + bytesToWrite + " bytes to " + channel); //$NON-NLS-1$ //$NON-NLS-2$
+      }
+
+      transferred += bytesToWrite;
+      releaseIfConsumed(byteBuffer);
+    }
+
+    return transferred;
+  }
+
   @Override
   public void close() throws IOException
   {
@@ -184,6 +273,40 @@ public class BufferInputStream extends InputStream implements IBufferHandler
     return "BufferInputStream"; //$NON-NLS-1$
   }
 
+  /**
+   * Returns the byte buffer of the current buffer if it has remaining bytes, or <code>null</code> at the end of the
+   * stream.
+   */
+  private ByteBuffer getRemainingByteBuffer() throws IOException
+  {
+    if (currentBuffer == null)
+    {
+      if (eos || !ensureBuffer())
+      {
+        // End of stream, timeout or interrupt
+        return null;
+      }
+    }
+
+    ByteBuffer byteBuffer = currentBuffer.getByteBuffer();
+    if (!byteBuffer.hasRemaining())
+    {
+      // End of stream
+      return null;
+    }
+
+    return byteBuffer;
+  }
+
+  private void releaseIfConsumed(ByteBuffer byteBuffer)
+  {
+    if (!byteBuffer.hasRemaining())
+    {
+      currentBuffer.release();
+      currentBuffer = null;
+    }
+  }
+
   protected boolean ensureBuffer() throws IOException
   {
     final long check = getMillisInterruptCheck();
@@ -14,6 +14,7 @@ package org.eclipse.net4j.buffer;
 import org.eclipse.net4j.util.HexUtil;
 import org.eclipse.net4j.util.IErrorHandler;
 import org.eclipse.net4j.util.ReflectUtil.ExcludeFromDump;
+import org.eclipse.net4j.util.io.IByteBufferOutput;
 import org.eclipse.net4j.util.io.IORuntimeException;
 import org.eclipse.net4j.util.lifecycle.LifecycleUtil;
 import org.eclipse.net4j.util.om.trace.ContextTracer;
@@ -23,14 +24,18 @@ import org.eclipse.internal.net4j.bundle.OM;
 import java.io.IOException;
 import java.io.OutputStream;
 import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 
 /**
  * An {@link OutputStream output stream} that fragments the written byte sequence into fixed-sized {@link IBuffer
  * buffers} and passes them to configured {@link IBufferHandler buffer handler}.
+ * <p>
+ * Byte arrays, {@link ByteBuffer byte buffers} and {@link FileChannel file channel} regions are written into the
+ * buffers in bulk.
  *
  * @author Eike Stepper
  */
-public class BufferOutputStream extends OutputStream
+public class BufferOutputStream extends OutputStream implements IByteBufferOutput
 {
   public static final boolean DEFAULT_PROPAGATE_CLOSE = false;
 
@@ -118,6 +123,84 @@ public class BufferOutputStream extends OutputStream
     buffer.put((byte)b);
   }
 
+  @Override
+  public void write(byte[] b, int off, int len) throws IOException
+  {
+    if (tracerEnabled)
+    {
+      // Trace byte by byte
+      super.write(b, off, len);
+      return;
+    }
+
+    if (off < 0 || len < 0 || len > b.length - off)
+    {
+      throw new IndexOutOfBoundsException();
+    }
+
+    while (len > 0)
+    {
+      ByteBuffer buffer = provideByteBuffer();
+      int bytesToCopy = Math.min(len, buffer.remaining());
+      buffer.put(b, off, bytesToCopy);
+      off += bytesToCopy;
+      len -= bytesToCopy;
+    }
+  }
+
+  /**
+   * @since 4.6
+   */
+  public void write(ByteBuffer source) throws IOException
+  {
+    if (tracerEnabled)
+    {
+      TRACER.trace("--> " + source.remaining() + " bytes"); //$NON-NLS-1$ //$NON-NLS-2$
+    }
+
+    while (source.hasRemaining())
+    {
+      ByteBuffer buffer = provideByteBuffer();
+      int bytesToCopy = Math.min(source.remaining(), buffer.remaining());
+
+      int limit = source.limit();
+      source.limit(source.position() + bytesToCopy);
+      buffer.put(source);
+      source.limit(limit);
+    }
+  }
+
+  /**
+   * Reads up to <code>count</code> bytes from the given channel directly into the current buffer. At most one buffer
+   * is filled per call.
+   *
+   * @since 4.6
+   */
+  public long transferFrom(FileChannel channel, long position, long count) throws IOException
+  {
+    ByteBuffer buffer = provideByteBuffer();
+    int limit = buffer.limit();
+    if (count < buffer.remaining())
+    {
+      buffer.limit(buffer.position() + (int)count);
+    }
+
+    try
+    {
+      int bytesRead = channel.read(buffer, position);
+      if (tracerEnabled)
+      {
+        TRACER.trace("--> " + bytesRead + " bytes from " + channel); //$NON-NLS-1$ //$NON-NLS-2$
+      }
+
+      return bytesRead;
+    }
+    finally
+    {
+      buffer.limit(limit);
+    }
+  }
+
   /**
    * Flushes the current buffer, it's handled over to the buffer handler.
    *
@@ -211,6 +294,17 @@ public class BufferOutputStream extends OutputStream
     ensureBufferPrivate();
   }
 
+  /**
+   * Returns the byte buffer of the current buffer, with at least one byte remaining.
+   */
+  private ByteBuffer provideByteBuffer() throws IOException
+  {
+    throwExceptionOnError();
+    flushIfFilled();
+    ensureBufferPrivate();
+    return currentBuffer.getByteBuffer();
+  }
+
   private void ensureBufferPrivate()
   {
     if (currentBuffer == null)
@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2008, 2011, 2012, 2015 Eike Stepper (Berlin, Germany) and others.
+ * Copyright (c) 2008, 2011, 2012, 2015, 2016 Eike Stepper (Berlin, Germany) and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -76,6 +76,19 @@ public class ChannelInputStream extends BufferInputStream
 
   @Override
   public int read() throws IOException
+  {
+    closeChannelIfCCAM();
+    return super.read();
+  }
+
+  @Override
+  public int read(byte[] b, int off, int len) throws IOException
+  {
+    closeChannelIfCCAM();
+    return super.read(b, off, len);
+  }
+
+  private void closeChannelIfCCAM()
   {
     if (isCCAM())
     {
@@ -89,8 +102,6 @@ public class ChannelInputStream extends BufferInputStream
         }
       });
     }
-
-    return super.read();
   }
 
   @Override